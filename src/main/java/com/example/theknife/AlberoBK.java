@@ -0,0 +1,194 @@
+package com.example.theknife;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BK-tree (Burkhard-Keller) sui termini del catalogo, usato per la ricerca tollerante agli errori di battitura.
+ * <p>
+ * Ogni nodo contiene un termine e l'insieme delle chiavi (ad es. i nomi dei ristoranti) in cui il termine compare.
+ * I figli sono indicizzati per distanza di Levenshtein dal termine del nodo: grazie alla disuguaglianza
+ * triangolare, una ricerca con distanza massima {@code k} visita solo i figli con etichetta in
+ * {@code [d - k, d + k]}, scartando la quasi totalità del dizionario.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class AlberoBK {
+
+    /**
+     * Termine trovato da una ricerca, con la sua distanza dalla parola cercata.
+     *
+     * @param termine  termine presente nel dizionario
+     * @param distanza distanza di Levenshtein dalla parola cercata
+     * @param chiavi   chiavi associate al termine
+     */
+    public record Corrispondenza(String termine, int distanza, Set<String> chiavi) {}
+
+    private static final class Nodo {
+        private final String termine;
+        private final Set<String> chiavi = new HashSet<>();
+        private Map<Integer, Nodo> figli;
+
+        private Nodo(String termine) {
+            this.termine = termine;
+        }
+    }
+
+    private Nodo radice;
+    private int numeroTermini;
+
+    /**
+     * Inserisce un termine associandolo a una chiave. Se il termine esiste già,
+     * la chiave viene aggiunta al suo insieme.
+     *
+     * @param termine termine normalizzato da inserire
+     * @param chiave  chiave da associare al termine
+     */
+    public void inserisci(String termine, String chiave) {
+        if (termine == null || termine.isEmpty()) return;
+        if (radice == null) {
+            radice = new Nodo(termine);
+            radice.chiavi.add(chiave);
+            numeroTermini++;
+            return;
+        }
+        Nodo corrente = radice;
+        while (true) {
+            int distanza = distanza(termine, corrente.termine);
+            if (distanza == 0) {
+                if (corrente.chiavi.isEmpty()) {
+                    numeroTermini++;
+                }
+                corrente.chiavi.add(chiave);
+                return;
+            }
+            if (corrente.figli == null) {
+                corrente.figli = new HashMap<>(4);
+            }
+            Nodo figlio = corrente.figli.get(distanza);
+            if (figlio == null) {
+                figlio = new Nodo(termine);
+                figlio.chiavi.add(chiave);
+                corrente.figli.put(distanza, figlio);
+                numeroTermini++;
+                return;
+            }
+            corrente = figlio;
+        }
+    }
+
+    /**
+     * Rimuove l'associazione tra un termine e una chiave. Il nodo del termine resta nell'albero per
+     * non spezzare i percorsi verso i suoi figli, ma senza chiavi non viene più restituito dalle ricerche.
+     *
+     * @param termine termine normalizzato
+     * @param chiave  chiave da dissociare dal termine
+     */
+    public void rimuovi(String termine, String chiave) {
+        if (termine == null || termine.isEmpty()) return;
+        Nodo corrente = radice;
+        while (corrente != null) {
+            int distanza = distanza(termine, corrente.termine);
+            if (distanza == 0) {
+                if (corrente.chiavi.remove(chiave) && corrente.chiavi.isEmpty()) {
+                    numeroTermini--;
+                }
+                return;
+            }
+            corrente = corrente.figli == null ? null : corrente.figli.get(distanza);
+        }
+    }
+
+    /**
+     * Cerca tutti i termini entro la distanza massima indicata.
+     *
+     * @param parola          parola normalizzata da cercare
+     * @param distanzaMassima distanza di Levenshtein massima ammessa
+     * @return corrispondenze trovate, in ordine non specificato
+     */
+    public List<Corrispondenza> cerca(String parola, int distanzaMassima) {
+        List<Corrispondenza> risultati = new ArrayList<>();
+        if (radice == null || parola == null || parola.isEmpty()) return risultati;
+
+        Deque<Nodo> daVisitare = new ArrayDeque<>();
+        daVisitare.push(radice);
+        while (!daVisitare.isEmpty()) {
+            Nodo nodo = daVisitare.pop();
+            int distanza = distanza(parola, nodo.termine);
+            if (distanza <= distanzaMassima && !nodo.chiavi.isEmpty()) {
+                risultati.add(new Corrispondenza(nodo.termine, distanza, nodo.chiavi));
+            }
+            if (nodo.figli != null) {
+                int da = distanza - distanzaMassima;
+                int a = distanza + distanzaMassima;
+                for (Map.Entry<Integer, Nodo> figlio : nodo.figli.entrySet()) {
+                    int etichetta = figlio.getKey();
+                    if (etichetta >= da && etichetta <= a) {
+                        daVisitare.push(figlio.getValue());
+                    }
+                }
+            }
+        }
+        return risultati;
+    }
+
+    /**
+     * Restituisce il numero di termini distinti presenti nell'albero.
+     *
+     * @return numero di termini
+     */
+    public int getNumeroTermini() {
+        return numeroTermini;
+    }
+
+    /**
+     * Svuota l'albero.
+     */
+    public void svuota() {
+        radice = null;
+        numeroTermini = 0;
+    }
+
+    /**
+     * Calcola la distanza di Levenshtein tra due stringhe usando due sole righe della matrice.
+     *
+     * @param a prima stringa
+     * @param b seconda stringa
+     * @return numero minimo di inserimenti, cancellazioni e sostituzioni
+     */
+    static int distanza(String a, String b) {
+        if (a.equals(b)) return 0;
+        if (a.isEmpty()) return b.length();
+        if (b.isEmpty()) return a.length();
+
+        int[] precedente = new int[b.length() + 1];
+        int[] corrente = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            precedente[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            corrente[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = ca == b.charAt(j - 1) ? 0 : 1;
+                corrente[j] = Math.min(Math.min(corrente[j - 1] + 1, precedente[j] + 1), precedente[j - 1] + costo);
+            }
+            int[] tmp = precedente;
+            precedente = corrente;
+            corrente = tmp;
+        }
+        return precedente[b.length()];
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.theknife;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Funzioni di normalizzazione e tokenizzazione del testo usate dagli indici di ricerca.
+ * <p>
+ * Tutti gli indici dell'applicazione confrontano i termini nella stessa forma canonica:
+ * minuscolo, senza accenti e suddiviso sui caratteri non alfanumerici. In questo modo
+ * "Località" e "localita" producono lo stesso termine.
+ * </p>
+ * <p>
+ * Per la ricerca full-text è disponibile anche {@link #analizza(String)}, che oltre a tokenizzare
+ * elimina le parole vuote della lingua italiana e riduce ogni parola alla sua radice con uno stemmer
+ * leggero (rimozione delle desinenze di genere e numero).
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public final class AnalizzatoreTesto {
+    private static final Pattern SEGNI_DIACRITICI = Pattern.compile("\\p{M}+");
+
+    /**
+     * Parole vuote italiane, già normalizzate. Comprende le forme elise ("dell'", "l'", "un'")
+     * che la tokenizzazione separa dall'apostrofo.
+     */
+    private static final Set<String> PAROLE_VUOTE = Set.of(
+            "a", "ad", "al", "all", "alla", "alle", "agli", "ai", "allo", "anche", "ancora", "avere",
+            "c", "che", "chi", "ci", "come", "con", "cui", "d", "da", "dal", "dall", "dalla", "dalle",
+            "dagli", "dai", "dallo", "de", "degli", "dei", "del", "dell", "della", "delle", "dello", "di",
+            "dove", "e", "ed", "essere", "fra", "gli", "ha", "hanno", "ho", "i", "il", "in", "io", "l",
+            "la", "le", "li", "lo", "loro", "ma", "mai", "mi", "ne", "negli", "nei", "nel", "nell", "nella",
+            "nelle", "nello", "noi", "non", "o", "oltre", "ogni", "per", "perche", "piu", "poi", "qua",
+            "quale", "quali", "quando", "quanto", "quel", "quella", "quelle", "quelli", "quello", "quest",
+            "questa", "queste", "questi", "questo", "qui", "se", "sempre", "si", "sia", "sono", "sta",
+            "su", "sua", "sue", "sui", "sul", "sull", "sulla", "sulle", "suo", "suoi", "ti", "tra", "tu",
+            "tutti", "tutto", "un", "una", "uno", "vi", "voi", "era", "gia", "cosi", "sotto", "dopo"
+    );
+
+    private AnalizzatoreTesto() {}
+
+    /**
+     * Porta un testo nella forma canonica: minuscolo e senza segni diacritici.
+     *
+     * @param testo testo da normalizzare, può essere {@code null}
+     * @return testo normalizzato, stringa vuota se {@code testo} è {@code null}
+     */
+    public static String normalizza(String testo) {
+        if (testo == null || testo.isEmpty()) return "";
+        String decomposto = Normalizer.normalize(testo, Normalizer.Form.NFD);
+        return SEGNI_DIACRITICI.matcher(decomposto).replaceAll("").toLowerCase();
+    }
+
+    /**
+     * Suddivide un testo in token normalizzati, separando su tutto ciò che non è lettera o cifra.
+     *
+     * @param testo testo da suddividere
+     * @return lista dei token nell'ordine in cui compaiono
+     */
+    public static List<String> tokenizza(String testo) {
+        List<String> token = new ArrayList<>();
+        String normalizzato = normalizza(testo);
+        int inizio = -1;
+        for (int i = 0; i < normalizzato.length(); i++) {
+            if (Character.isLetterOrDigit(normalizzato.charAt(i))) {
+                if (inizio < 0) inizio = i;
+            } else if (inizio >= 0) {
+                token.add(normalizzato.substring(inizio, i));
+                inizio = -1;
+            }
+        }
+        if (inizio >= 0) {
+            token.add(normalizzato.substring(inizio));
+        }
+        return token;
+    }
+
+    /**
+     * Prepara un testo per l'indicizzazione full-text: tokenizza, elimina le parole vuote
+     * e riduce ogni parola alla sua radice.
+     *
+     * @param testo testo da analizzare
+     * @return lista delle radici, nell'ordine in cui compaiono
+     */
+    public static List<String> analizza(String testo) {
+        List<String> radici = new ArrayList<>();
+        for (String token : tokenizza(testo)) {
+            if (!PAROLE_VUOTE.contains(token)) {
+                radici.add(radice(token));
+            }
+        }
+        return radici;
+    }
+
+    /**
+     * Stemmer leggero per l'italiano: rimuove la vocale finale (e le combinazioni "ie", "he", "hi",
+     * "ii", "ia", "io") dalle parole di almeno quattro caratteri, così che "pesce" e "pesci",
+     * "lago" e "laghi" vengano ricondotti alla stessa radice.
+     *
+     * @param parola parola normalizzata
+     * @return radice della parola
+     */
+    static String radice(String parola) {
+        int len = parola.length();
+        if (len < 4) return parola;
+        char ultima = parola.charAt(len - 1);
+        char penultima = parola.charAt(len - 2);
+        switch (ultima) {
+            case 'e':
+                return parola.substring(0, (penultima == 'i' || penultima == 'h') ? len - 2 : len - 1);
+            case 'i':
+                return parola.substring(0, (penultima == 'h' || penultima == 'i') ? len - 2 : len - 1);
+            case 'a':
+            case 'o':
+                return parola.substring(0, penultima == 'i' ? len - 2 : len - 1);
+            default:
+                return parola;
+        }
+    }
+}
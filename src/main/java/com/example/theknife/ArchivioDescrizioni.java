@@ -0,0 +1,99 @@
+package com.example.theknife;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Archivio delle descrizioni dei ristoranti lette su richiesta dal file CSV del catalogo.
+ * <p>
+ * Le descrizioni sono il campo più voluminoso del catalogo ma vengono mostrate solo nella schermata di
+ * dettaglio. Invece di tenerle tutte in memoria, l'archivio conserva per ognuna soltanto la posizione in
+ * byte e la lunghezza del campo all'interno del file e la legge con un accesso posizionale la prima volta
+ * che viene richiesta. Le ultime {@value #CAPACITA_CACHE} descrizioni lette restano in una cache LRU, così
+ * che riaprire lo stesso dettaglio non tocchi il disco.
+ * </p>
+ * <p>
+ * Le posizioni restano valide perché l'applicazione aggiunge i nuovi ristoranti in coda al file;
+ * quando il file viene riscritto il catalogo viene ricaricato e l'archivio ricreato.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class ArchivioDescrizioni {
+
+    /** Numero di descrizioni conservate nella cache. */
+    public static final int CAPACITA_CACHE = 32;
+
+    private final LettorePosizionale lettore;
+    private final Map<Integer, String> cache = new LinkedHashMap<>(CAPACITA_CACHE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > CAPACITA_CACHE;
+        }
+    };
+
+    /**
+     * Crea un archivio vuoto sul file indicato.
+     *
+     * @param file file CSV che contiene le descrizioni
+     */
+    public ArchivioDescrizioni(Path file) {
+        this.lettore = new LettorePosizionale(file);
+    }
+
+    /**
+     * Registra la posizione di una descrizione nel file.
+     *
+     * @param posizione posizione in byte del primo carattere del campo
+     * @param lunghezza lunghezza in byte del campo, virgolette comprese
+     * @return identificativo da usare con {@link #leggi(int)}
+     */
+    public int registra(long posizione, int lunghezza) {
+        return lettore.registra(posizione, lunghezza);
+    }
+
+    /**
+     * Restituisce una descrizione, leggendola dal file se non è nella cache.
+     *
+     * @param id identificativo restituito da {@link #registra(long, int)}
+     * @return la descrizione, stringa vuota se non è possibile leggerla
+     */
+    public synchronized String leggi(int id) {
+        String descrizione = cache.get(id);
+        if (descrizione != null) return descrizione;
+
+        try {
+            // Stesse regole del parser CSV del catalogo: le virgolette delimitano il campo e vengono rimosse
+            descrizione = GestioneRistorante.valoreCampoCsv(lettore.leggi(id));
+        } catch (IOException e) {
+            System.err.println("Errore nella lettura della descrizione: " + e.getMessage());
+            return "";
+        }
+        cache.put(id, descrizione);
+        return descrizione;
+    }
+
+    /**
+     * Restituisce il numero di descrizioni registrate.
+     *
+     * @return numero di descrizioni
+     */
+    public int getNumeroDescrizioni() {
+        return lettore.getNumero();
+    }
+
+    /**
+     * Chiude il file, se aperto, e svuota la cache. Una lettura successiva riapre il file.
+     */
+    public synchronized void chiudi() {
+        lettore.chiudi();
+        cache.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.theknife;
+
+import java.util.List;
+import java.util.function.Function;
+
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+
+/**
+ * Aggiunge a un {@link TextField} un menu a comparsa con i suggerimenti di completamento.
+ * <p>
+ * A ogni modifica del testo viene interrogata la funzione che fornisce i suggerimenti
+ * (ad es. un {@link TriePrefissi}) e il menu viene aggiornato sotto il campo. Selezionando
+ * un suggerimento il testo del campo viene sostituito ed è eseguita l'azione indicata,
+ * tipicamente l'avvio della ricerca.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class AutocompletamentoCampo {
+    private final TextField campo;
+    private final Function<String, List<String>> fornitore;
+    private final Runnable azioneSelezione;
+    private final ContextMenu menu = new ContextMenu();
+    private boolean selezioneInCorso = false;
+
+    /**
+     * Collega l'autocompletamento a un campo di testo.
+     *
+     * @param campo            campo di testo a cui aggiungere i suggerimenti
+     * @param fornitore        funzione che restituisce i suggerimenti per il testo digitato
+     * @param azioneSelezione  azione da eseguire dopo la scelta di un suggerimento, può essere {@code null}
+     */
+    public AutocompletamentoCampo(TextField campo, Function<String, List<String>> fornitore, Runnable azioneSelezione) {
+        this.campo = campo;
+        this.fornitore = fornitore;
+        this.azioneSelezione = azioneSelezione;
+
+        campo.textProperty().addListener((obs, vecchio, nuovo) -> aggiornaSuggerimenti(nuovo));
+        campo.focusedProperty().addListener((obs, vecchio, attivo) -> {
+            if (!attivo) menu.hide();
+        });
+    }
+
+    /**
+     * Ricalcola i suggerimenti per il testo corrente e mostra o nasconde il menu.
+     *
+     * @param testo testo attualmente presente nel campo
+     */
+    private void aggiornaSuggerimenti(String testo) {
+        if (selezioneInCorso || testo == null || testo.isBlank() || !campo.isFocused()) {
+            menu.hide();
+            return;
+        }
+
+        List<String> suggerimenti = fornitore.apply(testo);
+        if (suggerimenti.isEmpty() || (suggerimenti.size() == 1 && suggerimenti.get(0).equalsIgnoreCase(testo.trim()))) {
+            menu.hide();
+            return;
+        }
+
+        menu.getItems().clear();
+        for (String suggerimento : suggerimenti) {
+            MenuItem voce = new MenuItem(suggerimento);
+            voce.setMnemonicParsing(false);
+            voce.setOnAction(e -> seleziona(suggerimento));
+            menu.getItems().add(voce);
+        }
+        if (!menu.isShowing()) {
+            menu.show(campo, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    /**
+     * Sostituisce il testo del campo con il suggerimento scelto ed esegue l'azione di selezione.
+     *
+     * @param suggerimento suggerimento scelto dall'utente
+     */
+    private void seleziona(String suggerimento) {
+        selezioneInCorso = true;
+        campo.setText(suggerimento);
+        campo.positionCaret(suggerimento.length());
+        selezioneInCorso = false;
+        menu.hide();
+        if (azioneSelezione != null) {
+            azioneSelezione.run();
+        }
+    }
+}
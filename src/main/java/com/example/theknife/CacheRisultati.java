@@ -0,0 +1,126 @@
+package com.example.theknife;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache a capacità limitata dei risultati delle ricerche, con politica di rimozione LRU
+ * (viene scartato l'elemento usato meno di recente).
+ * <p>
+ * Ogni valore viene memorizzato insieme alla versione dei dati da cui è stato calcolato: quando la
+ * versione corrente cambia (ad es. dopo l'aggiunta di un ristorante) i valori salvati in precedenza
+ * non vengono più restituiti, senza dover svuotare la cache esplicitamente. I contatori di successi
+ * e fallimenti permettono di valutare se la capacità scelta è adeguata.
+ * </p>
+ *
+ * @param <K> tipo delle chiavi
+ * @param <V> tipo dei valori
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class CacheRisultati<K, V> {
+
+    private record Voce<V>(V valore, long versione) {}
+
+    private final int capacita;
+    private final LinkedHashMap<K, Voce<V>> voci;
+    private long successi;
+    private long fallimenti;
+
+    /**
+     * Crea una cache vuota.
+     *
+     * @param capacita numero massimo di elementi conservati
+     */
+    public CacheRisultati(int capacita) {
+        this.capacita = capacita;
+        this.voci = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Voce<V>> eldest) {
+                return size() > CacheRisultati.this.capacita;
+            }
+        };
+    }
+
+    /**
+     * Restituisce il valore associato alla chiave, se è stato calcolato sulla versione corrente dei dati.
+     *
+     * @param chiave   chiave cercata
+     * @param versione versione corrente dei dati
+     * @return valore memorizzato, oppure {@code null} se assente o non più valido
+     */
+    public synchronized V get(K chiave, long versione) {
+        Voce<V> voce = voci.get(chiave);
+        if (voce != null && voce.versione() == versione) {
+            successi++;
+            return voce.valore();
+        }
+        if (voce != null) {
+            voci.remove(chiave);
+        }
+        fallimenti++;
+        return null;
+    }
+
+    /**
+     * Memorizza un valore calcolato sulla versione indicata dei dati.
+     *
+     * @param chiave   chiave del valore
+     * @param valore   valore da memorizzare
+     * @param versione versione dei dati da cui è stato calcolato il valore
+     */
+    public synchronized void put(K chiave, V valore, long versione) {
+        voci.put(chiave, new Voce<>(valore, versione));
+    }
+
+    /**
+     * Svuota la cache e azzera i contatori.
+     */
+    public synchronized void svuota() {
+        voci.clear();
+        successi = 0;
+        fallimenti = 0;
+    }
+
+    /**
+     * Restituisce il numero di richieste soddisfatte dalla cache.
+     *
+     * @return numero di successi
+     */
+    public synchronized long getSuccessi() {
+        return successi;
+    }
+
+    /**
+     * Restituisce il numero di richieste non soddisfatte dalla cache.
+     *
+     * @return numero di fallimenti
+     */
+    public synchronized long getFallimenti() {
+        return fallimenti;
+    }
+
+    /**
+     * Restituisce la frazione di richieste soddisfatte dalla cache.
+     *
+     * @return tasso di successo tra 0 e 1, 0 se non ci sono state richieste
+     */
+    public synchronized double getTassoSuccesso() {
+        long richieste = successi + fallimenti;
+        return richieste == 0 ? 0 : (double) successi / richieste;
+    }
+
+    /**
+     * Restituisce il numero di elementi attualmente memorizzati.
+     *
+     * @return numero di elementi
+     */
+    public synchronized int getDimensione() {
+        return voci.size();
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.theknife;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Archivio a colonne dei ristoranti in memoria nativa, gestita con la Foreign Function &amp; Memory API.
+ * <p>
+ * Ogni campo è memorizzato in un {@link MemorySegment} fuori dallo heap: le coordinate come colonne di
+ * {@code double}, prezzo, premio e stella verde come codici {@code short} di un dizionario (i valori
+ * distinti sono pochi), i campi di testo come byte UTF-8 in un unico segmento con posizione e lunghezza
+ * di ogni valore. I ristoranti sono esposti come {@link RistoranteColonnare}, viste che conoscono solo
+ * il numero di riga e decodificano i campi quando vengono letti: i dati del catalogo non occupano lo
+ * heap e non vengono visitati dal garbage collector.
+ * </p>
+ * <p>
+ * Le scansioni su coordinate e codici leggono colonne contigue di tipi primitivi senza creare oggetti.
+ * I segmenti sono allocati in un'arena automatica: quando una colonna piena viene sostituita da una più
+ * grande, la memoria della precedente viene liberata non appena non è più raggiungibile. Le righe già
+ * scritte non cambiano mai, per cui le letture non richiedono sincronizzazione.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class CatalogoColonnare {
+
+    /** Colonne di testo. */
+    public static final int NOME = 0, INDIRIZZO = 1, LOCALITA = 2, CUCINA = 3, TELEFONO = 4, URL = 5,
+            SITO_WEB = 6, SERVIZI = 7, DESCRIZIONE = 8;
+    /** Colonne codificate con un dizionario. */
+    public static final int PREZZO = 0, PREMIO = 1, STELLA_VERDE = 2;
+
+    private static final int NUMERO_TESTI = 9;
+    private static final int NUMERO_CODICI = 3;
+    private static final int CAPACITA_INIZIALE = 1024;
+    private static final long CAPACITA_TESTI_INIZIALE = 256 * 1024;
+
+    /**
+     * Dizionario dei valori distinti di una colonna codificata. I valori vengono solo aggiunti, quindi
+     * possono essere letti senza sincronizzazione.
+     */
+    private static final class Dizionario {
+        private final List<String> valori = new CopyOnWriteArrayList<>();
+        private final Map<String, Short> codici = new HashMap<>();
+
+        private short codifica(String valore) {
+            return codici.computeIfAbsent(valore, v -> {
+                if (valori.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Troppi valori distinti nella colonna");
+                }
+                valori.add(v);
+                return (short) (valori.size() - 1);
+            });
+        }
+    }
+
+    private final Arena arena = Arena.ofAuto();
+    private final Dizionario[] dizionari = {new Dizionario(), new Dizionario(), new Dizionario()};
+    private volatile MemorySegment longitudini;
+    private volatile MemorySegment latitudini;
+    private volatile MemorySegment codici;
+    private volatile MemorySegment posizioniTesti;
+    private volatile MemorySegment lunghezzeTesti;
+    private volatile MemorySegment testi;
+    private volatile int numero;
+    private int capacita;
+    private long occupazioneTesti;
+
+    /**
+     * Crea un archivio vuoto.
+     */
+    public CatalogoColonnare() {
+        capacita = CAPACITA_INIZIALE;
+        longitudini = arena.allocate(capacita * Double.BYTES, Double.BYTES);
+        latitudini = arena.allocate(capacita * Double.BYTES, Double.BYTES);
+        codici = arena.allocate((long) capacita * NUMERO_CODICI * Short.BYTES, Short.BYTES);
+        posizioniTesti = arena.allocate((long) capacita * NUMERO_TESTI * Long.BYTES, Long.BYTES);
+        lunghezzeTesti = arena.allocate((long) capacita * NUMERO_TESTI * Integer.BYTES, Integer.BYTES);
+        testi = arena.allocate(CAPACITA_TESTI_INIZIALE, 1);
+    }
+
+    /**
+     * Copia i campi di un ristorante in una nuova riga dell'archivio.
+     *
+     * @param ristorante ristorante da archiviare
+     * @return numero della riga assegnata
+     */
+    public synchronized int aggiungi(Ristorante ristorante) {
+        int riga = numero;
+        if (riga == capacita) {
+            cresci();
+        }
+        longitudini.setAtIndex(ValueLayout.JAVA_DOUBLE, riga, ristorante.getLongitudine());
+        latitudini.setAtIndex(ValueLayout.JAVA_DOUBLE, riga, ristorante.getLatitudine());
+        scriviCodice(riga, PREZZO, ristorante.getPrezzo());
+        scriviCodice(riga, PREMIO, ristorante.getPremio());
+        scriviCodice(riga, STELLA_VERDE, ristorante.getStellaVerde());
+        scriviTesto(riga, NOME, ristorante.getNome());
+        scriviTesto(riga, INDIRIZZO, ristorante.getIndirizzo());
+        scriviTesto(riga, LOCALITA, ristorante.getLocalita());
+        scriviTesto(riga, CUCINA, ristorante.getCucina());
+        scriviTesto(riga, TELEFONO, ristorante.getNumeroTelefono());
+        scriviTesto(riga, URL, ristorante.getUrl());
+        scriviTesto(riga, SITO_WEB, ristorante.getSitoWeb());
+        scriviTesto(riga, SERVIZI, ristorante.getServizi());
+        scriviTesto(riga, DESCRIZIONE, ristorante.getDescrizione());
+        // La riga diventa visibile alle scansioni solo quando è completa
+        numero = riga + 1;
+        return riga;
+    }
+
+    /**
+     * Restituisce il numero di righe dell'archivio.
+     *
+     * @return numero di righe
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Restituisce la memoria nativa occupata dall'archivio.
+     *
+     * @return byte allocati per colonne e testi
+     */
+    public long getByteOccupati() {
+        return longitudini.byteSize() + latitudini.byteSize() + codici.byteSize()
+                + posizioniTesti.byteSize() + lunghezzeTesti.byteSize() + testi.byteSize();
+    }
+
+    /**
+     * Restituisce la longitudine di una riga.
+     *
+     * @param riga numero di riga
+     * @return longitudine in gradi
+     */
+    public double getLongitudine(int riga) {
+        return longitudini.getAtIndex(ValueLayout.JAVA_DOUBLE, riga);
+    }
+
+    /**
+     * Restituisce la latitudine di una riga.
+     *
+     * @param riga numero di riga
+     * @return latitudine in gradi
+     */
+    public double getLatitudine(int riga) {
+        return latitudini.getAtIndex(ValueLayout.JAVA_DOUBLE, riga);
+    }
+
+    /**
+     * Restituisce il valore di una colonna codificata.
+     *
+     * @param riga    numero di riga
+     * @param colonna {@link #PREZZO}, {@link #PREMIO} o {@link #STELLA_VERDE}
+     * @return il valore decodificato
+     */
+    public String getCodificato(int riga, int colonna) {
+        short codice = codici.getAtIndex(ValueLayout.JAVA_SHORT, (long) riga * NUMERO_CODICI + colonna);
+        return dizionari[colonna].valori.get(codice);
+    }
+
+    /**
+     * Restituisce il valore di una colonna di testo, decodificandolo dalla memoria nativa.
+     *
+     * @param riga    numero di riga
+     * @param colonna una delle colonne di testo, ad es. {@link #NOME}
+     * @return il testo, {@code null} se il ristorante non aveva il campo
+     */
+    public String getTesto(int riga, int colonna) {
+        long indice = (long) riga * NUMERO_TESTI + colonna;
+        int lunghezza = lunghezzeTesti.getAtIndex(ValueLayout.JAVA_INT, indice);
+        if (lunghezza < 0) return null;
+        long posizione = posizioniTesti.getAtIndex(ValueLayout.JAVA_LONG, indice);
+        byte[] byteTesto = testi.asSlice(posizione, lunghezza).toArray(ValueLayout.JAVA_BYTE);
+        return new String(byteTesto, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Restituisce le righe entro una distanza da un punto, scandendo le colonne delle coordinate.
+     * Le righe fuori dalla fascia di latitudine compatibile con il raggio vengono scartate senza
+     * calcolare la distanza.
+     *
+     * @param latitudine  latitudine del centro, in gradi
+     * @param longitudine longitudine del centro, in gradi
+     * @param raggioKm    distanza massima in chilometri
+     * @return numeri di riga in ordine crescente
+     */
+    public int[] righeEntroRaggio(double latitudine, double longitudine, double raggioKm) {
+        int n = numero;
+        MemorySegment lat = latitudini;
+        MemorySegment lon = longitudini;
+        double fascia = Math.toDegrees(raggioKm / Geografia.RAGGIO_TERRA_KM);
+        int[] risultato = new int[64];
+        int trovate = 0;
+        for (int riga = 0; riga < n; riga++) {
+            double latitudineRiga = lat.getAtIndex(ValueLayout.JAVA_DOUBLE, riga);
+            if (Math.abs(latitudineRiga - latitudine) > fascia) continue;
+            double distanza = Geografia.distanzaKm(latitudine, longitudine,
+                    latitudineRiga, lon.getAtIndex(ValueLayout.JAVA_DOUBLE, riga));
+            if (distanza <= raggioKm) {
+                if (trovate == risultato.length) {
+                    risultato = Arrays.copyOf(risultato, trovate * 2);
+                }
+                risultato[trovate++] = riga;
+            }
+        }
+        return Arrays.copyOf(risultato, trovate);
+    }
+
+    /**
+     * Restituisce le righe il cui valore in una colonna codificata soddisfa una condizione. La condizione
+     * viene valutata una sola volta per ogni valore distinto; la scansione confronta solo codici.
+     *
+     * @param colonna    {@link #PREZZO}, {@link #PREMIO} o {@link #STELLA_VERDE}
+     * @param condizione condizione sul valore decodificato
+     * @return numeri di riga in ordine crescente
+     */
+    public int[] righeConCodice(int colonna, Predicate<String> condizione) {
+        int n = numero;
+        MemorySegment colonnaCodici = codici;
+        List<String> valori = dizionari[colonna].valori;
+        boolean[] ammessi = new boolean[valori.size()];
+        for (int codice = 0; codice < ammessi.length; codice++) {
+            ammessi[codice] = condizione.test(valori.get(codice));
+        }
+        int[] risultato = new int[64];
+        int trovate = 0;
+        for (int riga = 0; riga < n; riga++) {
+            short codice = colonnaCodici.getAtIndex(ValueLayout.JAVA_SHORT, (long) riga * NUMERO_CODICI + colonna);
+            if (ammessi[codice]) {
+                if (trovate == risultato.length) {
+                    risultato = Arrays.copyOf(risultato, trovate * 2);
+                }
+                risultato[trovate++] = riga;
+            }
+        }
+        return Arrays.copyOf(risultato, trovate);
+    }
+
+    private void scriviCodice(int riga, int colonna, String valore) {
+        codici.setAtIndex(ValueLayout.JAVA_SHORT, (long) riga * NUMERO_CODICI + colonna, dizionari[colonna].codifica(valore));
+    }
+
+    private void scriviTesto(int riga, int colonna, String valore) {
+        long indice = (long) riga * NUMERO_TESTI + colonna;
+        if (valore == null) {
+            lunghezzeTesti.setAtIndex(ValueLayout.JAVA_INT, indice, -1);
+            return;
+        }
+        byte[] byteTesto = valore.getBytes(StandardCharsets.UTF_8);
+        if (occupazioneTesti + byteTesto.length > testi.byteSize()) {
+            long nuovaCapacita = Math.max(testi.byteSize() * 2, occupazioneTesti + byteTesto.length);
+            testi = copia(testi, nuovaCapacita, 1, occupazioneTesti);
+        }
+        MemorySegment.copy(byteTesto, 0, testi, ValueLayout.JAVA_BYTE, occupazioneTesti, byteTesto.length);
+        posizioniTesti.setAtIndex(ValueLayout.JAVA_LONG, indice, occupazioneTesti);
+        lunghezzeTesti.setAtIndex(ValueLayout.JAVA_INT, indice, byteTesto.length);
+        occupazioneTesti += byteTesto.length;
+    }
+
+    /**
+     * Raddoppia la capacità delle colonne. Le nuove colonne vengono pubblicate solo dopo la copia,
+     * così che le letture concorrenti trovino sempre tutte le righe già scritte.
+     */
+    private void cresci() {
+        int nuovaCapacita = capacita * 2;
+        longitudini = copia(longitudini, (long) nuovaCapacita * Double.BYTES, Double.BYTES, (long) numero * Double.BYTES);
+        latitudini = copia(latitudini, (long) nuovaCapacita * Double.BYTES, Double.BYTES, (long) numero * Double.BYTES);
+        codici = copia(codici, (long) nuovaCapacita * NUMERO_CODICI * Short.BYTES, Short.BYTES,
+                (long) numero * NUMERO_CODICI * Short.BYTES);
+        posizioniTesti = copia(posizioniTesti, (long) nuovaCapacita * NUMERO_TESTI * Long.BYTES, Long.BYTES,
+                (long) numero * NUMERO_TESTI * Long.BYTES);
+        lunghezzeTesti = copia(lunghezzeTesti, (long) nuovaCapacita * NUMERO_TESTI * Integer.BYTES, Integer.BYTES,
+                (long) numero * NUMERO_TESTI * Integer.BYTES);
+        capacita = nuovaCapacita;
+    }
+
+    private MemorySegment copia(MemorySegment origine, long dimensione, long allineamento, long byteUsati) {
+        MemorySegment destinazione = arena.allocate(dimensione, allineamento);
+        MemorySegment.copy(origine, 0, destinazione, 0, byteUsati);
+        return destinazione;
+    }
+}
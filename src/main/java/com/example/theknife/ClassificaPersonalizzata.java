@@ -0,0 +1,289 @@
+package com.example.theknife;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Classifica personalizzata dei risultati di una ricerca, per mostrare in cima all'elenco i ristoranti più
+ * adatti all'utente invece che nell'ordine in cui la ricerca li ha trovati.
+ * <p>
+ * Il punteggio di un ristorante è una somma pesata, tra 0 e 1, della vicinanza al punto di riferimento
+ * dell'utente, della valutazione media delle recensioni, dell'affinità dell'utente con le sue cucine e del
+ * premio. La valutazione media è smussata verso {@value #MEDIA_A_PRIORI} stelle, così che un ristorante
+ * con una sola recensione a cinque stelle non superi uno con molte recensioni quasi altrettanto buone.
+ * L'affinità con le cucine si ricava dalle recensioni e dai preferiti dell'utente: ogni preferito e ogni
+ * recensione sopra le tre stelle avvicina l'utente alle cucine del ristorante, ogni recensione sotto le
+ * tre stelle lo allontana.
+ * </p>
+ * <p>
+ * Le colonne per riga del catalogo (recensioni, somma delle stelle, livello del premio, cucine) sono
+ * costruite una volta; gli aggregati delle recensioni vengono aggiornati in modo incrementale dalle
+ * notifiche di {@link GestioneRecensioni} e le affinità di un utente vengono ricalcolate solo quando
+ * cambiano le sue recensioni o i suoi preferiti. Della classifica si calcolano solo i primi {@code k}
+ * risultati, con un heap di {@code k} elementi: gli altri restano nell'ordine della ricerca, senza ordinare
+ * tutti i risultati.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class ClassificaPersonalizzata implements GestioneRecensioni.AscoltatoreRecensioni,
+        GestionePreferiti.AscoltatorePreferiti {
+
+    /** Pesi delle componenti del punteggio, di somma 1. */
+    private static final double PESO_DISTANZA = 0.35;
+    private static final double PESO_VALUTAZIONE = 0.25;
+    private static final double PESO_AFFINITA = 0.25;
+    private static final double PESO_PREMIO = 0.15;
+
+    /** Distanza, in km, alla quale la vicinanza vale metà del suo massimo. */
+    private static final double SCALA_DISTANZA_KM = 10;
+
+    /** Valutazione verso cui viene smussata la media delle recensioni. */
+    private static final double MEDIA_A_PRIORI = 3;
+
+    /** Numero di recensioni fittizie con la valutazione a priori. */
+    private static final double PESO_A_PRIORI = 2;
+
+    /** Livello massimo del premio, vedi {@link SomiglianzaContenuti#livelloPremio(String)}. */
+    private static final double PREMIO_MASSIMO = 4;
+
+    private final Map<String, Integer> rigaPerNome = new HashMap<>();
+    private final int[][] cucinePerRiga;
+    private final byte[] premioPerRiga;
+    private final int[] recensioniPerRiga;
+    private final int[] stellePerRiga;
+    private final int numeroCucine;
+    private final Supplier<Map<String, GestioneRecensioni.AggregatoRecensioni>> sorgenteRecensioni;
+    private final Function<String, List<Recensione>> recensioniUtente;
+    private final Function<String, ? extends Iterable<String>> preferitiUtente;
+    private final Map<String, double[]> affinitaPerUtente = new HashMap<>();
+    private boolean daRicalcolare = true;
+
+    /**
+     * Costruisce le colonne della classifica sulle righe del catalogo. Gli aggregati delle recensioni
+     * vengono letti dalla sorgente alla prima classifica e dopo ogni ricaricamento.
+     *
+     * @param righe              righe del catalogo, con le cucine già registrate nella tassonomia
+     * @param numeroCucine       numero di cucine della tassonomia
+     * @param sorgenteRecensioni fornisce gli aggregati delle recensioni per nome del ristorante
+     * @param recensioniUtente   fornisce le recensioni scritte da un utente, senza ricaricare il file
+     * @param preferitiUtente    fornisce i nomi dei ristoranti preferiti da un utente, senza ricaricare il file
+     */
+    public ClassificaPersonalizzata(List<Ristorante> righe, int numeroCucine,
+                                    Supplier<Map<String, GestioneRecensioni.AggregatoRecensioni>> sorgenteRecensioni,
+                                    Function<String, List<Recensione>> recensioniUtente,
+                                    Function<String, ? extends Iterable<String>> preferitiUtente) {
+        this.numeroCucine = numeroCucine;
+        this.sorgenteRecensioni = sorgenteRecensioni;
+        this.recensioniUtente = recensioniUtente;
+        this.preferitiUtente = preferitiUtente;
+        int n = righe.size();
+        cucinePerRiga = new int[n][];
+        premioPerRiga = new byte[n];
+        recensioniPerRiga = new int[n];
+        stellePerRiga = new int[n];
+        Map<String, Integer> premiPerTesto = new HashMap<>();
+        for (int riga = 0; riga < n; riga++) {
+            Ristorante ristorante = righe.get(riga);
+            rigaPerNome.put(ristorante.getNome(), riga);
+            int[] cucine = ristorante.getIdCucine();
+            cucinePerRiga[riga] = cucine == null ? new int[0] : cucine;
+            String premio = ristorante.getPremio();
+            premioPerRiga[riga] = (byte) (premio == null ? 0
+                    : premiPerTesto.computeIfAbsent(premio, SomiglianzaContenuti::livelloPremio));
+        }
+    }
+
+    @Override
+    public synchronized void variazione(String username, String ristoranteId, int deltaRecensioni, int deltaStelle) {
+        affinitaPerUtente.remove(username);
+        if (daRicalcolare) return;
+        Integer riga = rigaPerNome.get(ristoranteId);
+        if (riga != null) {
+            recensioniPerRiga[riga] += deltaRecensioni;
+            stellePerRiga[riga] += deltaStelle;
+        }
+    }
+
+    @Override
+    public synchronized void ricaricate() {
+        affinitaPerUtente.clear();
+        daRicalcolare = true;
+    }
+
+    @Override
+    public synchronized void preferitoModificato(String username, String ristoranteId, boolean aggiunto) {
+        affinitaPerUtente.remove(username);
+    }
+
+    /**
+     * Ordina i risultati di una ricerca per l'utente: i primi {@code k} in ordine di punteggio decrescente,
+     * seguiti da tutti gli altri nell'ordine originale.
+     *
+     * @param righe     righe del catalogo trovate dalla ricerca; l'array non viene modificato
+     * @param distanze  distanza in km di ogni risultato dal punto di riferimento, nello stesso ordine,
+     *                  oppure {@code null} se la posizione dell'utente non è nota
+     * @param username  utente per cui ordinare, oppure {@code null} se nessun utente ha effettuato l'accesso
+     * @param k         numero di risultati da ordinare per punteggio
+     * @return nuovo array con le stesse righe nell'ordine personalizzato
+     */
+    public synchronized int[] ordina(int[] righe, double[] distanze, String username, int k) {
+        if (daRicalcolare) {
+            ricalcolaRecensioni();
+        }
+        double[] affinita = username == null ? null : affinitaPerUtente.computeIfAbsent(username, this::calcolaAffinita);
+        int dimensioneMassima = Math.min(k, righe.length);
+
+        // Min-heap delle posizioni dei migliori risultati, con il peggiore in cima; a parità di punteggio
+        // vince il risultato trovato prima dalla ricerca
+        int[] posizioni = new int[dimensioneMassima];
+        double[] punteggi = new double[dimensioneMassima];
+        int dimensione = 0;
+        for (int i = 0; i < righe.length; i++) {
+            double punteggio = punteggio(righe[i], distanze == null ? -1 : distanze[i], affinita);
+            if (dimensione < dimensioneMassima) {
+                risali(posizioni, punteggi, dimensione++, i, punteggio);
+            } else if (dimensioneMassima > 0 && precede(punteggio, i, punteggi[0], posizioni[0])) {
+                scendi(posizioni, punteggi, dimensione, i, punteggio);
+            }
+        }
+
+        int[] ordinate = new int[righe.length];
+        boolean[] inClassifica = new boolean[righe.length];
+        for (int ultimo = dimensione - 1; ultimo >= 0; ultimo--) {
+            // La cima è il peggiore tra quelli rimasti: va in fondo alla classifica
+            int posizione = posizioni[0];
+            ordinate[ultimo] = righe[posizione];
+            inClassifica[posizione] = true;
+            scendi(posizioni, punteggi, ultimo, posizioni[ultimo], punteggi[ultimo]);
+        }
+        int prossima = dimensione;
+        for (int i = 0; i < righe.length; i++) {
+            if (!inClassifica[i]) {
+                ordinate[prossima++] = righe[i];
+            }
+        }
+        return ordinate;
+    }
+
+    /**
+     * Calcola il punteggio di una riga, tra 0 e 1.
+     *
+     * @param riga        riga del catalogo
+     * @param distanzaKm  distanza dal punto di riferimento, negativa se non nota
+     * @param affinita    affinità dell'utente per cucina, oppure {@code null}
+     */
+    private double punteggio(int riga, double distanzaKm, double[] affinita) {
+        double punteggio = PESO_PREMIO * premioPerRiga[riga] / PREMIO_MASSIMO
+                + PESO_VALUTAZIONE * (stellePerRiga[riga] + MEDIA_A_PRIORI * PESO_A_PRIORI)
+                / (recensioniPerRiga[riga] + PESO_A_PRIORI) / 5;
+        if (distanzaKm >= 0) {
+            punteggio += PESO_DISTANZA / (1 + distanzaKm / SCALA_DISTANZA_KM);
+        }
+        int[] cucine = cucinePerRiga[riga];
+        if (affinita != null && cucine.length > 0) {
+            double somma = 0;
+            for (int id : cucine) {
+                somma += id < affinita.length ? affinita[id] : 0;
+            }
+            // Affinità media tra -1 e 1, riportata tra 0 e 1
+            punteggio += PESO_AFFINITA * (1 + somma / cucine.length) / 2;
+        }
+        return punteggio;
+    }
+
+    /**
+     * Calcola l'affinità di un utente con ogni cucina, tra -1 e 1, dalle sue recensioni e dai suoi
+     * preferiti.
+     */
+    private double[] calcolaAffinita(String username) {
+        double[] affinita = new double[numeroCucine];
+        for (String preferito : preferitiUtente.apply(username)) {
+            aggiungiAffinita(affinita, preferito, 1);
+        }
+        for (Recensione recensione : recensioniUtente.apply(username)) {
+            // Da -1 per una stella a +1 per cinque stelle
+            aggiungiAffinita(affinita, recensione.getRistoranteId(), (recensione.getStelle() - 3) / 2.0);
+        }
+        double massimo = 0;
+        for (double valore : affinita) {
+            massimo = Math.max(massimo, Math.abs(valore));
+        }
+        if (massimo > 0) {
+            for (int id = 0; id < affinita.length; id++) {
+                affinita[id] /= massimo;
+            }
+        }
+        return affinita;
+    }
+
+    private void aggiungiAffinita(double[] affinita, String ristoranteId, double peso) {
+        Integer riga = rigaPerNome.get(ristoranteId);
+        if (riga == null) return;
+        for (int id : cucinePerRiga[riga]) {
+            if (id < affinita.length) {
+                affinita[id] += peso;
+            }
+        }
+    }
+
+    private void ricalcolaRecensioni() {
+        Arrays.fill(recensioniPerRiga, 0);
+        Arrays.fill(stellePerRiga, 0);
+        for (Map.Entry<String, GestioneRecensioni.AggregatoRecensioni> voce : sorgenteRecensioni.get().entrySet()) {
+            Integer riga = rigaPerNome.get(voce.getKey());
+            if (riga != null) {
+                recensioniPerRiga[riga] = voce.getValue().numero();
+                stellePerRiga[riga] = voce.getValue().sommaStelle();
+            }
+        }
+        daRicalcolare = false;
+    }
+
+    /**
+     * Indica se il risultato {@code (p1, i1)} precede {@code (p2, i2)} in classifica.
+     */
+    private static boolean precede(double p1, int i1, double p2, int i2) {
+        return p1 > p2 || (p1 == p2 && i1 < i2);
+    }
+
+    /** Inserisce un elemento in fondo al heap e lo fa risalire finché precede il padre. */
+    private static void risali(int[] posizioni, double[] punteggi, int posizione, int i, double punteggio) {
+        while (posizione > 0) {
+            int padre = (posizione - 1) >>> 1;
+            if (!precede(punteggi[padre], posizioni[padre], punteggio, i)) break;
+            posizioni[posizione] = posizioni[padre];
+            punteggi[posizione] = punteggi[padre];
+            posizione = padre;
+        }
+        posizioni[posizione] = i;
+        punteggi[posizione] = punteggio;
+    }
+
+    /** Sostituisce la cima del heap con un elemento e lo fa scendere finché un figlio lo segue. */
+    private static void scendi(int[] posizioni, double[] punteggi, int dimensione, int i, double punteggio) {
+        int posizione = 0;
+        while (true) {
+            int figlio = 2 * posizione + 1;
+            if (figlio >= dimensione) break;
+            if (figlio + 1 < dimensione && precede(punteggi[figlio], posizioni[figlio], punteggi[figlio + 1], posizioni[figlio + 1])) {
+                figlio++;
+            }
+            if (!precede(punteggio, i, punteggi[figlio], posizioni[figlio])) break;
+            posizioni[posizione] = posizioni[figlio];
+            punteggi[posizione] = punteggi[figlio];
+            posizione = figlio;
+        }
+        posizioni[posizione] = i;
+        punteggi[posizione] = punteggio;
+    }
+}
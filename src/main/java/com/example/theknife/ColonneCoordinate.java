@@ -0,0 +1,221 @@
+package com.example.theknife;
+
+import java.util.Arrays;
+
+/**
+ * Coordinate dei ristoranti del catalogo organizzate per colonne, per le ricerche "entro X km" senza
+ * indice spaziale.
+ * <p>
+ * Per ogni riga vengono conservati, in array separati, latitudine e longitudine e il versore
+ * corrispondente sulla sfera ({@code x}, {@code y}, {@code z}). Due punti distano al più {@code d} se il
+ * prodotto scalare dei loro versori è almeno {@code cos(d / R)}: il confronto richiede solo moltiplicazioni
+ * e somme, senza funzioni trigonometriche per riga, e si presta alle istruzioni SIMD. Quando il modulo
+ * {@code jdk.incubator.vector} è disponibile la scansione usa la Vector API, elaborando più righe per
+ * istruzione; altrimenti usa un ciclo scalare equivalente. In entrambi i casi le righe candidate vengono
+ * confermate con la formula dell'emisenoverso di {@link Geografia}, così che il risultato coincida con
+ * quello del filtro riga per riga.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class ColonneCoordinate {
+
+    /**
+     * Margine angolare (in radianti, circa 6 metri) aggiunto al raggio nel prefiltro, perché gli
+     * arrotondamenti del prodotto scalare non escludano punti sul bordo.
+     */
+    private static final double MARGINE_RADIANTI = 1e-6;
+
+    /**
+     * {@code true} se la scansione usa la Vector API. Si disattiva con {@code -Dtheknife.simd=false}.
+     */
+    private static final boolean VETTORIALE = !"false".equalsIgnoreCase(System.getProperty("theknife.simd"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private double[] latitudini = new double[256];
+    private double[] longitudini = new double[256];
+    private double[] x = new double[256];
+    private double[] y = new double[256];
+    private double[] z = new double[256];
+    private int numero;
+
+    /**
+     * Indica se le scansioni usano la Vector API.
+     *
+     * @return {@code true} se la scansione è vettoriale
+     */
+    public static boolean isVettoriale() {
+        return VETTORIALE;
+    }
+
+    /**
+     * Imposta le coordinate di una riga, estendendo le colonne se necessario.
+     *
+     * @param riga        numero di riga nel catalogo
+     * @param latitudine  latitudine in gradi
+     * @param longitudine longitudine in gradi
+     */
+    public void imposta(int riga, double latitudine, double longitudine) {
+        if (riga >= x.length) {
+            int capacita = Math.max(riga + 1, x.length * 2);
+            latitudini = Arrays.copyOf(latitudini, capacita);
+            longitudini = Arrays.copyOf(longitudini, capacita);
+            x = Arrays.copyOf(x, capacita);
+            y = Arrays.copyOf(y, capacita);
+            z = Arrays.copyOf(z, capacita);
+        }
+        double lat = Math.toRadians(latitudine);
+        double lon = Math.toRadians(longitudine);
+        latitudini[riga] = latitudine;
+        longitudini[riga] = longitudine;
+        x[riga] = Math.cos(lat) * Math.cos(lon);
+        y[riga] = Math.cos(lat) * Math.sin(lon);
+        z[riga] = Math.sin(lat);
+        numero = Math.max(numero, riga + 1);
+    }
+
+    /**
+     * Restituisce la latitudine di una riga.
+     *
+     * @param riga numero di riga
+     * @return latitudine in gradi
+     */
+    public double getLatitudine(int riga) {
+        return latitudini[riga];
+    }
+
+    /**
+     * Restituisce la longitudine di una riga.
+     *
+     * @param riga numero di riga
+     * @return longitudine in gradi
+     */
+    public double getLongitudine(int riga) {
+        return longitudini[riga];
+    }
+
+    /**
+     * Restituisce una copia indipendente delle colonne, che altri thread possono leggere mentre
+     * l'originale viene modificato dal caricamento o dall'inserimento di un ristorante.
+     *
+     * @return copia delle colonne, da non modificare
+     */
+    public ColonneCoordinate copia() {
+        ColonneCoordinate copia = new ColonneCoordinate();
+        copia.latitudini = Arrays.copyOf(latitudini, numero);
+        copia.longitudini = Arrays.copyOf(longitudini, numero);
+        copia.x = Arrays.copyOf(x, numero);
+        copia.y = Arrays.copyOf(y, numero);
+        copia.z = Arrays.copyOf(z, numero);
+        copia.numero = numero;
+        return copia;
+    }
+
+    /**
+     * Rimuove tutte le righe.
+     */
+    public void svuota() {
+        numero = 0;
+    }
+
+    /**
+     * Restituisce le righe entro una distanza da un punto, con la scansione vettoriale se disponibile.
+     *
+     * @param latitudine  latitudine del centro, in gradi
+     * @param longitudine longitudine del centro, in gradi
+     * @param raggioKm    distanza massima in chilometri
+     * @return numeri di riga in ordine crescente
+     */
+    public int[] righeEntroRaggio(double latitudine, double longitudine, double raggioKm) {
+        return righeEntroRaggio(latitudine, longitudine, raggioKm, VETTORIALE);
+    }
+
+    /**
+     * Restituisce le righe entro una distanza da un punto con la scansione scalare, usata quando la
+     * Vector API non è disponibile e come riferimento per misurare la versione vettoriale.
+     *
+     * @param latitudine  latitudine del centro, in gradi
+     * @param longitudine longitudine del centro, in gradi
+     * @param raggioKm    distanza massima in chilometri
+     * @return numeri di riga in ordine crescente
+     */
+    public int[] righeEntroRaggioScalare(double latitudine, double longitudine, double raggioKm) {
+        return righeEntroRaggio(latitudine, longitudine, raggioKm, false);
+    }
+
+    private int[] righeEntroRaggio(double latitudine, double longitudine, double raggioKm, boolean vettoriale) {
+        double lat = Math.toRadians(latitudine);
+        double lon = Math.toRadians(longitudine);
+        double cx = Math.cos(lat) * Math.cos(lon);
+        double cy = Math.cos(lat) * Math.sin(lon);
+        double cz = Math.sin(lat);
+        double angolo = raggioKm / Geografia.RAGGIO_TERRA_KM + MARGINE_RADIANTI;
+        double minimoProdotto = angolo >= Math.PI ? -2 : Math.cos(angolo);
+
+        int righe = numero;
+        int[] candidate = new int[righe];
+        int trovate = vettoriale
+                ? ScansioneVettoriale.prodottoAlmeno(x, y, z, righe, cx, cy, cz, minimoProdotto, candidate)
+                : prodottoAlmeno(righe, cx, cy, cz, minimoProdotto, candidate);
+
+        int confermate = 0;
+        for (int i = 0; i < trovate; i++) {
+            int riga = candidate[i];
+            if (Geografia.distanzaKm(latitudine, longitudine, latitudini[riga], longitudini[riga]) <= raggioKm) {
+                candidate[confermate++] = riga;
+            }
+        }
+        return Arrays.copyOf(candidate, confermate);
+    }
+
+    /**
+     * Calcola in un solo passaggio la distanza da un punto di un insieme di righe, con la scansione
+     * vettoriale se disponibile. La distanza si ricava dalla corda tra i versori come
+     * {@code 2R asin(corda / 2)}, che equivale alla formula dell'emisenoverso senza funzioni
+     * trigonometriche per le singole coordinate.
+     *
+     * @param righe       righe di cui calcolare la distanza
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @return distanza in chilometri di ogni riga, nello stesso ordine di {@code righe}
+     */
+    public double[] distanzeKm(int[] righe, double latitudine, double longitudine) {
+        double lat = Math.toRadians(latitudine);
+        double lon = Math.toRadians(longitudine);
+        double cx = Math.cos(lat) * Math.cos(lon);
+        double cy = Math.cos(lat) * Math.sin(lon);
+        double cz = Math.sin(lat);
+        double[] distanze = new double[righe.length];
+        if (VETTORIALE) {
+            ScansioneVettoriale.distanzeKm(x, y, z, righe, cx, cy, cz, distanze);
+        } else {
+            for (int i = 0; i < righe.length; i++) {
+                distanze[i] = distanzaCordaKm(x[righe[i]] - cx, y[righe[i]] - cy, z[righe[i]] - cz);
+            }
+        }
+        return distanze;
+    }
+
+    /**
+     * Converte in distanza sulla superficie la corda tra due versori, data per componenti.
+     */
+    static double distanzaCordaKm(double dx, double dy, double dz) {
+        double mezzaCorda = Math.min(1.0, Math.sqrt(dx * dx + dy * dy + dz * dz) / 2);
+        return 2 * Geografia.RAGGIO_TERRA_KM * Math.asin(mezzaCorda);
+    }
+
+    private int prodottoAlmeno(int righe, double cx, double cy, double cz, double minimo, int[] risultato) {
+        int trovate = 0;
+        for (int i = 0; i < righe; i++) {
+            if (x[i] * cx + y[i] * cy + z[i] * cz >= minimo) {
+                risultato[trovate++] = i;
+            }
+        }
+        return trovate;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.theknife;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Lista osservabile di sola lettura che materializza i ristoranti solo quando vengono richiesti.
+ * <p>
+ * La lista conosce soltanto gli identificativi di riga dei ristoranti da mostrare, nell'ordine di
+ * visualizzazione. Quando la {@code TableView} chiede un elemento, viene caricata l'intera pagina che lo
+ * contiene tramite la funzione di caricamento del catalogo; solo le ultime {@value #MAX_PAGINE} pagine
+ * usate restano in memoria. Creare una nuova lista e collegarla alla tabella costa quindi quanto la
+ * finestra visibile, indipendentemente dal numero di risultati.
+ * </p>
+ * <p>
+ * La lista può essere riordinata con {@link #riordina(int[])}: viene notificata una permutazione,
+ * così che la tabella aggiorni solo le righe visibili senza che la lista venga ricreata.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class ElencoVirtuale extends ObservableListBase<Ristorante> {
+
+    /** Numero di righe caricate a ogni accesso a una pagina non in memoria. */
+    public static final int DIMENSIONE_PAGINA = 64;
+    /** Numero massimo di pagine conservate in memoria. */
+    public static final int MAX_PAGINE = 16;
+
+    private final int[] righeOriginali;
+    private int[] righe;
+    private final IntFunction<Ristorante> caricatore;
+    private final Map<Integer, Ristorante[]> pagine = new LinkedHashMap<>(MAX_PAGINE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Ristorante[]> eldest) {
+            return size() > MAX_PAGINE;
+        }
+    };
+
+    /**
+     * Crea una lista virtuale sugli identificativi di riga indicati. L'array non viene copiato
+     * e non deve essere modificato finché la lista è in uso.
+     *
+     * @param righe      identificativi di riga nell'ordine di visualizzazione
+     * @param caricatore funzione che restituisce il ristorante di una riga
+     */
+    public ElencoVirtuale(int[] righe, IntFunction<Ristorante> caricatore) {
+        this.righeOriginali = righe;
+        this.righe = righe;
+        this.caricatore = caricatore;
+    }
+
+    @Override
+    public Ristorante get(int indice) {
+        if (indice < 0 || indice >= righe.length) {
+            throw new IndexOutOfBoundsException("Indice " + indice + " fuori dai limiti (" + righe.length + ")");
+        }
+        Ristorante[] pagina = pagine.computeIfAbsent(indice / DIMENSIONE_PAGINA, this::caricaPagina);
+        return pagina[indice % DIMENSIONE_PAGINA];
+    }
+
+    @Override
+    public int size() {
+        return righe.length;
+    }
+
+    /**
+     * Restituisce gli identificativi di riga nell'ordine con cui la lista è stata creata.
+     *
+     * @return identificativi di riga originali, da non modificare
+     */
+    public int[] getRigheOriginali() {
+        return righeOriginali;
+    }
+
+    /**
+     * Restituisce gli identificativi di riga nell'ordine corrente.
+     *
+     * @return identificativi di riga, da non modificare
+     */
+    public int[] getRighe() {
+        return righe;
+    }
+
+    /**
+     * Sostituisce l'ordine delle righe con una permutazione dello stesso insieme di identificativi
+     * e notifica il cambiamento agli osservatori.
+     *
+     * @param nuoveRighe gli stessi identificativi di riga nel nuovo ordine
+     */
+    public void riordina(int[] nuoveRighe) {
+        if (nuoveRighe == righe) return;
+        int massimo = 0;
+        for (int riga : nuoveRighe) {
+            massimo = Math.max(massimo, riga);
+        }
+        int[] nuovaPosizione = new int[massimo + 1];
+        for (int i = 0; i < nuoveRighe.length; i++) {
+            nuovaPosizione[nuoveRighe[i]] = i;
+        }
+        int[] permutazione = new int[righe.length];
+        for (int i = 0; i < righe.length; i++) {
+            permutazione[i] = nuovaPosizione[righe[i]];
+        }
+
+        righe = nuoveRighe;
+        pagine.clear();
+        beginChange();
+        nextPermutation(0, righe.length, permutazione);
+        endChange();
+    }
+
+    /**
+     * Materializza i ristoranti di una pagina.
+     *
+     * @param numeroPagina indice della pagina
+     * @return ristoranti della pagina
+     */
+    private Ristorante[] caricaPagina(int numeroPagina) {
+        int inizio = numeroPagina * DIMENSIONE_PAGINA;
+        int fine = Math.min(righe.length, inizio + DIMENSIONE_PAGINA);
+        Ristorante[] pagina = new Ristorante[fine - inizio];
+        for (int i = inizio; i < fine; i++) {
+            pagina[i - inizio] = caricatore.apply(righe[i]);
+        }
+        return pagina;
+    }
+}
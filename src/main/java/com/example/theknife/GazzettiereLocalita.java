@@ -0,0 +1,143 @@
+package com.example.theknife;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gazzettiere delle località del catalogo, per ricavare le coordinate di un luogo indicato a parole
+ * (ad es. il domicilio dell'utente) senza servizi di geocodifica esterni.
+ * <p>
+ * Per ogni località, identificata dalla prima parte del campo località dei ristoranti (ad es. "Como" per
+ * "Como, Italia"), conserva il centroide delle coordinate dei ristoranti che vi si trovano, aggiornato a
+ * ogni inserimento. I nomi sono inseriti anche in un {@link AlberoBK}, così che un nome scritto con qualche
+ * errore di battitura venga comunque ricondotto alla località più vicina.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class GazzettiereLocalita {
+
+    /**
+     * Località del gazzettiere con il suo centroide.
+     *
+     * @param nome             nome normalizzato della località
+     * @param latitudine       latitudine media dei ristoranti, in gradi
+     * @param longitudine      longitudine media dei ristoranti, in gradi
+     * @param numeroRistoranti ristoranti del catalogo nella località
+     */
+    public record Localita(String nome, double latitudine, double longitudine, int numeroRistoranti) {}
+
+    /** Somme delle coordinate dei ristoranti di una località. */
+    private static final class Centroide {
+        private double sommaLatitudini;
+        private double sommaLongitudini;
+        private int numero;
+    }
+
+    private final Map<String, Centroide> centroidi = new HashMap<>();
+    private final AlberoBK nomi = new AlberoBK();
+
+    /**
+     * Aggiunge un ristorante al centroide della sua località.
+     *
+     * @param localita    campo località del ristorante
+     * @param latitudine  latitudine del ristorante, in gradi
+     * @param longitudine longitudine del ristorante, in gradi
+     */
+    public void aggiungi(String localita, double latitudine, double longitudine) {
+        String nome = normalizza(localita);
+        if (nome.isEmpty()) return;
+        Centroide centroide = centroidi.computeIfAbsent(nome, n -> {
+            nomi.inserisci(n, n);
+            return new Centroide();
+        });
+        centroide.sommaLatitudini += latitudine;
+        centroide.sommaLongitudini += longitudine;
+        centroide.numero++;
+    }
+
+    /**
+     * Toglie un ristorante dal centroide della sua località, ad es. prima di aggiornarne i dati.
+     *
+     * @param localita    campo località del ristorante
+     * @param latitudine  latitudine del ristorante, in gradi
+     * @param longitudine longitudine del ristorante, in gradi
+     */
+    public void rimuovi(String localita, double latitudine, double longitudine) {
+        Centroide centroide = centroidi.get(normalizza(localita));
+        if (centroide == null || centroide.numero == 0) return;
+        centroide.sommaLatitudini -= latitudine;
+        centroide.sommaLongitudini -= longitudine;
+        centroide.numero--;
+    }
+
+    /**
+     * Svuota il gazzettiere.
+     */
+    public void svuota() {
+        centroidi.clear();
+        nomi.svuota();
+    }
+
+    /**
+     * Cerca una località con il nome indicato, senza tolleranza agli errori.
+     *
+     * @param localita nome della località, eventualmente seguito da altre parti separate da virgola
+     * @return la località, oppure {@code null} se nel catalogo non ci sono ristoranti con quel nome di località
+     */
+    public Localita cerca(String localita) {
+        return localita(normalizza(localita));
+    }
+
+    /**
+     * Risolve un nome di località: se non c'è una corrispondenza esatta sceglie, tra i nomi entro la soglia
+     * di errori ammessa per la sua lunghezza, il più simile e, a parità, quello con più ristoranti.
+     *
+     * @param localita nome della località scritto dall'utente
+     * @return la località, oppure {@code null} se nessun nome è abbastanza simile
+     */
+    public Localita risolvi(String localita) {
+        String nome = normalizza(localita);
+        Localita esatta = localita(nome);
+        if (esatta != null || nome.isEmpty()) return esatta;
+
+        Localita migliore = null;
+        int distanzaMigliore = Integer.MAX_VALUE;
+        for (AlberoBK.Corrispondenza c : nomi.cerca(nome, GestioneRistorante.sogliaErrori(nome))) {
+            Localita candidata = localita(c.termine());
+            if (candidata == null) continue;
+            if (c.distanza() < distanzaMigliore
+                    || (c.distanza() == distanzaMigliore && candidata.numeroRistoranti() > migliore.numeroRistoranti())) {
+                migliore = candidata;
+                distanzaMigliore = c.distanza();
+            }
+        }
+        return migliore;
+    }
+
+    /**
+     * Restituisce il numero di località con almeno un ristorante.
+     *
+     * @return numero di località
+     */
+    public int getNumeroLocalita() {
+        return (int) centroidi.values().stream().filter(c -> c.numero > 0).count();
+    }
+
+    private Localita localita(String nome) {
+        Centroide centroide = centroidi.get(nome);
+        if (centroide == null || centroide.numero == 0) return null;
+        return new Localita(nome, centroide.sommaLatitudini / centroide.numero,
+                centroide.sommaLongitudini / centroide.numero, centroide.numero);
+    }
+
+    private static String normalizza(String localita) {
+        if (localita == null) return "";
+        return AnalizzatoreTesto.normalizza(localita.split(",")[0]).trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.theknife;
+
+/**
+ * Funzioni di calcolo geografico usate dalle ricerche per distanza.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public final class Geografia {
+
+    /** Raggio medio terrestre in chilometri. */
+    public static final double RAGGIO_TERRA_KM = 6371.0088;
+
+    private Geografia() {}
+
+    /**
+     * Calcola la distanza sulla superficie terrestre tra due punti con la formula dell'emisenoverso.
+     *
+     * @param latitudine1  latitudine del primo punto, in gradi
+     * @param longitudine1 longitudine del primo punto, in gradi
+     * @param latitudine2  latitudine del secondo punto, in gradi
+     * @param longitudine2 longitudine del secondo punto, in gradi
+     * @return distanza in chilometri
+     */
+    public static double distanzaKm(double latitudine1, double longitudine1, double latitudine2, double longitudine2) {
+        double dLat = Math.toRadians(latitudine2 - latitudine1);
+        double dLon = Math.toRadians(longitudine2 - longitudine1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitudine1)) * Math.cos(Math.toRadians(latitudine2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RAGGIO_TERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Calcola la distanza tra un punto e la posizione di un ristorante.
+     *
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @param ristorante  ristorante di cui considerare le coordinate
+     * @return distanza in chilometri
+     */
+    public static double distanzaKm(double latitudine, double longitudine, Ristorante ristorante) {
+        return distanzaKm(latitudine, longitudine, ristorante.getLatitudine(), ristorante.getLongitudine());
+    }
+}
@@ -3,8 +3,10 @@ package com.example.theknife;
 import java.io.*;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Servizio per la gestione delle preferenze degli utenti.
@@ -24,6 +26,23 @@ public class GestionePreferiti {
 
     private static GestionePreferiti instance;
     private final Map<String, Set<String>> preferitiPerUtente = new HashMap<>();
+    private final List<AscoltatorePreferiti> ascoltatori = new CopyOnWriteArrayList<>();
+
+    /**
+     * Riceve l'aggiunta e la rimozione dei preferiti, per aggiornare le viste che li mostrano senza
+     * ricaricarli tutti.
+     */
+    public interface AscoltatorePreferiti {
+
+        /**
+         * Notifica l'aggiunta o la rimozione di un preferito.
+         *
+         * @param username     nome dell'utente
+         * @param ristoranteId identificativo del ristorante
+         * @param aggiunto     {@code true} se il ristorante è stato aggiunto, {@code false} se rimosso
+         */
+        void preferitoModificato(String username, String ristoranteId, boolean aggiunto);
+    }
 
     private GestionePreferiti() {
         caricaPreferiti();
@@ -128,8 +147,11 @@ public class GestionePreferiti {
      * @param ristoranteId identificativo del ristorante
      */
     public void aggiungiPreferito(String username, String ristoranteId) {
-        preferitiPerUtente.computeIfAbsent(username, k -> new HashSet<>()).add(ristoranteId);
+        boolean aggiunto = preferitiPerUtente.computeIfAbsent(username, k -> new HashSet<>()).add(ristoranteId);
         salvaPreferiti();
+        if (aggiunto) {
+            notifica(username, ristoranteId, true);
+        }
     }
 
     /**
@@ -145,10 +167,37 @@ public class GestionePreferiti {
     public void rimuoviPreferito(String username, String ristoranteId) {
         Set<String> preferiti = preferitiPerUtente.get(username);
         if (preferiti != null) {
-            preferiti.remove(ristoranteId);
+            boolean rimosso = preferiti.remove(ristoranteId);
             salvaPreferiti();
+            if (rimosso) {
+                notifica(username, ristoranteId, false);
+            }
         }
     }
+    /**
+     * Registra un ascoltatore delle modifiche ai preferiti.
+     *
+     * @param ascoltatore ascoltatore da registrare
+     */
+    public void aggiungiAscoltatore(AscoltatorePreferiti ascoltatore) {
+        ascoltatori.add(ascoltatore);
+    }
+
+    /**
+     * Rimuove un ascoltatore registrato con {@link #aggiungiAscoltatore(AscoltatorePreferiti)}.
+     *
+     * @param ascoltatore ascoltatore da rimuovere
+     */
+    public void rimuoviAscoltatore(AscoltatorePreferiti ascoltatore) {
+        ascoltatori.remove(ascoltatore);
+    }
+
+    private void notifica(String username, String ristoranteId, boolean aggiunto) {
+        for (AscoltatorePreferiti ascoltatore : ascoltatori) {
+            ascoltatore.preferitoModificato(username, ristoranteId, aggiunto);
+        }
+    }
+
     /**
      * Restituisce l'insieme dei ristoranti preferiti di un utente.
      *
@@ -161,6 +210,30 @@ public class GestionePreferiti {
         return preferitiPerUtente.getOrDefault(username, new HashSet<>());
     }
 
+    /**
+     * Restituisce l'insieme dei ristoranti preferiti di un utente senza ricaricare il file, ad es. per
+     * strutture aggiornate dalle notifiche di {@link AscoltatorePreferiti}.
+     *
+     * @param username nome dell'utente
+     * @return copia dell'insieme di ID dei ristoranti preferiti, vuoto se l'utente non ha preferiti
+     */
+    public Set<String> getPreferitiInMemoria(String username) {
+        Set<String> preferiti = preferitiPerUtente.get(username);
+        return preferiti == null ? new HashSet<>() : new HashSet<>(preferiti);
+    }
+
+    /**
+     * Restituisce i preferiti di tutti gli utenti, ad es. per calcolare le raccomandazioni.
+     *
+     * @return copia della mappa da nome utente a insieme di ID dei ristoranti preferiti
+     */
+    public Map<String, Set<String>> getTuttiPreferiti() {
+        caricaPreferiti();
+        Map<String, Set<String>> copia = new HashMap<>();
+        preferitiPerUtente.forEach((username, preferiti) -> copia.put(username, new HashSet<>(preferiti)));
+        return copia;
+    }
+
     /**
      * Verifica se un ristorante è presente tra i preferiti di un utente.
      *
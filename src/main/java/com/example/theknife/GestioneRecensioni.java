@@ -5,9 +5,11 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import javafx.collections.FXCollections;
@@ -31,6 +33,39 @@ public class GestioneRecensioni {
     private static GestioneRecensioni instance;
     private final Map<String, List<Recensione>> recensioniMap = new HashMap<>();
     private final ObservableList<Recensione> allRecensioni = FXCollections.observableArrayList();
+    private final IndiceRecensioni indiceTesti = new IndiceRecensioni();
+    private final List<AscoltatoreRecensioni> ascoltatori = new CopyOnWriteArrayList<>();
+    private long firmaFile;
+
+    /**
+     * Numero di recensioni e somma delle stelle di un ristorante.
+     *
+     * @param numero      numero di recensioni
+     * @param sommaStelle somma delle stelle delle recensioni
+     */
+    public record AggregatoRecensioni(int numero, int sommaStelle) {}
+
+    /**
+     * Riceve le variazioni degli aggregati delle recensioni, per mantenere aggiornate le strutture
+     * che ne dipendono senza ricalcolarle da zero.
+     */
+    public interface AscoltatoreRecensioni {
+
+        /**
+         * Notifica la variazione degli aggregati di un ristorante.
+         *
+         * @param username         autore della recensione aggiunta, modificata o eliminata
+         * @param ristoranteId     identificativo del ristorante
+         * @param deltaRecensioni  variazione del numero di recensioni
+         * @param deltaStelle      variazione della somma delle stelle
+         */
+        void variazione(String username, String ristoranteId, int deltaRecensioni, int deltaStelle);
+
+        /**
+         * Notifica che le recensioni sono state ricaricate dal file e gli aggregati vanno ricalcolati.
+         */
+        void ricaricate();
+    }
 
     /**
      * Costruttore privato per implementare il pattern Singleton.
@@ -52,29 +87,55 @@ public class GestioneRecensioni {
         return instance;
     }
 
+    /**
+     * Ricarica le recensioni dal file CSV, per riflettere le modifiche fatte da altre istanze
+     * dell'applicazione. Da chiamare solo quando l'utente chiede di aggiornare i dati: le altre
+     * letture usano le recensioni in memoria, già aggiornate a ogni inserimento, modifica o eliminazione.
+     * Se il file non è cambiato dall'ultima lettura o scrittura non viene riletto e gli ascoltatori,
+     * ad es. la {@link MappaCalore}, conservano i loro aggregati.
+     */
+    public void ricaricaRecensioni() {
+        if (firmaFile() == firmaFile) return;
+        caricaRecensioni();
+    }
+
+    /**
+     * Calcola una firma del file delle recensioni basata su dimensione e data di modifica, per capire se
+     * è stato modificato da un'altra istanza dopo l'ultima lettura o scrittura.
+     *
+     * @return firma del file
+     */
+    private long firmaFile() {
+        File file = new File(CSV_FILE);
+        return file.length() * 31 + file.lastModified();
+    }
+
     /**
      * Carica tutte le recensioni dal file CSV e le memorizza in
-     * {@link #recensioniMap} e {@link #allRecensioni}.
+     * {@link #recensioniMap} e {@link #allRecensioni}. Gli ascoltatori vengono avvisati
+     * a caricamento concluso, così che ricalcolino gli aggregati sui dati nuovi.
      */
     private void caricaRecensioni() {
         recensioniMap.clear();
         allRecensioni.clear();
+        indiceTesti.svuota();
 
         File csvFile = new File(CSV_FILE);
 
         if (!csvFile.exists()) {
             createReviewsFile(csvFile);
-            return;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile, StandardCharsets.UTF_8))) {
-            String line = reader.readLine(); // Skip header
-            while ((line = reader.readLine()) != null) {
-                processReviewLine(line);
+        } else {
+            try (BufferedReader reader = new BufferedReader(new FileReader(csvFile, StandardCharsets.UTF_8))) {
+                String line = reader.readLine(); // Skip header
+                while ((line = reader.readLine()) != null) {
+                    processReviewLine(line);
+                }
+            } catch (IOException e) {
+                System.err.println("Errore nel caricamento delle recensioni: " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.err.println("Errore nel caricamento delle recensioni: " + e.getMessage());
         }
+        firmaFile = firmaFile();
+        ascoltatori.forEach(AscoltatoreRecensioni::ricaricate);
     }
 
     /**
@@ -119,6 +180,7 @@ public class GestioneRecensioni {
 
                 recensioniMap.computeIfAbsent(ristoranteId, k -> new ArrayList<>()).add(recensione);
                 allRecensioni.add(recensione);
+                indiceTesti.aggiungi(recensione);
             } catch (NumberFormatException e) {
                 System.err.println("Errore nel parsing della recensione: " + e.getMessage());
             }
@@ -151,6 +213,7 @@ public class GestioneRecensioni {
         } catch (IOException e) {
             System.err.println("Errore nel salvataggio delle recensioni: " + e.getMessage());
         }
+        firmaFile = firmaFile();
     }
 
     /**
@@ -162,6 +225,8 @@ public class GestioneRecensioni {
         recensione.setData(LocalDateTime.now().format(DATE_FORMATTER));
         recensioniMap.computeIfAbsent(recensione.getRistoranteId(), k -> new ArrayList<>()).add(recensione);
         allRecensioni.add(recensione);
+        indiceTesti.aggiungi(recensione);
+        notificaVariazione(recensione.getUsername(), recensione.getRistoranteId(), 1, recensione.getStelle());
         salvaRecensioni();
     }
 
@@ -180,9 +245,11 @@ public class GestioneRecensioni {
                     .filter(r -> r.getUsername().equals(username) && r.getRistoranteId().equals(ristoranteId))
                     .findFirst()
                     .ifPresent(r -> {
+                        notificaVariazione(username, ristoranteId, 0, nuoveStelle - r.getStelle());
                         r.setTesto(nuovoTesto);
                         r.setStelle(nuoveStelle);
                         r.setData(LocalDateTime.now().format(DATE_FORMATTER));
+                        indiceTesti.aggiorna(r);
                     });
             salvaRecensioni();
         }
@@ -197,7 +264,14 @@ public class GestioneRecensioni {
     public void eliminaRecensione(String username, String ristoranteId) {
         List<Recensione> recensioni = recensioniMap.get(ristoranteId);
         if (recensioni != null) {
-            recensioni.removeIf(r -> r.getUsername().equals(username) && r.getRistoranteId().equals(ristoranteId));
+            recensioni.removeIf(r -> {
+                boolean daEliminare = r.getUsername().equals(username) && r.getRistoranteId().equals(ristoranteId);
+                if (daEliminare) {
+                    indiceTesti.rimuovi(r);
+                    notificaVariazione(username, ristoranteId, -1, -r.getStelle());
+                }
+                return daEliminare;
+            });
             allRecensioni.removeIf(r -> r.getUsername().equals(username) && r.getRistoranteId().equals(ristoranteId));
             salvaRecensioni();
         }
@@ -208,27 +282,136 @@ public class GestioneRecensioni {
      * @param recensione recensione con risposta aggiornata
      */
     public void salvaRispostaRecensione(Recensione recensione) {
+        Recensione attuale = trovaRecensione(recensione.getUsername(), recensione.getRistoranteId());
+        if (attuale == null) {
+            System.err.println("Recensione di " + recensione.getUsername() + " per " + recensione.getRistoranteId()
+                    + " non trovata: risposta non salvata");
+            return;
+        }
+        // La recensione ricevuta può essere una copia letta prima di un ricaricamento
+        if (attuale != recensione) {
+            attuale.setRisposta(recensione.getRisposta());
+        }
+        indiceTesti.aggiorna(attuale);
         salvaRecensioni();
     }
+
+    /**
+     * Cerca in memoria la recensione di un utente per un ristorante.
+     *
+     * @param username     autore della recensione
+     * @param ristoranteId identificativo del ristorante
+     * @return la recensione, oppure {@code null} se non esiste
+     */
+    private Recensione trovaRecensione(String username, String ristoranteId) {
+        List<Recensione> recensioni = recensioniMap.get(ristoranteId);
+        if (recensioni == null) return null;
+        for (Recensione recensione : recensioni) {
+            if (recensione.getUsername().equals(username)) {
+                return recensione;
+            }
+        }
+        return null;
+    }
     /**
-     * Restituisce tutte le recensioni di un ristorante.
+     * Restituisce tutte le recensioni di un ristorante, senza ricaricare il file.
      *
      * @param nomeRistorante nome del ristorante
      * @return lista di recensioni relative al ristorante
      */
     public List<Recensione> getRecensioniRistorante(String nomeRistorante) {
-        caricaRecensioni(); // Ricarica per avere dati aggiornati
-        return recensioniMap.getOrDefault(nomeRistorante, new ArrayList<>());
+        return new ArrayList<>(recensioniMap.getOrDefault(nomeRistorante, List.of()));
     }
 
     /**
-     * Restituisce tutte le recensioni scritte da un utente.
+     * Cerca, tra le recensioni dei ristoranti indicati, quelle il cui testo o la cui risposta
+     * contengono tutte le parole cercate. Usa l'indice full-text mantenuto in memoria,
+     * aggiornato a ogni inserimento, modifica o eliminazione.
+     *
+     * @param query      parole da cercare (ad es. "porzioni" o "servizio lento")
+     * @param ristoranti nomi dei ristoranti in cui cercare, oppure {@code null} per tutti
+     * @return recensioni corrispondenti, dalla più recente
+     */
+    public List<Recensione> cercaRecensioni(String query, Collection<String> ristoranti) {
+        List<Recensione> risultati = new ArrayList<>(indiceTesti.cerca(query, ristoranti));
+        risultati.sort((r1, r2) -> r2.getData().compareTo(r1.getData()));
+        return risultati;
+    }
+
+    /**
+     * Cerca le recensioni che menzionano un argomento in tutti i ristoranti di un proprietario.
+     *
+     * @param username username del ristoratore
+     * @param query    parole da cercare
+     * @return recensioni corrispondenti, dalla più recente
+     */
+    public List<Recensione> cercaRecensioniProprietario(String username, String query) {
+        List<String> posseduti = GestionePossessoRistorante.getInstance().getOwnedRestaurants(username);
+        if (posseduti.isEmpty()) return new ArrayList<>();
+        return cercaRecensioni(query, posseduti);
+    }
+
+    /**
+     * Restituisce il numero di recensioni ricevute da un ristorante, senza ricaricare il file.
+     *
+     * @param nomeRistorante nome del ristorante
+     * @return numero di recensioni presenti in memoria
+     */
+    public int contaRecensioni(String nomeRistorante) {
+        List<Recensione> recensioni = recensioniMap.get(nomeRistorante);
+        return recensioni == null ? 0 : recensioni.size();
+    }
+
+    /**
+     * Calcola numero di recensioni e somma delle stelle di ogni ristorante recensito, senza ricaricare il file.
+     *
+     * @return aggregati per nome del ristorante
+     */
+    public Map<String, AggregatoRecensioni> getAggregatiPerRistorante() {
+        Map<String, AggregatoRecensioni> aggregati = new HashMap<>();
+        for (Map.Entry<String, List<Recensione>> voce : recensioniMap.entrySet()) {
+            int sommaStelle = 0;
+            for (Recensione recensione : voce.getValue()) {
+                sommaStelle += recensione.getStelle();
+            }
+            if (!voce.getValue().isEmpty()) {
+                aggregati.put(voce.getKey(), new AggregatoRecensioni(voce.getValue().size(), sommaStelle));
+            }
+        }
+        return aggregati;
+    }
+
+    /**
+     * Registra un ascoltatore delle variazioni degli aggregati delle recensioni.
+     *
+     * @param ascoltatore ascoltatore da registrare
+     */
+    public void aggiungiAscoltatore(AscoltatoreRecensioni ascoltatore) {
+        ascoltatori.add(ascoltatore);
+    }
+
+    /**
+     * Rimuove un ascoltatore registrato con {@link #aggiungiAscoltatore(AscoltatoreRecensioni)}.
+     *
+     * @param ascoltatore ascoltatore da rimuovere
+     */
+    public void rimuoviAscoltatore(AscoltatoreRecensioni ascoltatore) {
+        ascoltatori.remove(ascoltatore);
+    }
+
+    private void notificaVariazione(String username, String ristoranteId, int deltaRecensioni, int deltaStelle) {
+        for (AscoltatoreRecensioni ascoltatore : ascoltatori) {
+            ascoltatore.variazione(username, ristoranteId, deltaRecensioni, deltaStelle);
+        }
+    }
+
+    /**
+     * Restituisce tutte le recensioni scritte da un utente, senza ricaricare il file.
      *
      * @param username nome dell’utente
      * @return lista di recensioni scritte dall’utente
      */
     public List<Recensione> getRecensioniUtente(String username) {
-        caricaRecensioni();
         return recensioniMap.values().stream()
                 .flatMap(List::stream)
                 .filter(r -> r.getUsername().equals(username))
@@ -3,8 +3,12 @@ package com.example.theknife;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.text.Collator;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * Servizio per la gestione dei ristoranti.
@@ -21,10 +25,163 @@ public class GestioneRistorante {
     private static final String CSV_FILE = "data/michelin_my_maps.csv";
     private static final String PROPRIETARI_FILE = "data/proprietari_ristoranti.csv";
     private static final String CSV_HEADER = "nome,indirizzo,localita,prezzo,cucina,longitudine,latitudine,numeroTelefono,url,sitoWeb,premio,stellaVerde,servizi,descrizione";
+    private static final String INDICE_DESCRIZIONI_FILE = "data/indice_descrizioni.bin";
+    private static final int MAX_RISULTATI_DESCRIZIONI = 500;
+    private static final int DIMENSIONE_PAGINA_QUERY = 200;
+    private static final int CAPACITA_CACHE_RICERCHE = 256;
 
+    /**
+     * Numero e posizioni dei campi del CSV del catalogo (vedi {@link #CSV_HEADER}), usati anche da
+     * {@link Ristorante} quando analizza i campi di dettaglio al primo accesso.
+     */
+    static final int NUMERO_CAMPI = 14;
+    static final int INDICE_CAMPO_TELEFONO = 7;
+    static final int INDICE_CAMPO_URL = 8;
+    static final int INDICE_CAMPO_SITO_WEB = 9;
+    static final int INDICE_CAMPO_SERVIZI = 12;
+    static final int INDICE_CAMPO_DESCRIZIONE = 13;
+
+    /**
+     * Campi del CSV usati solo dalla schermata di dettaglio: telefono, URL, sito web, servizi e descrizione.
+     * Gli altri servono all'elenco, agli indici di ricerca e alle statistiche e vengono sempre analizzati.
+     */
+    private static final boolean[] CAMPI_DETTAGLIO = new boolean[NUMERO_CAMPI];
+    static {
+        for (int indice : new int[]{INDICE_CAMPO_TELEFONO, INDICE_CAMPO_URL, INDICE_CAMPO_SITO_WEB,
+                INDICE_CAMPO_SERVIZI, INDICE_CAMPO_DESCRIZIONE}) {
+            CAMPI_DETTAGLIO[indice] = true;
+        }
+    }
+
+    /**
+     * Se {@code true} le descrizioni non vengono caricate in memoria ma lette dal file CSV quando servono.
+     * Si attiva avviando l'applicazione con {@code -Dtheknife.descrizioni=differite}.
+     */
+    private static final boolean DESCRIZIONI_DIFFERITE = "differite".equalsIgnoreCase(System.getProperty("theknife.descrizioni"));
+
+    /**
+     * Se {@code true} (predefinito) il caricamento analizza solo i campi necessari all'elenco e agli indici;
+     * i {@link #CAMPI_DETTAGLIO} vengono analizzati al primo accesso. Con
+     * {@code -Dtheknife.proiezione=completa} tutti i campi vengono analizzati subito.
+     */
+    private static final boolean PROIEZIONE_ELENCO = !"completa".equalsIgnoreCase(System.getProperty("theknife.proiezione"));
+
+    /**
+     * Se {@code true} i dati dei ristoranti vengono conservati fuori dallo heap in un {@link CatalogoColonnare}
+     * e i ristoranti sono viste sulle sue righe. Si attiva con {@code -Dtheknife.catalogo=colonnare};
+     * in questa modalità tutti i campi vengono copiati nell'archivio, per cui proiezione e descrizioni
+     * differite non si applicano.
+     */
+    private static final boolean CATALOGO_COLONNARE = "colonnare".equalsIgnoreCase(System.getProperty("theknife.catalogo"));
+
+    /**
+     * Righe trovate da una ricerca eseguita fuori dal thread dell'interfaccia, con la versione del catalogo
+     * su cui sono state calcolate: se nel frattempo il catalogo è cambiato, il risultato va scartato.
+     *
+     * @param righe            identificativi di riga trovati
+     * @param distanzeKm       distanza in km di ogni riga dal centro della ricerca, nello stesso ordine
+     * @param versioneCatalogo versione del catalogo usata per la ricerca
+     */
+    public record RigheVersionate(int[] righe, double[] distanzeKm, long versioneCatalogo) {}
+
+    /**
+     * Righe trovate dalla ricerca della schermata principale, con l'indicazione dell'ordine in cui sono.
+     *
+     * @param righe         identificativi di riga trovati; l'array è condiviso con la cache e non va modificato
+     * @param perPertinenza {@code true} se le righe sono in ordine di pertinenza (BM25 sulla descrizione o
+     *                      distanza di modifica dal nome cercato), {@code false} se sono in ordine di nome
+     */
+    public record RigheRicerca(int[] righe, boolean perPertinenza) {}
+
+    /**
+     * Copia delle colonne delle coordinate che i filtri per raggio leggono fuori dal lock.
+     *
+     * @param colonne  copia delle colonne, da non modificare
+     * @param versione versione del catalogo a cui corrisponde la copia
+     */
+    private record IstantaneaCoordinate(ColonneCoordinate colonne, long versione) {}
+
+    /**
+     * Calcolo della tabella dei simili per una versione del catalogo, condiviso da tutte le richieste
+     * fatte su quella versione. Conserva le righe e i nomi del catalogo al momento della codifica, così
+     * che la tabella venga sempre letta con le righe per cui è stata calcolata.
+     *
+     * @param versione    versione del catalogo codificata
+     * @param righe       copia delle righe del catalogo
+     * @param rigaPerNome copia della corrispondenza tra nomi e righe
+     * @param attive      righe dei ristoranti ancora presenti nel catalogo
+     * @param tabella     tabella dei simili, completata in background
+     */
+    private record CalcoloSimili(long versione, List<Ristorante> righe, Map<String, Integer> rigaPerNome,
+                                 BitSet attive, CompletableFuture<SomiglianzaContenuti> tabella) {
+
+        private List<Ristorante> simili(SomiglianzaContenuti calcolata, Ristorante ristorante, int numero) {
+            Integer riga = rigaPerNome.get(ristorante.getNome());
+            if (riga == null) return List.of();
+            List<Ristorante> simili = new ArrayList<>();
+            for (int vicina : calcolata.simili(riga, SomiglianzaContenuti.NUMERO_VICINI)) {
+                if (simili.size() == numero) break;
+                if (attive.get(vicina)) {
+                    simili.add(righe.get(vicina));
+                }
+            }
+            return simili;
+        }
+    }
+
+    /**
+     * Chiave della cache delle ricerche: i criteri della schermata di ricerca in forma normalizzata,
+     * così che "Milano " e "milano" condividano lo stesso risultato.
+     */
+    private record ChiaveRicerca(String nome, String localita, String cucina, String descrizione, int livelloPrezzo) {
+        private static ChiaveRicerca di(String nome, String localita, String cucina, String descrizione, int livelloPrezzo) {
+            return new ChiaveRicerca(normalizzaCriterio(nome), normalizzaCriterio(localita),
+                    normalizzaCriterio(cucina), normalizzaCriterio(descrizione), livelloPrezzo);
+        }
+
+        private static String normalizzaCriterio(String criterio) {
+            return AnalizzatoreTesto.normalizza(criterio).trim().replaceAll("\\s+", " ");
+        }
+    }
+
+    private static final System.Logger LOG = System.getLogger(GestioneRistorante.class.getName());
     private static GestioneRistorante instance;
-    private final Map<String, Ristorante> ristoranti = new HashMap<>();
+    private final Map<String, Ristorante> ristoranti = new LinkedHashMap<>();
     private final Map<String, Set<String>> proprietariRistoranti = new HashMap<>();
+    private final AlberoBK indiceFuzzy = new AlberoBK();
+    private IndiceTestuale indiceDescrizioni = new IndiceTestuale();
+    private final TriePrefissi trieLocalita = new TriePrefissi();
+    private final TriePrefissi trieCucine = new TriePrefissi();
+    private final TassonomiaCucine tassonomiaCucine = new TassonomiaCucine();
+    private final List<List<Ristorante>> ristorantiPerCucina = new ArrayList<>();
+    private final StatisticheCatalogo statistiche = new StatisticheCatalogo();
+    private final CacheRisultati<ChiaveRicerca, RigheRicerca> cacheRicerche = new CacheRisultati<>(CAPACITA_CACHE_RICERCHE);
+    private long versioneCatalogo = 0;
+    private final List<Ristorante> righe = new ArrayList<>();
+    private final Map<String, Integer> rigaPerNome = new HashMap<>();
+    private int[] ordinePerNome = new int[0];
+    private final ColonneCoordinate coordinate = new ColonneCoordinate();
+    private ColonneCoordinate istantaneaCoordinate;
+    private long versioneIstantanea = -1;
+    private final GrigliaSpaziale griglia = new GrigliaSpaziale(coordinate);
+    private final GazzettiereLocalita gazzettiere = new GazzettiereLocalita();
+    private PiramideCluster piramideCluster;
+    private long versionePiramide = -1;
+    private CalcoloSimili calcoloSimili;
+    private final Map<String, Integer> idServizi = new HashMap<>();
+    private final Map<String, Long> bitPerServizi = new HashMap<>();
+    private MappaCalore mappaCalore;
+    private long versioneMappaCalore = -1;
+    private ClassificaPersonalizzata classificaPersonalizzata;
+    private long versioneClassifica = -1;
+    private final Collator collatore = Collator.getInstance(Locale.ITALIAN);
+    private final List<byte[]> chiaviNome = new ArrayList<>();
+    private final List<byte[]> chiaviLocalita = new ArrayList<>();
+    private ArchivioDescrizioni archivioDescrizioni;
+    private LettorePosizionale righeCatalogo;
+    private CatalogoColonnare catalogoColonnare;
+    private final List<Ristorante> vistePerRigaColonnare = new ArrayList<>();
+    private boolean datiCaricati = false;
 
     private GestioneRistorante() {}
 
@@ -46,6 +203,17 @@ public class GestioneRistorante {
     public void initializeData() {
         caricaRistoranti();
         caricaProprietari();
+        datiCaricati = true;
+    }
+
+    /**
+     * Carica i dati dai file CSV solo se non sono già stati caricati.
+     * Utile per le schermate che consultano il catalogo senza doverlo ricaricare ogni volta.
+     */
+    public void assicuraDatiCaricati() {
+        if (!datiCaricati) {
+            initializeData();
+        }
     }
 
     /**
@@ -70,13 +238,384 @@ public class GestioneRistorante {
         }
 
         ristoranti.clear();
+        if (archivioDescrizioni != null) {
+            archivioDescrizioni.chiudi();
+            archivioDescrizioni = null;
+        }
+        if (righeCatalogo != null) {
+            righeCatalogo.chiudi();
+            righeCatalogo = null;
+        }
+        if (CATALOGO_COLONNARE) {
+            catalogoColonnare = new CatalogoColonnare();
+            vistePerRigaColonnare.clear();
+        }
+        if (!CATALOGO_COLONNARE && (PROIEZIONE_ELENCO || DESCRIZIONI_DIFFERITE)) {
+            caricaRistorantiProiettati();
+        } else {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(CSV_FILE), StandardCharsets.UTF_8)) {
+                String line = leggiRecordCsv(reader); // Skip header
+                while ((line = leggiRecordCsv(reader)) != null) {
+                    processRistoranteLine(line);
+                }
+            } catch (IOException e) {
+                System.err.println("Errore nel caricamento dei ristoranti: " + e.getMessage());
+            }
+        }
+        ricostruisciIndici();
+    }
+
+    /**
+     * Ricostruisce da zero gli indici di ricerca a partire dalla mappa {@link #ristoranti}.
+     * Incrementa la versione del catalogo, invalidando i risultati in cache.
+     * <p>
+     * Gli identificativi di riga restano stabili tra un caricamento e l'altro: un ristorante già presente
+     * mantiene la riga associata al suo nome in {@link #rigaPerNome} e solo i nomi nuovi ricevono una riga
+     * in coda, così che le liste virtuali e i risultati già calcolati continuino a indicare gli stessi
+     * ristoranti. Le righe dei ristoranti non più presenti nel file restano assegnate al loro ultimo
+     * contenuto, ma senza coordinate valide e fuori da tutti gli indici, quindi nessuna ricerca le restituisce.
+     * </p>
+     */
+    private synchronized void ricostruisciIndici() {
+        versioneCatalogo++;
+        indiceFuzzy.svuota();
+        trieLocalita.svuota();
+        trieCucine.svuota();
+        tassonomiaCucine.svuota();
+        ristorantiPerCucina.clear();
+        statistiche.svuota();
+        coordinate.svuota();
+        griglia.svuota();
+        gazzettiere.svuota();
+        for (Ristorante ristorante : ristoranti.values()) {
+            Integer riga = rigaPerNome.get(ristorante.getNome());
+            if (riga == null) {
+                rigaPerNome.put(ristorante.getNome(), righe.size());
+                righe.add(ristorante);
+                chiaviNome.add(chiaveCollazione(ristorante.getNome()));
+                chiaviLocalita.add(chiaveCollazione(ristorante.getLocalita()));
+            } else {
+                righe.set(riga, ristorante);
+                chiaviLocalita.set(riga, chiaveCollazione(ristorante.getLocalita()));
+            }
+        }
+        int attive = 0;
+        int[] ordine = new int[righe.size()];
+        for (int riga = 0; riga < righe.size(); riga++) {
+            Ristorante ristorante = righe.get(riga);
+            if (ristoranti.get(ristorante.getNome()) != ristorante) {
+                coordinate.imposta(riga, Double.NaN, Double.NaN);
+                continue;
+            }
+            coordinate.imposta(riga, ristorante.getLatitudine(), ristorante.getLongitudine());
+            griglia.inserisci(riga);
+            gazzettiere.aggiungi(ristorante.getLocalita(), ristorante.getLatitudine(), ristorante.getLongitudine());
+            indicizzaTermini(ristorante);
+            ordine[attive++] = riga;
+        }
+        ordinePerNome = ordinaRighe(Arrays.copyOf(ordine, attive), "nome", true);
+        caricaIndiceDescrizioni();
+    }
+
+    /**
+     * Carica l'indice full-text delle descrizioni salvato su disco, se è stato costruito
+     * dalla versione corrente del file CSV; altrimenti lo ricostruisce in parallelo e lo salva
+     * per gli avvii successivi.
+     */
+    private void caricaIndiceDescrizioni() {
+        Path file = Paths.get(INDICE_DESCRIZIONI_FILE);
+        long firma = firmaCatalogo();
+
+        IndiceTestuale salvato = IndiceTestuale.carica(file, firma);
+        if (salvato != null) {
+            indiceDescrizioni = salvato;
+            return;
+        }
+
+        Map<String, String> descrizioni = leggiColonnaDescrizioni();
+        indiceDescrizioni = IndiceTestuale.costruisci(new ArrayList<>(descrizioni.keySet()),
+                new ArrayList<>(descrizioni.values()));
+        try {
+            indiceDescrizioni.salva(file, firma);
+        } catch (IOException e) {
+            System.err.println("Errore nel salvataggio dell'indice delle descrizioni: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Legge la colonna delle descrizioni scorrendo il file CSV una volta, invece di chiederle ai singoli
+     * ristoranti: con i campi di dettaglio differiti ogni richiesta rileggerebbe la riga dal file.
+     * Come nel caricamento, se un nome compare più volte vale l'ultima riga.
+     *
+     * @return descrizione di ogni ristorante del catalogo, per nome
+     */
+    private Map<String, String> leggiColonnaDescrizioni() {
+        Map<String, String> descrizioni = new LinkedHashMap<>();
         try (BufferedReader reader = Files.newBufferedReader(Paths.get(CSV_FILE), StandardCharsets.UTF_8)) {
-            String line = reader.readLine(); // Skip header
-            while ((line = reader.readLine()) != null) {
-                processRistoranteLine(line);
+            String line = leggiRecordCsv(reader); // Skip header
+            while ((line = leggiRecordCsv(reader)) != null) {
+                List<String> values = parseCsvLine(line);
+                if (values.size() >= NUMERO_CAMPI && ristoranti.containsKey(values.get(0))) {
+                    descrizioni.put(values.get(0), values.get(INDICE_CAMPO_DESCRIZIONE));
+                }
             }
         } catch (IOException e) {
-            System.err.println("Errore nel caricamento dei ristoranti: " + e.getMessage());
+            System.err.println("Errore nella lettura delle descrizioni: " + e.getMessage());
+        }
+        return descrizioni;
+    }
+
+    /**
+     * Calcola una firma del file CSV dei ristoranti basata su dimensione e data di modifica,
+     * usata per capire se gli indici salvati su disco sono ancora validi.
+     *
+     * @return firma del file CSV
+     */
+    private long firmaCatalogo() {
+        File file = new File(CSV_FILE);
+        return file.length() * 31 + file.lastModified();
+    }
+
+    /**
+     * Aggiunge un singolo ristorante a tutti gli indici di ricerca e incrementa la versione
+     * del catalogo, invalidando i risultati in cache.
+     *
+     * @param ristorante ristorante da indicizzare
+     */
+    private synchronized void indicizzaRistorante(Ristorante ristorante) {
+        versioneCatalogo++;
+        Integer esistente = rigaPerNome.get(ristorante.getNome());
+        if (esistente != null) {
+            Ristorante precedente = righe.get(esistente);
+            gazzettiere.rimuovi(precedente.getLocalita(), precedente.getLatitudine(), precedente.getLongitudine());
+            rimuoviTermini(precedente);
+            indiceDescrizioni.rimuovi(precedente.getNome());
+            righe.set(esistente, ristorante);
+            chiaviNome.set(esistente, chiaveCollazione(ristorante.getNome()));
+            chiaviLocalita.set(esistente, chiaveCollazione(ristorante.getLocalita()));
+            griglia.rimuovi(esistente);
+            coordinate.imposta(esistente, ristorante.getLatitudine(), ristorante.getLongitudine());
+            griglia.inserisci(esistente);
+        } else {
+            int riga = righe.size();
+            coordinate.imposta(riga, ristorante.getLatitudine(), ristorante.getLongitudine());
+            griglia.inserisci(riga);
+            rigaPerNome.put(ristorante.getNome(), riga);
+            righe.add(ristorante);
+            chiaviNome.add(chiaveCollazione(ristorante.getNome()));
+            chiaviLocalita.add(chiaveCollazione(ristorante.getLocalita()));
+            ordinePerNome = inserisciOrdinato(ordinePerNome, riga);
+        }
+        gazzettiere.aggiungi(ristorante.getLocalita(), ristorante.getLatitudine(), ristorante.getLongitudine());
+        indicizzaTermini(ristorante);
+        indiceDescrizioni.aggiungi(ristorante.getNome(), ristorante.getDescrizione());
+    }
+
+    /**
+     * Restituisce la chiave di collazione italiana di un testo come array di byte. Le chiavi sono
+     * calcolate una sola volta per riga, quando la riga viene indicizzata, e salvate in
+     * {@link #chiaviNome} e {@link #chiaviLocalita}; confrontarle byte per byte dà lo stesso ordine
+     * del {@link Collator}, senza ricalcolarne le regole a ogni confronto. Va chiamato tenendo il lock
+     * del catalogo, perché il {@link Collator} non è thread-safe.
+     *
+     * @param testo testo di cui calcolare la chiave
+     * @return chiave di collazione
+     */
+    private byte[] chiaveCollazione(String testo) {
+        return collatore.getCollationKey(testo == null ? "" : testo).toByteArray();
+    }
+
+    /**
+     * Restituisce un comparatore di stringhe secondo le regole di ordinamento italiane (accenti e
+     * maiuscole). Il comparatore usa una copia privata del {@link Collator} e non conserva chiavi:
+     * è adatto alle liste brevi di testi che non sono righe del catalogo; per ordinare ristoranti
+     * usare {@link #ordinaRighe(int[], String, boolean)} o {@link #ordinaRistoranti(List, String, boolean)}.
+     *
+     * @return comparatore di stringhe
+     */
+    public Comparator<String> getComparatoreCollazione() {
+        Collator copia = (Collator) collatore.clone();
+        return copia::compare;
+    }
+
+    /**
+     * Ordina degli identificativi di riga per nome o località, confrontando le chiavi di collazione
+     * calcolate per ogni riga al caricamento.
+     *
+     * @param daOrdinare identificativi di riga; l'array non viene modificato
+     * @param colonna    {@code "nome"} oppure {@code "localita"}
+     * @param crescente  {@code true} per l'ordine crescente
+     * @return nuovo array con gli identificativi ordinati
+     * @throws IllegalArgumentException se la colonna non è ordinabile
+     */
+    public int[] ordinaRighe(int[] daOrdinare, String colonna, boolean crescente) {
+        byte[][] perRiga = chiaviColonna(colonna);
+        int[] risultato = daOrdinare.clone();
+        ordinaPerChiave(risultato, perRiga, crescente);
+        return risultato;
+    }
+
+    /**
+     * Ordina dei ristoranti per nome o località con le chiavi di collazione delle loro righe. Ogni
+     * ristorante viene risolto nella sua riga una sola volta; la chiave viene calcolata solo per i
+     * ristoranti che non sono nel catalogo.
+     *
+     * @param daOrdinare ristoranti da ordinare; la lista non viene modificata
+     * @param colonna    {@code "nome"} oppure {@code "localita"}
+     * @param crescente  {@code true} per l'ordine crescente
+     * @return nuova lista con i ristoranti ordinati
+     * @throws IllegalArgumentException se la colonna non è ordinabile
+     */
+    public List<Ristorante> ordinaRistoranti(List<Ristorante> daOrdinare, String colonna, boolean crescente) {
+        boolean perNome = colonna.equals("nome");
+        byte[][] chiavi = new byte[daOrdinare.size()][];
+        synchronized (this) {
+            byte[][] perRiga = chiaviColonna(colonna);
+            for (int i = 0; i < chiavi.length; i++) {
+                Ristorante ristorante = daOrdinare.get(i);
+                Integer riga = rigaPerNome.get(ristorante.getNome());
+                chiavi[i] = riga != null && righe.get(riga) == ristorante
+                        ? perRiga[riga]
+                        : chiaveCollazione(perNome ? ristorante.getNome() : ristorante.getLocalita());
+            }
+        }
+        int[] posizioni = new int[chiavi.length];
+        for (int i = 0; i < posizioni.length; i++) {
+            posizioni[i] = i;
+        }
+        ordinaPerChiave(posizioni, chiavi, crescente);
+        List<Ristorante> risultato = new ArrayList<>(posizioni.length);
+        for (int posizione : posizioni) {
+            risultato.add(daOrdinare.get(posizione));
+        }
+        return risultato;
+    }
+
+    /**
+     * Restituisce le chiavi di collazione di una colonna indicizzate per riga.
+     *
+     * @param colonna {@code "nome"} oppure {@code "localita"}
+     * @return copia delle chiavi della colonna
+     * @throws IllegalArgumentException se la colonna non è ordinabile
+     */
+    private synchronized byte[][] chiaviColonna(String colonna) {
+        List<byte[]> chiavi = switch (colonna) {
+            case "nome" -> chiaviNome;
+            case "localita" -> chiaviLocalita;
+            default -> throw new IllegalArgumentException("Colonna non ordinabile: " + colonna);
+        };
+        return chiavi.toArray(new byte[0][]);
+    }
+
+    /**
+     * Ordina sul posto degli interi secondo le chiavi associate, con un merge sort stabile dal basso
+     * verso l'alto che lavora direttamente su {@code int[]}. A parità di chiave resta l'ordine di
+     * partenza, anche nell'ordine decrescente.
+     *
+     * @param valori    interi da ordinare, usati come indici in {@code chiavi}
+     * @param chiavi    chiavi di collazione per indice
+     * @param crescente {@code true} per l'ordine crescente
+     */
+    private static void ordinaPerChiave(int[] valori, byte[][] chiavi, boolean crescente) {
+        int segno = crescente ? 1 : -1;
+        int n = valori.length;
+        int[] appoggio = new int[n];
+        for (int larghezza = 1; larghezza < n; larghezza *= 2) {
+            for (int inizio = 0; inizio + larghezza < n; inizio += 2 * larghezza) {
+                int medio = inizio + larghezza;
+                int fine = Math.min(medio + larghezza, n);
+                if (segno * Arrays.compareUnsigned(chiavi[valori[medio - 1]], chiavi[valori[medio]]) <= 0) {
+                    continue;
+                }
+                System.arraycopy(valori, inizio, appoggio, inizio, fine - inizio);
+                int i = inizio;
+                int j = medio;
+                for (int k = inizio; k < fine; k++) {
+                    if (j >= fine || (i < medio
+                            && segno * Arrays.compareUnsigned(chiavi[appoggio[i]], chiavi[appoggio[j]]) <= 0)) {
+                        valori[k] = appoggio[i++];
+                    } else {
+                        valori[k] = appoggio[j++];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Restituisce una copia dell'ordinamento per nome con la nuova riga nella sua posizione.
+     * L'array precedente non viene modificato, così che le liste virtuali già create restino coerenti.
+     *
+     * @param ordine ordinamento corrente
+     * @param riga   identificativo della riga da inserire
+     * @return nuovo ordinamento
+     */
+    private int[] inserisciOrdinato(int[] ordine, int riga) {
+        byte[] nuovo = chiaviNome.get(riga);
+        int basso = 0;
+        int alto = ordine.length;
+        while (basso < alto) {
+            int medio = (basso + alto) >>> 1;
+            if (Arrays.compareUnsigned(chiaviNome.get(ordine[medio]), nuovo) <= 0) {
+                basso = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        int[] risultato = new int[ordine.length + 1];
+        System.arraycopy(ordine, 0, risultato, 0, basso);
+        risultato[basso] = riga;
+        System.arraycopy(ordine, basso, risultato, basso + 1, ordine.length - basso);
+        return risultato;
+    }
+
+    /**
+     * Inserisce nell'indice fuzzy i token del nome e della località di un ristorante,
+     * ne converte le cucine negli identificativi della tassonomia aggiornando l'indice per cucina,
+     * registra località e cucine nei trie per l'autocompletamento e aggiorna le statistiche del catalogo.
+     *
+     * @param ristorante ristorante da indicizzare
+     */
+    private void indicizzaTermini(Ristorante ristorante) {
+        int[] idCucine = tassonomiaCucine.registra(ristorante.getCucina());
+        ristorante.setIdCucine(idCucine);
+        for (int id : idCucine) {
+            while (ristorantiPerCucina.size() <= id) {
+                ristorantiPerCucina.add(new ArrayList<>());
+            }
+            ristorantiPerCucina.get(id).add(ristorante);
+            trieCucine.inserisci(tassonomiaCucine.getNome(id));
+        }
+        statistiche.aggiungi(ristorante);
+        trieLocalita.inserisci(ristorante.getLocalita());
+        for (String token : AnalizzatoreTesto.tokenizza(ristorante.getNome())) {
+            indiceFuzzy.inserisci(token, ristorante.getNome());
+        }
+        for (String token : AnalizzatoreTesto.tokenizza(ristorante.getLocalita())) {
+            indiceFuzzy.inserisci(token, ristorante.getNome());
+        }
+    }
+
+    /**
+     * Toglie da tutti gli indici costruiti da {@link #indicizzaTermini(Ristorante)} le voci di un ristorante
+     * che sta per essere sostituito. Gli identificativi della tassonomia restano assegnati, così che quelli
+     * già salvati negli altri ristoranti non cambino; una cucina senza più ristoranti non viene però
+     * più proposta.
+     *
+     * @param ristorante ristorante indicizzato in precedenza
+     */
+    private void rimuoviTermini(Ristorante ristorante) {
+        for (int id : ristorante.getIdCucine()) {
+            ristorantiPerCucina.get(id).remove(ristorante);
+            trieCucine.rimuovi(tassonomiaCucine.getNome(id));
+        }
+        statistiche.rimuovi(ristorante);
+        trieLocalita.rimuovi(ristorante.getLocalita());
+        for (String token : AnalizzatoreTesto.tokenizza(ristorante.getNome())) {
+            indiceFuzzy.rimuovi(token, ristorante.getNome());
+        }
+        for (String token : AnalizzatoreTesto.tokenizza(ristorante.getLocalita())) {
+            indiceFuzzy.rimuovi(token, ristorante.getNome());
         }
     }
 
@@ -87,56 +626,281 @@ public class GestioneRistorante {
      */
     private void processRistoranteLine(String line) {
         List<String> values = parseCsvLine(line);
-        if (values.size() >= 14) {
-            try {
-                Ristorante ristorante = new Ristorante(
-                        values.get(0), values.get(1), values.get(2), values.get(3),
-                        values.get(4), Double.parseDouble(values.get(5).trim()),
-                        Double.parseDouble(values.get(6).trim()), values.get(7),
-                        values.get(8), values.get(9), values.get(10), values.get(11),
-                        values.get(12), values.get(13)
-                );
-                ristoranti.put(ristorante.getNome(), ristorante);
-            } catch (NumberFormatException e) {
-                System.err.println("Errore nella conversione dei dati per il ristorante " + values.get(0) + ": " + e.getMessage());
+        if (values.size() >= NUMERO_CAMPI) {
+            creaRistorante(values, values.get(INDICE_CAMPO_DESCRIZIONE));
+        }
+    }
+
+    /**
+     * Crea un {@link Ristorante} dai valori di una riga del CSV e lo inserisce nella mappa {@link #ristoranti}.
+     *
+     * @param values      valori della riga, almeno fino al campo dei servizi
+     * @param descrizione descrizione del ristorante, {@code null} se verrà letta dall'archivio
+     * @return il ristorante creato, oppure {@code null} se le coordinate non sono numeri validi
+     */
+    private Ristorante creaRistorante(List<String> values, String descrizione) {
+        try {
+            Ristorante ristorante = new Ristorante(
+                    values.get(0), values.get(1), values.get(2), values.get(3),
+                    values.get(4), Double.parseDouble(values.get(5).trim()),
+                    Double.parseDouble(values.get(6).trim()), values.get(7),
+                    values.get(8), values.get(9), values.get(10), values.get(11),
+                    values.get(12), descrizione
+            );
+            Ristorante inserito = inserisci(ristorante);
+            if (values.get(INDICE_CAMPO_SERVIZI) != null) {
+                inserito.setBitServizi(codificaServizi(values.get(INDICE_CAMPO_SERVIZI)));
             }
+            return inserito;
+        } catch (NumberFormatException e) {
+            System.err.println("Errore nella conversione dei dati per il ristorante " + values.get(0) + ": " + e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * Inserisce un ristorante nella mappa {@link #ristoranti}. Con il catalogo a colonne il ristorante viene
+     * copiato nell'archivio e al suo posto viene inserita la vista sulla nuova riga.
+     *
+     * @param ristorante ristorante da inserire
+     * @return il ristorante effettivamente inserito
+     */
+    private Ristorante inserisci(Ristorante ristorante) {
+        if (catalogoColonnare != null) {
+            RistoranteColonnare vista = new RistoranteColonnare(catalogoColonnare, catalogoColonnare.aggiungi(ristorante));
+            vistePerRigaColonnare.add(vista);
+            ristorante = vista;
+        }
+        Ristorante precedente = ristoranti.put(ristorante.getNome(), ristorante);
+        if (precedente instanceof RistoranteColonnare sostituito) {
+            // La riga resta nell'archivio ma non deve più comparire nelle scansioni
+            vistePerRigaColonnare.set(sostituito.getRiga(), null);
+        }
+        return ristorante;
+    }
 
     /**
-     * Parser CSV che gestisce correttamente valori con virgole tra virgolette.
+     * Carica i ristoranti dal file CSV analizzando solo i campi richiesti. Il file viene letto a byte così da
+     * conoscere la posizione di ogni riga e di ogni campo: i campi di dettaglio non vengono convertiti in
+     * stringhe ma riletti dal file al primo accesso, tramite {@link #righeCatalogo} o, per le descrizioni
+     * differite, tramite l'{@link ArchivioDescrizioni}.
+     */
+    private void caricaRistorantiProiettati() {
+        Path percorso = Paths.get(CSV_FILE);
+        if (DESCRIZIONI_DIFFERITE) {
+            archivioDescrizioni = new ArchivioDescrizioni(percorso);
+        }
+        if (PROIEZIONE_ELENCO) {
+            righeCatalogo = new LettorePosizionale(percorso);
+        }
+        try (InputStream in = Files.newInputStream(percorso)) {
+            byte[] blocco = new byte[1 << 16];
+            byte[] riga = new byte[1024];
+            int[] separatori = new int[NUMERO_CAMPI + 1];
+            int lunghezzaRiga = 0;
+            long inizioRiga = 0;
+            long posizione = 0;
+            boolean intestazione = true;
+            boolean inQuotes = false;
+            int letti;
+            while ((letti = in.read(blocco)) > 0) {
+                for (int i = 0; i < letti; i++, posizione++) {
+                    byte b = blocco[i];
+                    if (b == '"') {
+                        inQuotes = !inQuotes;
+                    }
+                    // Un ritorno a capo dentro un campo tra virgolette fa parte del record
+                    if (b != '\n' || inQuotes) {
+                        if (lunghezzaRiga == riga.length) {
+                            riga = Arrays.copyOf(riga, riga.length * 2);
+                        }
+                        riga[lunghezzaRiga++] = b;
+                        continue;
+                    }
+                    if (!intestazione) {
+                        processaRigaProiettata(riga, lunghezzaRiga, inizioRiga, separatori);
+                    }
+                    intestazione = false;
+                    lunghezzaRiga = 0;
+                    inizioRiga = posizione + 1;
+                }
+            }
+            if (lunghezzaRiga > 0 && !intestazione) {
+                processaRigaProiettata(riga, lunghezzaRiga, inizioRiga, separatori);
+            }
+        } catch (IOException e) {
+            System.err.println("Errore nel caricamento dei ristoranti: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Processa una riga del CSV letta come byte. Virgolette e virgole sono caratteri ASCII, quindi i confini
+     * dei campi possono essere cercati direttamente nei byte UTF-8; solo i campi richiesti vengono poi
+     * decodificati, con le stesse regole di {@link #parseCsvLine(String)}.
+     *
+     * @param riga       byte della riga, senza il carattere di fine riga
+     * @param lunghezza  numero di byte validi in {@code riga}
+     * @param inizioRiga posizione in byte della riga nel file
+     * @param separatori array di appoggio per le posizioni dei separatori, lungo {@code NUMERO_CAMPI + 1}
+     */
+    private void processaRigaProiettata(byte[] riga, int lunghezza, long inizioRiga, int[] separatori) {
+        if (lunghezza > 0 && riga[lunghezza - 1] == '\r') {
+            lunghezza--;
+        }
+        // separatori[i] è la posizione della virgola che precede il campo i (-1 per il primo campo)
+        separatori[0] = -1;
+        int campi = 1;
+        boolean inQuotes = false;
+        for (int i = 0; i < lunghezza && campi <= NUMERO_CAMPI; i++) {
+            if (riga[i] == '"') {
+                inQuotes = !inQuotes;
+            } else if (riga[i] == ',' && !inQuotes) {
+                separatori[campi++] = i;
+            }
+        }
+        if (campi < NUMERO_CAMPI) return;
+        if (campi == NUMERO_CAMPI) {
+            separatori[NUMERO_CAMPI] = lunghezza;
+        }
+
+        String[] valori = new String[NUMERO_CAMPI];
+        for (int campo = 0; campo < NUMERO_CAMPI; campo++) {
+            boolean differito = (PROIEZIONE_ELENCO && CAMPI_DETTAGLIO[campo])
+                    || (DESCRIZIONI_DIFFERITE && campo == INDICE_CAMPO_DESCRIZIONE);
+            if (!differito) {
+                int inizio = separatori[campo] + 1;
+                valori[campo] = valoreCampoCsv(new String(riga, inizio, separatori[campo + 1] - inizio, StandardCharsets.UTF_8));
+            }
+        }
+
+        Ristorante ristorante = creaRistorante(Arrays.asList(valori), valori[INDICE_CAMPO_DESCRIZIONE]);
+        if (ristorante == null) return;
+        if (DESCRIZIONI_DIFFERITE) {
+            int inizio = separatori[INDICE_CAMPO_DESCRIZIONE] + 1;
+            int id = archivioDescrizioni.registra(inizioRiga + inizio, separatori[NUMERO_CAMPI] - inizio);
+            ristorante.setDescrizioneDifferita(archivioDescrizioni, id);
+        }
+        if (PROIEZIONE_ELENCO) {
+            // I servizi restano differiti come stringa, ma la loro codifica a bit serve subito ai simili
+            int inizio = separatori[INDICE_CAMPO_SERVIZI] + 1;
+            ristorante.setBitServizi(codificaServizi(valoreCampoCsv(new String(riga, inizio,
+                    separatori[INDICE_CAMPO_SERVIZI + 1] - inizio, StandardCharsets.UTF_8))));
+            ristorante.setCampiDettaglioDifferiti(righeCatalogo, righeCatalogo.registra(inizioRiga, lunghezza));
+        }
+    }
+
+    /**
+     * Converte i servizi di un ristorante nel loro insieme di bit. Le stesse liste di servizi si ripetono
+     * in molte righe, per cui la conversione viene fatta una volta per testo distinto.
+     *
+     * @param servizi servizi separati da virgola, oppure {@code null}
+     * @return un bit per ogni servizio
+     */
+    private long codificaServizi(String servizi) {
+        if (servizi == null) return 0;
+        return bitPerServizi.computeIfAbsent(servizi, testo -> SomiglianzaContenuti.bitServizi(testo, idServizi));
+    }
+
+    /**
+     * Parser CSV che gestisce correttamente valori con virgole tra virgolette. Dentro un campo tra
+     * virgolette una coppia di virgolette ({@code ""}) vale una virgoletta, come nei file scritti con OpenCSV.
      *
-     * @param line riga del file CSV
+     * @param line record del file CSV, eventualmente su più righe (vedi {@link #leggiRecordCsv(BufferedReader)})
      * @return lista dei valori estratti
      */
-    private List<String> parseCsvLine(String line) {
+    static List<String> parseCsvLine(String line) {
         List<String> result = new ArrayList<>();
-        boolean inQuotes = false;
         StringBuilder currentValue = new StringBuilder();
+        int posizione = 0;
+        while (true) {
+            posizione = leggiCampoCsv(line, posizione, currentValue);
+            result.add(currentValue.toString().trim());
+            if (posizione >= line.length()) {
+                return result;
+            }
+            currentValue.setLength(0);
+            posizione++;
+        }
+    }
 
-        for (char c : line.toCharArray()) {
+    /**
+     * Restituisce il valore di un singolo campo CSV non ancora analizzato, con le stesse regole di
+     * {@link #parseCsvLine(String)}.
+     *
+     * @param campo testo del campo così come compare nel file
+     * @return valore del campo
+     */
+    static String valoreCampoCsv(String campo) {
+        StringBuilder valore = new StringBuilder(campo.length());
+        leggiCampoCsv(campo, 0, valore);
+        return valore.toString().trim();
+    }
+
+    /**
+     * Legge un campo CSV a partire da una posizione, togliendo le virgolette che lo delimitano.
+     *
+     * @param testo  testo del record
+     * @param inizio posizione del primo carattere del campo
+     * @param valore destinazione del valore letto
+     * @return posizione della virgola che chiude il campo, oppure la lunghezza del testo
+     */
+    private static int leggiCampoCsv(String testo, int inizio, StringBuilder valore) {
+        boolean inQuotes = false;
+        for (int i = inizio; i < testo.length(); i++) {
+            char c = testo.charAt(i);
             if (c == '"') {
-                inQuotes = !inQuotes;
+                if (inQuotes && i + 1 < testo.length() && testo.charAt(i + 1) == '"') {
+                    valore.append('"');
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
             } else if (c == ',' && !inQuotes) {
-                result.add(cleanValue(currentValue.toString()));
-                currentValue.setLength(0);
+                return i;
             } else {
-                currentValue.append(c);
+                valore.append(c);
             }
         }
-        result.add(cleanValue(currentValue.toString()));
-        return result;
+        return testo.length();
+    }
+
+    /**
+     * Legge un record CSV. Un campo tra virgolette può contenere dei ritorni a capo: finché le virgolette
+     * del record non sono bilanciate vengono lette anche le righe successive, unite da {@code '\n'}.
+     *
+     * @param reader lettore del file CSV
+     * @return il record letto, oppure {@code null} a fine file
+     * @throws IOException se la lettura non riesce
+     */
+    static String leggiRecordCsv(BufferedReader reader) throws IOException {
+        String riga = reader.readLine();
+        int virgolette = riga == null ? 0 : contaVirgolette(riga);
+        if (virgolette % 2 == 0) {
+            return riga;
+        }
+        StringBuilder record = new StringBuilder(riga);
+        String seguito;
+        while (virgolette % 2 != 0 && (seguito = reader.readLine()) != null) {
+            record.append('\n').append(seguito);
+            virgolette += contaVirgolette(seguito);
+        }
+        return record.toString();
     }
 
     /**
-     * Pulisce un valore CSV rimuovendo spazi e virgolette.
+     * Conta le virgolette di una riga.
      *
-     * @param value valore CSV da pulire
-     * @return valore pulito
+     * @param riga riga del file CSV
+     * @return numero di virgolette
      */
-    private String cleanValue(String value) {
-        return value.trim().replaceAll("^\"|\"$", "");
+    private static int contaVirgolette(String riga) {
+        int numero = 0;
+        for (int i = 0; i < riga.length(); i++) {
+            if (riga.charAt(i) == '"') {
+                numero++;
+            }
+        }
+        return numero;
     }
 
     /**
@@ -219,14 +983,684 @@ public class GestioneRistorante {
                 .toList();
     }
 
+    /**
+     * Cerca i ristoranti il cui nome o la cui località somigliano al testo indicato,
+     * tollerando errori di battitura (ad es. "Villa Crepsi" trova "Villa Crespi").
+     * <p>
+     * Ogni parola del testo deve corrispondere, entro la soglia di errori ammessa per la sua lunghezza,
+     * ad almeno un termine del nome o della località. I risultati sono ordinati per somma delle distanze
+     * e, a parità, per numero di recensioni ricevute.
+     * </p>
+     *
+     * @param testo testo inserito dall'utente
+     * @return lista di {@link Ristorante} ordinata per pertinenza
+     */
+    public List<Ristorante> cercaPerNomeApprossimato(String testo) {
+        List<String> parole = AnalizzatoreTesto.tokenizza(testo);
+        if (parole.isEmpty()) return new ArrayList<>();
+
+        Map<String, Integer> distanzePerNome = null;
+        for (String parola : parole) {
+            Map<String, Integer> migliori = new HashMap<>();
+            for (AlberoBK.Corrispondenza c : indiceFuzzy.cerca(parola, sogliaErrori(parola))) {
+                for (String nome : c.chiavi()) {
+                    migliori.merge(nome, c.distanza(), Math::min);
+                }
+            }
+            if (distanzePerNome == null) {
+                distanzePerNome = migliori;
+            } else {
+                distanzePerNome.keySet().retainAll(migliori.keySet());
+                distanzePerNome.replaceAll((nome, distanza) -> distanza + migliori.get(nome));
+            }
+            if (distanzePerNome.isEmpty()) break;
+        }
+
+        GestioneRecensioni gestioneRecensioni = GestioneRecensioni.getInstance();
+        Map<String, Integer> distanze = distanzePerNome;
+        return distanze.keySet().stream()
+                .sorted(Comparator.<String>comparingInt(distanze::get)
+                        .thenComparing(Comparator.comparingInt(gestioneRecensioni::contaRecensioni).reversed())
+                        .thenComparing(Comparator.naturalOrder()))
+                .map(ristoranti::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Cerca i ristoranti la cui descrizione è pertinente al testo indicato
+     * (ad es. "lago pesce degustazione"), usando l'indice full-text con ordinamento BM25. Restituisce
+     * solo i primi {@value #MAX_RISULTATI_DESCRIZIONI} risultati, da mostrare all'utente.
+     *
+     * @param testo parole da cercare
+     * @return lista di {@link Ristorante} ordinata per pertinenza decrescente
+     */
+    public List<Ristorante> cercaNelleDescrizioni(String testo) {
+        return cercaNelleDescrizioni(testo, MAX_RISULTATI_DESCRIZIONI);
+    }
+
+    /**
+     * Cerca i ristoranti la cui descrizione è pertinente al testo indicato, restituendone al più
+     * {@code limite}. Con {@link Integer#MAX_VALUE} restituisce tutte le descrizioni che contengono almeno
+     * una delle parole cercate, come serve ai filtri delle query strutturate.
+     *
+     * @param testo  parole da cercare
+     * @param limite numero massimo di ristoranti
+     * @return lista di {@link Ristorante} ordinata per pertinenza decrescente
+     */
+    public List<Ristorante> cercaNelleDescrizioni(String testo, int limite) {
+        return indiceDescrizioni.cerca(testo, limite).stream()
+                .map(risultato -> ristoranti.get(risultato.chiave()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Esegue una query strutturata e restituisce la pagina richiesta.
+     *
+     * @param query query ottenuta con {@link QueryRistoranti#analizza(String)}
+     * @return pagina di risultati
+     * @throws IllegalArgumentException se la località indicata con {@code vicino} non è nel catalogo
+     */
+    public PianoEsecuzione.Pagina cercaConQuery(QueryRistoranti query) {
+        return eseguiQuery(query, DIMENSIONE_PAGINA_QUERY);
+    }
+
+    /**
+     * Cerca i ristoranti che soddisfano i criteri della schermata di ricerca. Il piano di esecuzione
+     * è scelto in base alle statistiche del catalogo. Se la ricerca per nome non produce risultati,
+     * viene ripetuta tollerando errori di battitura tramite l'indice fuzzy, mantenendo gli altri criteri.
+     * I risultati sono conservati in una cache LRU indicizzata dai criteri normalizzati e invalidata
+     * a ogni modifica del catalogo.
+     *
+     * @param nome          testo da cercare nel nome
+     * @param localita      prefisso della località
+     * @param cucina        cucina richiesta
+     * @param descrizione   parole da cercare nella descrizione
+     * @param livelloPrezzo numero esatto di simboli € richiesto, 0 per nessun vincolo
+     * @return identificativi di riga dei ristoranti trovati (vedi {@link #getRiga(int)}), con l'indicazione
+     *         dell'ordine in cui sono
+     */
+    public RigheRicerca cercaRighe(String nome, String localita, String cucina, String descrizione, int livelloPrezzo) {
+        ChiaveRicerca chiave = ChiaveRicerca.di(nome, localita, cucina, descrizione, livelloPrezzo);
+        RigheRicerca inCache = cacheRicerche.get(chiave, versioneCatalogo);
+        if (inCache != null) {
+            return inCache;
+        }
+        RigheRicerca risultati = eseguiRicerca(nome, localita, cucina, descrizione, livelloPrezzo);
+        cacheRicerche.put(chiave, risultati, versioneCatalogo);
+        return risultati;
+    }
+
+    /**
+     * Esegue la ricerca della schermata principale senza consultare la cache.
+     *
+     * @param nome          testo da cercare nel nome
+     * @param localita      prefisso della località
+     * @param cucina        cucina richiesta
+     * @param descrizione   parole da cercare nella descrizione
+     * @param livelloPrezzo numero esatto di simboli € richiesto, 0 per nessun vincolo
+     * @return righe dei ristoranti trovati, con l'indicazione dell'ordine in cui sono
+     */
+    private RigheRicerca eseguiRicerca(String nome, String localita, String cucina, String descrizione, int livelloPrezzo) {
+        QueryRistoranti query = QueryRistoranti.daCampi(nome, localita, cucina, descrizione, livelloPrezzo);
+        List<Ristorante> risultati = eseguiQuery(query, Integer.MAX_VALUE).ristoranti();
+        if (!risultati.isEmpty() || query.getNome().isEmpty()) {
+            // Con la descrizione il piano ordina per pertinenza BM25, altrimenti per nome
+            return new RigheRicerca(righeDi(risultati), !query.getDescrizione().isEmpty());
+        }
+
+        // I nomi simili restano ordinati per distanza di modifica e, a parità, per numero di recensioni
+        List<Ristorante> simili = cercaPerNomeApprossimato(query.getNome());
+        if (!simili.isEmpty()) {
+            Set<Ristorante> ammessi = new HashSet<>(eseguiQuery(
+                    QueryRistoranti.daCampi("", localita, cucina, descrizione, livelloPrezzo), Integer.MAX_VALUE).ristoranti());
+            simili = simili.stream().filter(ammessi::contains).toList();
+        }
+        return new RigheRicerca(righeDi(simili), true);
+    }
+
+    /**
+     * Restituisce gli identificativi di riga di un elenco di ristoranti del catalogo.
+     *
+     * @param ristoranti ristoranti del catalogo, ad es. una pagina di una query strutturata
+     * @return identificativi di riga nello stesso ordine (vedi {@link #getRiga(int)})
+     */
+    public int[] righeDi(List<Ristorante> ristoranti) {
+        return ristoranti.stream()
+                .mapToInt(r -> rigaPerNome.get(r.getNome()))
+                .toArray();
+    }
+
+    /**
+     * Compila ed esegue una query, registrando nel log le scelte del piano e i tempi di ogni fase.
+     *
+     * @param query            query da eseguire
+     * @param dimensionePagina numero massimo di ristoranti per pagina
+     * @return pagina di risultati
+     */
+    private PianoEsecuzione.Pagina eseguiQuery(QueryRistoranti query, int dimensionePagina) {
+        long inizio = System.nanoTime();
+        PianoEsecuzione.Pagina pagina = PianoEsecuzione.compila(query, this).esegui(dimensionePagina);
+        double millisecondi = (System.nanoTime() - inizio) / 1e6;
+        LOG.log(System.Logger.Level.DEBUG, () -> String.format(Locale.ROOT, "Query eseguita in %.3f ms, %d risultati",
+                millisecondi, pagina.totale()) + descriviFasi(pagina));
+        return pagina;
+    }
+
+    /**
+     * Elenca le fasi di un piano eseguito, una per riga, per il messaggio di log.
+     *
+     * @param pagina pagina restituita dal piano
+     * @return fasi del piano, ognuna preceduta da un a capo
+     */
+    private static String descriviFasi(PianoEsecuzione.Pagina pagina) {
+        StringBuilder testo = new StringBuilder();
+        pagina.spiegazione().forEach(fase -> testo.append(System.lineSeparator()).append("  ").append(fase));
+        return testo.toString();
+    }
+
+    /**
+     * Restituisce il ristorante corrispondente a un identificativo di riga.
+     *
+     * @param riga identificativo di riga
+     * @return ristorante della riga
+     */
+    public Ristorante getRiga(int riga) {
+        return righe.get(riga);
+    }
+
+    /**
+     * Restituisce gli identificativi di riga di tutti i ristoranti ordinati per nome. L'array non va
+     * modificato: a ogni inserimento ne viene creato uno nuovo.
+     *
+     * @return identificativi di riga in ordine alfabetico di nome
+     */
+    public int[] getIndiceOrdinatoPerNome() {
+        return ordinePerNome;
+    }
+
+    /**
+     * Restituisce la cache dei risultati delle ricerche, per consultarne i contatori di successi e fallimenti.
+     *
+     * @return cache delle ricerche
+     */
+    public CacheRisultati<?, ?> getCacheRicerche() {
+        return cacheRicerche;
+    }
+
+    /**
+     * Restituisce le statistiche di cardinalità del catalogo usate per pianificare le ricerche.
+     *
+     * @return statistiche del catalogo
+     */
+    public StatisticheCatalogo getStatistiche() {
+        return statistiche;
+    }
+
+    /**
+     * Restituisce il centro di una località come media delle coordinate dei ristoranti che vi si trovano,
+     * mantenuta dal {@link GazzettiereLocalita} del catalogo.
+     * Il nome viene confrontato con la prima parte del campo località (ad es. "Como" per "Como, Italia").
+     *
+     * @param localita nome della località
+     * @return array {latitudine, longitudine}, oppure {@code null} se nessun ristorante si trova nella località
+     */
+    public double[] getCentroLocalita(String localita) {
+        GazzettiereLocalita.Localita trovata = gazzettiere.cerca(localita);
+        return trovata == null ? null : new double[]{trovata.latitudine(), trovata.longitudine()};
+    }
+
+    /**
+     * Ricava le coordinate di una località scritta dall'utente, tollerando errori di battitura,
+     * dalle località dei ristoranti del catalogo.
+     *
+     * @param localita nome della località, ad es. il domicilio dell'utente
+     * @return la località trovata, oppure {@code null} se nessuna località del catalogo è abbastanza simile
+     */
+    public GazzettiereLocalita.Localita risolviLocalita(String localita) {
+        return gazzettiere.risolvi(localita);
+    }
+
+    /**
+     * Indica se i dati dei ristoranti sono conservati nel {@link CatalogoColonnare}, che permette di
+     * filtrare per coordinate e codici scandendo le colonne invece degli oggetti.
+     *
+     * @return {@code true} con il catalogo a colonne
+     */
+    public boolean isCatalogoColonnare() {
+        return catalogoColonnare != null;
+    }
+
+    /**
+     * Restituisce i ristoranti entro una distanza da un punto, scandendo le colonne delle coordinate:
+     * quelle del {@link CatalogoColonnare}, se attivo, altrimenti le {@link ColonneCoordinate} del catalogo.
+     *
+     * @param latitudine  latitudine del centro, in gradi
+     * @param longitudine longitudine del centro, in gradi
+     * @param raggioKm    distanza massima in chilometri
+     * @return ristoranti entro il raggio
+     */
+    public List<Ristorante> cercaEntroRaggio(double latitudine, double longitudine, double raggioKm) {
+        if (catalogoColonnare == null) {
+            int[] trovate = coordinate.righeEntroRaggio(latitudine, longitudine, raggioKm);
+            List<Ristorante> risultato = new ArrayList<>(trovate.length);
+            for (int riga : trovate) {
+                risultato.add(righe.get(riga));
+            }
+            return risultato;
+        }
+        return vistePerRighe(catalogoColonnare.righeEntroRaggio(latitudine, longitudine, raggioKm));
+    }
+
+    /**
+     * Restituisce gli identificativi di riga dei ristoranti entro una distanza da un punto, in ordine di
+     * distanza crescente, da mostrare in un {@link ElencoVirtuale} senza materializzare i ristoranti.
+     * Le righe sono ordinate come chiavi {@code long} che uniscono la distanza, in virgola mobile a
+     * 32 bit, e il numero di riga, così che l'ordinamento lavori su un solo array di primitivi.
+     * <p>
+     * Può essere chiamato da un thread diverso da quello dell'interfaccia: la scansione legge una copia
+     * delle colonne delle coordinate presa sotto lock insieme alla versione del catalogo, e il chiamante
+     * scarta il risultato se nel frattempo la versione è cambiata.
+     * </p>
+     *
+     * @param latitudine  latitudine del centro, in gradi
+     * @param longitudine longitudine del centro, in gradi
+     * @param raggioKm    distanza massima in chilometri
+     * @return identificativi di riga dal più vicino al più lontano, con le distanze e la versione del catalogo
+     */
+    public RigheVersionate righeEntroRaggioPerDistanza(double latitudine, double longitudine, double raggioKm) {
+        IstantaneaCoordinate istantanea = copiaCoordinate();
+        ColonneCoordinate colonne = istantanea.colonne();
+        int[] trovate = colonne.righeEntroRaggio(latitudine, longitudine, raggioKm);
+        double[] distanze = colonne.distanzeKm(trovate, latitudine, longitudine);
+        long[] chiavi = new long[trovate.length];
+        for (int i = 0; i < trovate.length; i++) {
+            // Per i float non negativi l'ordine dei bit coincide con quello dei valori; la parte bassa
+            // della chiave è la posizione nella scansione, da cui si recuperano riga e distanza esatta
+            chiavi[i] = ((long) Float.floatToRawIntBits((float) distanze[i]) << 32) | i;
+        }
+        Arrays.sort(chiavi);
+        int[] righeOrdinate = new int[trovate.length];
+        double[] distanzeOrdinate = new double[trovate.length];
+        for (int i = 0; i < chiavi.length; i++) {
+            int posizione = (int) chiavi[i];
+            righeOrdinate[i] = trovate[posizione];
+            distanzeOrdinate[i] = distanze[posizione];
+        }
+        return new RigheVersionate(righeOrdinate, distanzeOrdinate, istantanea.versione());
+    }
+
+    /**
+     * Restituisce le righe di un risultato già mostrato che sono entro una distanza da un punto,
+     * mantenendone l'ordine (ad es. quello della classifica personalizzata o della pertinenza).
+     * Come {@link #righeEntroRaggioPerDistanza(double, double, double)} può essere chiamato da un thread
+     * diverso da quello dell'interfaccia.
+     *
+     * @param righe       righe del risultato da filtrare; l'array non viene modificato
+     * @param latitudine  latitudine del centro, in gradi
+     * @param longitudine longitudine del centro, in gradi
+     * @param raggioKm    distanza massima in chilometri
+     * @return righe entro il raggio nell'ordine di {@code righe}, con le distanze e la versione del catalogo
+     */
+    public RigheVersionate righeEntroRaggio(int[] righe, double latitudine, double longitudine, double raggioKm) {
+        IstantaneaCoordinate istantanea = copiaCoordinate();
+        double[] distanze = istantanea.colonne().distanzeKm(righe, latitudine, longitudine);
+        int[] entro = new int[righe.length];
+        double[] distanzeEntro = new double[righe.length];
+        int numero = 0;
+        for (int i = 0; i < righe.length; i++) {
+            if (distanze[i] <= raggioKm) {
+                entro[numero] = righe[i];
+                distanzeEntro[numero++] = distanze[i];
+            }
+        }
+        return new RigheVersionate(Arrays.copyOf(entro, numero), Arrays.copyOf(distanzeEntro, numero),
+                istantanea.versione());
+    }
+
+    /**
+     * Restituisce la distanza di alcune righe da un punto, in un solo passaggio sulle colonne delle
+     * coordinate.
+     *
+     * @param righe       righe di cui calcolare la distanza
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @return distanza in km di ogni riga, nello stesso ordine di {@code righe}
+     */
+    public synchronized double[] distanzeKm(int[] righe, double latitudine, double longitudine) {
+        return coordinate.distanzeKm(righe, latitudine, longitudine);
+    }
+
+    /**
+     * Restituisce la copia delle colonne delle coordinate per la versione corrente del catalogo,
+     * creandola se il catalogo è cambiato dall'ultima richiesta.
+     */
+    private synchronized IstantaneaCoordinate copiaCoordinate() {
+        if (istantaneaCoordinate == null || versioneIstantanea != versioneCatalogo) {
+            istantaneaCoordinate = coordinate.copia();
+            versioneIstantanea = versioneCatalogo;
+        }
+        return new IstantaneaCoordinate(istantaneaCoordinate, versioneIstantanea);
+    }
+
+    /**
+     * Restituisce la versione corrente del catalogo, incrementata a ogni caricamento o inserimento.
+     *
+     * @return versione del catalogo
+     */
+    public synchronized long getVersioneCatalogo() {
+        return versioneCatalogo;
+    }
+
+    /**
+     * Calcola la distanza da un punto di un gruppo di ristoranti, ad es. i preferiti di un utente, in un
+     * solo passaggio sulle colonne delle coordinate. I ristoranti che non fanno parte del catalogo vengono
+     * misurati uno per uno.
+     *
+     * @param ristoranti  ristoranti di cui calcolare la distanza
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @return distanza in chilometri di ogni ristorante, nello stesso ordine della lista
+     */
+    public double[] distanzeKm(List<Ristorante> ristoranti, double latitudine, double longitudine) {
+        int[] righeRistoranti = new int[ristoranti.size()];
+        int nelCatalogo = 0;
+        for (Ristorante ristorante : ristoranti) {
+            Integer riga = rigaPerNome.get(ristorante.getNome());
+            if (riga != null && righe.get(riga) == ristorante) {
+                righeRistoranti[nelCatalogo++] = riga;
+            }
+        }
+        if (nelCatalogo == ristoranti.size()) {
+            return coordinate.distanzeKm(righeRistoranti, latitudine, longitudine);
+        }
+        double[] distanze = new double[ristoranti.size()];
+        for (int i = 0; i < distanze.length; i++) {
+            distanze[i] = Geografia.distanzaKm(latitudine, longitudine, ristoranti.get(i));
+        }
+        return distanze;
+    }
+
+    /**
+     * Restituisce i ristoranti che cadono in una regione, ad es. il confine di una provincia o la finestra
+     * della mappa. La {@link GrigliaSpaziale} limita la ricerca alle celle che intersecano la regione e il
+     * test di appartenenza viene eseguito solo per le righe delle celle attraversate dal bordo.
+     *
+     * @param regione regione in cui cercare
+     * @return ristoranti nella regione, nell'ordine delle righe del catalogo
+     */
+    public List<Ristorante> cercaNellaRegione(PoligonoGeografico regione) {
+        GrigliaSpaziale.RigheRegione trovate = griglia.righeNellaRegione(regione);
+        List<Ristorante> risultato = new ArrayList<>(trovate.righe().length);
+        for (int riga : trovate.righe()) {
+            risultato.add(righe.get(riga));
+        }
+        return risultato;
+    }
+
+    /**
+     * Stima per eccesso il numero di ristoranti in una regione, contando le righe delle celle della
+     * griglia che intersecano il rettangolo che la racchiude.
+     *
+     * @param regione regione da stimare
+     * @return numero massimo di ristoranti nella regione
+     */
+    public int stimaNellaRegione(PoligonoGeografico regione) {
+        double[] ingombro = regione.getIngombro();
+        return griglia.contaNelRettangolo(ingombro[0], ingombro[1], ingombro[2], ingombro[3]);
+    }
+
+    /**
+     * Restituisce la piramide dei cluster dei ristoranti per la mappa, ricostruendola se il catalogo
+     * è cambiato dall'ultima richiesta. I cluster riportano righe valide per {@link #getRiga(int)}.
+     *
+     * @return piramide dei cluster aggiornata
+     */
+    public synchronized PiramideCluster getPiramideCluster() {
+        if (piramideCluster == null || versionePiramide != versioneCatalogo) {
+            piramideCluster = PiramideCluster.costruisci(coordinate, righe.size());
+            versionePiramide = versioneCatalogo;
+        }
+        return piramideCluster;
+    }
+
+    /**
+     * Restituisce il calcolo della tabella dei ristoranti simili per contenuto per la versione corrente del
+     * catalogo, avviandolo se il catalogo è cambiato dall'ultima richiesta. Le caratteristiche vengono
+     * codificate sotto lock dalle colonne del catalogo; il confronto a coppie, che richiede più tempo,
+     * avviene in background e viene condiviso da tutte le richieste sulla stessa versione.
+     *
+     * @return calcolo della tabella per la versione corrente
+     */
+    private synchronized CalcoloSimili getCalcoloSimili() {
+        if (calcoloSimili == null || calcoloSimili.versione() != versioneCatalogo) {
+            SomiglianzaContenuti.Caratteristiche caratteristiche =
+                    SomiglianzaContenuti.codifica(righe, tassonomiaCucine.getNumeroCucine());
+            BitSet attive = new BitSet(righe.size());
+            for (int riga = 0; riga < righe.size(); riga++) {
+                if (ristoranti.get(righe.get(riga).getNome()) == righe.get(riga)) {
+                    attive.set(riga);
+                }
+            }
+            calcoloSimili = new CalcoloSimili(versioneCatalogo, List.copyOf(righe), Map.copyOf(rigaPerNome), attive,
+                    CompletableFuture.supplyAsync(() -> SomiglianzaContenuti.calcola(caratteristiche)));
+        }
+        return calcoloSimili;
+    }
+
+    /**
+     * Restituisce la tabella dei ristoranti simili per contenuto della versione corrente del catalogo.
+     * Le righe della tabella vanno lette con {@link #getRiga(int)} finché il catalogo non cambia.
+     *
+     * @return tabella dei simili, completata quando il calcolo termina
+     */
+    public CompletableFuture<SomiglianzaContenuti> getSomiglianzaContenuti() {
+        return getCalcoloSimili().tabella();
+    }
+
+    /**
+     * Restituisce i ristoranti più simili a un ristorante per cucina, prezzo, premio, servizi e
+     * posizione, letti dalla tabella precalcolata. Se la tabella non è ancora pronta, il risultato
+     * viene completato al termine del calcolo, senza bloccare il chiamante.
+     *
+     * @param ristorante ristorante di partenza
+     * @param numero     numero massimo di ristoranti, al più {@link SomiglianzaContenuti#NUMERO_VICINI}
+     * @return ristoranti simili, dal più simile; vuoto se il ristorante non è nel catalogo
+     */
+    public CompletableFuture<List<Ristorante>> getSimiliPerContenuto(Ristorante ristorante, int numero) {
+        CalcoloSimili calcolo = getCalcoloSimili();
+        return calcolo.tabella().thenApply(tabella -> calcolo.simili(tabella, ristorante, numero));
+    }
+
+    /**
+     * Restituisce la mappa di calore delle recensioni, ricostruendola se il catalogo è cambiato
+     * dall'ultima richiesta. La mappa resta registrata presso {@link GestioneRecensioni}, che le notifica
+     * ogni recensione aggiunta, modificata o eliminata.
+     *
+     * @return mappa di calore aggiornata
+     */
+    public synchronized MappaCalore getMappaCalore() {
+        if (mappaCalore == null || versioneMappaCalore != versioneCatalogo) {
+            GestioneRecensioni gestioneRecensioni = GestioneRecensioni.getInstance();
+            if (mappaCalore != null) {
+                gestioneRecensioni.rimuoviAscoltatore(mappaCalore);
+            }
+            mappaCalore = new MappaCalore(new ArrayList<>(ristoranti.values()), gestioneRecensioni::getAggregatiPerRistorante);
+            versioneMappaCalore = versioneCatalogo;
+            gestioneRecensioni.aggiungiAscoltatore(mappaCalore);
+        }
+        return mappaCalore;
+    }
+
+    /**
+     * Ordina i risultati di una ricerca per un utente con la {@link ClassificaPersonalizzata}, ricostruita
+     * se il catalogo è cambiato dall'ultima richiesta.
+     *
+     * @param righe    righe trovate dalla ricerca; l'array non viene modificato
+     * @param username utente per cui ordinare, oppure {@code null}
+     * @param distanze distanza in km di ogni riga dal punto di riferimento (vedi {@link #distanzeKm}),
+     *                 oppure {@code null} se la posizione dell'utente non è nota
+     * @param k        numero di risultati da ordinare per punteggio; gli altri restano nell'ordine della ricerca
+     * @return righe nell'ordine personalizzato
+     */
+    public int[] ordinaPerUtente(int[] righe, String username, double[] distanze, int k) {
+        ClassificaPersonalizzata classifica;
+        synchronized (this) {
+            if (classificaPersonalizzata == null || versioneClassifica != versioneCatalogo) {
+                GestioneRecensioni gestioneRecensioni = GestioneRecensioni.getInstance();
+                GestionePreferiti gestionePreferiti = GestionePreferiti.getInstance();
+                if (classificaPersonalizzata != null) {
+                    gestioneRecensioni.rimuoviAscoltatore(classificaPersonalizzata);
+                    gestionePreferiti.rimuoviAscoltatore(classificaPersonalizzata);
+                }
+                classificaPersonalizzata = new ClassificaPersonalizzata(this.righe, tassonomiaCucine.getNumeroCucine(),
+                        gestioneRecensioni::getAggregatiPerRistorante, gestioneRecensioni::getRecensioniUtente,
+                        gestionePreferiti::getPreferitiInMemoria);
+                versioneClassifica = versioneCatalogo;
+                gestioneRecensioni.aggiungiAscoltatore(classificaPersonalizzata);
+                gestionePreferiti.aggiungiAscoltatore(classificaPersonalizzata);
+            }
+            classifica = classificaPersonalizzata;
+        }
+        return classifica.ordina(righe, distanze, username, k);
+    }
+
+    /**
+     * Restituisce i k ristoranti più vicini a un punto tra quelli che soddisfano un filtro, in ordine di
+     * distanza crescente. La ricerca usa la {@link GrigliaSpaziale} del catalogo ed esamina solo le celle
+     * intorno al punto, senza ordinare l'intero catalogo.
+     *
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @param k           numero massimo di ristoranti
+     * @param filtro      condizione sui ristoranti, ad es. premio o fascia di prezzo
+     * @return i ristoranti più vicini con la rispettiva distanza
+     */
+    public List<RistoranteVicino> cercaPiuVicini(double latitudine, double longitudine, int k, Predicate<Ristorante> filtro) {
+        GrigliaSpaziale.Vicini vicini = griglia.cercaPiuVicini(latitudine, longitudine, k, riga -> filtro.test(righe.get(riga)));
+        List<RistoranteVicino> risultato = new ArrayList<>(vicini.righe().length);
+        for (int i = 0; i < vicini.righe().length; i++) {
+            risultato.add(new RistoranteVicino(righe.get(vicini.righe()[i]), vicini.distanzeKm()[i]));
+        }
+        return risultato;
+    }
+
+    /**
+     * Restituisce i ristoranti il cui prezzo, premio o stella verde soddisfa una condizione. Con il catalogo
+     * a colonne la condizione viene valutata una volta per valore distinto e la scansione confronta codici.
+     *
+     * @param colonna    {@link CatalogoColonnare#PREZZO}, {@link CatalogoColonnare#PREMIO} o
+     *                   {@link CatalogoColonnare#STELLA_VERDE}
+     * @param condizione condizione sul valore del campo
+     * @return ristoranti che soddisfano la condizione
+     */
+    public List<Ristorante> cercaPerCodice(int colonna, Predicate<String> condizione) {
+        if (catalogoColonnare == null) {
+            return ristoranti.values().stream()
+                    .filter(r -> condizione.test(switch (colonna) {
+                        case CatalogoColonnare.PREZZO -> r.getPrezzo();
+                        case CatalogoColonnare.PREMIO -> r.getPremio();
+                        default -> r.getStellaVerde();
+                    }))
+                    .toList();
+        }
+        return vistePerRighe(catalogoColonnare.righeConCodice(colonna, condizione));
+    }
+
+    private List<Ristorante> vistePerRighe(int[] righeArchivio) {
+        List<Ristorante> risultato = new ArrayList<>(righeArchivio.length);
+        for (int riga : righeArchivio) {
+            Ristorante vista = riga < vistePerRigaColonnare.size() ? vistePerRigaColonnare.get(riga) : null;
+            if (vista != null) {
+                risultato.add(vista);
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Restituisce l'identificativo di una cucina nella tassonomia del catalogo.
+     *
+     * @param cucina nome della cucina o di un suo sinonimo, senza distinzione di maiuscole e accenti
+     * @return identificativo della cucina, oppure {@code -1} se nessun ristorante la offre
+     */
+    public int getIdCucina(String cucina) {
+        int id = tassonomiaCucine.cercaId(cucina);
+        return id >= 0 && id < ristorantiPerCucina.size() && !ristorantiPerCucina.get(id).isEmpty() ? id : -1;
+    }
+
+    /**
+     * Restituisce i ristoranti che offrono esattamente la cucina indicata, usando l'indice per cucina
+     * invece di cercare la sottostringa nella colonna del CSV.
+     *
+     * @param cucina nome della cucina o di un suo sinonimo
+     * @return ristoranti con quella cucina, lista vuota se la cucina non è presente
+     */
+    public List<Ristorante> getRistorantiPerCucina(String cucina) {
+        int id = tassonomiaCucine.cercaId(cucina);
+        if (id < 0 || id >= ristorantiPerCucina.size()) return new ArrayList<>();
+        return new ArrayList<>(ristorantiPerCucina.get(id));
+    }
+
+    /**
+     * Restituisce i nomi canonici delle cucine offerte da almeno un ristorante del catalogo.
+     *
+     * @return cucine della tassonomia
+     */
+    public List<String> getCucine() {
+        List<String> cucine = new ArrayList<>();
+        for (int id = 0; id < ristorantiPerCucina.size(); id++) {
+            if (!ristorantiPerCucina.get(id).isEmpty()) {
+                cucine.add(tassonomiaCucine.getNome(id));
+            }
+        }
+        return cucine;
+    }
+
+    /**
+     * Suggerisce le località più frequenti che iniziano con il prefisso indicato.
+     *
+     * @param prefisso testo digitato dall'utente
+     * @return fino a {@link TriePrefissi#MAX_SUGGERIMENTI} località, dalla più frequente
+     */
+    public List<String> suggerisciLocalita(String prefisso) {
+        return trieLocalita.suggerisci(prefisso, TriePrefissi.MAX_SUGGERIMENTI);
+    }
+
+    /**
+     * Suggerisce i tipi di cucina più frequenti che iniziano con il prefisso indicato.
+     *
+     * @param prefisso testo digitato dall'utente
+     * @return fino a {@link TriePrefissi#MAX_SUGGERIMENTI} cucine, dalla più frequente
+     */
+    public List<String> suggerisciCucine(String prefisso) {
+        return trieCucine.suggerisci(prefisso, TriePrefissi.MAX_SUGGERIMENTI);
+    }
+
+    /**
+     * Restituisce il numero di errori di battitura ammessi per una parola:
+     * nessuno per le parole brevi, uno fino a cinque caratteri, due oltre.
+     *
+     * @param parola parola normalizzata
+     * @return distanza di Levenshtein massima
+     */
+    static int sogliaErrori(String parola) {
+        if (parola.length() <= 3) return 0;
+        if (parola.length() <= 5) return 1;
+        return 2;
+    }
+
     /**
      * Aggiunge un nuovo ristorante e lo associa al proprietario.
      */
     public boolean aggiungiRistorante(String username, Ristorante ristorante) {
         if (username == null || ristorante == null) return false;
 
-        // Aggiunge alla mappa locale
-        ristoranti.put(ristorante.getNome(), ristorante);
+        // Aggiunge alla mappa locale e agli indici di ricerca
+        Ristorante inserito = inserisci(ristorante);
+        inserito.setBitServizi(codificaServizi(ristorante.getServizi()));
+        indicizzaRistorante(inserito);
         proprietariRistoranti.computeIfAbsent(username, k -> new HashSet<>()).add(ristorante.getNome());
 
         // Salva su file
@@ -0,0 +1,368 @@
+package com.example.theknife;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Indice spaziale a griglia regolare sulle righe del catalogo, per le ricerche dei k ristoranti più vicini
+ * e per quelle in una regione.
+ * <p>
+ * La superficie è divisa in celle di {@value #DIMENSIONE_CELLA_GRADI} gradi di latitudine e longitudine;
+ * ogni cella conserva i numeri delle righe che vi cadono, leggendone le coordinate da
+ * {@link ColonneCoordinate}. La ricerca parte dalla cella del punto di riferimento e visita anelli di celle
+ * via via più ampi, tenendo i migliori k candidati in un heap limitato. Si ferma appena la distanza minima
+ * possibile dall'anello successivo supera quella del k-esimo candidato, per cui vengono esaminate solo le
+ * righe vicine e il catalogo non viene mai ordinato per intero.
+ * </p>
+ * <p>
+ * Le colonne della griglia si richiudono all'antimeridiano, così che i punti ai due lati siano vicini anche
+ * nella griglia.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class GrigliaSpaziale {
+
+    /** Lato di una cella, in gradi. */
+    public static final double DIMENSIONE_CELLA_GRADI = 0.25;
+
+    private static final int COLONNE = (int) Math.round(360 / DIMENSIONE_CELLA_GRADI);
+
+    /**
+     * Risultato di una ricerca dei più vicini.
+     *
+     * @param righe          numeri di riga in ordine di distanza crescente
+     * @param distanzeKm     distanza in km di ogni riga, nello stesso ordine
+     * @param righeEsaminate righe di cui è stata calcolata la distanza
+     * @param celleVisitate  celle della griglia visitate
+     */
+    public record Vicini(int[] righe, double[] distanzeKm, int righeEsaminate, int celleVisitate) {}
+
+    /**
+     * Risultato di una ricerca in una regione.
+     *
+     * @param righe          numeri di riga in ordine crescente
+     * @param celleInterne   celle interamente contenute nella regione, accettate senza verificarne le righe
+     * @param celleDiBordo   celle attraversate dal bordo, di cui è stata verificata ogni riga
+     * @param righeVerificate righe su cui è stato eseguito il test di appartenenza
+     */
+    public record RigheRegione(int[] righe, int celleInterne, int celleDiBordo, int righeVerificate) {}
+
+    /** Riceve le celle occupate visitate in un rettangolo. */
+    @FunctionalInterface
+    private interface VisitatoreCelle {
+        void visita(int fascia, int colonna, Cella cella);
+    }
+
+    /** Righe contenute in una cella. */
+    private static final class Cella {
+        private int[] righe = new int[4];
+        private int numero;
+    }
+
+    /** Stato di una ricerca: i migliori candidati in un max-heap limitato a k elementi. */
+    private final class Ricerca {
+        private final double latitudine;
+        private final double longitudine;
+        private final IntPredicate filtro;
+        private final int[] righe;
+        private final double[] distanze;
+        private int dimensione;
+        private int esaminate;
+        private int visitate;
+
+        private Ricerca(double latitudine, double longitudine, int k, IntPredicate filtro) {
+            this.latitudine = latitudine;
+            this.longitudine = longitudine;
+            this.filtro = filtro;
+            this.righe = new int[k];
+            this.distanze = new double[k];
+        }
+
+        private boolean completa() {
+            return dimensione == righe.length;
+        }
+
+        private void visita(int fascia, int colonna) {
+            Cella cella = celle.get(chiave(fascia, Math.floorMod(colonna, COLONNE)));
+            if (cella == null) return;
+            visitate++;
+            for (int i = 0; i < cella.numero; i++) {
+                int riga = cella.righe[i];
+                if (!filtro.test(riga)) continue;
+                esaminate++;
+                double distanza = Geografia.distanzaKm(latitudine, longitudine,
+                        coordinate.getLatitudine(riga), coordinate.getLongitudine(riga));
+                if (dimensione < righe.length) {
+                    righe[dimensione] = riga;
+                    distanze[dimensione] = distanza;
+                    risali(righe, distanze, dimensione++);
+                } else if (distanza < distanze[0]) {
+                    righe[0] = riga;
+                    distanze[0] = distanza;
+                    scendi(righe, distanze, dimensione);
+                }
+            }
+        }
+
+        /** Estrae i candidati dall'heap in ordine di distanza crescente. */
+        private Vicini risultato() {
+            int[] ordinate = new int[dimensione];
+            double[] distanzeOrdinate = new double[dimensione];
+            for (int i = dimensione - 1; i >= 0; i--) {
+                ordinate[i] = righe[0];
+                distanzeOrdinate[i] = distanze[0];
+                righe[0] = righe[i];
+                distanze[0] = distanze[i];
+                scendi(righe, distanze, i);
+            }
+            return new Vicini(ordinate, distanzeOrdinate, esaminate, visitate);
+        }
+    }
+
+    private final ColonneCoordinate coordinate;
+    private final Map<Long, Cella> celle = new HashMap<>();
+    private int fasciaMinima = Integer.MAX_VALUE;
+    private int fasciaMassima = Integer.MIN_VALUE;
+
+    /**
+     * Crea una griglia vuota sulle coordinate indicate.
+     *
+     * @param coordinate colonne da cui leggere le coordinate delle righe
+     */
+    public GrigliaSpaziale(ColonneCoordinate coordinate) {
+        this.coordinate = coordinate;
+    }
+
+    /**
+     * Inserisce una riga nella cella corrispondente alle sue coordinate correnti.
+     *
+     * @param riga numero di riga
+     */
+    public void inserisci(int riga) {
+        int r = indiceLatitudine(coordinate.getLatitudine(riga));
+        int c = indiceLongitudine(coordinate.getLongitudine(riga));
+        Cella cella = celle.computeIfAbsent(chiave(r, c), k -> new Cella());
+        if (cella.numero == cella.righe.length) {
+            cella.righe = Arrays.copyOf(cella.righe, cella.numero * 2);
+        }
+        cella.righe[cella.numero++] = riga;
+        fasciaMinima = Math.min(fasciaMinima, r);
+        fasciaMassima = Math.max(fasciaMassima, r);
+    }
+
+    /**
+     * Rimuove una riga dalla griglia. Va chiamato prima di cambiare le coordinate della riga.
+     *
+     * @param riga numero di riga
+     */
+    public void rimuovi(int riga) {
+        long chiave = chiave(indiceLatitudine(coordinate.getLatitudine(riga)), indiceLongitudine(coordinate.getLongitudine(riga)));
+        Cella cella = celle.get(chiave);
+        if (cella == null) return;
+        for (int i = 0; i < cella.numero; i++) {
+            if (cella.righe[i] == riga) {
+                cella.righe[i] = cella.righe[--cella.numero];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Svuota la griglia.
+     */
+    public void svuota() {
+        celle.clear();
+        fasciaMinima = Integer.MAX_VALUE;
+        fasciaMassima = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Cerca le k righe più vicine a un punto tra quelle che soddisfano un filtro.
+     *
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @param k           numero massimo di righe da restituire
+     * @param filtro      condizione che le righe devono soddisfare
+     * @return le righe più vicine in ordine di distanza crescente
+     */
+    public Vicini cercaPiuVicini(double latitudine, double longitudine, int k, IntPredicate filtro) {
+        if (k <= 0 || celle.isEmpty()) return new Vicini(new int[0], new double[0], 0, 0);
+        Ricerca ricerca = new Ricerca(latitudine, longitudine, k, filtro);
+        int r0 = indiceLatitudine(latitudine);
+        int c0 = indiceLongitudine(longitudine);
+        int anelliMassimi = Math.max(COLONNE / 2, Math.max(Math.abs(r0 - fasciaMinima), Math.abs(fasciaMassima - r0)));
+
+        for (int anello = 0; anello <= anelliMassimi; anello++) {
+            if (ricerca.completa() && distanzaMinimaAnello(latitudine, anello) > ricerca.distanze[0]) break;
+            for (int r = Math.max(r0 - anello, fasciaMinima); r <= Math.min(r0 + anello, fasciaMassima); r++) {
+                if (r == r0 - anello || r == r0 + anello) {
+                    // Fascia di bordo dell'anello: tutte le colonne, ciascuna una sola volta
+                    if (2 * anello + 1 >= COLONNE) {
+                        for (int c = 0; c < COLONNE; c++) ricerca.visita(r, c);
+                    } else {
+                        for (int c = c0 - anello; c <= c0 + anello; c++) ricerca.visita(r, c);
+                    }
+                } else if (2 * anello < COLONNE) {
+                    // Fascia interna: solo la prima e l'ultima colonna, che coincidono a metà del giro
+                    ricerca.visita(r, c0 - anello);
+                    if (anello > 0 && 2 * anello != COLONNE) ricerca.visita(r, c0 + anello);
+                }
+            }
+        }
+        return ricerca.risultato();
+    }
+
+    /**
+     * Cerca le righe che cadono in una regione. Vengono visitate solo le celle che intersecano il rettangolo
+     * che la racchiude: quelle interamente interne sono accettate in blocco, per le altre si verifica ogni
+     * riga con il test di appartenenza della regione.
+     *
+     * @param regione regione in cui cercare
+     * @return righe nella regione, con le statistiche della visita
+     */
+    public RigheRegione righeNellaRegione(PoligonoGeografico regione) {
+        double[] ingombro = regione.getIngombro();
+        int[][] trovate = {new int[64]};
+        int[] contatori = new int[4]; // righe trovate, celle interne, celle di bordo, righe verificate
+        visitaRettangolo(ingombro[0], ingombro[1], ingombro[2], ingombro[3], (fascia, colonna, cella) -> {
+            double latMin = fascia * DIMENSIONE_CELLA_GRADI;
+            double lonMin = colonna * DIMENSIONE_CELLA_GRADI - 180;
+            boolean interna = regione.contieneRettangolo(latMin, lonMin, latMin + DIMENSIONE_CELLA_GRADI, lonMin + DIMENSIONE_CELLA_GRADI);
+            contatori[interna ? 1 : 2]++;
+            for (int i = 0; i < cella.numero; i++) {
+                int riga = cella.righe[i];
+                if (!interna) {
+                    contatori[3]++;
+                    if (!regione.contiene(coordinate.getLatitudine(riga), coordinate.getLongitudine(riga))) continue;
+                }
+                if (contatori[0] == trovate[0].length) {
+                    trovate[0] = Arrays.copyOf(trovate[0], contatori[0] * 2);
+                }
+                trovate[0][contatori[0]++] = riga;
+            }
+        });
+        int[] righe = Arrays.copyOf(trovate[0], contatori[0]);
+        Arrays.sort(righe);
+        return new RigheRegione(righe, contatori[1], contatori[2], contatori[3]);
+    }
+
+    /**
+     * Conta le righe nelle celle che intersecano un rettangolo: è una stima per eccesso delle righe
+     * contenute nel rettangolo, calcolata senza leggerne le coordinate.
+     *
+     * @param latitudineMinima  latitudine del lato sud
+     * @param longitudineMinima longitudine del lato ovest
+     * @param latitudineMassima latitudine del lato nord
+     * @param longitudineMassima longitudine del lato est
+     * @return numero di righe nelle celle visitate
+     */
+    public int contaNelRettangolo(double latitudineMinima, double longitudineMinima,
+                                  double latitudineMassima, double longitudineMassima) {
+        int[] totale = new int[1];
+        visitaRettangolo(latitudineMinima, longitudineMinima, latitudineMassima, longitudineMassima,
+                (fascia, colonna, cella) -> totale[0] += cella.numero);
+        return totale[0];
+    }
+
+    /**
+     * Visita le celle occupate che intersecano un rettangolo. Se il rettangolo copre più celle di quelle
+     * occupate si scorrono le celle occupate, altrimenti si cercano le celle del rettangolo una per una.
+     */
+    private void visitaRettangolo(double latMin, double lonMin, double latMax, double lonMax, VisitatoreCelle visitatore) {
+        int primaFascia = Math.max(fasciaMinima, indiceLatitudine(latMin));
+        int ultimaFascia = Math.min(fasciaMassima, indiceLatitudine(latMax));
+        int primaColonna = Math.max(0, (int) Math.floor((lonMin + 180) / DIMENSIONE_CELLA_GRADI));
+        int ultimaColonna = Math.min(COLONNE - 1, (int) Math.floor((lonMax + 180) / DIMENSIONE_CELLA_GRADI));
+        if (primaFascia > ultimaFascia || primaColonna > ultimaColonna) return;
+
+        long celleRettangolo = (long) (ultimaFascia - primaFascia + 1) * (ultimaColonna - primaColonna + 1);
+        if (celleRettangolo > celle.size()) {
+            for (Map.Entry<Long, Cella> voce : celle.entrySet()) {
+                int fascia = (int) (voce.getKey() >> 32);
+                int colonna = (int) (long) voce.getKey();
+                if (fascia >= primaFascia && fascia <= ultimaFascia && colonna >= primaColonna && colonna <= ultimaColonna
+                        && voce.getValue().numero > 0) {
+                    visitatore.visita(fascia, colonna, voce.getValue());
+                }
+            }
+            return;
+        }
+        for (int fascia = primaFascia; fascia <= ultimaFascia; fascia++) {
+            for (int colonna = primaColonna; colonna <= ultimaColonna; colonna++) {
+                Cella cella = celle.get(chiave(fascia, colonna));
+                if (cella != null && cella.numero > 0) {
+                    visitatore.visita(fascia, colonna, cella);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stima per difetto la distanza tra il punto e qualsiasi riga di questo anello o di quelli successivi.
+     * Ognuna dista almeno {@code anello - 1} celle intere in latitudine, oppure si trova nelle fasce vicine al
+     * punto e dista almeno {@code anello - 1} celle in longitudine. Nel secondo caso, dalla formula
+     * dell'emisenoverso, {@code hav(d) >= cos²(φ) hav(Δλ)} dove φ è la latitudine più lontana
+     * dall'equatore che quelle fasce raggiungono.
+     */
+    private static double distanzaMinimaAnello(double latitudine, int anello) {
+        if (anello <= 1) return 0;
+        double delta = Math.toRadians((anello - 1) * DIMENSIONE_CELLA_GRADI);
+        double latitudineEstrema = Math.min(90, Math.abs(latitudine) + (anello + 1) * DIMENSIONE_CELLA_GRADI);
+        double perLatitudine = delta * Geografia.RAGGIO_TERRA_KM;
+        double perLongitudine = 2 * Geografia.RAGGIO_TERRA_KM * Math.asin(Math.min(1,
+                Math.cos(Math.toRadians(latitudineEstrema)) * Math.sin(Math.min(Math.PI, delta) / 2)));
+        return Math.min(perLatitudine, perLongitudine);
+    }
+
+    private static void risali(int[] righe, double[] distanze, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (distanze[padre] >= distanze[i]) break;
+            scambia(righe, distanze, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void scendi(int[] righe, double[] distanze, int dimensione) {
+        int i = 0;
+        while (true) {
+            int maggiore = i;
+            int sinistro = 2 * i + 1;
+            int destro = sinistro + 1;
+            if (sinistro < dimensione && distanze[sinistro] > distanze[maggiore]) maggiore = sinistro;
+            if (destro < dimensione && distanze[destro] > distanze[maggiore]) maggiore = destro;
+            if (maggiore == i) return;
+            scambia(righe, distanze, i, maggiore);
+            i = maggiore;
+        }
+    }
+
+    private static void scambia(int[] righe, double[] distanze, int i, int j) {
+        int riga = righe[i];
+        righe[i] = righe[j];
+        righe[j] = riga;
+        double distanza = distanze[i];
+        distanze[i] = distanze[j];
+        distanze[j] = distanza;
+    }
+
+    private static int indiceLatitudine(double latitudine) {
+        return (int) Math.floor(latitudine / DIMENSIONE_CELLA_GRADI);
+    }
+
+    private static int indiceLongitudine(double longitudine) {
+        return Math.floorMod((int) Math.floor((longitudine + 180) / DIMENSIONE_CELLA_GRADI), COLONNE);
+    }
+
+    private static long chiave(int r, int c) {
+        return ((long) r << 32) | (c & 0xffffffffL);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indice invertito incrementale sul testo delle recensioni e delle risposte dei ristoratori.
+ * <p>
+ * A differenza di {@link IndiceTestuale}, pensato per un catalogo che cambia raramente, questo indice
+ * supporta inserimento, aggiornamento e rimozione di singole recensioni: ogni operazione tocca solo le
+ * liste delle radici contenute nella recensione interessata, senza ricostruire l'indice.
+ * Le ricerche richiedono che tutte le radici della query compaiano nel testo o nella risposta
+ * e possono essere limitate a un insieme di ristoranti.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class IndiceRecensioni {
+    private final Map<String, Set<Recensione>> posting = new HashMap<>();
+    private final Map<Recensione, Set<String>> radiciPerRecensione = new IdentityHashMap<>();
+
+    /**
+     * Aggiunge una recensione all'indice, analizzandone testo e risposta.
+     *
+     * @param recensione recensione da indicizzare
+     */
+    public void aggiungi(Recensione recensione) {
+        Set<String> radici = new HashSet<>(AnalizzatoreTesto.analizza(recensione.getTesto()));
+        radici.addAll(AnalizzatoreTesto.analizza(recensione.getRisposta()));
+        for (String radice : radici) {
+            posting.computeIfAbsent(radice, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(recensione);
+        }
+        radiciPerRecensione.put(recensione, radici);
+    }
+
+    /**
+     * Rimuove una recensione dall'indice.
+     *
+     * @param recensione recensione da rimuovere
+     */
+    public void rimuovi(Recensione recensione) {
+        Set<String> radici = radiciPerRecensione.remove(recensione);
+        if (radici == null) return;
+        for (String radice : radici) {
+            Set<Recensione> recensioni = posting.get(radice);
+            if (recensioni != null) {
+                recensioni.remove(recensione);
+                if (recensioni.isEmpty()) {
+                    posting.remove(radice);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aggiorna l'indice dopo una modifica del testo o della risposta di una recensione.
+     *
+     * @param recensione recensione modificata
+     */
+    public void aggiorna(Recensione recensione) {
+        rimuovi(recensione);
+        aggiungi(recensione);
+    }
+
+    /**
+     * Svuota l'indice.
+     */
+    public void svuota() {
+        posting.clear();
+        radiciPerRecensione.clear();
+    }
+
+    /**
+     * Cerca le recensioni che contengono tutte le parole della query.
+     *
+     * @param query      parole da cercare (ad es. "servizio lento")
+     * @param ristoranti ristoranti a cui limitare la ricerca, oppure {@code null} per cercare ovunque
+     * @return recensioni corrispondenti, in ordine non specificato
+     */
+    public List<Recensione> cerca(String query, Collection<String> ristoranti) {
+        Set<String> radici = new LinkedHashSet<>(AnalizzatoreTesto.analizza(query));
+        if (radici.isEmpty()) return new ArrayList<>();
+
+        // Parte dalla lista più corta, così l'intersezione costa quanto la radice più rara
+        List<Set<Recensione>> liste = new ArrayList<>();
+        for (String radice : radici) {
+            Set<Recensione> recensioni = posting.get(radice);
+            if (recensioni == null) return new ArrayList<>();
+            liste.add(recensioni);
+        }
+        liste.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<String> ambito = ristoranti == null ? null : new HashSet<>(ristoranti);
+        List<Recensione> risultati = new ArrayList<>();
+        for (Recensione recensione : liste.get(0)) {
+            if (ambito != null && !ambito.contains(recensione.getRistoranteId())) continue;
+            boolean inTutte = true;
+            for (int i = 1; i < liste.size() && inTutte; i++) {
+                inTutte = liste.get(i).contains(recensione);
+            }
+            if (inTutte) {
+                risultati.add(recensione);
+            }
+        }
+        return risultati;
+    }
+}
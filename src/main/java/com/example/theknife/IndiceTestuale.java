@@ -0,0 +1,305 @@
+package com.example.theknife;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Indice invertito in memoria con ordinamento dei risultati secondo il modello BM25.
+ * <p>
+ * Ogni documento è identificato da una chiave (ad es. il nome del ristorante) e il suo testo viene
+ * ridotto a radici tramite {@link AnalizzatoreTesto#analizza(String)}. Per ogni radice l'indice conserva
+ * la lista dei documenti che la contengono con la relativa frequenza. La costruzione iniziale analizza i
+ * testi in parallelo; l'indice può essere salvato su disco e ricaricato all'avvio successivo, purché
+ * la firma dei dati di origine non sia cambiata.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class IndiceTestuale {
+    private static final int MAGIC = 0x544B4254; // "TKBT"
+    private static final int VERSIONE_FORMATO = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Documento restituito da una ricerca con il suo punteggio BM25.
+     *
+     * @param chiave    chiave del documento
+     * @param punteggio punteggio BM25, più alto per i documenti più pertinenti
+     */
+    public record Risultato(String chiave, double punteggio) {}
+
+    /**
+     * Lista dei documenti che contengono una radice, con le frequenze corrispondenti.
+     * Gli array crescono per raddoppio, così da supportare anche l'aggiunta incrementale.
+     */
+    private static final class ListaPosting {
+        private int[] documenti = new int[4];
+        private int[] frequenze = new int[4];
+        private int dimensione;
+
+        private void aggiungi(int documento, int frequenza) {
+            if (dimensione == documenti.length) {
+                documenti = Arrays.copyOf(documenti, dimensione * 2);
+                frequenze = Arrays.copyOf(frequenze, dimensione * 2);
+            }
+            documenti[dimensione] = documento;
+            frequenze[dimensione] = frequenza;
+            dimensione++;
+        }
+    }
+
+    private final List<String> chiavi = new ArrayList<>();
+    private final Map<String, Integer> documentoPerChiave = new HashMap<>();
+    private int documentiRimossi;
+    private int[] lunghezze = new int[16];
+    private long lunghezzaTotale;
+    private final Map<String, ListaPosting> posting = new HashMap<>();
+
+    /**
+     * Costruisce un indice analizzando in parallelo i testi indicati.
+     *
+     * @param chiavi chiavi dei documenti
+     * @param testi  testi dei documenti, nello stesso ordine delle chiavi
+     * @return indice costruito
+     */
+    public static IndiceTestuale costruisci(List<String> chiavi, List<String> testi) {
+        List<Map<String, Integer>> frequenze = IntStream.range(0, testi.size())
+                .parallel()
+                .mapToObj(i -> contaFrequenze(testi.get(i)))
+                .toList();
+
+        IndiceTestuale indice = new IndiceTestuale();
+        for (int i = 0; i < chiavi.size(); i++) {
+            indice.aggiungiDocumento(chiavi.get(i), frequenze.get(i));
+        }
+        return indice;
+    }
+
+    /**
+     * Aggiunge un documento all'indice.
+     *
+     * @param chiave chiave del documento
+     * @param testo  testo del documento
+     */
+    public void aggiungi(String chiave, String testo) {
+        aggiungiDocumento(chiave, contaFrequenze(testo));
+    }
+
+    /**
+     * Rimuove un documento dall'indice, ad es. prima di indicizzarne la versione modificata.
+     * Le sue voci vengono tolte dalle liste di posting, che restano ordinate per documento; il suo
+     * identificativo interno non viene riassegnato.
+     *
+     * @param chiave chiave del documento
+     * @return {@code true} se il documento era presente
+     */
+    public boolean rimuovi(String chiave) {
+        Integer documento = documentoPerChiave.remove(chiave);
+        if (documento == null) return false;
+        for (var iteratore = posting.values().iterator(); iteratore.hasNext(); ) {
+            ListaPosting lista = iteratore.next();
+            int scritti = 0;
+            for (int i = 0; i < lista.dimensione; i++) {
+                if (lista.documenti[i] != documento) {
+                    lista.documenti[scritti] = lista.documenti[i];
+                    lista.frequenze[scritti] = lista.frequenze[i];
+                    scritti++;
+                }
+            }
+            lista.dimensione = scritti;
+            if (scritti == 0) {
+                iteratore.remove();
+            }
+        }
+        lunghezzaTotale -= lunghezze[documento];
+        lunghezze[documento] = 0;
+        chiavi.set(documento, null);
+        documentiRimossi++;
+        return true;
+    }
+
+    /**
+     * Cerca i documenti più pertinenti per il testo indicato.
+     *
+     * @param query  parole da cercare
+     * @param limite numero massimo di risultati
+     * @return risultati ordinati per punteggio decrescente
+     */
+    public List<Risultato> cerca(String query, int limite) {
+        int numeroDocumenti = getNumeroDocumenti();
+        if (numeroDocumenti == 0) return new ArrayList<>();
+
+        double lunghezzaMedia = (double) lunghezzaTotale / numeroDocumenti;
+        double[] punteggi = new double[chiavi.size()];
+        int[] toccati = new int[16];
+        int numeroToccati = 0;
+
+        for (String radice : new LinkedHashSet<>(AnalizzatoreTesto.analizza(query))) {
+            ListaPosting lista = posting.get(radice);
+            if (lista == null) continue;
+            double idf = Math.log(1 + (numeroDocumenti - lista.dimensione + 0.5) / (lista.dimensione + 0.5));
+            for (int i = 0; i < lista.dimensione; i++) {
+                int documento = lista.documenti[i];
+                int tf = lista.frequenze[i];
+                double normalizzazione = K1 * (1 - B + B * lunghezze[documento] / lunghezzaMedia);
+                if (punteggi[documento] == 0) {
+                    if (numeroToccati == toccati.length) {
+                        toccati = Arrays.copyOf(toccati, numeroToccati * 2);
+                    }
+                    toccati[numeroToccati++] = documento;
+                }
+                punteggi[documento] += idf * tf * (K1 + 1) / (tf + normalizzazione);
+            }
+        }
+
+        return Arrays.stream(toccati, 0, numeroToccati)
+                .boxed()
+                .sorted((a, b) -> Double.compare(punteggi[b], punteggi[a]))
+                .limit(limite)
+                .map(documento -> new Risultato(chiavi.get(documento), punteggi[documento]))
+                .toList();
+    }
+
+    /**
+     * Restituisce il numero di documenti indicizzati.
+     *
+     * @return numero di documenti
+     */
+    public int getNumeroDocumenti() {
+        return chiavi.size() - documentiRimossi;
+    }
+
+    /**
+     * Salva l'indice su file insieme alla firma dei dati da cui è stato costruito.
+     *
+     * @param file  file di destinazione
+     * @param firma firma dei dati di origine
+     * @throws IOException se la scrittura fallisce
+     */
+    public void salva(Path file, long firma) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSIONE_FORMATO);
+            out.writeLong(firma);
+            out.writeInt(chiavi.size());
+            for (int i = 0; i < chiavi.size(); i++) {
+                // I documenti rimossi vengono salvati con chiave vuota
+                out.writeUTF(chiavi.get(i) == null ? "" : chiavi.get(i));
+                out.writeInt(lunghezze[i]);
+            }
+            out.writeInt(posting.size());
+            for (Map.Entry<String, ListaPosting> voce : posting.entrySet()) {
+                ListaPosting lista = voce.getValue();
+                out.writeUTF(voce.getKey());
+                out.writeInt(lista.dimensione);
+                for (int i = 0; i < lista.dimensione; i++) {
+                    out.writeInt(lista.documenti[i]);
+                    out.writeInt(lista.frequenze[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Carica un indice salvato con {@link #salva(Path, long)}.
+     *
+     * @param file  file da leggere
+     * @param firma firma attesa dei dati di origine
+     * @return l'indice caricato, oppure {@code null} se il file manca, è di un formato diverso
+     *         o è stato costruito da dati differenti
+     */
+    public static IndiceTestuale carica(Path file, long firma) {
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSIONE_FORMATO || in.readLong() != firma) {
+                return null;
+            }
+            IndiceTestuale indice = new IndiceTestuale();
+            int numeroDocumenti = in.readInt();
+            indice.lunghezze = new int[Math.max(16, numeroDocumenti)];
+            for (int i = 0; i < numeroDocumenti; i++) {
+                String chiave = in.readUTF();
+                if (chiave.isEmpty()) {
+                    indice.chiavi.add(null);
+                    indice.documentiRimossi++;
+                } else {
+                    indice.chiavi.add(chiave);
+                    indice.documentoPerChiave.put(chiave, i);
+                }
+                indice.lunghezze[i] = in.readInt();
+                indice.lunghezzaTotale += indice.lunghezze[i];
+            }
+            int numeroRadici = in.readInt();
+            for (int r = 0; r < numeroRadici; r++) {
+                String radice = in.readUTF();
+                int dimensione = in.readInt();
+                ListaPosting lista = new ListaPosting();
+                lista.documenti = new int[Math.max(4, dimensione)];
+                lista.frequenze = new int[Math.max(4, dimensione)];
+                for (int i = 0; i < dimensione; i++) {
+                    lista.documenti[i] = in.readInt();
+                    lista.frequenze[i] = in.readInt();
+                }
+                lista.dimensione = dimensione;
+                indice.posting.put(radice, lista);
+            }
+            return indice;
+        } catch (IOException e) {
+            System.err.println("Indice testuale non leggibile, verrà ricostruito: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Registra un documento già analizzato, assegnandogli il prossimo identificativo interno.
+     *
+     * @param chiave    chiave del documento
+     * @param frequenze frequenza di ogni radice nel documento
+     */
+    private void aggiungiDocumento(String chiave, Map<String, Integer> frequenze) {
+        int documento = chiavi.size();
+        chiavi.add(chiave);
+        documentoPerChiave.put(chiave, documento);
+        if (documento == lunghezze.length) {
+            lunghezze = Arrays.copyOf(lunghezze, documento * 2);
+        }
+        int lunghezza = 0;
+        for (Map.Entry<String, Integer> voce : frequenze.entrySet()) {
+            posting.computeIfAbsent(voce.getKey(), k -> new ListaPosting()).aggiungi(documento, voce.getValue());
+            lunghezza += voce.getValue();
+        }
+        lunghezze[documento] = lunghezza;
+        lunghezzaTotale += lunghezza;
+    }
+
+    /**
+     * Analizza un testo e conta quante volte compare ciascuna radice.
+     *
+     * @param testo testo da analizzare
+     * @return mappa radice → frequenza
+     */
+    private static Map<String, Integer> contaFrequenze(String testo) {
+        Map<String, Integer> frequenze = new HashMap<>();
+        for (String radice : AnalizzatoreTesto.analizza(testo)) {
+            frequenze.merge(radice, 1, Integer::sum);
+        }
+        return frequenze;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.theknife;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Legge su richiesta porzioni di un file di testo di cui sono state registrate posizione e lunghezza.
+ * <p>
+ * Il catalogo usa questa classe per non tenere in memoria ciò che serve solo di rado: durante il
+ * caricamento registra dove si trova un campo o una riga del CSV e lo rilegge dal file con un accesso
+ * posizionale soltanto quando viene richiesto. Per ogni porzione vengono conservati solo un {@code long}
+ * e un {@code int}.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class LettorePosizionale {
+
+    private final Path file;
+    private long[] posizioni = new long[256];
+    private int[] lunghezze = new int[256];
+    private int numero;
+    private FileChannel canale;
+
+    /**
+     * Crea un lettore senza porzioni registrate sul file indicato.
+     *
+     * @param file file da cui leggere
+     */
+    public LettorePosizionale(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Registra la posizione di una porzione del file.
+     *
+     * @param posizione posizione in byte del primo carattere
+     * @param lunghezza lunghezza in byte
+     * @return identificativo da usare con {@link #leggi(int)}
+     */
+    public synchronized int registra(long posizione, int lunghezza) {
+        if (numero == posizioni.length) {
+            posizioni = Arrays.copyOf(posizioni, numero * 2);
+            lunghezze = Arrays.copyOf(lunghezze, numero * 2);
+        }
+        posizioni[numero] = posizione;
+        lunghezze[numero] = lunghezza;
+        return numero++;
+    }
+
+    /**
+     * Legge dal file una porzione registrata.
+     *
+     * @param id identificativo restituito da {@link #registra(long, int)}
+     * @return il testo della porzione
+     * @throws IOException se il file non può essere letto
+     */
+    public synchronized String leggi(int id) throws IOException {
+        if (canale == null) {
+            canale = FileChannel.open(file, StandardOpenOption.READ);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(lunghezze[id]);
+        long posizione = posizioni[id];
+        while (buffer.hasRemaining()) {
+            int letti = canale.read(buffer, posizione + buffer.position());
+            if (letti < 0) break;
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Restituisce il numero di porzioni registrate.
+     *
+     * @return numero di porzioni
+     */
+    public synchronized int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Chiude il file, se aperto. Una lettura successiva lo riapre.
+     */
+    public synchronized void chiudi() {
+        if (canale == null) return;
+        try {
+            canale.close();
+        } catch (IOException e) {
+            System.err.println("Errore nella chiusura del file " + file + ": " + e.getMessage());
+        }
+        canale = null;
+    }
+}
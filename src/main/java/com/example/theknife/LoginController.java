@@ -68,6 +68,7 @@ public class LoginController {
                         utenteAutenticato.getRuolo(),
                         utenteAutenticato.getLuogoDomicilio()
                 );
+                geolocalizzaDomicilio(utenteAutenticato.getLuogoDomicilio());
 
                 if (onLoginSuccess != null) {
                     onLoginSuccess.run();
@@ -86,6 +87,21 @@ public class LoginController {
         }
     }
 
+    /**
+     * Ricava le coordinate del domicilio dalle località del catalogo e le memorizza nella sessione,
+     * per le ricerche per distanza dal domicilio.
+     *
+     * @param domicilio luogo di domicilio dell'utente
+     */
+    private void geolocalizzaDomicilio(String domicilio) {
+        GestioneRistorante gestioneRistorante = GestioneRistorante.getInstance();
+        gestioneRistorante.assicuraDatiCaricati();
+        GazzettiereLocalita.Localita localita = gestioneRistorante.risolviLocalita(domicilio);
+        if (localita != null) {
+            SessioneUtente.impostaCoordinateDomicilio(new double[]{localita.latitudine(), localita.longitudine()});
+        }
+    }
+
     /**
      * Gestisce l’accesso come ospite senza credenziali.
      *
@@ -0,0 +1,200 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Aggregazione delle recensioni per celle geografiche, per la mappa di calore della valutazione media e
+ * della densità delle recensioni.
+ * <p>
+ * Le celle sono quelle della griglia di Mercatore di {@link PiramideCluster}: il livello {@code L} divide
+ * il mondo in {@code 2^L x 2^L} celle, fino al livello {@value #LIVELLO_MASSIMO} (celle di circa 10 km
+ * all'equatore). Per ogni livello la piramide conserva, per ogni cella occupata, il numero di ristoranti,
+ * di recensioni e la somma delle stelle, così che qualsiasi porzione di mappa si ottenga leggendo le sole
+ * celle visibili. La posizione dei ristoranti è fissata alla costruzione; gli aggregati delle recensioni
+ * vengono aggiornati in modo incrementale dalle notifiche di {@link GestioneRecensioni}, toccando una
+ * cella per livello, e ricalcolati da zero solo quando le recensioni vengono ricaricate dal file.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class MappaCalore implements GestioneRecensioni.AscoltatoreRecensioni {
+
+    /** Livello più fine della piramide. */
+    public static final int LIVELLO_MASSIMO = 12;
+
+    /**
+     * Aggregati di una cella della griglia.
+     *
+     * @param livello     livello della piramide
+     * @param colonna     colonna della cella nel livello
+     * @param fascia      fascia della cella nel livello
+     * @param ristoranti  ristoranti nella cella
+     * @param recensioni  recensioni dei ristoranti della cella
+     * @param sommaStelle somma delle stelle delle recensioni
+     */
+    public record Cella(int livello, long colonna, long fascia, int ristoranti, int recensioni, int sommaStelle) {
+
+        /**
+         * Restituisce la valutazione media delle recensioni della cella.
+         *
+         * @return media delle stelle, 0 se la cella non ha recensioni
+         */
+        public double mediaStelle() {
+            return recensioni == 0 ? 0 : (double) sommaStelle / recensioni;
+        }
+
+        /**
+         * Restituisce il lato della cella nella proiezione di Mercatore.
+         *
+         * @return lato della cella, in {@code (0, 1]}
+         */
+        public double lato() {
+            return 1.0 / (1L << livello);
+        }
+    }
+
+    /** Contatori di una cella. */
+    private static final class Aggregato {
+        private int ristoranti;
+        private int recensioni;
+        private int sommaStelle;
+    }
+
+    private final List<Map<Long, Aggregato>> livelli = new ArrayList<>();
+    private final Map<String, long[]> cellaPerRistorante = new HashMap<>();
+    private final Supplier<Map<String, GestioneRecensioni.AggregatoRecensioni>> sorgenteRecensioni;
+    private boolean daRicalcolare = true;
+
+    /**
+     * Costruisce la piramide sulle posizioni dei ristoranti indicati. Gli aggregati delle recensioni
+     * vengono letti dalla sorgente alla prima interrogazione e dopo ogni ricaricamento.
+     *
+     * @param ristoranti         ristoranti del catalogo
+     * @param sorgenteRecensioni fornisce gli aggregati delle recensioni per nome del ristorante
+     */
+    public MappaCalore(List<Ristorante> ristoranti, Supplier<Map<String, GestioneRecensioni.AggregatoRecensioni>> sorgenteRecensioni) {
+        this.sorgenteRecensioni = sorgenteRecensioni;
+        for (int l = 0; l <= LIVELLO_MASSIMO; l++) {
+            livelli.add(new HashMap<>());
+        }
+        long lato = 1L << LIVELLO_MASSIMO;
+        for (Ristorante ristorante : ristoranti) {
+            long colonna = (long) (PiramideCluster.mercatoreX(ristorante.getLongitudine()) * lato);
+            long fascia = (long) (PiramideCluster.mercatoreY(ristorante.getLatitudine()) * lato);
+            cellaPerRistorante.put(ristorante.getNome(), new long[]{colonna, fascia});
+            for (int l = 0; l <= LIVELLO_MASSIMO; l++) {
+                aggregato(l, colonna, fascia).ristoranti++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void variazione(String username, String ristoranteId, int deltaRecensioni, int deltaStelle) {
+        if (daRicalcolare) return;
+        applica(ristoranteId, deltaRecensioni, deltaStelle);
+    }
+
+    @Override
+    public synchronized void ricaricate() {
+        daRicalcolare = true;
+    }
+
+    /**
+     * Restituisce le celle occupate di un livello che intersecano un rettangolo della proiezione di Mercatore.
+     *
+     * @param livello livello della piramide, tra 0 e {@value #LIVELLO_MASSIMO}
+     * @param xMin    ascissa minima, in {@code [0, 1]}
+     * @param yMin    ordinata minima, in {@code [0, 1]}
+     * @param xMax    ascissa massima, in {@code [0, 1]}
+     * @param yMax    ordinata massima, in {@code [0, 1]}
+     * @return celle visibili con almeno un ristorante
+     */
+    public synchronized List<Cella> celle(int livello, double xMin, double yMin, double xMax, double yMax) {
+        if (daRicalcolare) {
+            ricalcolaRecensioni();
+        }
+        int l = Math.max(0, Math.min(LIVELLO_MASSIMO, livello));
+        long lato = 1L << l;
+        long colonnaMinima = Math.max(0, (long) Math.floor(xMin * lato));
+        long colonnaMassima = Math.min(lato - 1, (long) Math.floor(xMax * lato));
+        long fasciaMinima = Math.max(0, (long) Math.floor(yMin * lato));
+        long fasciaMassima = Math.min(lato - 1, (long) Math.floor(yMax * lato));
+        Map<Long, Aggregato> celle = livelli.get(l);
+
+        List<Cella> risultato = new ArrayList<>();
+        long celleRettangolo = (colonnaMassima - colonnaMinima + 1) * (fasciaMassima - fasciaMinima + 1);
+        if (celleRettangolo <= celle.size()) {
+            // Finestra piccola: si cercano le sue celle una per una
+            for (long c = colonnaMinima; c <= colonnaMassima; c++) {
+                for (long f = fasciaMinima; f <= fasciaMassima; f++) {
+                    Aggregato aggregato = celle.get(chiave(c, f));
+                    if (aggregato != null && aggregato.ristoranti > 0) {
+                        risultato.add(cella(l, c, f, aggregato));
+                    }
+                }
+            }
+        } else {
+            // Finestra ampia: si scorrono le celle occupate del livello
+            for (Map.Entry<Long, Aggregato> voce : celle.entrySet()) {
+                long c = voce.getKey() >>> LIVELLO_MASSIMO;
+                long f = voce.getKey() & ((1L << LIVELLO_MASSIMO) - 1);
+                if (c >= colonnaMinima && c <= colonnaMassima && f >= fasciaMinima && f <= fasciaMassima
+                        && voce.getValue().ristoranti > 0) {
+                    risultato.add(cella(l, c, f, voce.getValue()));
+                }
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Azzera gli aggregati delle recensioni e li ricalcola dalla sorgente.
+     */
+    private void ricalcolaRecensioni() {
+        for (Map<Long, Aggregato> celle : livelli) {
+            for (Aggregato aggregato : celle.values()) {
+                aggregato.recensioni = 0;
+                aggregato.sommaStelle = 0;
+            }
+        }
+        daRicalcolare = false;
+        for (Map.Entry<String, GestioneRecensioni.AggregatoRecensioni> voce : sorgenteRecensioni.get().entrySet()) {
+            applica(voce.getKey(), voce.getValue().numero(), voce.getValue().sommaStelle());
+        }
+    }
+
+    private void applica(String ristoranteId, int deltaRecensioni, int deltaStelle) {
+        long[] cella = cellaPerRistorante.get(ristoranteId);
+        if (cella == null) return;
+        for (int l = 0; l <= LIVELLO_MASSIMO; l++) {
+            Aggregato aggregato = aggregato(l, cella[0], cella[1]);
+            aggregato.recensioni += deltaRecensioni;
+            aggregato.sommaStelle += deltaStelle;
+        }
+    }
+
+    /**
+     * Restituisce i contatori della cella che contiene, al livello indicato, la cella del livello più fine.
+     */
+    private Aggregato aggregato(int livello, long colonnaFine, long fasciaFine) {
+        int salto = LIVELLO_MASSIMO - livello;
+        return livelli.get(livello).computeIfAbsent(chiave(colonnaFine >> salto, fasciaFine >> salto), k -> new Aggregato());
+    }
+
+    private static Cella cella(int livello, long colonna, long fascia, Aggregato aggregato) {
+        return new Cella(livello, colonna, fascia, aggregato.ristoranti, aggregato.recensioni, aggregato.sommaStelle);
+    }
+
+    private static long chiave(long colonna, long fascia) {
+        return (colonna << LIVELLO_MASSIMO) | fascia;
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.theknife;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Controller della mappa con tutti i ristoranti del catalogo.
+ * <p>
+ * La mappa è disegnata su un unico {@link Canvas} nella proiezione di Mercatore: a ogni ridisegno si
+ * sceglie il livello della {@link PiramideCluster} in cui le celle misurano almeno
+ * {@value #DIMENSIONE_CELLA_PX} pixel e si disegnano solo i cluster visibili, per cui il costo dipende
+ * dalla dimensione della finestra e non dal numero di ristoranti. La mappa si sposta trascinando e
+ * si ingrandisce con la rotella; il doppio click su un cluster lo ingrandisce, quello su un singolo
+ * ristorante ne apre i dettagli.
+ * </p>
+ * <p>
+ * Con la mappa di calore attiva, sotto i simboli vengono disegnate le celle della {@link MappaCalore}:
+ * il colore va dal rosso al verde con la valutazione media, l'opacità cresce con il numero di recensioni.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class MappaController implements Initializable {
+
+    /** Lato minimo, in pixel, delle celle in cui vengono raggruppati i ristoranti. */
+    public static final double DIMENSIONE_CELLA_PX = 48;
+    /** Lato minimo, in pixel, delle celle della mappa di calore. */
+    public static final double DIMENSIONE_CELLA_CALORE_PX = 24;
+
+    /** Scala minima: il mondo intero in 256 pixel. */
+    private static final double SCALA_MINIMA = 256;
+    /** Scala massima: le celle del livello più fine della piramide in {@value #DIMENSIONE_CELLA_PX} pixel. */
+    private static final double SCALA_MASSIMA = DIMENSIONE_CELLA_PX * (1L << PiramideCluster.LIVELLO_MASSIMO);
+    /** Scala iniziale, circa quella di una regione. */
+    private static final double SCALA_INIZIALE = 256 * 128;
+    /** Scala iniziale quando la mappa è centrata sul domicilio. */
+    private static final double SCALA_DOMICILIO = 256 * 1024;
+    /** Raggio dei simboli dei singoli ristoranti, in pixel. */
+    private static final double RAGGIO_MARCATORE = 5;
+
+    private static final Color SFONDO = Color.web("#eef2f5");
+    private static final Color COLORE_MARCATORE = Color.web("#c0392b");
+    private static final Color COLORE_CLUSTER = Color.web("#2c3e50");
+
+    /** Contenitore della mappa, di cui il canvas segue le dimensioni. */
+    @FXML private Pane contenitoreMappa;
+    /** Canvas su cui viene disegnata la mappa. */
+    @FXML private Canvas canvasMappa;
+    /** Etichetta con il numero di ristoranti visibili o il ristorante selezionato. */
+    @FXML private Label etichettaMappa;
+    /** Attiva la mappa di calore delle recensioni. */
+    @FXML private ToggleButton toggleCalore;
+
+    private final GestioneRistorante gestioneRistorante = GestioneRistorante.getInstance();
+    private Runnable tornaIndietroCallback;
+    private Consumer<Ristorante> apriDettagliCallback;
+
+    /** Centro della vista nella proiezione di Mercatore. */
+    private double centroX;
+    private double centroY;
+    /** Pixel per unità della proiezione, cioè larghezza in pixel del mondo intero. */
+    private double scala = SCALA_INIZIALE;
+
+    private double ultimoMouseX;
+    private double ultimoMouseY;
+    private boolean trascinata;
+    private boolean disegnoRichiesto;
+    private List<PiramideCluster.Cluster> clusterVisibili = List.of();
+
+    /**
+     * Collega il canvas al contenitore, registra i gestori di mouse e rotella e centra la mappa sul
+     * domicilio dell'utente, se noto, altrimenti sul baricentro del catalogo.
+     *
+     * @param location  L'URL di localizzazione della risorsa FXML, o null se non noto.
+     * @param resources Le risorse utilizzate per localizzare l'oggetto root, o null se non localizzato.
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        gestioneRistorante.assicuraDatiCaricati();
+        canvasMappa.widthProperty().bind(contenitoreMappa.widthProperty());
+        canvasMappa.heightProperty().bind(contenitoreMappa.heightProperty());
+        canvasMappa.widthProperty().addListener(o -> richiediDisegno());
+        canvasMappa.heightProperty().addListener(o -> richiediDisegno());
+
+        double[] domicilio = SessioneUtente.getCoordinateDomicilio();
+        if (domicilio != null) {
+            centroX = PiramideCluster.mercatoreX(domicilio[1]);
+            centroY = PiramideCluster.mercatoreY(domicilio[0]);
+            scala = SCALA_DOMICILIO;
+        } else {
+            List<PiramideCluster.Cluster> tutti = gestioneRistorante.getPiramideCluster().cluster(0, 0, 0, 1, 1);
+            centroX = tutti.isEmpty() ? 0.5 : tutti.get(0).x();
+            centroY = tutti.isEmpty() ? 0.5 : tutti.get(0).y();
+        }
+
+        canvasMappa.setOnMousePressed(this::onMousePremuto);
+        canvasMappa.setOnMouseDragged(this::onMouseTrascinato);
+        canvasMappa.setOnMouseClicked(this::onMouseClick);
+        canvasMappa.setOnScroll(this::onRotella);
+        richiediDisegno();
+    }
+
+    /**
+     * Imposta la callback da eseguire per tornare alla schermata precedente.
+     *
+     * @param callback callback di ritorno
+     */
+    public void setTornaIndietroCallback(Runnable callback) {
+        this.tornaIndietroCallback = callback;
+    }
+
+    /**
+     * Imposta la callback che apre i dettagli di un ristorante selezionato sulla mappa.
+     *
+     * @param callback callback che riceve il ristorante
+     */
+    public void setApriDettagliCallback(Consumer<Ristorante> callback) {
+        this.apriDettagliCallback = callback;
+    }
+
+    /**
+     * Torna alla schermata precedente.
+     *
+     * @param event L'evento di click del pulsante.
+     */
+    @FXML
+    private void onTornaClick(ActionEvent event) {
+        if (tornaIndietroCallback != null) {
+            tornaIndietroCallback.run();
+        }
+    }
+
+    /**
+     * Mostra o nasconde la mappa di calore.
+     *
+     * @param event L'evento di click del pulsante.
+     */
+    @FXML
+    private void onCaloreClick(ActionEvent event) {
+        richiediDisegno();
+    }
+
+    private void onMousePremuto(MouseEvent evento) {
+        ultimoMouseX = evento.getX();
+        ultimoMouseY = evento.getY();
+        trascinata = false;
+    }
+
+    private void onMouseTrascinato(MouseEvent evento) {
+        centroX -= (evento.getX() - ultimoMouseX) / scala;
+        centroY -= (evento.getY() - ultimoMouseY) / scala;
+        centroX = Math.max(0, Math.min(1, centroX));
+        centroY = Math.max(0, Math.min(1, centroY));
+        ultimoMouseX = evento.getX();
+        ultimoMouseY = evento.getY();
+        trascinata = true;
+        richiediDisegno();
+    }
+
+    /**
+     * Ingrandisce o riduce la mappa mantenendo fermo il punto sotto il puntatore.
+     */
+    private void onRotella(ScrollEvent evento) {
+        double fattore = Math.pow(1.0015, evento.getDeltaY());
+        zoom(fattore, evento.getX(), evento.getY());
+        evento.consume();
+    }
+
+    private void zoom(double fattore, double pixelX, double pixelY) {
+        double puntoX = aProiezioneX(pixelX);
+        double puntoY = aProiezioneY(pixelY);
+        scala = Math.max(SCALA_MINIMA, Math.min(SCALA_MASSIMA, scala * fattore));
+        centroX = puntoX - (pixelX - canvasMappa.getWidth() / 2) / scala;
+        centroY = puntoY - (pixelY - canvasMappa.getHeight() / 2) / scala;
+        richiediDisegno();
+    }
+
+    /**
+     * Con un click mostra il nome del ristorante sotto il puntatore; con il doppio click ingrandisce il
+     * cluster o apre i dettagli del ristorante.
+     */
+    private void onMouseClick(MouseEvent evento) {
+        if (trascinata || evento.getButton() != MouseButton.PRIMARY) return;
+        PiramideCluster.Cluster cluster = clusterInPunto(evento.getX(), evento.getY());
+        if (cluster == null) return;
+        if (cluster.numero() > 1) {
+            if (evento.getClickCount() == 2) {
+                zoom(4, aPixelX(cluster.x()), aPixelY(cluster.y()));
+            } else {
+                etichettaMappa.setText(cluster.numero() + " ristoranti in questa zona");
+            }
+            return;
+        }
+        Ristorante ristorante = gestioneRistorante.getRiga(cluster.riga());
+        if (evento.getClickCount() == 2 && apriDettagliCallback != null) {
+            apriDettagliCallback.accept(ristorante);
+        } else {
+            etichettaMappa.setText(ristorante.getNome() + " - " + ristorante.getLocalita());
+        }
+    }
+
+    private PiramideCluster.Cluster clusterInPunto(double pixelX, double pixelY) {
+        PiramideCluster.Cluster trovato = null;
+        double distanzaMinima = Double.MAX_VALUE;
+        for (PiramideCluster.Cluster cluster : clusterVisibili) {
+            double dx = aPixelX(cluster.x()) - pixelX;
+            double dy = aPixelY(cluster.y()) - pixelY;
+            double distanza = Math.hypot(dx, dy);
+            if (distanza <= raggio(cluster) && distanza < distanzaMinima) {
+                trovato = cluster;
+                distanzaMinima = distanza;
+            }
+        }
+        return trovato;
+    }
+
+    /**
+     * Richiede un ridisegno al prossimo ciclo dell'interfaccia, unendo le richieste arrivate nel
+     * frattempo (ad es. più eventi di trascinamento).
+     */
+    private void richiediDisegno() {
+        if (disegnoRichiesto) return;
+        disegnoRichiesto = true;
+        Platform.runLater(() -> {
+            disegnoRichiesto = false;
+            disegna();
+        });
+    }
+
+    /**
+     * Disegna i cluster del livello adatto alla scala corrente che cadono nella finestra.
+     */
+    private void disegna() {
+        double larghezza = canvasMappa.getWidth();
+        double altezza = canvasMappa.getHeight();
+        GraphicsContext gc = canvasMappa.getGraphicsContext2D();
+        gc.setFill(SFONDO);
+        gc.fillRect(0, 0, larghezza, altezza);
+        if (larghezza <= 0 || altezza <= 0) return;
+        String descrizioneCalore = toggleCalore.isSelected() ? disegnaCalore(gc, larghezza, altezza) : "";
+
+        int livello = (int) Math.floor(Math.log(scala / DIMENSIONE_CELLA_PX) / Math.log(2));
+        livello = Math.max(0, Math.min(PiramideCluster.LIVELLO_MASSIMO, livello));
+        // Si include un margine di una cella perché i baricentri possono cadere vicino al bordo
+        double margine = (1.0 / (1L << livello));
+        clusterVisibili = gestioneRistorante.getPiramideCluster().cluster(livello,
+                aProiezioneX(0) - margine, aProiezioneY(0) - margine,
+                aProiezioneX(larghezza) + margine, aProiezioneY(altezza) + margine);
+
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFont(Font.font(null, FontWeight.BOLD, 11));
+        int ristorantiVisibili = 0;
+        for (PiramideCluster.Cluster cluster : clusterVisibili) {
+            double px = aPixelX(cluster.x());
+            double py = aPixelY(cluster.y());
+            double r = raggio(cluster);
+            ristorantiVisibili += cluster.numero();
+            if (cluster.numero() == 1) {
+                gc.setFill(COLORE_MARCATORE);
+                gc.fillOval(px - r, py - r, 2 * r, 2 * r);
+                gc.setStroke(Color.WHITE);
+                gc.strokeOval(px - r, py - r, 2 * r, 2 * r);
+            } else {
+                gc.setFill(COLORE_CLUSTER.deriveColor(0, 1, 1, 0.85));
+                gc.fillOval(px - r, py - r, 2 * r, 2 * r);
+                gc.setFill(Color.WHITE);
+                gc.fillText(Integer.toString(cluster.numero()), px, py);
+            }
+        }
+        etichettaMappa.setText(String.format(Locale.ITALIAN, "%d ristoranti in %d simboli", ristorantiVisibili, clusterVisibili.size())
+                + descrizioneCalore);
+    }
+
+    /**
+     * Disegna le celle della mappa di calore al livello in cui misurano almeno
+     * {@value #DIMENSIONE_CELLA_CALORE_PX} pixel.
+     *
+     * @return descrizione della valutazione media nella finestra, da aggiungere all'etichetta
+     */
+    private String disegnaCalore(GraphicsContext gc, double larghezza, double altezza) {
+        int livello = (int) Math.floor(Math.log(scala / DIMENSIONE_CELLA_CALORE_PX) / Math.log(2));
+        livello = Math.max(0, Math.min(MappaCalore.LIVELLO_MASSIMO, livello));
+        List<MappaCalore.Cella> celle = gestioneRistorante.getMappaCalore().celle(livello,
+                aProiezioneX(0), aProiezioneY(0), aProiezioneX(larghezza), aProiezioneY(altezza));
+
+        int recensioniMassime = 1;
+        int recensioni = 0;
+        int sommaStelle = 0;
+        for (MappaCalore.Cella cella : celle) {
+            recensioniMassime = Math.max(recensioniMassime, cella.recensioni());
+            recensioni += cella.recensioni();
+            sommaStelle += cella.sommaStelle();
+        }
+        for (MappaCalore.Cella cella : celle) {
+            double lato = cella.lato() * scala;
+            double px = aPixelX(cella.colonna() * cella.lato());
+            double py = aPixelY(cella.fascia() * cella.lato());
+            if (cella.recensioni() == 0) {
+                gc.setFill(Color.GRAY.deriveColor(0, 1, 1, 0.15));
+            } else {
+                // Tinta dal rosso (1 stella) al verde (5 stelle), opacità logaritmica nella densità
+                double tinta = (Math.max(1, Math.min(5, cella.mediaStelle())) - 1) / 4 * 120;
+                double opacita = 0.25 + 0.5 * Math.log1p(cella.recensioni()) / Math.log1p(recensioniMassime);
+                gc.setFill(Color.hsb(tinta, 0.85, 0.9, opacita));
+            }
+            gc.fillRect(px, py, lato, lato);
+        }
+        return recensioni == 0 ? " - nessuna recensione"
+                : String.format(Locale.ITALIAN, " - %d recensioni, media %.2f stelle", recensioni, (double) sommaStelle / recensioni);
+    }
+
+    private static double raggio(PiramideCluster.Cluster cluster) {
+        if (cluster.numero() == 1) return RAGGIO_MARCATORE;
+        return Math.min(DIMENSIONE_CELLA_PX / 2, 10 + 4 * Math.log10(cluster.numero()));
+    }
+
+    private double aPixelX(double x) {
+        return (x - centroX) * scala + canvasMappa.getWidth() / 2;
+    }
+
+    private double aPixelY(double y) {
+        return (y - centroY) * scala + canvasMappa.getHeight() / 2;
+    }
+
+    private double aProiezioneX(double pixelX) {
+        return centroX + (pixelX - canvasMappa.getWidth() / 2) / scala;
+    }
+
+    private double aProiezioneY(double pixelY) {
+        return centroY + (pixelY - canvasMappa.getHeight() / 2) / scala;
+    }
+}
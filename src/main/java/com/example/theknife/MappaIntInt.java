@@ -0,0 +1,153 @@
+package com.example.theknife;
+
+import java.util.Arrays;
+
+/**
+ * Mappa da {@code int} a {@code int} a indirizzamento aperto, senza oggetti per le singole voci.
+ * <p>
+ * Le chiavi e i valori sono conservati in due array paralleli; le collisioni si risolvono con la scansione
+ * lineare delle posizioni successive. Le rimozioni spostano indietro le voci che seguono (cancellazione
+ * all'indietro), così che non restino segnaposto e le ricerche non si allunghino nel tempo. Le voci con
+ * valore zero vengono rimosse, perché la mappa è pensata per contatori sparsi, ad es. le righe di una
+ * matrice di co-occorrenze.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+final class MappaIntInt {
+
+    /** Chiave che segna una posizione libera. */
+    private static final int LIBERA = Integer.MIN_VALUE;
+
+    /**
+     * Riceve le voci della mappa durante una visita.
+     */
+    interface Visitatore {
+
+        /**
+         * Visita una voce.
+         *
+         * @param chiave chiave della voce
+         * @param valore valore associato
+         */
+        void visita(int chiave, int valore);
+    }
+
+    private int[] chiavi;
+    private int[] valori;
+    private int dimensione;
+
+    /**
+     * Crea una mappa vuota.
+     */
+    MappaIntInt() {
+        chiavi = new int[8];
+        valori = new int[8];
+        Arrays.fill(chiavi, LIBERA);
+    }
+
+    /**
+     * Restituisce il valore associato a una chiave.
+     *
+     * @param chiave chiave da cercare, diversa da {@link Integer#MIN_VALUE}
+     * @return valore associato, 0 se la chiave è assente
+     */
+    int get(int chiave) {
+        int maschera = chiavi.length - 1;
+        for (int i = posizione(chiave, maschera); ; i = (i + 1) & maschera) {
+            if (chiavi[i] == chiave) return valori[i];
+            if (chiavi[i] == LIBERA) return 0;
+        }
+    }
+
+    /**
+     * Somma una variazione al valore di una chiave, inserendola se assente e rimuovendola se il valore
+     * diventa zero.
+     *
+     * @param chiave     chiave da aggiornare, diversa da {@link Integer#MIN_VALUE}
+     * @param variazione quantità da sommare
+     */
+    void aggiungi(int chiave, int variazione) {
+        if (variazione == 0) return;
+        int maschera = chiavi.length - 1;
+        int i = posizione(chiave, maschera);
+        for (; chiavi[i] != LIBERA; i = (i + 1) & maschera) {
+            if (chiavi[i] == chiave) {
+                valori[i] += variazione;
+                if (valori[i] == 0) rimuoviPosizione(i);
+                return;
+            }
+        }
+        chiavi[i] = chiave;
+        valori[i] = variazione;
+        // Fattore di carico massimo 1/2: le scansioni restano brevi
+        if (++dimensione * 2 > chiavi.length) {
+            ridimensiona(chiavi.length * 2);
+        }
+    }
+
+    /**
+     * Visita tutte le voci, in un ordine non specificato.
+     *
+     * @param visitatore visitatore delle voci
+     */
+    void perOgni(Visitatore visitatore) {
+        for (int i = 0; i < chiavi.length; i++) {
+            if (chiavi[i] != LIBERA) {
+                visitatore.visita(chiavi[i], valori[i]);
+            }
+        }
+    }
+
+    /**
+     * Restituisce il numero di voci.
+     *
+     * @return numero di chiavi con valore diverso da zero
+     */
+    int dimensione() {
+        return dimensione;
+    }
+
+    private void rimuoviPosizione(int libera) {
+        int maschera = chiavi.length - 1;
+        chiavi[libera] = LIBERA;
+        dimensione--;
+        // Riporta indietro le voci successive che, senza il buco, non sarebbero più raggiungibili
+        for (int i = (libera + 1) & maschera; chiavi[i] != LIBERA; i = (i + 1) & maschera) {
+            int ideale = posizione(chiavi[i], maschera);
+            if (((i - ideale) & maschera) >= ((i - libera) & maschera)) {
+                chiavi[libera] = chiavi[i];
+                valori[libera] = valori[i];
+                chiavi[i] = LIBERA;
+                libera = i;
+            }
+        }
+    }
+
+    private void ridimensiona(int capacita) {
+        int[] vecchieChiavi = chiavi;
+        int[] vecchiValori = valori;
+        chiavi = new int[capacita];
+        valori = new int[capacita];
+        Arrays.fill(chiavi, LIBERA);
+        int maschera = capacita - 1;
+        for (int j = 0; j < vecchieChiavi.length; j++) {
+            if (vecchieChiavi[j] == LIBERA) continue;
+            int i = posizione(vecchieChiavi[j], maschera);
+            while (chiavi[i] != LIBERA) i = (i + 1) & maschera;
+            chiavi[i] = vecchieChiavi[j];
+            valori[i] = vecchiValori[j];
+        }
+    }
+
+    private static int posizione(int chiave, int maschera) {
+        // Mescola i bit perché chiavi consecutive non occupino posizioni consecutive
+        int h = chiave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & maschera;
+    }
+}
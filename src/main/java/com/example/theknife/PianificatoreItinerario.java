@@ -0,0 +1,225 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Pianificatore di itinerari tra più ristoranti, ad es. i preferiti di un cliente da visitare in un
+ * viaggio gastronomico.
+ * <p>
+ * L'itinerario è un percorso aperto: parte dal punto indicato (ad es. il domicilio dell'utente) oppure, se
+ * manca, dalla tappa più conveniente, e termina all'ultima tappa senza tornare indietro. Il percorso
+ * iniziale si costruisce scegliendo ogni volta la tappa più vicina non ancora visitata; viene poi
+ * accorciato con mosse 2-opt, che invertono un tratto del percorso quando così si eliminano due lati che
+ * si incrociano. A ogni giro tutte le mosse possibili vengono valutate in parallelo su un
+ * {@link ForkJoinPool}, dividendo l'intervallo della prima tappa tra i thread, e si applica la migliore;
+ * il miglioramento si ferma quando nessuna mossa accorcia il percorso o quando scade il tempo concesso,
+ * restituendo comunque il miglior percorso trovato fino a quel momento.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public final class PianificatoreItinerario {
+
+    /** Tempo concesso di default al miglioramento del percorso, in millisecondi. */
+    public static final long TEMPO_MASSIMO_MS = 500;
+
+    /** Numero di prime tappe sotto il quale la valutazione delle mosse non viene più divisa. */
+    private static final int SOGLIA_DIVISIONE = 16;
+
+    /** Miglioramento minimo, in chilometri, perché una mossa venga applicata. */
+    private static final double EPSILON_KM = 1e-9;
+
+    /**
+     * Itinerario calcolato.
+     *
+     * @param tappe               ristoranti nell'ordine di visita
+     * @param lunghezzaKm         lunghezza del percorso, dal punto di partenza se indicato
+     * @param lunghezzaInizialeKm lunghezza del percorso costruito per tappa più vicina, prima del miglioramento
+     * @param mosse               mosse 2-opt applicate
+     * @param completo            {@code false} se il miglioramento è stato interrotto dal tempo massimo
+     */
+    public record Itinerario(List<Ristorante> tappe, double lunghezzaKm, double lunghezzaInizialeKm, int mosse,
+                             boolean completo) {}
+
+    /** Mossa 2-opt: inversione del tratto tra le posizioni {@code i} e {@code j} comprese. */
+    private record Mossa(int i, int j, double variazioneKm) {}
+
+    private PianificatoreItinerario() {}
+
+    /**
+     * Calcola un itinerario con il tempo massimo di default.
+     *
+     * @param tappe     ristoranti da visitare
+     * @param partenza  coordinate {latitudine, longitudine} del punto di partenza, oppure {@code null}
+     * @return l'itinerario
+     */
+    public static Itinerario pianifica(List<Ristorante> tappe, double[] partenza) {
+        return pianifica(tappe, partenza, TEMPO_MASSIMO_MS);
+    }
+
+    /**
+     * Calcola un itinerario breve che visita tutte le tappe indicate.
+     *
+     * @param tappe         ristoranti da visitare
+     * @param partenza      coordinate {latitudine, longitudine} del punto di partenza, oppure {@code null}
+     *                      per partire dalla tappa più conveniente
+     * @param tempoMassimoMs tempo concesso al miglioramento del percorso, in millisecondi
+     * @return l'itinerario
+     */
+    public static Itinerario pianifica(List<Ristorante> tappe, double[] partenza, long tempoMassimoMs) {
+        long inizio = System.nanoTime();
+        long scadenza = inizio + tempoMassimoMs * 1_000_000L;
+        int n = tappe.size();
+        if (n == 0) {
+            return new Itinerario(List.of(), 0, 0, 0, true);
+        }
+
+        // Il nodo 0 è il punto di partenza; senza partenza è un nodo fittizio a distanza nulla da tutte le
+        // tappe, così che il percorso possa cominciare da qualsiasi ristorante.
+        int m = n + 1;
+        double[] distanze = new double[m * m];
+        for (int a = 1; a < m; a++) {
+            double d0 = partenza == null ? 0 : Geografia.distanzaKm(partenza[0], partenza[1], tappe.get(a - 1));
+            distanze[a] = d0;
+            distanze[a * m] = d0;
+        }
+        // Ogni riga della matrice è scritta da un solo thread
+        IntStream.range(1, m).parallel().forEach(a -> {
+            Ristorante ra = tappe.get(a - 1);
+            for (int b = 1; b < m; b++) {
+                if (b != a) {
+                    distanze[a * m + b] = Geografia.distanzaKm(ra.getLatitudine(), ra.getLongitudine(), tappe.get(b - 1));
+                }
+            }
+        });
+
+        int[] percorso = tappaPiuVicina(distanze, m);
+        double lunghezzaIniziale = lunghezza(percorso, distanze, m);
+        int mosse = 0;
+        boolean completo = false;
+        while (System.nanoTime() < scadenza) {
+            Mossa migliore = ForkJoinPool.commonPool().invoke(new RicercaMossa(percorso, distanze, m, 1, m - 1, scadenza));
+            if (migliore == null || migliore.variazioneKm() > -EPSILON_KM) {
+                completo = migliore != null;
+                break;
+            }
+            inverti(percorso, migliore.i(), migliore.j());
+            mosse++;
+        }
+
+        List<Ristorante> ordinate = new ArrayList<>(n);
+        for (int p = 1; p < m; p++) {
+            ordinate.add(tappe.get(percorso[p] - 1));
+        }
+        double lunghezzaKm = lunghezza(percorso, distanze, m);
+        return new Itinerario(ordinate, lunghezzaKm, lunghezzaIniziale, mosse, completo);
+    }
+
+    /**
+     * Costruisce il percorso iniziale partendo dal nodo 0 e scegliendo ogni volta il nodo più vicino
+     * all'ultimo visitato.
+     */
+    private static int[] tappaPiuVicina(double[] distanze, int m) {
+        int[] percorso = new int[m];
+        boolean[] visitato = new boolean[m];
+        visitato[0] = true;
+        for (int p = 1; p < m; p++) {
+            int ultimo = percorso[p - 1];
+            int prossimo = -1;
+            for (int c = 1; c < m; c++) {
+                if (!visitato[c] && (prossimo < 0 || distanze[ultimo * m + c] < distanze[ultimo * m + prossimo])) {
+                    prossimo = c;
+                }
+            }
+            percorso[p] = prossimo;
+            visitato[prossimo] = true;
+        }
+        return percorso;
+    }
+
+    private static double lunghezza(int[] percorso, double[] distanze, int m) {
+        double totale = 0;
+        for (int p = 1; p < percorso.length; p++) {
+            totale += distanze[percorso[p - 1] * m + percorso[p]];
+        }
+        return totale;
+    }
+
+    private static void inverti(int[] percorso, int i, int j) {
+        for (; i < j; i++, j--) {
+            int t = percorso[i];
+            percorso[i] = percorso[j];
+            percorso[j] = t;
+        }
+    }
+
+    /**
+     * Valuta in parallelo le mosse 2-opt la cui prima posizione cade in un intervallo e restituisce quella
+     * che accorcia di più il percorso, oppure {@code null} se il tempo è scaduto.
+     */
+    private static final class RicercaMossa extends RecursiveTask<Mossa> {
+        private final int[] percorso;
+        private final double[] distanze;
+        private final int m;
+        private final int da;
+        private final int a;
+        private final long scadenza;
+
+        private RicercaMossa(int[] percorso, double[] distanze, int m, int da, int a, long scadenza) {
+            this.percorso = percorso;
+            this.distanze = distanze;
+            this.m = m;
+            this.da = da;
+            this.a = a;
+            this.scadenza = scadenza;
+        }
+
+        @Override
+        protected Mossa compute() {
+            if (a - da > SOGLIA_DIVISIONE) {
+                int meta = (da + a) >>> 1;
+                RicercaMossa sinistra = new RicercaMossa(percorso, distanze, m, da, meta, scadenza);
+                sinistra.fork();
+                Mossa destra = new RicercaMossa(percorso, distanze, m, meta, a, scadenza).compute();
+                Mossa mossa = sinistra.join();
+                if (mossa == null || destra == null) return null;
+                return destra.variazioneKm() < mossa.variazioneKm() ? destra : mossa;
+            }
+            if (System.nanoTime() > scadenza) return null;
+
+            int n = percorso.length;
+            int migliorI = 0, migliorJ = 0;
+            double migliore = 0;
+            for (int i = da; i < a; i++) {
+                int prima = percorso[i - 1];
+                int inizio = percorso[i];
+                double lato = distanze[prima * m + inizio];
+                for (int j = i + 1; j < n; j++) {
+                    // Invertendo il tratto [i, j] i lati (i-1, i) e (j, j+1) diventano (i-1, j) e (i, j+1);
+                    // l'ultima tappa non ha un lato successivo.
+                    int fine = percorso[j];
+                    double variazione = distanze[prima * m + fine] - lato;
+                    if (j + 1 < n) {
+                        int dopo = percorso[j + 1];
+                        variazione += distanze[inizio * m + dopo] - distanze[fine * m + dopo];
+                    }
+                    if (variazione < migliore) {
+                        migliore = variazione;
+                        migliorI = i;
+                        migliorJ = j;
+                    }
+                }
+            }
+            return new Mossa(migliorI, migliorJ, migliore);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Piano di esecuzione di una {@link QueryRistoranti}, scelto in base ai costi stimati.
+ * <p>
+ * Ogni clausola della query diventa una fase con una stima delle righe che la superano, ricavata dalle
+ * {@link StatisticheCatalogo}, e un costo relativo di valutazione per riga. Possono fare da sorgente le
+ * clausole che dispongono di un indice (cucina e descrizione), la distanza, tramite la scansione delle
+ * colonne delle coordinate, la regione, tramite la {@link GrigliaSpaziale}, e, con il
+ * {@link CatalogoColonnare}, anche prezzo, premio e stella verde: il
+ * pianificatore sceglie quella con la stima più bassa, purché sia abbastanza selettiva da convenire
+ * rispetto alla scansione dell'intero catalogo.
+ * Le fasi rimanenti vengono ordinate per rapporto costo / righe scartate, così che i filtri economici e
+ * molto selettivi (ad es. un premio raro) siano valutati prima di quelli costosi o poco selettivi
+ * (ad es. un prefisso di località molto comune).
+ * </p>
+ * <p>
+ * Con {@code primi} la sorgente è invece la {@link GrigliaSpaziale} del catalogo: le fasi vengono valutate
+ * come filtri sulle sole righe visitate intorno al punto di riferimento e il risultato è già ordinato per
+ * distanza.
+ * </p>
+ * <p>
+ * L'esecuzione misura ogni fase e riporta, accanto alle righe effettive, la selettività stimata, così che
+ * le stime possano essere verificate sui dati reali.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class PianoEsecuzione {
+
+    /** Frazione del catalogo oltre la quale conviene scandire tutto invece di partire da un indice. */
+    private static final double SOGLIA_INDICE = 0.3;
+    /** Selettività presunta di ogni parola cercata nel nome, per cui non esistono statistiche. */
+    private static final double SELETTIVITA_NOME = 0.05;
+    /** Selettività presunta per il filtro di distanza, per cui non esistono statistiche. */
+    private static final double SELETTIVITA_DISTANZA = 0.1;
+
+    /**
+     * Pagina di risultati restituita dall'esecuzione di un piano.
+     *
+     * @param ristoranti    ristoranti della pagina
+     * @param totale        numero totale di ristoranti che soddisfano la query
+     * @param numeroPagina  pagina restituita, a partire da 1
+     * @param numeroPagine  numero di pagine disponibili
+     * @param spiegazione   descrizione delle fasi eseguite con i relativi tempi
+     * @param distanzeKm    distanza in km di ogni ristorante della pagina dal punto indicato con {@code vicino},
+     *                      vuota se la query non ha un punto di riferimento
+     */
+    public record Pagina(List<Ristorante> ristoranti, int totale, int numeroPagina, int numeroPagine,
+                         List<String> spiegazione, Map<Ristorante, Double> distanzeKm) {}
+
+    /**
+     * Fase del piano corrispondente a una clausola della query.
+     *
+     * @param descrizione descrizione leggibile della clausola
+     * @param condizione  filtro equivalente alla clausola
+     * @param stimaRighe  righe del catalogo che si stima superino la clausola
+     * @param costo       costo relativo di valutazione del filtro su una riga
+     * @param indice      fornitore delle righe tramite indice, {@code null} se la clausola non è indicizzata
+     */
+    private record Fase(String descrizione, Predicate<Ristorante> condizione, double stimaRighe, double costo,
+                        Supplier<List<Ristorante>> indice) {}
+
+    private final QueryRistoranti query;
+    private final GestioneRistorante gestione;
+    private final List<Ristorante> catalogo;
+    private final int totale;
+    private final List<Fase> fasi = new ArrayList<>();
+    private Fase sorgente;
+    private Comparator<Ristorante> ordinamento;
+    private double[] centro;
+    private String descrizioneOrdinamento = "nome";
+
+    private PianoEsecuzione(QueryRistoranti query, GestioneRistorante gestione) {
+        this.query = query;
+        this.gestione = gestione;
+        this.catalogo = gestione.getTuttiRistoranti();
+        this.totale = Math.max(1, catalogo.size());
+    }
+
+    /**
+     * Compila una query in un piano di esecuzione.
+     *
+     * @param query    query analizzata
+     * @param catalogo gestore del catalogo che fornisce indici e statistiche
+     * @return piano pronto per l'esecuzione
+     * @throws IllegalArgumentException se la località indicata con {@code vicino} non è nel catalogo
+     *                                  o se {@code primi} è indicato senza {@code vicino}
+     */
+    public static PianoEsecuzione compila(QueryRistoranti query, GestioneRistorante catalogo) {
+        if (query.getPrimi() > 0 && query.getVicino().isEmpty()) {
+            throw new IllegalArgumentException("Il campo 'primi' richiede 'vicino'");
+        }
+        PianoEsecuzione piano = new PianoEsecuzione(query, catalogo);
+        piano.aggiungiFasi(catalogo, catalogo.getStatistiche());
+
+        // Sorgente: la fase indicizzata con meno righe stimate, se abbastanza selettiva. Nella ricerca dei
+        // più vicini la sorgente è la griglia spaziale e tutte le fasi diventano filtri durante la visita
+        if (query.getPrimi() == 0) {
+            piano.sorgente = piano.fasi.stream()
+                    .filter(fase -> fase.indice() != null)
+                    .filter(fase -> fase.stimaRighe() <= piano.totale * SOGLIA_INDICE)
+                    .min(Comparator.comparingDouble(Fase::stimaRighe))
+                    .orElse(null);
+            piano.fasi.remove(piano.sorgente);
+        }
+
+        // Filtri: prima quelli che scartano più righe per unità di costo
+        piano.fasi.sort(Comparator.comparingDouble(
+                fase -> fase.costo() / Math.max(1e-9, 1 - fase.stimaRighe() / piano.totale)));
+        return piano;
+    }
+
+    /**
+     * Traduce le clausole della query in fasi, stimandone la selettività.
+     *
+     * @param catalogo    gestore del catalogo
+     * @param statistiche statistiche di cardinalità del catalogo
+     */
+    private void aggiungiFasi(GestioneRistorante catalogo, StatisticheCatalogo statistiche) {
+        if (!query.getCucina().isEmpty()) {
+            int idCucina = catalogo.getIdCucina(query.getCucina());
+            fasi.add(new Fase("cucina = '" + query.getCucina() + "'", r -> r.haCucina(idCucina),
+                    statistiche.contaCucina(idCucina), 1, () -> catalogo.getRistorantiPerCucina(query.getCucina())));
+        }
+        if (!query.getDescrizione().isEmpty()) {
+            // L'indice full-text va interrogato comunque per ordinare per pertinenza: la stima è esatta.
+            // Serve l'insieme completo delle descrizioni pertinenti, non solo le prime da mostrare
+            List<Ristorante> perPertinenza = catalogo.cercaNelleDescrizioni(query.getDescrizione(), Integer.MAX_VALUE);
+            Set<Ristorante> pertinenti = Collections.newSetFromMap(new IdentityHashMap<>());
+            pertinenti.addAll(perPertinenza);
+            fasi.add(new Fase("descrizione contiene '" + query.getDescrizione() + "'", pertinenti::contains,
+                    perPertinenza.size(), 1, () -> perPertinenza));
+
+            Map<Ristorante, Integer> posizioni = new IdentityHashMap<>();
+            for (int i = 0; i < perPertinenza.size(); i++) {
+                posizioni.put(perPertinenza.get(i), i);
+            }
+            ordinamento = Comparator.comparingInt(posizioni::get);
+            descrizioneOrdinamento = "pertinenza BM25";
+        }
+        if (query.haVincoloPrezzo()) {
+            int minimo = query.getPrezzoMinimo();
+            int massimo = query.getPrezzoMassimo();
+            Predicate<String> ammesso = prezzo -> {
+                int livello = prezzo == null ? 0 : prezzo.length();
+                return livello >= minimo && livello <= massimo;
+            };
+            fasi.add(new Fase("prezzo " + minimo + "-" + massimo, r -> ammesso.test(r.getPrezzo()),
+                    statistiche.contaPrezzo(minimo, massimo), 1,
+                    scansioneCodici(catalogo, CatalogoColonnare.PREZZO, ammesso)));
+        }
+        if (query.getStellaVerde() != null) {
+            boolean richiesta = query.getStellaVerde();
+            Predicate<String> ammesso = stellaVerde -> "1".equals(stellaVerde) == richiesta;
+            fasi.add(new Fase("stella verde = " + richiesta, r -> ammesso.test(r.getStellaVerde()),
+                    statistiche.contaStellaVerde(richiesta), 1,
+                    scansioneCodici(catalogo, CatalogoColonnare.STELLA_VERDE, ammesso)));
+        }
+        if (!query.getPremio().isEmpty()) {
+            String premio = query.getPremio().trim();
+            Predicate<String> ammesso = valore -> valore != null && valore.trim().equalsIgnoreCase(premio);
+            fasi.add(new Fase("premio = '" + premio + "'", r -> ammesso.test(r.getPremio()),
+                    statistiche.contaPremio(premio), 2, scansioneCodici(catalogo, CatalogoColonnare.PREMIO, ammesso)));
+        }
+        if (!query.getLocalita().isEmpty()) {
+            String prefisso = AnalizzatoreTesto.normalizza(query.getLocalita());
+            fasi.add(new Fase("località inizia con '" + query.getLocalita() + "'",
+                    r -> AnalizzatoreTesto.normalizza(r.getLocalita()).startsWith(prefisso),
+                    statistiche.contaLocalita(prefisso), 4, null));
+        }
+        if (!query.getNome().isEmpty()) {
+            List<String> parole = AnalizzatoreTesto.tokenizza(query.getNome());
+            fasi.add(new Fase("nome contiene '" + query.getNome() + "'", r -> {
+                String nome = AnalizzatoreTesto.normalizza(r.getNome());
+                return parole.stream().allMatch(nome::contains);
+            }, totale * Math.pow(SELETTIVITA_NOME, parole.size()), 4, null));
+        }
+        if (query.getRegione() != null) {
+            PoligonoGeografico regione = query.getRegione();
+            fasi.add(new Fase("nella regione di " + regione.getNumeroLati() + " lati",
+                    r -> regione.contiene(r.getLatitudine(), r.getLongitudine()),
+                    catalogo.stimaNellaRegione(regione), 3, () -> catalogo.cercaNellaRegione(regione)));
+        }
+        if (!query.getVicino().isEmpty()) {
+            double[] centro = risolviCentro(catalogo);
+            this.centro = centro;
+            double raggio = query.getRaggioKm();
+            if (query.getPrimi() == 0 || query.isRaggioIndicato()) {
+                fasi.add(new Fase(String.format(Locale.ROOT, "entro %.1f km da %s", raggio, query.getVicino()),
+                        r -> Geografia.distanzaKm(centro[0], centro[1], r) <= raggio,
+                        totale * SELETTIVITA_DISTANZA, 6, () -> catalogo.cercaEntroRaggio(centro[0], centro[1], raggio)));
+            }
+            if (query.getDescrizione().isEmpty()) {
+                Map<Ristorante, Double> distanze = new IdentityHashMap<>();
+                ordinamento = Comparator.comparingDouble(
+                        r -> distanze.computeIfAbsent(r, k -> Geografia.distanzaKm(centro[0], centro[1], k)));
+                descrizioneOrdinamento = "distanza da " + query.getVicino();
+            }
+        }
+    }
+
+    /**
+     * Ricava il punto di riferimento di {@code vicino}: le coordinate indicate, quelle del domicilio
+     * dell'utente memorizzate nella sessione oppure il centro della località nel gazzettiere del catalogo.
+     *
+     * @param catalogo gestore del catalogo
+     * @return array {latitudine, longitudine}
+     * @throws IllegalArgumentException se il riferimento non corrisponde a un punto noto
+     */
+    private double[] risolviCentro(GestioneRistorante catalogo) {
+        if (query.getCoordinateVicino() != null) return query.getCoordinateVicino();
+        if (QueryRistoranti.VICINO_DOMICILIO.equalsIgnoreCase(query.getVicino())) {
+            double[] domicilio = SessioneUtente.getCoordinateDomicilio();
+            if (domicilio == null) {
+                throw new IllegalArgumentException("Domicilio non disponibile: '" + SessioneUtente.getDomicilio() + "'");
+            }
+            return domicilio;
+        }
+        GazzettiereLocalita.Localita localita = catalogo.risolviLocalita(query.getVicino());
+        if (localita == null) {
+            throw new IllegalArgumentException("Località sconosciuta: '" + query.getVicino() + "'");
+        }
+        return new double[]{localita.latitudine(), localita.longitudine()};
+    }
+
+    /**
+     * Con il catalogo a colonne, le clausole su prezzo, premio e stella verde possono fare da sorgente
+     * scandendo la colonna dei codici; altrimenti non dispongono di un indice.
+     *
+     * @param catalogo gestore del catalogo
+     * @param colonna  colonna codificata del {@link CatalogoColonnare}
+     * @param ammesso  condizione sul valore del campo
+     * @return fornitore delle righe, {@code null} se il catalogo non è a colonne
+     */
+    private static Supplier<List<Ristorante>> scansioneCodici(GestioneRistorante catalogo, int colonna,
+                                                              Predicate<String> ammesso) {
+        return catalogo.isCatalogoColonnare() ? () -> catalogo.cercaPerCodice(colonna, ammesso) : null;
+    }
+
+    /**
+     * Esegue il piano e restituisce la pagina richiesta dalla query.
+     *
+     * @param dimensionePagina numero massimo di ristoranti per pagina
+     * @return pagina di risultati con la spiegazione delle scelte del piano e dei tempi di ogni fase
+     */
+    public Pagina esegui(int dimensionePagina) {
+        List<String> spiegazione = new ArrayList<>();
+        Map<Ristorante, Double> distanze = new IdentityHashMap<>();
+        List<Ristorante> ordinati = query.getPrimi() > 0
+                ? eseguiPiuVicini(spiegazione, distanze)
+                : eseguiFiltri(spiegazione);
+
+        int numeroPagine = ordinati.isEmpty() ? 1 : (ordinati.size() - 1) / dimensionePagina + 1;
+        int numeroPagina = Math.min(query.getPagina(), numeroPagine);
+        int da = (numeroPagina - 1) * dimensionePagina;
+        int a = (int) Math.min(ordinati.size(), (long) da + dimensionePagina);
+        spiegazione.add(ordinati.isEmpty() ? "nessun risultato"
+                : "pagina " + numeroPagina + " di " + numeroPagine + ": righe " + (da + 1) + "-" + a);
+
+        List<Ristorante> ristoranti = new ArrayList<>(ordinati.subList(da, a));
+        if (centro != null && distanze.isEmpty()) {
+            for (Ristorante ristorante : ristoranti) {
+                distanze.put(ristorante, Geografia.distanzaKm(centro[0], centro[1], ristorante));
+            }
+        }
+        return new Pagina(ristoranti, ordinati.size(), numeroPagina, numeroPagine, spiegazione, distanze);
+    }
+
+    /**
+     * Esegue la sorgente e i filtri del piano e ordina il risultato.
+     *
+     * @param spiegazione lista a cui aggiungere la descrizione delle fasi
+     * @return ristoranti che soddisfano la query, ordinati
+     */
+    private List<Ristorante> eseguiFiltri(List<String> spiegazione) {
+        long inizio = System.nanoTime();
+        List<Ristorante> correnti;
+        if (sorgente != null) {
+            correnti = sorgente.indice().get();
+            spiegazione.add(String.format(Locale.ROOT, "sorgente indice %s: stimate %.0f, effettive %d righe, %.3f ms",
+                    sorgente.descrizione(), sorgente.stimaRighe(), correnti.size(), (System.nanoTime() - inizio) / 1e6));
+        } else {
+            correnti = catalogo;
+            spiegazione.add("sorgente scansione del catalogo: " + correnti.size() + " righe");
+        }
+
+        for (Fase fase : fasi) {
+            inizio = System.nanoTime();
+            int prima = correnti.size();
+            correnti = correnti.stream().filter(fase.condizione()).toList();
+            spiegazione.add(String.format(Locale.ROOT, "filtro %s (selettività stimata %.3f, costo %.0f): %d -> %d righe, %.3f ms",
+                    fase.descrizione(), fase.stimaRighe() / totale, fase.costo(), prima, correnti.size(),
+                    (System.nanoTime() - inizio) / 1e6));
+        }
+
+        inizio = System.nanoTime();
+        List<Ristorante> ordinati;
+        if (ordinamento == null) {
+            // Ordine per nome: le chiavi di collazione sono quelle calcolate per riga dal catalogo
+            ordinati = gestione.ordinaRistoranti(correnti, "nome", true);
+        } else {
+            ordinati = new ArrayList<>(correnti);
+            ordinati.sort(ordinamento);
+        }
+        spiegazione.add(String.format(Locale.ROOT, "ordinamento per %s: %d righe, %.3f ms",
+                descrizioneOrdinamento, ordinati.size(), (System.nanoTime() - inizio) / 1e6));
+        return ordinati;
+    }
+
+    /**
+     * Cerca i k ristoranti più vicini con la griglia spaziale del catalogo, valutando le fasi come filtri
+     * durante la visita. Il risultato è già ordinato per distanza.
+     *
+     * @param spiegazione lista a cui aggiungere la descrizione delle fasi
+     * @param distanze    mappa in cui registrare la distanza di ogni ristorante trovato
+     * @return i ristoranti più vicini, in ordine di distanza crescente
+     */
+    private List<Ristorante> eseguiPiuVicini(List<String> spiegazione, Map<Ristorante, Double> distanze) {
+        for (Fase fase : fasi) {
+            spiegazione.add(String.format(Locale.ROOT, "filtro %s (selettività stimata %.3f, costo %.0f) valutato durante la visita",
+                    fase.descrizione(), fase.stimaRighe() / totale, fase.costo()));
+        }
+        Predicate<Ristorante> filtro = r -> {
+            for (Fase fase : fasi) {
+                if (!fase.condizione().test(r)) return false;
+            }
+            return true;
+        };
+
+        long inizio = System.nanoTime();
+        List<RistoranteVicino> vicini = gestione.cercaPiuVicini(centro[0], centro[1], query.getPrimi(), filtro);
+        List<Ristorante> ordinati = new ArrayList<>(vicini.size());
+        for (RistoranteVicino vicino : vicini) {
+            ordinati.add(vicino.ristorante());
+            distanze.put(vicino.ristorante(), vicino.distanzaKm());
+        }
+        spiegazione.add(String.format(Locale.ROOT, "sorgente griglia spaziale: %d più vicini a %s, %.3f ms",
+                ordinati.size(), query.getVicino(), (System.nanoTime() - inizio) / 1e6));
+        return ordinati;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Piramide di raggruppamenti (cluster) dei ristoranti del catalogo, usata per disegnare la mappa con un
+ * numero di simboli proporzionale allo schermo e non al catalogo.
+ * <p>
+ * Le coordinate sono proiettate con la proiezione di Mercatore nel quadrato {@code [0, 1) x [0, 1)}. Il
+ * livello {@code L} della piramide divide il quadrato in {@code 2^L x 2^L} celle e conserva, per ogni cella
+ * occupata, il numero di ristoranti, il loro baricentro e una riga rappresentativa. Il livello più fine si
+ * ottiene ordinando le righe per cella; ogni livello più grossolano unisce le celle del livello
+ * successivo a quattro a quattro. Ogni cella è identificata da una chiave {@code long} ({@code colonna}
+ * seguita da {@code fascia}) e i livelli sono array ordinati per chiave: la ricerca delle celle visibili
+ * in un rettangolo richiede una ricerca binaria per colonna.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class PiramideCluster {
+
+    /** Livello più fine della piramide: celle di circa 300 metri all'equatore. */
+    public static final int LIVELLO_MASSIMO = 17;
+
+    /** Latitudine massima rappresentabile con la proiezione di Mercatore. */
+    private static final double LATITUDINE_MASSIMA = 85.05112878;
+
+    /** Bit riservati all'indice nelle chiavi usate per l'ordinamento. */
+    private static final int BIT_INDICE = 28;
+
+    /**
+     * Gruppo di ristoranti di una cella.
+     *
+     * @param x      ascissa del baricentro nella proiezione di Mercatore, in {@code [0, 1)}
+     * @param y      ordinata del baricentro nella proiezione di Mercatore, in {@code [0, 1)}
+     * @param numero numero di ristoranti nel gruppo
+     * @param riga   riga del catalogo di uno dei ristoranti del gruppo
+     */
+    public record Cluster(double x, double y, int numero, int riga) {}
+
+    /** Celle occupate di un livello, ordinate per chiave. */
+    private static final class Livello {
+        private final long[] chiavi;
+        private final int[] numeri;
+        private final double[] x;
+        private final double[] y;
+        private final int[] righe;
+
+        private Livello(int capacita) {
+            chiavi = new long[capacita];
+            numeri = new int[capacita];
+            x = new double[capacita];
+            y = new double[capacita];
+            righe = new int[capacita];
+        }
+    }
+
+    private final Livello[] livelli = new Livello[LIVELLO_MASSIMO + 1];
+
+    private PiramideCluster() {
+    }
+
+    /**
+     * Costruisce la piramide sulle prime righe delle colonne di coordinate indicate.
+     *
+     * @param coordinate colonne delle coordinate del catalogo
+     * @param numeroRighe numero di righe da inserire
+     * @return la piramide costruita
+     */
+    public static PiramideCluster costruisci(ColonneCoordinate coordinate, int numeroRighe) {
+        PiramideCluster piramide = new PiramideCluster();
+        double[] x = new double[numeroRighe];
+        double[] y = new double[numeroRighe];
+        int[] numeri = new int[numeroRighe];
+        int[] righe = new int[numeroRighe];
+        long[] ordinamento = new long[numeroRighe];
+        long celle = 1L << LIVELLO_MASSIMO;
+        int valide = 0;
+        for (int riga = 0; riga < numeroRighe; riga++) {
+            // Le righe senza coordinate valide (ristoranti ritirati dal catalogo) non compaiono sulla mappa
+            if (Double.isNaN(coordinate.getLatitudine(riga))) continue;
+            int i = valide++;
+            x[i] = mercatoreX(coordinate.getLongitudine(riga));
+            y[i] = mercatoreY(coordinate.getLatitudine(riga));
+            numeri[i] = 1;
+            righe[i] = riga;
+            ordinamento[i] = (chiave((long) (x[i] * celle), (long) (y[i] * celle)) << BIT_INDICE) | i;
+        }
+        if (valide < numeroRighe) {
+            ordinamento = Arrays.copyOf(ordinamento, valide);
+        }
+        Livello livello = raggruppa(ordinamento, x, y, numeri, righe);
+        piramide.livelli[LIVELLO_MASSIMO] = livello;
+
+        for (int l = LIVELLO_MASSIMO - 1; l >= 0; l--) {
+            Livello fine = livello;
+            long[] chiaviGrossolane = new long[fine.chiavi.length];
+            for (int i = 0; i < fine.chiavi.length; i++) {
+                long colonna = colonna(fine.chiavi[i]) >> 1;
+                long fascia = fascia(fine.chiavi[i]) >> 1;
+                chiaviGrossolane[i] = (chiave(colonna, fascia) << BIT_INDICE) | i;
+            }
+            livello = raggruppa(chiaviGrossolane, fine.x, fine.y, fine.numeri, fine.righe);
+            piramide.livelli[l] = livello;
+        }
+        return piramide;
+    }
+
+    /**
+     * Unisce gli elementi con la stessa cella. Ogni chiave contiene la cella nei bit alti e l'indice
+     * dell'elemento nei {@value #BIT_INDICE} bit bassi; le chiavi vengono ordinate sul posto.
+     */
+    private static Livello raggruppa(long[] ordinamento, double[] x, double[] y, int[] numeri, int[] righe) {
+        Arrays.sort(ordinamento);
+        int gruppi = 0;
+        for (int i = 0; i < ordinamento.length; i++) {
+            if (i == 0 || (ordinamento[i] >>> BIT_INDICE) != (ordinamento[i - 1] >>> BIT_INDICE)) gruppi++;
+        }
+        Livello livello = new Livello(gruppi);
+        int g = -1;
+        for (int i = 0; i < ordinamento.length; i++) {
+            long cella = ordinamento[i] >>> BIT_INDICE;
+            int indice = (int) (ordinamento[i] & ((1L << BIT_INDICE) - 1));
+            if (g < 0 || livello.chiavi[g] != cella) {
+                g++;
+                livello.chiavi[g] = cella;
+                livello.righe[g] = righe[indice];
+            }
+            // Baricentro pesato per numero di ristoranti, accumulato come somma e diviso alla fine
+            livello.x[g] += x[indice] * numeri[indice];
+            livello.y[g] += y[indice] * numeri[indice];
+            livello.numeri[g] += numeri[indice];
+        }
+        for (int i = 0; i < gruppi; i++) {
+            livello.x[i] /= livello.numeri[i];
+            livello.y[i] /= livello.numeri[i];
+        }
+        return livello;
+    }
+
+    /**
+     * Restituisce i cluster di un livello le cui celle intersecano un rettangolo della proiezione.
+     *
+     * @param livello livello della piramide, tra 0 e {@value #LIVELLO_MASSIMO}
+     * @param xMin    ascissa minima, in {@code [0, 1]}
+     * @param yMin    ordinata minima, in {@code [0, 1]}
+     * @param xMax    ascissa massima, in {@code [0, 1]}
+     * @param yMax    ordinata massima, in {@code [0, 1]}
+     * @return cluster visibili, ordinati per colonna e fascia
+     */
+    public List<Cluster> cluster(int livello, double xMin, double yMin, double xMax, double yMax) {
+        Livello celle = livelli[Math.max(0, Math.min(LIVELLO_MASSIMO, livello))];
+        long lato = 1L << Math.max(0, Math.min(LIVELLO_MASSIMO, livello));
+        long colonnaMinima = Math.max(0, (long) Math.floor(xMin * lato));
+        long colonnaMassima = Math.min(lato - 1, (long) Math.floor(xMax * lato));
+        long fasciaMinima = Math.max(0, (long) Math.floor(yMin * lato));
+        long fasciaMassima = Math.min(lato - 1, (long) Math.floor(yMax * lato));
+
+        List<Cluster> risultato = new ArrayList<>();
+        for (long c = colonnaMinima; c <= colonnaMassima; c++) {
+            int i = Arrays.binarySearch(celle.chiavi, chiave(c, fasciaMinima));
+            if (i < 0) i = -i - 1;
+            long ultima = chiave(c, fasciaMassima);
+            for (; i < celle.chiavi.length && celle.chiavi[i] <= ultima; i++) {
+                risultato.add(new Cluster(celle.x[i], celle.y[i], celle.numeri[i], celle.righe[i]));
+            }
+        }
+        return risultato;
+    }
+
+    /**
+     * Restituisce il numero di celle occupate di un livello.
+     *
+     * @param livello livello della piramide
+     * @return numero di cluster del livello
+     */
+    public int getNumeroCluster(int livello) {
+        return livelli[livello].chiavi.length;
+    }
+
+    /**
+     * Proietta una longitudine sull'ascissa di Mercatore.
+     *
+     * @param longitudine longitudine in gradi
+     * @return ascissa in {@code [0, 1]}
+     */
+    public static double mercatoreX(double longitudine) {
+        return Math.min(Math.nextDown(1.0), Math.max(0, (longitudine + 180) / 360));
+    }
+
+    /**
+     * Proietta una latitudine sull'ordinata di Mercatore, crescente verso sud.
+     *
+     * @param latitudine latitudine in gradi
+     * @return ordinata in {@code [0, 1]}
+     */
+    public static double mercatoreY(double latitudine) {
+        double phi = Math.toRadians(Math.max(-LATITUDINE_MASSIMA, Math.min(LATITUDINE_MASSIMA, latitudine)));
+        double y = 0.5 - Math.log(Math.tan(Math.PI / 4 + phi / 2)) / (2 * Math.PI);
+        return Math.min(Math.nextDown(1.0), Math.max(0, y));
+    }
+
+    private static long chiave(long colonna, long fascia) {
+        return (colonna << LIVELLO_MASSIMO) | fascia;
+    }
+
+    private static long colonna(long chiave) {
+        return chiave >>> LIVELLO_MASSIMO;
+    }
+
+    private static long fascia(long chiave) {
+        return chiave & ((1L << LIVELLO_MASSIMO) - 1);
+    }
+}
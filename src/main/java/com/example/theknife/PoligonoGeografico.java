@@ -0,0 +1,251 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Regione della superficie delimitata da uno o più anelli di vertici in latitudine e longitudine, ad es. il
+ * confine di una provincia con le sue isole, oppure un semplice rettangolo come la finestra della mappa.
+ * <p>
+ * L'appartenenza di un punto si verifica con la regola pari-dispari: un punto è interno se una semiretta
+ * che parte da esso attraversa un numero dispari di lati. Per non confrontare il punto con tutti i lati di
+ * un confine complesso, l'intervallo di latitudini è diviso in fasce e ogni fascia conosce i lati che la
+ * attraversano: il test esamina solo i lati della fascia del punto. Le stesse fasce permettono di capire
+ * se un rettangolo (ad es. una cella di {@link GrigliaSpaziale}) è attraversato dal bordo; se non lo è, il
+ * rettangolo è tutto interno o tutto esterno e basta provarne il centro.
+ * </p>
+ * <p>
+ * Latitudini e longitudini sono trattate come coordinate piane: i lati non attraversano l'antimeridiano.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class PoligonoGeografico {
+
+    /** Numero massimo di fasce di latitudine dell'indice dei lati. */
+    private static final int MAX_FASCE = 4096;
+
+    /** Estremi dei lati: latitudine e longitudine del primo e del secondo vertice. */
+    private final double[] lat1;
+    private final double[] lon1;
+    private final double[] lat2;
+    private final double[] lon2;
+    private final double latitudineMinima;
+    private final double latitudineMassima;
+    private final double longitudineMinima;
+    private final double longitudineMassima;
+    private final double altezzaFascia;
+    private final int[][] latiPerFascia;
+
+    /**
+     * Crea la regione delimitata dagli anelli indicati. Ogni anello è chiuso automaticamente tra l'ultimo
+     * e il primo vertice.
+     *
+     * @param anelli anelli di vertici, ciascuno come array di coppie {latitudine, longitudine}
+     * @throws IllegalArgumentException se un anello ha meno di tre vertici o coordinate non valide
+     */
+    public PoligonoGeografico(List<double[][]> anelli) {
+        int numeroLati = 0;
+        for (double[][] anello : anelli) {
+            if (anello.length < 3) {
+                throw new IllegalArgumentException("Un poligono richiede almeno tre vertici");
+            }
+            numeroLati += anello.length;
+        }
+        if (numeroLati == 0) {
+            throw new IllegalArgumentException("Poligono senza vertici");
+        }
+        lat1 = new double[numeroLati];
+        lon1 = new double[numeroLati];
+        lat2 = new double[numeroLati];
+        lon2 = new double[numeroLati];
+        double latMin = Double.MAX_VALUE, latMax = -Double.MAX_VALUE;
+        double lonMin = Double.MAX_VALUE, lonMax = -Double.MAX_VALUE;
+        int lato = 0;
+        for (double[][] anello : anelli) {
+            for (int i = 0; i < anello.length; i++) {
+                double[] da = anello[i];
+                double[] a = anello[(i + 1) % anello.length];
+                verificaVertice(da);
+                lat1[lato] = da[0];
+                lon1[lato] = da[1];
+                lat2[lato] = a[0];
+                lon2[lato] = a[1];
+                latMin = Math.min(latMin, da[0]);
+                latMax = Math.max(latMax, da[0]);
+                lonMin = Math.min(lonMin, da[1]);
+                lonMax = Math.max(lonMax, da[1]);
+                lato++;
+            }
+        }
+        latitudineMinima = latMin;
+        latitudineMassima = latMax;
+        longitudineMinima = lonMin;
+        longitudineMassima = lonMax;
+
+        int fasce = Math.max(1, Math.min(MAX_FASCE, numeroLati / 2));
+        altezzaFascia = Math.max((latMax - latMin) / fasce, Double.MIN_NORMAL);
+        latiPerFascia = new int[fasce][];
+        int[] conteggi = new int[fasce];
+        for (int i = 0; i < numeroLati; i++) {
+            for (int f = fascia(Math.min(lat1[i], lat2[i])); f <= fascia(Math.max(lat1[i], lat2[i])); f++) conteggi[f]++;
+        }
+        for (int f = 0; f < fasce; f++) {
+            latiPerFascia[f] = new int[conteggi[f]];
+            conteggi[f] = 0;
+        }
+        for (int i = 0; i < numeroLati; i++) {
+            for (int f = fascia(Math.min(lat1[i], lat2[i])); f <= fascia(Math.max(lat1[i], lat2[i])); f++) {
+                latiPerFascia[f][conteggi[f]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Crea la regione rettangolare compresa tra due paralleli e due meridiani.
+     *
+     * @param latitudineMinima  latitudine del lato sud
+     * @param longitudineMinima longitudine del lato ovest
+     * @param latitudineMassima latitudine del lato nord
+     * @param longitudineMassima longitudine del lato est
+     * @return il rettangolo
+     * @throws IllegalArgumentException se i lati non sono ordinati o le coordinate non sono valide
+     */
+    public static PoligonoGeografico rettangolo(double latitudineMinima, double longitudineMinima,
+                                                double latitudineMassima, double longitudineMassima) {
+        if (latitudineMinima >= latitudineMassima || longitudineMinima >= longitudineMassima) {
+            throw new IllegalArgumentException("Il rettangolo va indicato come sud,ovest,nord,est");
+        }
+        return new PoligonoGeografico(List.<double[][]>of(new double[][]{
+                {latitudineMinima, longitudineMinima}, {latitudineMinima, longitudineMassima},
+                {latitudineMassima, longitudineMassima}, {latitudineMassima, longitudineMinima}}));
+    }
+
+    /**
+     * Legge un poligono scritto come vertici {@code latitudine,longitudine} separati da {@code ;}; più
+     * anelli (ad es. le isole di una provincia) sono separati da {@code |}.
+     *
+     * @param testo testo del poligono, ad es. {@code 45.9,9.0;45.9,9.3;45.7,9.3;45.7,9.0}
+     * @return il poligono
+     * @throws IllegalArgumentException se il testo non descrive un poligono valido
+     */
+    public static PoligonoGeografico analizza(String testo) {
+        List<double[][]> anelli = new ArrayList<>();
+        for (String anello : testo.split("\\|")) {
+            String[] vertici = anello.trim().split(";");
+            double[][] punti = new double[vertici.length][];
+            for (int i = 0; i < vertici.length; i++) {
+                String[] parti = vertici[i].split(",");
+                if (parti.length != 2) {
+                    throw new IllegalArgumentException("Vertice non valido: '" + vertici[i].trim() + "'");
+                }
+                try {
+                    punti[i] = new double[]{Double.parseDouble(parti[0].trim()), Double.parseDouble(parti[1].trim())};
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Vertice non valido: '" + vertici[i].trim() + "'");
+                }
+            }
+            anelli.add(punti);
+        }
+        return new PoligonoGeografico(anelli);
+    }
+
+    /**
+     * Verifica se un punto appartiene alla regione.
+     *
+     * @param latitudine  latitudine del punto, in gradi
+     * @param longitudine longitudine del punto, in gradi
+     * @return {@code true} se il punto è interno
+     */
+    public boolean contiene(double latitudine, double longitudine) {
+        if (latitudine < latitudineMinima || latitudine > latitudineMassima
+                || longitudine < longitudineMinima || longitudine > longitudineMassima) {
+            return false;
+        }
+        boolean interno = false;
+        for (int i : latiPerFascia[fascia(latitudine)]) {
+            // Il lato attraversa il parallelo del punto a est del punto?
+            if ((lat1[i] > latitudine) != (lat2[i] > latitudine)
+                    && longitudine < (lon2[i] - lon1[i]) * (latitudine - lat1[i]) / (lat2[i] - lat1[i]) + lon1[i]) {
+                interno = !interno;
+            }
+        }
+        return interno;
+    }
+
+    /**
+     * Verifica se un rettangolo è interamente contenuto nella regione: nessun lato ne tocca
+     * l'ingombro e il suo centro è interno.
+     *
+     * @param latitudineMinima  latitudine del lato sud
+     * @param longitudineMinima longitudine del lato ovest
+     * @param latitudineMassima latitudine del lato nord
+     * @param longitudineMassima longitudine del lato est
+     * @return {@code true} se tutti i punti del rettangolo sono interni
+     */
+    public boolean contieneRettangolo(double latitudineMinima, double longitudineMinima,
+                                      double latitudineMassima, double longitudineMassima) {
+        return !bordoTocca(latitudineMinima, longitudineMinima, latitudineMassima, longitudineMassima)
+                && contiene((latitudineMinima + latitudineMassima) / 2, (longitudineMinima + longitudineMassima) / 2);
+    }
+
+    /**
+     * Verifica, in modo conservativo, se il bordo può attraversare un rettangolo: restituisce {@code true}
+     * se l'ingombro di almeno un lato interseca il rettangolo.
+     */
+    private boolean bordoTocca(double latMin, double lonMin, double latMax, double lonMax) {
+        if (latMax < latitudineMinima || latMin > latitudineMassima) return false;
+        int primaFascia = fascia(Math.max(latMin, latitudineMinima));
+        int ultimaFascia = fascia(Math.min(latMax, latitudineMassima));
+        for (int f = primaFascia; f <= ultimaFascia; f++) {
+            for (int i : latiPerFascia[f]) {
+                if (Math.max(lat1[i], lat2[i]) >= latMin && Math.min(lat1[i], lat2[i]) <= latMax
+                        && Math.max(lon1[i], lon2[i]) >= lonMin && Math.min(lon1[i], lon2[i]) <= lonMax) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce il rettangolo che racchiude la regione.
+     *
+     * @return array {latitudine minima, longitudine minima, latitudine massima, longitudine massima}
+     */
+    public double[] getIngombro() {
+        return new double[]{latitudineMinima, longitudineMinima, latitudineMassima, longitudineMassima};
+    }
+
+    /**
+     * Restituisce il numero di lati della regione.
+     *
+     * @return numero di lati di tutti gli anelli
+     */
+    public int getNumeroLati() {
+        return lat1.length;
+    }
+
+    @Override
+    public String toString() {
+        return getNumeroLati() + " lati in " + Arrays.toString(getIngombro());
+    }
+
+    private int fascia(double latitudine) {
+        int f = (int) ((latitudine - latitudineMinima) / altezzaFascia);
+        return Math.max(0, Math.min(latiPerFascia.length - 1, f));
+    }
+
+    private static void verificaVertice(double[] vertice) {
+        if (vertice.length != 2 || Math.abs(vertice[0]) > 90 || Math.abs(vertice[1]) > 180
+                || Double.isNaN(vertice[0]) || Double.isNaN(vertice[1])) {
+            throw new IllegalArgumentException("Vertice non valido: " + Arrays.toString(vertice));
+        }
+    }
+}
@@ -2,11 +2,20 @@ package com.example.theknife;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
 import javafx.application.HostServices;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -27,11 +36,15 @@ import javafx.scene.layout.HBox;
  * Questa classe gestisce l'interfaccia che mostra la lista dei ristoranti
  * salvati come preferiti dall'utente. Permette di:
  * <ul>
- *     <li>Visualizzare la lista dei preferiti</li>
+ *     <li>Visualizzare la lista dei preferiti, ordinata per distanza dal domicilio se le sue
+ *     coordinate sono note</li>
  *     <li>Aprire i dettagli di un ristorante con doppio click</li>
  *     <li>Rimuovere ristoranti dalla lista dei preferiti</li>
  *     <li>Aggiornare dinamicamente la lista in caso di modifiche</li>
  * </ul>
+ * Le distanze vengono calcolate in un solo passaggio al caricamento; quando un preferito viene aggiunto
+ * o rimosso, la lista riceve la notifica da {@link GestionePreferiti} e inserisce o toglie solo quella
+ * voce, nella posizione data dalla sua distanza.
  * </p>
  *
  * @author Samuele Secchi, 761031
@@ -47,6 +60,18 @@ public class PreferitiController implements Initializable {
     private final GestioneRistorante gestioneRistorante = GestioneRistorante.getInstance();
     private HostServices hostServices;
 
+    /** Preferiti mostrati, in ordine di distanza e poi di nome. */
+    private final ObservableList<Ristorante> preferiti = FXCollections.observableArrayList();
+    /** Distanza in km di ogni preferito mostrato dal punto di riferimento, vuota se il punto non è noto. */
+    private final Map<String, Double> distanzaPerNome = new HashMap<>();
+    private final Comparator<Ristorante> ordine = Comparator
+            .comparingDouble((Ristorante r) -> distanzaPerNome.getOrDefault(r.getNome(), Double.MAX_VALUE))
+            .thenComparing(Ristorante::getNome);
+    /** Coordinate {latitudine, longitudine} da cui sono misurate le distanze, oppure {@code null}. */
+    private double[] origine;
+    private final GestionePreferiti.AscoltatorePreferiti ascoltatore =
+            (username, ristoranteId, aggiunto) -> Platform.runLater(() -> applicaModifica(username, ristoranteId, aggiunto));
+
     /**
      * Inizializza il controller configurando la ListView dei preferiti.
      * Imposta il gestore per il doppio click per aprire i dettagli
@@ -68,7 +93,17 @@ public class PreferitiController implements Initializable {
             }
         });
 
+        // Riceve le modifiche ai preferiti finché la lista è mostrata
+        preferitiListView.sceneProperty().addListener((osservabile, precedente, scena) -> {
+            if (scena != null) {
+                gestionePreferiti.aggiungiAscoltatore(ascoltatore);
+            } else {
+                gestionePreferiti.rimuoviAscoltatore(ascoltatore);
+            }
+        });
+
         // Configura la ListView
+        preferitiListView.setItems(preferiti);
         preferitiListView.setCellFactory(__ -> new ListCell<>() {
             @Override
             protected void updateItem(Ristorante item, boolean empty) {
@@ -92,7 +127,16 @@ public class PreferitiController implements Initializable {
                     HBox container = new HBox(10);
                     Label infoLabel = new Label(info);
                     infoLabel.setStyle("-fx-padding: 5px 0;"); // Aggiunge padding verticale per allineare con il pulsante
-                    container.getChildren().addAll(infoLabel, removeButton);
+                    container.getChildren().add(infoLabel);
+
+                    // Distanza dal punto di riferimento, se nota
+                    Double distanza = distanzaPerNome.get(item.getNome());
+                    if (distanza != null) {
+                        Label distanzaLabel = new Label(String.format(Locale.ITALIAN, "%.1f km", distanza));
+                        distanzaLabel.setStyle("-fx-background-color: #eeeeee; -fx-background-radius: 8; -fx-padding: 2px 6px;");
+                        container.getChildren().add(distanzaLabel);
+                    }
+                    container.getChildren().add(removeButton);
                     setGraphic(container);
                 }
             }
@@ -114,17 +158,75 @@ public class PreferitiController implements Initializable {
     /**
      * Carica la lista dei ristoranti preferiti dell'utente corrente.
      * Recupera l'username dalla sessione, ottiene i preferiti dal GestionePreferiti
-     * e i dettagli dei ristoranti dal GestioneRistorante.
+     * e i dettagli dei ristoranti dal GestioneRistorante, ne calcola le distanze
+     * dal domicilio e li ordina.
      */
     private void caricaPreferiti() {
         String username = SessioneUtente.getUsernameUtente();
         if (username == null) return;
 
-        Set<String> preferiti = gestionePreferiti.getPreferiti(username);
-        List<Ristorante> ristoranti = gestioneRistorante.getRistorantiByNomi(preferiti);
-        
-        ObservableList<Ristorante> items = FXCollections.observableArrayList(ristoranti);
-        preferitiListView.setItems(items);
+        origine = SessioneUtente.getCoordinateDomicilio();
+        List<Ristorante> ristoranti = new ArrayList<>(
+                gestioneRistorante.getRistorantiByNomi(gestionePreferiti.getPreferiti(username)));
+        distanzaPerNome.clear();
+        misura(ristoranti);
+        ristoranti.sort(ordine);
+        preferiti.setAll(ristoranti);
+    }
+
+    /**
+     * Calcola in un solo passaggio la distanza dal punto di riferimento dei ristoranti indicati.
+     *
+     * @param ristoranti ristoranti da misurare
+     */
+    private void misura(List<Ristorante> ristoranti) {
+        if (origine == null || ristoranti.isEmpty()) return;
+        double[] distanze = gestioneRistorante.distanzeKm(ristoranti, origine[0], origine[1]);
+        for (int i = 0; i < distanze.length; i++) {
+            distanzaPerNome.put(ristoranti.get(i).getNome(), distanze[i]);
+        }
+    }
+
+    /**
+     * Inserisce un ristorante nella lista nella posizione data dalla sua distanza.
+     *
+     * @param ristorante ristorante da inserire, con la distanza già calcolata
+     */
+    private void inserisci(Ristorante ristorante) {
+        int posizione = Collections.binarySearch(preferiti, ristorante, ordine);
+        if (posizione < 0) {
+            preferiti.add(-posizione - 1, ristorante);
+        }
+    }
+
+    /**
+     * Toglie un ristorante dalla lista.
+     *
+     * @param nome nome del ristorante
+     */
+    private void togli(String nome) {
+        preferiti.removeIf(r -> r.getNome().equals(nome));
+        distanzaPerNome.remove(nome);
+    }
+
+    /**
+     * Applica alla lista l'aggiunta o la rimozione di un preferito dell'utente corrente.
+     *
+     * @param username     nome dell'utente
+     * @param ristoranteId identificativo del ristorante
+     * @param aggiunto     {@code true} se il ristorante è stato aggiunto
+     */
+    private void applicaModifica(String username, String ristoranteId, boolean aggiunto) {
+        if (!username.equals(SessioneUtente.getUsernameUtente())) return;
+        if (!aggiunto) {
+            togli(ristoranteId);
+            return;
+        }
+        Ristorante ristorante = gestioneRistorante.getRistorante(ristoranteId);
+        if (ristorante != null) {
+            misura(List.of(ristorante));
+            inserisci(ristorante);
+        }
     }
 
     /**
@@ -171,21 +273,32 @@ public class PreferitiController implements Initializable {
         if (username == null) return;
 
         gestionePreferiti.rimuoviPreferito(username, ristorante.getNome());
-        caricaPreferiti();
+        togli(ristorante.getNome());
     }
 
     /**
      * Aggiorna dinamicamente la lista dei ristoranti preferiti.
-     * Recupera la lista aggiornata dei preferiti dal GestionePreferiti
-     * e aggiorna la ListView.
+     * Confronta la lista mostrata con i preferiti attuali, ad es. al ritorno dalla schermata
+     * dei dettagli, e toglie o inserisce solo i ristoranti cambiati; se il punto di
+     * riferimento è cambiato, ricarica e riordina l'intera lista.
      */
     public void refreshData() {
         String username = SessioneUtente.getUsernameUtente();
         if (username == null) return;
-        Set<String> preferiti = gestionePreferiti.getPreferiti(username);
-        List<Ristorante> ristoranti = gestioneRistorante.getRistorantiByNomi(preferiti);
-        ObservableList<Ristorante> items = FXCollections.observableArrayList(ristoranti);
-        preferitiListView.setItems(items);
+        if (!Arrays.equals(origine, SessioneUtente.getCoordinateDomicilio())) {
+            caricaPreferiti();
+            return;
+        }
+        Set<String> attuali = gestionePreferiti.getPreferiti(username);
+        List<Ristorante> rimossi = preferiti.stream().filter(r -> !attuali.contains(r.getNome())).toList();
+        rimossi.forEach(r -> togli(r.getNome()));
+
+        Set<String> mostrati = new HashSet<>();
+        preferiti.forEach(r -> mostrati.add(r.getNome()));
+        List<Ristorante> aggiunti = gestioneRistorante.getRistorantiByNomi(
+                attuali.stream().filter(nome -> !mostrati.contains(nome)).toList());
+        misura(aggiunti);
+        aggiunti.forEach(this::inserisci);
     }
 
     /**
@@ -0,0 +1,450 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query strutturata sul catalogo dei ristoranti, ottenuta dall'analisi di un testo come
+ * {@code cucina:pesce prezzo:<=3 premio:"2 Stelle" vicino:Como raggio:20km}.
+ * <p>
+ * Ogni clausola ha la forma {@code campo:valore}; i valori con spazi vanno racchiusi tra virgolette.
+ * Le parole senza campo vengono cercate nel nome del ristorante. I campi riconosciuti sono:
+ * </p>
+ * <ul>
+ *     <li>{@code nome}, {@code localita}, {@code cucina}, {@code premio}, {@code descrizione};</li>
+ *     <li>{@code prezzo}, con gli operatori {@code < <= = >= >} seguiti dal numero di simboli € (1-4)
+ *     oppure direttamente dai simboli, ad es. {@code prezzo:€€};</li>
+ *     <li>{@code stellaverde:si|no};</li>
+ *     <li>{@code vicino} (località di riferimento, anche con qualche errore di battitura, coordinate
+ *     {@code latitudine,longitudine} oppure {@value #VICINO_DOMICILIO} per il domicilio dell'utente) e
+ *     {@code raggio}, in km o m, predefinito {@value #RAGGIO_PREDEFINITO_KM} km;</li>
+ *     <li>{@code area} (rettangolo {@code sud,ovest,nord,est}) oppure {@code poligono} (vertici
+ *     {@code latitudine,longitudine} separati da {@code ;}, anelli separati da {@code |}) per limitare la
+ *     ricerca a una regione;</li>
+ *     <li>{@code primi}, insieme a {@code vicino}, per ottenere i k ristoranti più vicini: in questo caso
+ *     il raggio si applica solo se indicato esplicitamente;</li>
+ *     <li>{@code pagina} (a partire da 1) e {@code spiega:si} per mostrare il piano di esecuzione con i tempi.</li>
+ * </ul>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class QueryRistoranti {
+
+    /** Valore di {@code vicino} che indica il domicilio dell'utente in sessione. */
+    public static final String VICINO_DOMICILIO = "domicilio";
+
+    /** Raggio usato da {@code vicino} quando {@code raggio} non è indicato. */
+    public static final double RAGGIO_PREDEFINITO_KM = 10;
+    /** Numero massimo di ristoranti richiedibili con {@code primi}. */
+    public static final int MAX_PRIMI = 1000;
+
+    private String nome = "";
+    private String localita = "";
+    private String cucina = "";
+    private String premio = "";
+    private String descrizione = "";
+    private int prezzoMinimo = 1;
+    private int prezzoMassimo = 4;
+    private Boolean stellaVerde;
+    private String vicino = "";
+    private double[] coordinateVicino;
+    private double raggioKm = RAGGIO_PREDEFINITO_KM;
+    private boolean raggioIndicato = false;
+    private int primi = 0;
+    private PoligonoGeografico regione;
+    private int pagina = 1;
+    private boolean spiega = false;
+
+    private QueryRistoranti() {}
+
+    /**
+     * Verifica se un testo va interpretato come query strutturata, cioè se contiene almeno
+     * una clausola {@code campo:valore}.
+     *
+     * @param testo testo digitato dall'utente
+     * @return {@code true} se il testo contiene il carattere ':'
+     */
+    public static boolean isQueryStrutturata(String testo) {
+        return testo != null && testo.indexOf(':') > 0;
+    }
+
+    /**
+     * Analizza il testo di una query.
+     *
+     * @param testo testo della query
+     * @return query analizzata
+     * @throws IllegalArgumentException se la query contiene un campo sconosciuto o un valore non valido
+     */
+    public static QueryRistoranti analizza(String testo) {
+        QueryRistoranti query = new QueryRistoranti();
+        List<String> paroleLibere = new ArrayList<>();
+
+        for (String clausola : suddividi(testo == null ? "" : testo)) {
+            int separatore = clausola.indexOf(':');
+            if (separatore <= 0) {
+                paroleLibere.add(togliVirgolette(clausola));
+                continue;
+            }
+            String campo = AnalizzatoreTesto.normalizza(clausola.substring(0, separatore));
+            String valore = togliVirgolette(clausola.substring(separatore + 1)).trim();
+            if (valore.isEmpty()) {
+                throw new IllegalArgumentException("Valore mancante per il campo '" + campo + "'");
+            }
+            switch (campo) {
+                case "nome" -> paroleLibere.add(valore);
+                case "localita", "citta" -> query.localita = valore;
+                case "cucina" -> query.cucina = valore;
+                case "premio" -> query.premio = valore;
+                case "descrizione", "testo" -> query.descrizione = valore;
+                case "prezzo" -> query.impostaPrezzo(valore);
+                case "stellaverde" -> query.stellaVerde = leggiBooleano(campo, valore);
+                case "vicino" -> query.impostaVicino(valore);
+                case "raggio" -> {
+                    query.raggioKm = leggiRaggio(valore);
+                    query.raggioIndicato = true;
+                }
+                case "area" -> query.impostaRegione(leggiRettangolo(valore));
+                case "poligono" -> query.impostaRegione(PoligonoGeografico.analizza(valore));
+                case "primi" -> query.primi = leggiIntero(campo, valore, 1, MAX_PRIMI);
+                case "pagina" -> query.pagina = leggiIntero(campo, valore, 1, Integer.MAX_VALUE);
+                case "spiega" -> query.spiega = leggiBooleano(campo, valore);
+                default -> throw new IllegalArgumentException("Campo sconosciuto: '" + campo + "'");
+            }
+        }
+        query.nome = String.join(" ", paroleLibere).trim();
+        return query;
+    }
+
+    /**
+     * Costruisce una query a partire dai campi della schermata di ricerca.
+     *
+     * @param nome          testo da cercare nel nome
+     * @param localita      prefisso della località
+     * @param cucina        cucina richiesta
+     * @param descrizione   parole da cercare nella descrizione
+     * @param livelloPrezzo numero esatto di simboli € richiesto, 0 per nessun vincolo
+     * @return query equivalente ai campi compilati
+     */
+    public static QueryRistoranti daCampi(String nome, String localita, String cucina, String descrizione, int livelloPrezzo) {
+        QueryRistoranti query = new QueryRistoranti();
+        query.nome = nome == null ? "" : nome.trim();
+        query.localita = localita == null ? "" : localita.trim();
+        query.cucina = cucina == null ? "" : cucina.trim();
+        query.descrizione = descrizione == null ? "" : descrizione.trim();
+        if (livelloPrezzo > 0) {
+            query.prezzoMinimo = livelloPrezzo;
+            query.prezzoMassimo = livelloPrezzo;
+        }
+        return query;
+    }
+
+    /**
+     * Suddivide il testo in clausole separate da spazi, rispettando le virgolette.
+     *
+     * @param testo testo della query
+     * @return clausole nell'ordine in cui compaiono
+     */
+    private static List<String> suddividi(String testo) {
+        List<String> clausole = new ArrayList<>();
+        StringBuilder corrente = new StringBuilder();
+        boolean traVirgolette = false;
+        for (char c : testo.toCharArray()) {
+            if (c == '"') {
+                traVirgolette = !traVirgolette;
+                corrente.append(c);
+            } else if (Character.isWhitespace(c) && !traVirgolette) {
+                if (!corrente.isEmpty()) {
+                    clausole.add(corrente.toString());
+                    corrente.setLength(0);
+                }
+            } else {
+                corrente.append(c);
+            }
+        }
+        if (traVirgolette) {
+            throw new IllegalArgumentException("Virgolette non chiuse nella query");
+        }
+        if (!corrente.isEmpty()) {
+            clausole.add(corrente.toString());
+        }
+        return clausole;
+    }
+
+    private static String togliVirgolette(String valore) {
+        return valore.replace("\"", "");
+    }
+
+    /**
+     * Interpreta il vincolo sul prezzo, espresso come operatore di confronto seguito dal numero
+     * di simboli € oppure dai simboli stessi.
+     *
+     * @param valore vincolo, ad es. {@code <=3}, {@code €€} o {@code >2}
+     */
+    private void impostaPrezzo(String valore) {
+        String operatore = valore.replaceAll("[^<>=]", "");
+        String livello = valore.substring(operatore.length()).trim();
+        if (!valore.startsWith(operatore)) {
+            throw new IllegalArgumentException("Vincolo sul prezzo non valido: '" + valore + "'");
+        }
+        int n = livello.chars().allMatch(c -> c == '€') && !livello.isEmpty()
+                ? livello.length()
+                : leggiIntero("prezzo", livello, 1, 4);
+        if (n > 4) {
+            throw new IllegalArgumentException("Il prezzo va da 1 a 4 simboli €");
+        }
+        switch (operatore) {
+            case "", "=" -> { prezzoMinimo = n; prezzoMassimo = n; }
+            case "<" -> prezzoMassimo = n - 1;
+            case "<=" -> prezzoMassimo = n;
+            case ">" -> prezzoMinimo = n + 1;
+            case ">=" -> prezzoMinimo = n;
+            default -> throw new IllegalArgumentException("Operatore sul prezzo non valido: '" + operatore + "'");
+        }
+    }
+
+    /**
+     * Imposta il riferimento di {@code vicino}: se il valore è una coppia di coordinate
+     * {@code latitudine,longitudine} viene usata direttamente, altrimenti è il nome di una località.
+     *
+     * @param valore valore del campo
+     */
+    private void impostaVicino(String valore) {
+        vicino = valore;
+        coordinateVicino = null;
+        String[] parti = valore.split(",");
+        if (parti.length != 2) return;
+        try {
+            double latitudine = Double.parseDouble(parti[0].trim());
+            double longitudine = Double.parseDouble(parti[1].trim());
+            if (Math.abs(latitudine) > 90 || Math.abs(longitudine) > 180) {
+                throw new IllegalArgumentException("Coordinate non valide: '" + valore + "'");
+            }
+            coordinateVicino = new double[]{latitudine, longitudine};
+        } catch (NumberFormatException e) {
+            // Non sono coordinate: è il nome di una località con una virgola, ad es. "Como, Italia"
+        }
+    }
+
+    private void impostaRegione(PoligonoGeografico nuova) {
+        if (regione != null) {
+            throw new IllegalArgumentException("Indicare una sola regione con 'area' o 'poligono'");
+        }
+        regione = nuova;
+    }
+
+    /**
+     * Legge un rettangolo scritto come {@code sud,ovest,nord,est}.
+     *
+     * @param valore valore del campo {@code area}
+     * @return il rettangolo
+     */
+    private static PoligonoGeografico leggiRettangolo(String valore) {
+        String[] parti = valore.split(",");
+        if (parti.length != 4) {
+            throw new IllegalArgumentException("L'area va indicata come sud,ovest,nord,est");
+        }
+        double[] lati = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                lati[i] = Double.parseDouble(parti[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Area non valida: '" + valore + "'");
+        }
+        return PoligonoGeografico.rettangolo(lati[0], lati[1], lati[2], lati[3]);
+    }
+
+    private static double leggiRaggio(String valore) {
+        String v = valore.toLowerCase().replace(',', '.');
+        double fattore = 1;
+        if (v.endsWith("km")) {
+            v = v.substring(0, v.length() - 2);
+        } else if (v.endsWith("m")) {
+            v = v.substring(0, v.length() - 1);
+            fattore = 0.001;
+        }
+        try {
+            double raggio = Double.parseDouble(v.trim()) * fattore;
+            if (raggio <= 0) throw new NumberFormatException();
+            return raggio;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Raggio non valido: '" + valore + "'");
+        }
+    }
+
+    private static int leggiIntero(String campo, String valore, int minimo, int massimo) {
+        try {
+            int n = Integer.parseInt(valore.trim());
+            if (n < minimo || n > massimo) throw new NumberFormatException();
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valore non valido per il campo '" + campo + "': '" + valore + "'");
+        }
+    }
+
+    private static boolean leggiBooleano(String campo, String valore) {
+        return switch (AnalizzatoreTesto.normalizza(valore)) {
+            case "si", "1", "true", "vero" -> true;
+            case "no", "0", "false", "falso" -> false;
+            default -> throw new IllegalArgumentException("Valore non valido per il campo '" + campo + "': '" + valore + "'");
+        };
+    }
+
+    /**
+     * Restituisce le parole da cercare nel nome, stringa vuota se assenti.
+     *
+     * @return parole da cercare nel nome, stringa vuota se assenti
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Restituisce il prefisso della località, stringa vuota se assente.
+     *
+     * @return prefisso della località, stringa vuota se assente
+     */
+    public String getLocalita() {
+        return localita;
+    }
+
+    /**
+     * Restituisce la cucina richiesta, stringa vuota se assente.
+     *
+     * @return cucina richiesta, stringa vuota se assente
+     */
+    public String getCucina() {
+        return cucina;
+    }
+
+    /**
+     * Restituisce il premio richiesto, stringa vuota se assente.
+     *
+     * @return premio richiesto, stringa vuota se assente
+     */
+    public String getPremio() {
+        return premio;
+    }
+
+    /**
+     * Restituisce le parole da cercare nella descrizione, stringa vuota se assenti.
+     *
+     * @return parole da cercare nella descrizione, stringa vuota se assenti
+     */
+    public String getDescrizione() {
+        return descrizione;
+    }
+
+    /**
+     * Restituisce il numero minimo di simboli € ammesso.
+     *
+     * @return numero minimo di simboli € ammesso
+     */
+    public int getPrezzoMinimo() {
+        return prezzoMinimo;
+    }
+
+    /**
+     * Restituisce il numero massimo di simboli € ammesso.
+     *
+     * @return numero massimo di simboli € ammesso
+     */
+    public int getPrezzoMassimo() {
+        return prezzoMassimo;
+    }
+
+    /**
+     * Indica se è stato posto un vincolo sul prezzo.
+     *
+     * @return {@code true} se è stato posto un vincolo sul prezzo
+     */
+    public boolean haVincoloPrezzo() {
+        return prezzoMinimo > 1 || prezzoMassimo < 4;
+    }
+
+    /**
+     * Restituisce il vincolo sulla stella verde, {@code null} se assente.
+     *
+     * @return vincolo sulla stella verde, {@code null} se assente
+     */
+    public Boolean getStellaVerde() {
+        return stellaVerde;
+    }
+
+    /**
+     * Restituisce la località di riferimento per la ricerca per distanza, stringa vuota se assente.
+     *
+     * @return località di riferimento per la ricerca per distanza, stringa vuota se assente
+     */
+    public String getVicino() {
+        return vicino;
+    }
+
+    /**
+     * Restituisce il raggio della ricerca per distanza, in km.
+     *
+     * @return raggio della ricerca per distanza, in km
+     */
+    public double getRaggioKm() {
+        return raggioKm;
+    }
+
+    /**
+     * Indica se il raggio è stato indicato esplicitamente nella query.
+     *
+     * @return {@code true} se la query contiene il campo {@code raggio}
+     */
+    public boolean isRaggioIndicato() {
+        return raggioIndicato;
+    }
+
+    /**
+     * Restituisce le coordinate indicate con {@code vicino}, se il valore era una coppia di coordinate.
+     *
+     * @return array {latitudine, longitudine}, oppure {@code null} se {@code vicino} indica una località
+     */
+    public double[] getCoordinateVicino() {
+        return coordinateVicino;
+    }
+
+    /**
+     * Restituisce la regione indicata con {@code area} o {@code poligono}.
+     *
+     * @return la regione, oppure {@code null} se la query non è limitata a una regione
+     */
+    public PoligonoGeografico getRegione() {
+        return regione;
+    }
+
+    /**
+     * Restituisce il numero di ristoranti più vicini richiesti, 0 se la query non li richiede.
+     *
+     * @return numero di ristoranti più vicini richiesti, 0 se la query non li richiede
+     */
+    public int getPrimi() {
+        return primi;
+    }
+
+    /**
+     * Restituisce la pagina richiesta, a partire da 1.
+     *
+     * @return pagina richiesta, a partire da 1
+     */
+    public int getPagina() {
+        return pagina;
+    }
+
+    /**
+     * Indica se è stato richiesto il piano di esecuzione.
+     *
+     * @return {@code true} se è stato richiesto il piano di esecuzione
+     */
+    public boolean isSpiega() {
+        return spiega;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Raccomandazioni "chi ha salvato questo ristorante ha salvato anche", ricavate dai preferiti degli utenti.
+ * <p>
+ * Ogni ristorante salvato almeno una volta riceve un identificativo intero. La matrice delle co-occorrenze
+ * conta, per ogni coppia di ristoranti, gli utenti che li hanno salvati entrambi; è sparsa e ogni riga è
+ * una {@link MappaIntInt}, senza oggetti per le singole celle. La somiglianza tra due ristoranti è il
+ * coseno tra gli insiemi dei loro utenti, {@code comuni / sqrt(utentiA * utentiB)}, così che i ristoranti
+ * salvati da tutti non compaiano tra i simili di ogni altro.
+ * </p>
+ * <p>
+ * All'avvio la matrice e la tabella dei {@value #NUMERO_SIMILI} ristoranti più simili a ciascuno vengono
+ * calcolate in parallelo, una riga per ristorante, leggendo per ogni ristorante i preferiti dei suoi
+ * utenti. Le modifiche successive arrivano da {@link GestionePreferiti}: aggiungere o togliere un preferito
+ * aggiorna solo le celle delle coppie con gli altri preferiti dello stesso utente. Per gli altri ristoranti
+ * cambia al più la somiglianza con il ristorante modificato, che viene aggiornata nella loro voce della
+ * tabella senza rileggerne la riga; la riga viene riletta, alla prima richiesta, solo quando un consiglio
+ * peggiora e un ristorante escluso dalla tabella potrebbe prenderne il posto.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class RaccomandazioniPreferiti implements GestionePreferiti.AscoltatorePreferiti {
+
+    /** Numero di ristoranti simili conservati per ogni ristorante. */
+    public static final int NUMERO_SIMILI = 10;
+
+    /**
+     * Ristorante consigliato.
+     *
+     * @param ristoranteId   identificativo del ristorante consigliato
+     * @param utentiInComune utenti che hanno salvato entrambi i ristoranti
+     * @param somiglianza    coseno tra gli insiemi di utenti dei due ristoranti, in {@code (0, 1]}
+     */
+    public record Raccomandazione(String ristoranteId, int utentiInComune, double somiglianza) {}
+
+    /** Ordine dei consigli: somiglianza, poi utenti in comune, poi nome. */
+    private static final Comparator<Raccomandazione> ORDINE = Comparator
+            .comparingDouble(Raccomandazione::somiglianza).reversed()
+            .thenComparing(Comparator.comparingInt(Raccomandazione::utentiInComune).reversed())
+            .thenComparing(Raccomandazione::ristoranteId);
+
+    private static RaccomandazioniPreferiti instance;
+
+    private final Map<String, Integer> idPerRistorante = new HashMap<>();
+    private final List<String> ristoranti = new ArrayList<>();
+    private final List<MappaIntInt> cooccorrenze = new ArrayList<>();
+    private int[] utentiPerRistorante = new int[0];
+    private final Map<String, Set<Integer>> preferitiPerUtente = new HashMap<>();
+    private final List<List<Raccomandazione>> simili = new ArrayList<>();
+    /** Ristoranti la cui voce nella tabella dei simili va ricalcolata dalla riga della matrice. */
+    private final BitSet daRicalcolare = new BitSet();
+
+    private RaccomandazioniPreferiti() {}
+
+    /**
+     * Restituisce l'istanza unica della classe (pattern Singleton). Alla prima chiamata costruisce le
+     * raccomandazioni dai preferiti salvati e si registra per riceverne le modifiche.
+     *
+     * @return istanza unica di {@code RaccomandazioniPreferiti}
+     */
+    public static RaccomandazioniPreferiti getInstance() {
+        if (instance == null) {
+            GestionePreferiti gestionePreferiti = GestionePreferiti.getInstance();
+            instance = new RaccomandazioniPreferiti();
+            instance.ricostruisci(gestionePreferiti.getTuttiPreferiti());
+            gestionePreferiti.aggiungiAscoltatore(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Ricostruisce la matrice delle co-occorrenze e la tabella dei simili da zero.
+     *
+     * @param preferiti insieme dei ristoranti preferiti di ogni utente
+     */
+    public synchronized void ricostruisci(Map<String, Set<String>> preferiti) {
+        idPerRistorante.clear();
+        ristoranti.clear();
+        cooccorrenze.clear();
+        simili.clear();
+        daRicalcolare.clear();
+        preferitiPerUtente.clear();
+
+        // Preferiti di ogni utente e utenti di ogni ristorante, come array di identificativi
+        List<int[]> ristorantiUtente = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> voce : preferiti.entrySet()) {
+            Set<Integer> insieme = new HashSet<>();
+            for (String ristoranteId : voce.getValue()) {
+                insieme.add(identificativo(ristoranteId));
+            }
+            preferitiPerUtente.put(voce.getKey(), insieme);
+            ristorantiUtente.add(insieme.stream().mapToInt(Integer::intValue).toArray());
+        }
+        int n = ristoranti.size();
+        int[] conteggi = new int[n];
+        ristorantiUtente.forEach(r -> Arrays.stream(r).forEach(a -> conteggi[a]++));
+        int[][] utenti = new int[n][];
+        for (int a = 0; a < n; a++) {
+            utenti[a] = new int[conteggi[a]];
+            conteggi[a] = 0;
+        }
+        for (int u = 0; u < ristorantiUtente.size(); u++) {
+            for (int a : ristorantiUtente.get(u)) {
+                utenti[a][conteggi[a]++] = u;
+            }
+        }
+        utentiPerRistorante = conteggi;
+
+        // Ogni riga della matrice dipende solo dagli utenti del suo ristorante: le righe si calcolano in parallelo
+        MappaIntInt[] righe = new MappaIntInt[n];
+        IntStream.range(0, n).parallel().forEach(a -> {
+            MappaIntInt riga = new MappaIntInt();
+            for (int u : utenti[a]) {
+                for (int b : ristorantiUtente.get(u)) {
+                    if (b != a) riga.aggiungi(b, 1);
+                }
+            }
+            righe[a] = riga;
+        });
+        cooccorrenze.clear();
+        cooccorrenze.addAll(Arrays.asList(righe));
+
+        List<List<Raccomandazione>> tabella = IntStream.range(0, n).parallel().mapToObj(this::calcolaSimili).toList();
+        simili.clear();
+        simili.addAll(tabella);
+    }
+
+    @Override
+    public synchronized void preferitoModificato(String username, String ristoranteId, boolean aggiunto) {
+        int a = identificativo(ristoranteId);
+        Set<Integer> insieme = preferitiPerUtente.computeIfAbsent(username, k -> new HashSet<>());
+        if (aggiunto ? !insieme.add(a) : !insieme.remove(a)) return;
+
+        int variazione = aggiunto ? 1 : -1;
+        for (int b : insieme) {
+            if (b == a) continue;
+            cooccorrenze.get(a).aggiungi(b, variazione);
+            cooccorrenze.get(b).aggiungi(a, variazione);
+        }
+        utentiPerRistorante[a] += variazione;
+
+        // Cambiano tutti i simili di a; per i ristoranti con co-occorrenze con a (il coseno dipende dagli
+        // utenti di a) e per gli altri preferiti dell'utente, che possono aver perso a, cambia solo a
+        daRicalcolare.set(a);
+        cooccorrenze.get(a).perOgni((b, comuni) -> aggiornaVoce(b, a));
+        for (int b : insieme) {
+            if (b != a && cooccorrenze.get(a).get(b) == 0) aggiornaVoce(b, a);
+        }
+    }
+
+    /**
+     * Aggiorna la somiglianza con {@code a} nella voce della tabella di {@code b}, le cui altre somiglianze
+     * non sono cambiate. La voce contiene i migliori tra tutti i ristoranti della riga, oppure tutti se sono
+     * meno di {@value #NUMERO_SIMILI}: se {@code a} peggiora in una voce completa, un ristorante escluso
+     * potrebbe superarlo e la voce va ricalcolata.
+     */
+    private void aggiornaVoce(int b, int a) {
+        if (daRicalcolare.get(b)) return;
+        int comuni = cooccorrenze.get(b).get(a);
+        Raccomandazione nuova = new Raccomandazione(ristoranti.get(a), comuni, somiglianza(b, a, comuni));
+        List<Raccomandazione> voce = new ArrayList<>(simili.get(b));
+        int posizione = -1;
+        for (int i = 0; i < voce.size(); i++) {
+            if (voce.get(i).ristoranteId().equals(nuova.ristoranteId())) posizione = i;
+        }
+        if (posizione >= 0) {
+            if (voce.size() == NUMERO_SIMILI && (comuni == 0 || ORDINE.compare(nuova, voce.get(posizione)) > 0)) {
+                daRicalcolare.set(b);
+                return;
+            }
+            voce.remove(posizione);
+        }
+        if (comuni > 0) {
+            int inserimento = -Collections.binarySearch(voce, nuova, ORDINE) - 1;
+            if (inserimento < NUMERO_SIMILI) {
+                voce.add(inserimento, nuova);
+                if (voce.size() > NUMERO_SIMILI) voce.remove(NUMERO_SIMILI);
+            }
+        }
+        simili.set(b, List.copyOf(voce));
+    }
+
+    /**
+     * Restituisce i ristoranti più simili a un ristorante, dal più simile.
+     *
+     * @param ristoranteId identificativo del ristorante
+     * @param numero       numero massimo di ristoranti, al più {@value #NUMERO_SIMILI}
+     * @return ristoranti consigliati, vuota se nessun utente ha salvato il ristorante con altri
+     */
+    public synchronized List<Raccomandazione> getSimili(String ristoranteId, int numero) {
+        Integer a = idPerRistorante.get(ristoranteId);
+        if (a == null) return List.of();
+        if (daRicalcolare.get(a)) {
+            simili.set(a, calcolaSimili(a));
+            daRicalcolare.clear(a);
+        }
+        List<Raccomandazione> tabella = simili.get(a);
+        return tabella.subList(0, Math.min(numero, tabella.size()));
+    }
+
+    /**
+     * Calcola i ristoranti più simili a un ristorante dalla sua riga della matrice.
+     */
+    private List<Raccomandazione> calcolaSimili(int a) {
+        List<Raccomandazione> migliori = new ArrayList<>(NUMERO_SIMILI + 1);
+        cooccorrenze.get(a).perOgni((b, comuni) -> {
+            double somiglianza = somiglianza(a, b, comuni);
+            // Scarta senza creare oggetti i candidati che non entrano tra i migliori
+            if (migliori.size() == NUMERO_SIMILI && somiglianza < migliori.get(NUMERO_SIMILI - 1).somiglianza()) return;
+            Raccomandazione candidato = new Raccomandazione(ristoranti.get(b), comuni, somiglianza);
+            int posizione = -Collections.binarySearch(migliori, candidato, ORDINE) - 1;
+            if (posizione < NUMERO_SIMILI) {
+                migliori.add(posizione, candidato);
+                if (migliori.size() > NUMERO_SIMILI) migliori.remove(NUMERO_SIMILI);
+            }
+        });
+        return List.copyOf(migliori);
+    }
+
+    private double somiglianza(int a, int b, int comuni) {
+        return comuni == 0 ? 0 : comuni / Math.sqrt((double) utentiPerRistorante[a] * utentiPerRistorante[b]);
+    }
+
+    /**
+     * Restituisce l'identificativo intero di un ristorante, assegnandone uno nuovo se necessario.
+     */
+    private int identificativo(String ristoranteId) {
+        Integer esistente = idPerRistorante.get(ristoranteId);
+        if (esistente != null) return esistente;
+        int nuovo = ristoranti.size();
+        idPerRistorante.put(ristoranteId, nuovo);
+        ristoranti.add(ristoranteId);
+        cooccorrenze.add(new MappaIntInt());
+        simili.add(List.of());
+        if (nuovo >= utentiPerRistorante.length) {
+            utentiPerRistorante = Arrays.copyOf(utentiPerRistorante, Math.max(16, nuovo * 2));
+        }
+        return nuovo;
+    }
+}
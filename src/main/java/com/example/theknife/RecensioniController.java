@@ -238,6 +238,7 @@ import javafx.scene.layout.VBox;
      */
     public void refreshData() {
         if (ristoranteId != null) {
+            gestioneRecensioni.ricaricaRecensioni();
             masterRecensioniList.setAll(gestioneRecensioni.getRecensioniRistorante(ristoranteId));
             aggiornaPieChart();
             pulisciCampi();
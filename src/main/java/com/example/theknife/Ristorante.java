@@ -1,5 +1,9 @@
 package com.example.theknife;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * La classe {@code Ristorante} rappresenta un'entità che contiene tutte le informazioni relative
  * ad un ristorante, quali il nome, l'indirizzo, la località, il prezzo, la tipologia di cucina, le coordinate
@@ -23,6 +27,11 @@ package com.example.theknife;
  */
 public class Ristorante {
 
+    /**
+     * Testo mostrato da {@link #toString()} al posto dei campi non ancora letti dal file.
+     */
+    private static final String NON_CARICATO = "<non caricato>";
+
     /**
      * Il nome del ristorante.
      */
@@ -93,6 +102,37 @@ public class Ristorante {
      */
     private String descrizione;
 
+    /**
+     * Gli identificativi delle cucine del ristorante nella {@link TassonomiaCucine}, in ordine crescente.
+     */
+    private int[] idCucine = new int[0];
+
+    /**
+     * I servizi del ristorante come insieme di bit, uno per servizio, assegnati dal catalogo al caricamento.
+     */
+    private long bitServizi;
+
+    /**
+     * L'archivio da cui leggere la descrizione quando non è tenuta in memoria, altrimenti {@code null}.
+     */
+    private ArchivioDescrizioni archivioDescrizioni;
+
+    /**
+     * L'identificativo della descrizione nell'{@link #archivioDescrizioni}.
+     */
+    private int idDescrizione;
+
+    /**
+     * Il lettore da cui rileggere la riga del CSV per i campi di dettaglio non ancora analizzati,
+     * {@code null} se tutti i campi sono in memoria.
+     */
+    private volatile LettorePosizionale righeCatalogo;
+
+    /**
+     * L'identificativo della riga del ristorante nel {@link #righeCatalogo}.
+     */
+    private int idRiga;
+
     /**
      * Crea un nuovo oggetto {@code Ristorante} con i dettagli specificati.
      *
@@ -199,6 +239,7 @@ public class Ristorante {
      * @return il numero di telefono.
      */
     public String getNumeroTelefono() {
+        if (righeCatalogo != null) caricaCampiDettaglio();
         return numeroTelefono;
     }
 
@@ -208,6 +249,7 @@ public class Ristorante {
      * @return l'URL del ristorante.
      */
     public String getUrl() {
+        if (righeCatalogo != null) caricaCampiDettaglio();
         return url;
     }
 
@@ -217,6 +259,7 @@ public class Ristorante {
      * @return il sito web del ristorante.
      */
     public String getSitoWeb() {
+        if (righeCatalogo != null) caricaCampiDettaglio();
         return sitoWeb;
     }
 
@@ -244,40 +287,153 @@ public class Ristorante {
      * @return i servizi.
      */
     public String getServizi() {
+        if (righeCatalogo != null) caricaCampiDettaglio();
         return servizi;
     }
 
     /**
-     * Restituisce una descrizione del ristorante.
+     * Restituisce una descrizione del ristorante. Se la descrizione non è tenuta in memoria,
+     * viene letta dall'archivio delle descrizioni.
      *
      * @return la descrizione.
      */
     public String getDescrizione() {
+        if (righeCatalogo != null) caricaCampiDettaglio();
+        if (descrizione == null && archivioDescrizioni != null) {
+            return archivioDescrizioni.leggi(idDescrizione);
+        }
         return descrizione;
     }
 
+    /**
+     * Fa sì che la descrizione venga letta su richiesta da un archivio invece di essere tenuta in memoria.
+     *
+     * @param archivio archivio che contiene la descrizione.
+     * @param id       identificativo della descrizione nell'archivio.
+     */
+    public void setDescrizioneDifferita(ArchivioDescrizioni archivio, int id) {
+        this.descrizione = null;
+        this.archivioDescrizioni = archivio;
+        this.idDescrizione = id;
+    }
+
+    /**
+     * Fa sì che i campi di dettaglio (telefono, URL, sito web, servizi e, se non è già differita, descrizione)
+     * vengano analizzati solo al primo accesso, rileggendo la riga del ristorante dal file del catalogo.
+     *
+     * @param righe lettore che contiene le righe del catalogo.
+     * @param id    identificativo della riga del ristorante nel lettore.
+     */
+    public void setCampiDettaglioDifferiti(LettorePosizionale righe, int id) {
+        this.idRiga = id;
+        this.righeCatalogo = righe;
+    }
+
+    /**
+     * Rilegge la riga del ristorante e analizza i campi di dettaglio. Se la riga non può essere letta o
+     * ha meno campi del previsto, l'errore viene segnalato e i campi mancanti restano vuoti.
+     */
+    private synchronized void caricaCampiDettaglio() {
+        LettorePosizionale righe = righeCatalogo;
+        if (righe == null) return;
+        try {
+            List<String> valori = GestioneRistorante.parseCsvLine(righe.leggi(idRiga));
+            if (valori.size() < GestioneRistorante.NUMERO_CAMPI) {
+                System.err.println("Riga del ristorante " + nome + " incompleta: " + valori.size() + " campi su "
+                        + GestioneRistorante.NUMERO_CAMPI);
+            }
+            numeroTelefono = campo(valori, GestioneRistorante.INDICE_CAMPO_TELEFONO);
+            url = campo(valori, GestioneRistorante.INDICE_CAMPO_URL);
+            sitoWeb = campo(valori, GestioneRistorante.INDICE_CAMPO_SITO_WEB);
+            servizi = campo(valori, GestioneRistorante.INDICE_CAMPO_SERVIZI);
+            if (archivioDescrizioni == null) {
+                descrizione = campo(valori, GestioneRistorante.INDICE_CAMPO_DESCRIZIONE);
+            }
+        } catch (IOException e) {
+            System.err.println("Errore nella lettura dei dettagli del ristorante " + nome + ": " + e.getMessage());
+            numeroTelefono = url = sitoWeb = servizi = "";
+            if (archivioDescrizioni == null) {
+                descrizione = "";
+            }
+        }
+        righeCatalogo = null;
+    }
+
+    private static String campo(List<String> valori, int indice) {
+        return indice < valori.size() ? valori.get(indice) : "";
+    }
+
+    /**
+     * Restituisce gli identificativi delle cucine del ristorante.
+     *
+     * @return gli identificativi in ordine crescente.
+     */
+    public int[] getIdCucine() {
+        return idCucine;
+    }
+
+    /**
+     * Imposta gli identificativi delle cucine, calcolati dalla {@link TassonomiaCucine} al caricamento.
+     *
+     * @param idCucine gli identificativi in ordine crescente.
+     */
+    public void setIdCucine(int[] idCucine) {
+        this.idCucine = idCucine;
+    }
+
+    /**
+     * Restituisce i servizi del ristorante come insieme di bit, senza rileggere i campi di dettaglio.
+     *
+     * @return un bit per ogni servizio offerto.
+     */
+    public long getBitServizi() {
+        return bitServizi;
+    }
+
+    /**
+     * Imposta i servizi come insieme di bit, calcolato dal catalogo al caricamento.
+     *
+     * @param bitServizi un bit per ogni servizio offerto.
+     */
+    public void setBitServizi(long bitServizi) {
+        this.bitServizi = bitServizi;
+    }
+
+    /**
+     * Verifica se il ristorante offre la cucina indicata.
+     *
+     * @param idCucina identificativo della cucina.
+     * @return {@code true} se la cucina è tra quelle del ristorante.
+     */
+    public boolean haCucina(int idCucina) {
+        return idCucina >= 0 && Arrays.binarySearch(idCucine, idCucina) >= 0;
+    }
+
     /**
      * Restituisce una rappresentazione testuale dell'oggetto {@code Ristorante}, utile per scopi di debug.
+     * I campi di dettaglio non ancora letti dal file vengono indicati come non caricati, senza leggerli.
      *
      * @return una stringa che descrive il ristorante e le sue proprietà.
      */
     @Override
     public String toString() {
+        // I campi ancora da leggere dal file non vengono caricati solo per essere stampati
+        boolean dettagliDifferiti = righeCatalogo != null;
         return "Ristorante{" +
-                "nome='" + nome + '\'' +
-                ", indirizzo='" + indirizzo + '\'' +
-                ", localita='" + localita + '\'' +
-                ", prezzo='" + prezzo + '\'' +
-                ", cucina='" + cucina + '\'' +
-                ", longitudine=" + longitudine +
-                ", latitudine=" + latitudine +
-                ", numeroTelefono='" + numeroTelefono + '\'' +
-                ", url='" + url + '\'' +
-                ", sitoWeb='" + sitoWeb + '\'' +
-                ", premio='" + premio + '\'' +
-                ", stellaVerde='" + stellaVerde + '\'' +
-                ", servizi='" + servizi + '\'' +
-                ", descrizione='" + descrizione + '\'' +
+                "nome='" + getNome() + '\'' +
+                ", indirizzo='" + getIndirizzo() + '\'' +
+                ", localita='" + getLocalita() + '\'' +
+                ", prezzo='" + getPrezzo() + '\'' +
+                ", cucina='" + getCucina() + '\'' +
+                ", longitudine=" + getLongitudine() +
+                ", latitudine=" + getLatitudine() +
+                ", numeroTelefono='" + (dettagliDifferiti ? NON_CARICATO : getNumeroTelefono()) + '\'' +
+                ", url='" + (dettagliDifferiti ? NON_CARICATO : getUrl()) + '\'' +
+                ", sitoWeb='" + (dettagliDifferiti ? NON_CARICATO : getSitoWeb()) + '\'' +
+                ", premio='" + getPremio() + '\'' +
+                ", stellaVerde='" + getStellaVerde() + '\'' +
+                ", servizi='" + (dettagliDifferiti ? NON_CARICATO : getServizi()) + '\'' +
+                ", descrizione='" + (dettagliDifferiti || archivioDescrizioni != null ? NON_CARICATO : getDescrizione()) + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,113 @@
+package com.example.theknife;
+
+/**
+ * Ristorante i cui dati risiedono in un {@link CatalogoColonnare}.
+ * <p>
+ * L'oggetto conserva solo il riferimento all'archivio e il numero di riga: ogni metodo di accesso legge
+ * il campo dalla memoria nativa al momento della chiamata. Gli identificativi delle cucine, calcolati
+ * dalla {@link TassonomiaCucine} dopo il caricamento, restano invece nell'oggetto.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class RistoranteColonnare extends Ristorante {
+
+    private final CatalogoColonnare catalogo;
+    private final int riga;
+
+    /**
+     * Crea la vista di una riga dell'archivio.
+     *
+     * @param catalogo archivio che contiene i dati
+     * @param riga     numero di riga nell'archivio
+     */
+    RistoranteColonnare(CatalogoColonnare catalogo, int riga) {
+        super(null, null, null, null, null, 0, 0, null, null, null, null, null, null, null);
+        this.catalogo = catalogo;
+        this.riga = riga;
+    }
+
+    /**
+     * Restituisce il numero di riga del ristorante nell'archivio a colonne.
+     *
+     * @return il numero di riga.
+     */
+    public int getRiga() {
+        return riga;
+    }
+
+    @Override
+    public String getNome() {
+        return catalogo.getTesto(riga, CatalogoColonnare.NOME);
+    }
+
+    @Override
+    public String getIndirizzo() {
+        return catalogo.getTesto(riga, CatalogoColonnare.INDIRIZZO);
+    }
+
+    @Override
+    public String getLocalita() {
+        return catalogo.getTesto(riga, CatalogoColonnare.LOCALITA);
+    }
+
+    @Override
+    public String getPrezzo() {
+        return catalogo.getCodificato(riga, CatalogoColonnare.PREZZO);
+    }
+
+    @Override
+    public String getCucina() {
+        return catalogo.getTesto(riga, CatalogoColonnare.CUCINA);
+    }
+
+    @Override
+    public double getLongitudine() {
+        return catalogo.getLongitudine(riga);
+    }
+
+    @Override
+    public double getLatitudine() {
+        return catalogo.getLatitudine(riga);
+    }
+
+    @Override
+    public String getNumeroTelefono() {
+        return catalogo.getTesto(riga, CatalogoColonnare.TELEFONO);
+    }
+
+    @Override
+    public String getUrl() {
+        return catalogo.getTesto(riga, CatalogoColonnare.URL);
+    }
+
+    @Override
+    public String getSitoWeb() {
+        return catalogo.getTesto(riga, CatalogoColonnare.SITO_WEB);
+    }
+
+    @Override
+    public String getPremio() {
+        return catalogo.getCodificato(riga, CatalogoColonnare.PREMIO);
+    }
+
+    @Override
+    public String getStellaVerde() {
+        return catalogo.getCodificato(riga, CatalogoColonnare.STELLA_VERDE);
+    }
+
+    @Override
+    public String getServizi() {
+        return catalogo.getTesto(riga, CatalogoColonnare.SERVIZI);
+    }
+
+    @Override
+    public String getDescrizione() {
+        return catalogo.getTesto(riga, CatalogoColonnare.DESCRIZIONE);
+    }
+}
@@ -86,6 +86,19 @@ public class RistoranteDetailController implements Initializable {
     @FXML private ListView<Recensione> recensioniRecentList;
     /** Pulsante per navigare alla schermata completa di tutte le recensioni. */
     @FXML private Button mostraRecensioniButton;
+    /** Sezione dei ristoranti salvati da chi ha salvato anche questo, nascosta se non ce ne sono. */
+    @FXML private VBox consigliatiBox;
+    /** Contenitore dei collegamenti ai ristoranti consigliati. */
+    @FXML private VBox consigliatiList;
+    /** Sezione dei ristoranti simili per caratteristiche, nascosta finché la tabella non è pronta. */
+    @FXML private VBox similiBox;
+    /** Striscia dei collegamenti ai ristoranti simili. */
+    @FXML private HBox similiList;
+
+    /** Numero massimo di ristoranti consigliati mostrati. */
+    private static final int NUMERO_CONSIGLIATI = 5;
+    /** Numero massimo di ristoranti simili mostrati. */
+    private static final int NUMERO_SIMILI = 5;
 
     /** L'oggetto Ristorante di cui vengono visualizzati i dettagli. */
     private Ristorante ristorante;
@@ -283,6 +296,8 @@ public class RistoranteDetailController implements Initializable {
 
         updateUI();
         loadRecensioni();
+        loadConsigliati();
+        loadSimili();
     }
 
     /**
@@ -724,6 +739,7 @@ public class RistoranteDetailController implements Initializable {
             gestionePreferiti.aggiungiPreferito(username, ristoranteId);
             preferitoButton.setText("❤️ Rimuovi dai preferiti");
         }
+        loadConsigliati();
     }
 
     /**
@@ -745,6 +761,62 @@ public class RistoranteDetailController implements Initializable {
         recensioniRecentList.setItems(recensioni);
     }
 
+    /**
+     * Carica i ristoranti salvati più spesso insieme a questo dagli altri utenti.
+     * Ogni consiglio è un collegamento che mostra i dettagli del ristorante in questa stessa schermata.
+     */
+    private void loadConsigliati() {
+        if (ristorante == null || consigliatiList == null) return;
+
+        List<RaccomandazioniPreferiti.Raccomandazione> consigliati = RaccomandazioniPreferiti.getInstance()
+                .getSimili(ristorante.getNome(), NUMERO_CONSIGLIATI);
+        consigliatiList.getChildren().clear();
+        for (RaccomandazioniPreferiti.Raccomandazione consiglio : consigliati) {
+            Ristorante consigliato = GestioneRistorante.getInstance().getRistorante(consiglio.ristoranteId());
+            if (consigliato == null) continue;
+            Hyperlink link = new Hyperlink(String.format("%s - %s (%d %s in comune)", consigliato.getNome(),
+                    consigliato.getLocalita(), consiglio.utentiInComune(),
+                    consiglio.utentiInComune() == 1 ? "utente" : "utenti"));
+            link.setOnAction(e -> setRistorante(consigliato));
+            consigliatiList.getChildren().add(link);
+        }
+        boolean visibile = !consigliatiList.getChildren().isEmpty();
+        consigliatiBox.setVisible(visibile);
+        consigliatiBox.setManaged(visibile);
+    }
+
+    /**
+     * Carica i ristoranti più simili a questo per cucina, prezzo, premio, servizi e posizione.
+     * La tabella dei simili viene calcolata in background una volta per versione del catalogo e condivisa
+     * da tutte le schede; la lista compare quando il calcolo termina e viene scartata se nel frattempo è
+     * stato aperto un altro ristorante.
+     */
+    private void loadSimili() {
+        if (ristorante == null || similiList == null) return;
+
+        Ristorante mostrato = ristorante;
+        similiBox.setVisible(false);
+        similiBox.setManaged(false);
+        GestioneRistorante.getInstance().getSimiliPerContenuto(mostrato, NUMERO_SIMILI).whenComplete((simili, errore) -> {
+            if (errore != null) {
+                System.err.println("Errore nel calcolo dei ristoranti simili: " + errore.getMessage());
+                return;
+            }
+            Platform.runLater(() -> {
+                if (ristorante != mostrato) return;
+                similiList.getChildren().clear();
+                for (Ristorante simile : simili) {
+                    Hyperlink link = new Hyperlink(simile.getNome() + " - " + simile.getLocalita());
+                    link.setOnAction(e -> setRistorante(simile));
+                    similiList.getChildren().add(link);
+                }
+                boolean visibile = !simili.isEmpty();
+                similiBox.setVisible(visibile);
+                similiBox.setManaged(visibile);
+            });
+        });
+    }
+
     /**
      * Restituisce l'oggetto ristorante attualmente visualizzato dal controller.
      * @return L'oggetto {@link Ristorante} corrente.
@@ -4,7 +4,10 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.stream.Collectors;
 import com.opencsv.CSVWriter;
 
@@ -118,14 +121,17 @@ public class RistoranteInputController implements Initializable {
         prezzoComboBox.setItems(FXCollections.observableArrayList("€", "€€", "€€€", "€€€€"));
 
         cucinaListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
-        cucinaListView.setItems(FXCollections.observableArrayList(
+        // Alle cucine predefinite si aggiungono quelle canoniche già presenti nel catalogo
+        Set<String> cucine = new LinkedHashSet<>(List.of(
                 "Creativa", "Contemporanea", "Coreana", "Francese", "Italiana",
                 "Giapponese", "Cinese", "Indiana", "Mediterranea", "Fusion",
                 "Americana", "Messicana", "Thailandese", "Vegetariana", "Vegana",
                 "Frutti di mare", "Steakhouse", "Tradizionale", "Moderna", "Internazionale",
-                "Di Mare", "Contadina", "Alpina", "Siciliana", "Toscana", "Innovativa",
+                "Contadina", "Alpina", "Siciliana", "Toscana", "Innovativa",
                 "Di Stagione", "Classica"
         ));
+        cucine.addAll(gestioneRistorante.getCucine());
+        cucinaListView.setItems(FXCollections.observableArrayList(cucine));
 
         premiComboBox.setItems(FXCollections.observableArrayList(
                 "Nessun premio", "1 Stella", "2 Stelle",
@@ -0,0 +1,16 @@
+package com.example.theknife;
+
+/**
+ * Ristorante restituito da una ricerca dei più vicini, insieme alla distanza dal punto di riferimento.
+ *
+ * @param ristorante il ristorante
+ * @param distanzaKm distanza dal punto di riferimento, in km
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public record RistoranteVicino(Ristorante ristorante, double distanzaKm) {}
@@ -1,13 +1,19 @@
 package com.example.theknife;
 
-import java.io.*;
+import java.io.IOException;
 import java.net.URL;
-import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javafx.application.Platform;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -63,6 +69,10 @@ public class RistorantiController implements Initializable {
      * Colonna della tabella per il tipo di cucina del ristorante.
      */
     @FXML private TableColumn<Ristorante, String> colonnaCucina;
+    /**
+     * Colonna della tabella per la distanza dal punto di riferimento di una query con {@code vicino}.
+     */
+    @FXML private TableColumn<Ristorante, String> colonnaDistanza;
     /**
      * Campo di testo per la ricerca per nome del ristorante.
      */
@@ -75,6 +85,10 @@ public class RistorantiController implements Initializable {
      * Campo di testo per la ricerca per tipo di cucina.
      */
     @FXML private TextField campoRicerca2;
+    /**
+     * Campo di testo per la ricerca full-text nelle descrizioni dei ristoranti.
+     */
+    @FXML private TextField campoRicercaDescrizione;
     /**
      * Pulsante con menu a tendina per selezionare la fascia di prezzo.
      */
@@ -87,9 +101,42 @@ public class RistorantiController implements Initializable {
      * Pulsante che reindirizza al profilo utente o alla schermata di registrazione.
      */
     @FXML private Button profiloButton;
+    /**
+     * Cursore del raggio, in km, entro cui mostrare i ristoranti intorno alla posizione dell'utente.
+     */
+    @FXML private Slider sliderRaggio;
+    /**
+     * Etichetta con il raggio selezionato.
+     */
+    @FXML private Label etichettaRaggio;
+
+    /**
+     * Thread su cui vengono eseguiti i filtri per raggio, condiviso tra le istanze della schermata.
+     */
+    private static final ExecutorService ESECUTORE_RAGGIO = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "filtro-raggio");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Filtro per raggio richiesto dal cursore. Se {@code righeRicerca} non è {@code null} il filtro si
+     * limita alle righe della ricerca mostrata, nel loro ordine.
+     */
+    private record RichiestaRaggio(double[] centro, double raggioKm, int[] righeRicerca, long generazione) {}
+
+    /** Risultato di un filtro per raggio, pronto da mostrare. */
+    private record RisultatoRaggio(GestioneRistorante.RigheVersionate righe, long generazione) {}
 
-    private final ObservableList<Ristorante> listaRistoranti = FXCollections.observableArrayList();
+    private ElencoVirtuale catalogoOrdinato;
+    private final GestioneRistorante gestioneRistorante = GestioneRistorante.getInstance();
     private String fasciaPrezzoSelezionata = "";
+    private Function<Ristorante, Double> distanzaCorrente = r -> null;
+    private final AtomicReference<RichiestaRaggio> richiestaInAttesa = new AtomicReference<>();
+    private final AtomicReference<RisultatoRaggio> risultatoInAttesa = new AtomicReference<>();
+    private volatile long generazioneRicerca;
+    /** Righe della ricerca mostrata, {@code null} se è mostrato tutto il catalogo. */
+    private int[] righeRicerca;
 
     /**
      * Inizializza il controller dopo che il file FXML è stato caricato.
@@ -109,6 +156,10 @@ public class RistorantiController implements Initializable {
         colonnaLocalita.setCellValueFactory(new PropertyValueFactory<>("localita"));
         colonnaPrezzo.setCellValueFactory(new PropertyValueFactory<>("prezzo"));
         colonnaCucina.setCellValueFactory(new PropertyValueFactory<>("cucina"));
+        colonnaDistanza.setCellValueFactory(cella -> {
+            Double distanza = distanzaCorrente.apply(cella.getValue());
+            return new SimpleStringProperty(distanza == null ? "" : String.format(Locale.ITALIAN, "%.1f km", distanza));
+        });
 
         // Imposta la proprietà reorderable su false per ogni colonna
         colonnaNome.setReorderable(false);
@@ -116,10 +167,17 @@ public class RistorantiController implements Initializable {
         colonnaLocalita.setReorderable(false);
         colonnaPrezzo.setReorderable(false);
         colonnaCucina.setReorderable(false);
+        colonnaDistanza.setReorderable(false);
 
         // Configura le colonne per larghezza uguale e non ridimensionabili dall'utente
         tabellaRistoranti.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
+        // Ordina nome e località con le chiavi di collazione precalcolate dal catalogo
+        tabellaRistoranti.setSortPolicy(tabella -> {
+            ordinaTabella();
+            return true;
+        });
+
         // Aggiunge un listener per gestire il doppio click sulla tabella
         tabellaRistoranti.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
@@ -140,9 +198,16 @@ public class RistorantiController implements Initializable {
             });
         }
 
+        // Filtra per distanza mentre il cursore del raggio viene trascinato
+        sliderRaggio.valueProperty().addListener((osservabile, vecchio, nuovo) -> richiediFiltroRaggio(nuovo.doubleValue()));
+
         // Carica i dati iniziali
         refreshData();
 
+        // Suggerimenti di completamento per località e cucina
+        new AutocompletamentoCampo(campoRicerca1, gestioneRistorante::suggerisciLocalita, () -> onCercaClick(null));
+        new AutocompletamentoCampo(campoRicerca2, gestioneRistorante::suggerisciCucine, () -> onCercaClick(null));
+
         // Adatta l'interfaccia utente in base al ruolo dell'utente
         String ruoloUtente = SessioneUtente.getRuoloUtente();
         if(!"ristoratore".equals(ruoloUtente) && !"cliente".equals(ruoloUtente)){
@@ -164,75 +229,116 @@ public class RistorantiController implements Initializable {
     }
 
     /**
-     * Carica i dati dei ristoranti da un file CSV.
-     * <p>
-     * Il metodo cerca il file `michelin_my_maps.csv` nella directory `data`. Se la directory
-     * non esiste, la crea. Se il file non esiste, lo crea con un'intestazione predefinita.
-     * Legge ogni riga del file, crea un oggetto {@link Ristorante} e lo aggiunge alla
-     * lista di ristoranti. Eventuali errori di parsing in una riga non bloccano l'intero
-     * processo, ma vengono stampati come avvisi sulla console.
-     * </p>
+     * Imposta le distanze da mostrare nella colonna della distanza, che resta nascosta quando
+     * i risultati non hanno un punto di riferimento.
+     *
+     * @param distanze distanza in km di ogni ristorante mostrato, vuota per nascondere la colonna
+     */
+    private void mostraDistanze(Map<Ristorante, Double> distanze) {
+        distanzaCorrente = distanze::get;
+        colonnaDistanza.setVisible(!distanze.isEmpty());
+    }
+
+    /**
+     * Mostra nella colonna della distanza le distanze già calcolate dalla ricerca o dal filtro per raggio.
+     *
+     * @param righe      righe del catalogo mostrate
+     * @param distanzeKm distanza in km di ogni riga dal punto di riferimento, nello stesso ordine
+     */
+    private void mostraDistanze(int[] righe, double[] distanzeKm) {
+        Map<Ristorante, Double> distanze = new IdentityHashMap<>(righe.length);
+        for (int i = 0; i < righe.length; i++) {
+            distanze.put(gestioneRistorante.getRiga(righe[i]), distanzeKm[i]);
+        }
+        distanzaCorrente = distanze::get;
+        colonnaDistanza.setVisible(true);
+    }
+
+    /**
+     * Restituisce la posizione attorno a cui filtrare per raggio: il domicilio dell'utente, se è stato
+     * trovato al login, altrimenti la località scritta nel campo della città.
      *
-     * @throws RuntimeException se si verifica un errore di I/O o di validazione del CSV.
+     * @return array {latitudine, longitudine}, oppure {@code null} se la posizione non è nota
      */
-    private void caricaDatiCSV() {
-        String filePath = "data/michelin_my_maps.csv";
-        File csvFile = new File(filePath);
+    private double[] centroRaggio() {
+        double[] domicilio = SessioneUtente.getCoordinateDomicilio();
+        if (domicilio != null) return domicilio;
+        GazzettiereLocalita.Localita localita = gestioneRistorante.risolviLocalita(campoRicerca1.getText());
+        return localita == null ? null : new double[]{localita.latitudine(), localita.longitudine()};
+    }
 
-        File parentDir = csvFile.getParentFile();
-        if (parentDir != null && !parentDir.exists()) {
-            parentDir.mkdirs();
-            System.out.println("DEBUG: Cartella 'data' creata.");
+    /**
+     * Richiede il filtro per raggio a ogni movimento del cursore. Se è mostrata una ricerca il filtro
+     * tiene solo i suoi risultati entro il raggio, nell'ordine in cui sono mostrati; altrimenti mostra
+     * tutto il catalogo entro il raggio, dal più vicino al più lontano. Il filtro viene eseguito fuori
+     * dal thread dell'interfaccia e i valori intermedi vengono scartati: se arrivano più richieste mentre
+     * un filtro è in corso, al termine viene eseguita solo l'ultima.
+     *
+     * @param raggioKm raggio selezionato, in km
+     */
+    private void richiediFiltroRaggio(double raggioKm) {
+        double[] centro = centroRaggio();
+        if (centro == null) {
+            etichettaRaggio.setText("Posizione sconosciuta");
+            return;
         }
+        etichettaRaggio.setText(String.format(Locale.ITALIAN, "Entro %.0f km", raggioKm));
+        if (richiestaInAttesa.getAndSet(new RichiestaRaggio(centro, raggioKm, righeRicerca, generazioneRicerca)) == null) {
+            ESECUTORE_RAGGIO.execute(this::eseguiFiltroRaggio);
+        }
+    }
 
-        if (!csvFile.exists()) {
-            System.err.println("File CSV non trovato. Creazione di un nuovo file.");
-            try (FileWriter writer = new FileWriter(csvFile)) {
-                writer.append("nome,indirizzo,localita,prezzo,cucina,longitudine,latitudine,numeroTelefono,url,sitoWeb,premio,stellaVerde,servizi,descrizione\n");
-                System.out.println("DEBUG: Nuovo file CSV creato con header.");
-            } catch (IOException e) {
-                System.err.println("Errore durante la creazione del file CSV: " + e.getMessage());
-                e.printStackTrace();
-                return;
-            }
+    /**
+     * Esegue l'ultimo filtro per raggio richiesto e ne pubblica il risultato al thread dell'interfaccia,
+     * che mostra a sua volta solo il risultato più recente.
+     */
+    private void eseguiFiltroRaggio() {
+        RichiestaRaggio richiesta = richiestaInAttesa.getAndSet(null);
+        if (richiesta == null) return;
+        double[] centro = richiesta.centro();
+        GestioneRistorante.RigheVersionate righe = richiesta.righeRicerca() == null
+                ? gestioneRistorante.righeEntroRaggioPerDistanza(centro[0], centro[1], richiesta.raggioKm())
+                : gestioneRistorante.righeEntroRaggio(richiesta.righeRicerca(), centro[0], centro[1], richiesta.raggioKm());
+        if (risultatoInAttesa.getAndSet(new RisultatoRaggio(righe, richiesta.generazione())) == null) {
+            Platform.runLater(this::mostraRisultatoRaggio);
         }
+    }
 
-        try (FileReader reader = new FileReader(csvFile);
-             CSVReader csvReader = new CSVReader(reader)) {
-
-            csvReader.readNext(); // Salta l'intestazione
-
-            String[] riga;
-            while ((riga = csvReader.readNext()) != null) {
-                try {
-                    String nome = riga[0];
-                    String indirizzo = riga[1];
-                    String localita = riga[2];
-                    String prezzo = riga[3];
-                    String cucina = riga[4];
-                    double longitudine = Double.parseDouble(riga[5]);
-                    double latitudine = Double.parseDouble(riga[6]);
-                    String numeroTelefono = riga[7];
-                    String url = riga[8];
-                    String sitoWeb = riga[9];
-                    String premio = riga[10];
-                    String stellaVerde = riga[11];
-                    String servizi = riga[12];
-                    String descrizione = riga[13];
-
-                    Ristorante ristorante = new Ristorante(
-                            nome, indirizzo, localita, prezzo, cucina,
-                            longitudine, latitudine, numeroTelefono,
-                            url, sitoWeb, premio, stellaVerde,
-                            servizi, descrizione
-                    );
-                    listaRistoranti.add(ristorante);
-                } catch (Exception e) {
-                    System.err.println("Errore nella riga: " + Arrays.toString(riga) + " - " + e.getMessage());
-                }
-            }
-        } catch (IOException | CsvValidationException e) {
-            throw new RuntimeException("Errore di I/O o di validazione nel caricamento del CSV.", e);
+    /**
+     * Mostra nella tabella l'ultimo risultato del filtro per raggio, se nel frattempo non è stata avviata
+     * un'altra ricerca. Se il catalogo è cambiato durante il filtro, il filtro viene ripetuto sui dati nuovi.
+     */
+    private void mostraRisultatoRaggio() {
+        RisultatoRaggio risultato = risultatoInAttesa.getAndSet(null);
+        if (risultato == null || risultato.generazione() != generazioneRicerca) return;
+        if (risultato.righe().versioneCatalogo() != gestioneRistorante.getVersioneCatalogo()) {
+            richiediFiltroRaggio(sliderRaggio.getValue());
+            return;
+        }
+        mostraDistanze(risultato.righe().righe(), risultato.righe().distanzeKm());
+        mostraRisultatiOrdinati(new ElencoVirtuale(risultato.righe().righe(), gestioneRistorante::getRiga));
+    }
+
+    /**
+     * Apre la mappa con tutti i ristoranti del catalogo nella stessa finestra; dalla mappa si può
+     * tornare all'elenco o aprire i dettagli di un ristorante.
+     *
+     * @param event L'evento di click del pulsante.
+     */
+    @FXML
+    private void onMappaClick(ActionEvent event) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("mappa.fxml"));
+            Parent root = loader.load();
+            MappaController controller = loader.getController();
+
+            Scene scene = tabellaRistoranti.getScene();
+            Parent rootToRestore = scene.getRoot();
+            controller.setTornaIndietroCallback(() -> scene.setRoot(rootToRestore));
+            controller.setApriDettagliCallback(ristorante -> apriDettagliRistorante(ristorante, scene));
+            scene.setRoot(root);
+        } catch (IOException e) {
+            mostraErrore("Errore nell'apertura della mappa.", e);
         }
     }
 
@@ -243,13 +349,24 @@ public class RistorantiController implements Initializable {
      * @param ristorante Il ristorante di cui visualizzare i dettagli.
      */
     private void apriDettagliRistorante(Ristorante ristorante) {
+        apriDettagliRistorante(ristorante, tabellaRistoranti.getScene());
+    }
+
+    /**
+     * Apre la schermata dei dettagli di un ristorante nella scena indicata, tornando alla schermata
+     * mostrata al momento dell'apertura (l'elenco o la mappa).
+     *
+     * @param ristorante Il ristorante di cui visualizzare i dettagli.
+     * @param scena      La scena in cui mostrare i dettagli.
+     */
+    private void apriDettagliRistorante(Ristorante ristorante, Scene scena) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("ristorante-detail.fxml"));
             Parent root = loader.load();
             RistoranteDetailController controller = loader.getController();
             controller.setRistorante(ristorante);
 
-            Parent rootToRestore = tabellaRistoranti.getScene().getRoot();
+            Parent rootToRestore = scena.getRoot();
             controller.setRootToRestore(rootToRestore);
             controller.setTornaAlMenuPrincipaleCallback(() -> {
                 Scene scene = root.getScene();
@@ -257,8 +374,7 @@ public class RistorantiController implements Initializable {
                 this.refreshData();
             });
 
-            Scene scene = tabellaRistoranti.getScene();
-            scene.setRoot(root);
+            scena.setRoot(root);
         } catch (IOException e) {
             mostraErrore("Errore nell'apertura della finestra dei dettagli del ristorante.", e);
         }
@@ -313,46 +429,133 @@ public class RistorantiController implements Initializable {
     /**
      * Gestisce il click sul pulsante di ricerca.
      * Filtra la lista dei ristoranti visualizzati nella tabella in base ai
-     * criteri di ricerca inseriti nei campi di testo (nome, località, cucina)
-     * e nel menu a tendina della fascia di prezzo.
+     * criteri di ricerca inseriti nei campi di testo (nome, località, cucina, descrizione)
+     * e nel menu a tendina della fascia di prezzo. La ricerca è eseguita da
+     * {@link GestioneRistorante#cercaRighe}, che sceglie l'ordine dei filtri in base
+     * alle statistiche del catalogo e, se la ricerca per nome non produce risultati, la ripete
+     * tollerando errori di battitura.
+     * I risultati in ordine di nome sono mostrati nell'ordine della {@link ClassificaPersonalizzata}, che
+     * tiene conto della distanza, delle recensioni, dei gusti dell'utente e del premio; quelli in ordine di
+     * pertinenza (ricerca nella descrizione o per nome approssimato) restano in quell'ordine.
+     * Se il campo del nome contiene una query strutturata (vedi {@link QueryRistoranti}) gli altri
+     * campi vengono ignorati; con {@code spiega:si} viene mostrato anche il piano di esecuzione.
      *
      * @param event L'evento di click del pulsante.
      */
     @FXML
     private void onCercaClick(ActionEvent event) {
-        String ricercaR = campoRicerca.getText().toLowerCase().trim();
-        String ricercaL = campoRicerca1.getText().toLowerCase().trim();
-        String ricercaC = campoRicerca2.getText().toLowerCase().trim();
+        generazioneRicerca++;
+        String ricercaR = campoRicerca.getText().trim();
+        String ricercaL = campoRicerca1.getText().trim();
+        String ricercaC = campoRicerca2.getText().trim();
+        String ricercaD = campoRicercaDescrizione.getText().trim();
         int selezioneCount = fasciaPrezzoSelezionata == null ? 0 : fasciaPrezzoSelezionata.length();
 
-        if (ricercaR.isEmpty() && ricercaL.isEmpty() && ricercaC.isEmpty() && selezioneCount == 0) {
-            tabellaRistoranti.setItems(listaRistoranti);
+        // Il campo del nome accetta anche query strutturate, ad es. "cucina:pesce prezzo:<=3 vicino:Como"
+        if (QueryRistoranti.isQueryStrutturata(ricercaR)) {
+            try {
+                QueryRistoranti query = QueryRistoranti.analizza(ricercaR);
+                PianoEsecuzione.Pagina pagina = gestioneRistorante.cercaConQuery(query);
+                righeRicerca = gestioneRistorante.righeDi(pagina.ristoranti());
+                mostraDistanze(pagina.distanzeKm());
+                mostraRisultatiOrdinati(FXCollections.observableArrayList(pagina.ristoranti()));
+                if (query.isSpiega()) {
+                    mostraSpiegazione(pagina);
+                }
+            } catch (IllegalArgumentException e) {
+                mostraErrore("Query non valida", e);
+            }
             return;
         }
 
-        ObservableList<Ristorante> risultati = FXCollections.observableArrayList(
-                listaRistoranti.filtered(r -> {
-                    boolean matchNome = ricercaR.isEmpty() || r.getNome().toLowerCase().contains(ricercaR);
-                    boolean matchLocalita = ricercaL.isEmpty() || r.getLocalita().toLowerCase().startsWith(ricercaL);
-                    boolean matchCucina = ricercaC.isEmpty() || r.getCucina().toLowerCase().contains(ricercaC);
-                    int prezzoCount = r.getPrezzo() == null ? 0 : r.getPrezzo().length();
-                    boolean matchPrezzo = (selezioneCount == 0) || (prezzoCount == selezioneCount);
-                    return matchNome && matchLocalita && matchCucina && matchPrezzo;
-                })
-        );
+        mostraDistanze(Map.of());
+        righeRicerca = null;
+        if (ricercaR.isEmpty() && ricercaL.isEmpty() && ricercaC.isEmpty() && ricercaD.isEmpty() && selezioneCount == 0) {
+            tabellaRistoranti.setItems(catalogoOrdinato);
+            tabellaRistoranti.sort();
+            return;
+        }
+
+        GestioneRistorante.RigheRicerca trovate = gestioneRistorante.cercaRighe(ricercaR, ricercaL, ricercaC, ricercaD, selezioneCount);
+        int[] righe = trovate.righe();
+        double[] centro = centroRaggio();
+        double[] distanze = centro == null ? null : gestioneRistorante.distanzeKm(righe, centro[0], centro[1]);
+        if (distanze != null) {
+            mostraDistanze(righe, distanze);
+        }
+        if (!trovate.perPertinenza()) {
+            // I risultati più adatti all'utente vanno in cima: si ordina solo la prima pagina della tabella
+            righe = gestioneRistorante.ordinaPerUtente(righe, SessioneUtente.getUsernameUtente(), distanze,
+                    ElencoVirtuale.DIMENSIONE_PAGINA);
+        }
+        righeRicerca = righe;
+        mostraRisultatiOrdinati(new ElencoVirtuale(righe, gestioneRistorante::getRiga));
+    }
 
+    /**
+     * Mostra nella tabella dei risultati che hanno già un ordine proprio (per distanza, per pertinenza
+     * o secondo la classifica personalizzata). L'ordinamento per colonna scelto in precedenza viene
+     * tolto, così che non sostituisca quello dei risultati; l'utente può comunque riordinare
+     * cliccando su una colonna.
+     *
+     * @param risultati risultati nell'ordine in cui vanno mostrati
+     */
+    private void mostraRisultatiOrdinati(ObservableList<Ristorante> risultati) {
         tabellaRistoranti.setItems(risultati);
+        tabellaRistoranti.getSortOrder().clear();
+    }
+
+    /**
+     * Mostra il piano di esecuzione di una query strutturata con i tempi di ogni fase.
+     *
+     * @param pagina pagina di risultati restituita dalla query
+     */
+    private void mostraSpiegazione(PianoEsecuzione.Pagina pagina) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Piano di esecuzione");
+        alert.setHeaderText(pagina.totale() + " risultati, pagina " + pagina.numeroPagina() + " di " + pagina.numeroPagine());
+        alert.setContentText(String.join("\n", pagina.spiegazione()));
+        alert.showAndWait();
     }
 
     /**
      * Aggiorna i dati della tabella dei ristoranti.
-     * Svuota la lista corrente, ricarica i dati dal file CSV e ripopola la
-     * {@code TableView} con i dati aggiornati.
+     * Si assicura che il catalogo di {@link GestioneRistorante} sia caricato e mostra nella
+     * {@code TableView} una lista virtuale sull'indice dei ristoranti ordinato per nome,
+     * che carica le righe solo quando diventano visibili.
      */
     public void refreshData() {
-        listaRistoranti.clear();
-        caricaDatiCSV();
-        tabellaRistoranti.setItems(listaRistoranti);
+        generazioneRicerca++;
+        righeRicerca = null;
+        gestioneRistorante.assicuraDatiCaricati();
+        catalogoOrdinato = new ElencoVirtuale(gestioneRistorante.getIndiceOrdinatoPerNome(), gestioneRistorante::getRiga);
+        tabellaRistoranti.setItems(catalogoOrdinato);
+        tabellaRistoranti.sort();
+    }
+
+    /**
+     * Applica alla tabella l'ordinamento scelto dall'utente. Le liste virtuali vengono riordinate
+     * confrontando le chiavi di collazione precalcolate, senza materializzare le righe; le altre liste
+     * (ad es. una pagina di una query strutturata) con le chiavi di collazione delle righe dei ristoranti.
+     * Senza colonne di ordinamento viene ripristinato l'ordine originale dei risultati.
+     */
+    private void ordinaTabella() {
+        ObservableList<Ristorante> elementi = tabellaRistoranti.getItems();
+        if (tabellaRistoranti.getSortOrder().isEmpty()) {
+            if (elementi instanceof ElencoVirtuale elenco) {
+                elenco.riordina(elenco.getRigheOriginali());
+            }
+            return;
+        }
+
+        TableColumn<Ristorante, ?> colonna = tabellaRistoranti.getSortOrder().get(0);
+        String campo = colonna == colonnaLocalita ? "localita" : "nome";
+        boolean crescente = colonna.getSortType() == TableColumn.SortType.ASCENDING;
+        if (elementi instanceof ElencoVirtuale elenco) {
+            elenco.riordina(gestioneRistorante.ordinaRighe(elenco.getRigheOriginali(), campo, crescente));
+        } else if (elementi != null) {
+            elementi.setAll(gestioneRistorante.ordinaRistoranti(elementi, campo, crescente));
+        }
     }
 
     /**
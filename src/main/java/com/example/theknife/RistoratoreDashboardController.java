@@ -24,6 +24,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
@@ -108,6 +109,14 @@ public class RistoratoreDashboardController implements Initializable {
      * Lista che visualizza le recensioni più recenti.
      */
     @FXML private ListView<Recensione> recensioniList;
+    /**
+     * Campo di testo per cercare un argomento nelle recensioni di tutti i ristoranti del proprietario.
+     */
+    @FXML private TextField ricercaRecensioniField;
+    /**
+     * Lista che mostra le recensioni trovate dalla ricerca full-text.
+     */
+    @FXML private ListView<Recensione> risultatiRecensioniList;
 
     private final GestioneRistorante gestioneRistorante = GestioneRistorante.getInstance();
     private final GestionePossessoRistorante ownershipService = GestionePossessoRistorante.getInstance();
@@ -148,6 +157,7 @@ public class RistoratoreDashboardController implements Initializable {
 
         gestioneRistorante.forceRefresh();
         ownershipService.refreshOwnershipData();
+        gestioneRecensioni.ricaricaRecensioni();
 
         loadRistoranti();
         System.out.println("Debug: Ristoranti ricaricati");
@@ -173,6 +183,10 @@ public class RistoratoreDashboardController implements Initializable {
         cucinaColumn.setCellValueFactory(new PropertyValueFactory<>("cucina"));
         prezzoColumn.setCellValueFactory(new PropertyValueFactory<>("prezzo"));
 
+        // Ordina nome e località secondo le regole italiane
+        nomeColumn.setComparator(gestioneRistorante.getComparatoreCollazione());
+        localitaColumn.setComparator(gestioneRistorante.getComparatoreCollazione());
+
         // Aggiunge un listener alla selezione della tabella
         ristorantiTable.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> onRistoranteSelected(newValue));
@@ -210,6 +224,54 @@ public class RistoratoreDashboardController implements Initializable {
                 }
             }
         });
+
+        risultatiRecensioniList.setCellFactory(__ -> new javafx.scene.control.ListCell<>() {
+            @Override
+            protected void updateItem(Recensione item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    String stars = "⭐".repeat(item.getStelle());
+                    String text = String.format("%s - %s - %s\n%s", item.getRistoranteId(), stars, item.getUsername(), item.getTesto());
+                    if (!item.getRisposta().isEmpty()) {
+                        text += "\n↳ Risposta: " + item.getRisposta();
+                    }
+                    setText(text);
+                    setWrapText(true);
+                }
+            }
+        });
+
+        risultatiRecensioniList.setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2) {
+                Recensione selectedRecensione = risultatiRecensioniList.getSelectionModel().getSelectedItem();
+                if (selectedRecensione != null) {
+                    mostraDialogoRisposta(selectedRecensione);
+                }
+            }
+        });
+    }
+
+    /**
+     * Cerca l'argomento inserito nelle recensioni e nelle risposte di tutti i ristoranti
+     * dell'utente corrente e mostra i risultati, dal più recente.
+     *
+     * @param event L'evento che ha attivato la ricerca.
+     */
+    @FXML
+    private void onCercaRecensioniClick(ActionEvent event) {
+        String currentUser = SessioneUtente.getUsernameUtente();
+        String query = ricercaRecensioniField.getText().trim();
+        if (currentUser == null || query.isEmpty()) {
+            risultatiRecensioniList.setItems(FXCollections.observableArrayList());
+            return;
+        }
+        List<Recensione> risultati = gestioneRecensioni.cercaRecensioniProprietario(currentUser, query);
+        risultatiRecensioniList.setItems(FXCollections.observableArrayList(risultati));
+        if (risultati.isEmpty()) {
+            risultatiRecensioniList.setPlaceholder(new Label("Nessuna recensione trovata per \"" + query + "\""));
+        }
     }
 
     /**
@@ -0,0 +1,106 @@
+package com.example.theknife;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Nucleo vettoriale della scansione di {@link ColonneCoordinate}, separato perché venga caricato solo
+ * quando il modulo {@code jdk.incubator.vector} è presente.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+final class ScansioneVettoriale {
+
+    private static final VectorSpecies<Double> SPECIE = DoubleVector.SPECIES_PREFERRED;
+
+    private ScansioneVettoriale() {
+    }
+
+    /**
+     * Cerca le righe il cui versore ha prodotto scalare con il centro almeno pari al minimo indicato.
+     *
+     * @param x         colonna delle componenti x
+     * @param y         colonna delle componenti y
+     * @param z         colonna delle componenti z
+     * @param numero    numero di righe da scandire
+     * @param cx        componente x del centro
+     * @param cy        componente y del centro
+     * @param cz        componente z del centro
+     * @param minimo    prodotto scalare minimo
+     * @param risultato array, lungo almeno {@code numero}, in cui scrivere le righe trovate
+     * @return numero di righe trovate
+     */
+    static int prodottoAlmeno(double[] x, double[] y, double[] z, int numero,
+                              double cx, double cy, double cz, double minimo, int[] risultato) {
+        DoubleVector vcx = DoubleVector.broadcast(SPECIE, cx);
+        DoubleVector vcy = DoubleVector.broadcast(SPECIE, cy);
+        DoubleVector vcz = DoubleVector.broadcast(SPECIE, cz);
+        int trovate = 0;
+        int i = 0;
+        for (int limite = SPECIE.loopBound(numero); i < limite; i += SPECIE.length()) {
+            DoubleVector prodotto = DoubleVector.fromArray(SPECIE, x, i).mul(vcx)
+                    .add(DoubleVector.fromArray(SPECIE, y, i).mul(vcy))
+                    .add(DoubleVector.fromArray(SPECIE, z, i).mul(vcz));
+            VectorMask<Double> dentro = prodotto.compare(VectorOperators.GE, minimo);
+            // Nelle ricerche per raggio quasi tutte le righe sono fuori: si guarda ai singoli elementi
+            // solo quando la maschera ne contiene almeno uno
+            if (dentro.anyTrue()) {
+                for (int corsia = dentro.firstTrue(); corsia < SPECIE.length(); corsia++) {
+                    if (dentro.laneIsSet(corsia)) {
+                        risultato[trovate++] = i + corsia;
+                    }
+                }
+            }
+        }
+        for (; i < numero; i++) {
+            if (x[i] * cx + y[i] * cy + z[i] * cz >= minimo) {
+                risultato[trovate++] = i;
+            }
+        }
+        return trovate;
+    }
+
+    /**
+     * Calcola la distanza tra il centro e le righe indicate dalla corda tra i versori, leggendo le
+     * colonne in modo indiretto (gather) attraverso l'elenco delle righe.
+     *
+     * @param x         colonna delle componenti x
+     * @param y         colonna delle componenti y
+     * @param z         colonna delle componenti z
+     * @param righe     righe di cui calcolare la distanza
+     * @param cx        componente x del centro
+     * @param cy        componente y del centro
+     * @param cz        componente z del centro
+     * @param risultato array, lungo almeno quanto {@code righe}, in cui scrivere le distanze in km
+     */
+    static void distanzeKm(double[] x, double[] y, double[] z, int[] righe,
+                           double cx, double cy, double cz, double[] risultato) {
+        DoubleVector vcx = DoubleVector.broadcast(SPECIE, cx);
+        DoubleVector vcy = DoubleVector.broadcast(SPECIE, cy);
+        DoubleVector vcz = DoubleVector.broadcast(SPECIE, cz);
+        int i = 0;
+        for (int limite = SPECIE.loopBound(righe.length); i < limite; i += SPECIE.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIE, x, 0, righe, i).sub(vcx);
+            DoubleVector dy = DoubleVector.fromArray(SPECIE, y, 0, righe, i).sub(vcy);
+            DoubleVector dz = DoubleVector.fromArray(SPECIE, z, 0, righe, i).sub(vcz);
+            // Metà corda, limitata a 1 contro gli arrotondamenti
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz))
+                    .lanewise(VectorOperators.SQRT).mul(0.5).min(1.0)
+                    .intoArray(risultato, i);
+        }
+        // L'arcoseno non ha un'istruzione SIMD: si applica alle singole corsie dopo il ciclo vettoriale
+        for (int j = 0; j < i; j++) {
+            risultato[j] = 2 * Geografia.RAGGIO_TERRA_KM * Math.asin(risultato[j]);
+        }
+        for (; i < righe.length; i++) {
+            risultato[i] = ColonneCoordinate.distanzaCordaKm(x[righe[i]] - cx, y[righe[i]] - cy, z[righe[i]] - cz);
+        }
+    }
+}
@@ -37,6 +37,10 @@ public class SessioneUtente {
      * Il domicilio dell'utente corrente.
      */
     private String domicilio;
+    /**
+     * Le coordinate {latitudine, longitudine} del domicilio, ricavate al login dalle località del catalogo.
+     */
+    private double[] coordinateDomicilio;
     /**
      * Lo username dell'utente corrente.
      */
@@ -90,6 +94,7 @@ public class SessioneUtente {
         sessione.username = username;
         sessione.ruolo = ruolo;
         sessione.domicilio = domicilio;
+        sessione.coordinateDomicilio = null;
         sessione.isLoggato = true;
 
         System.out.println("DEBUG: Sessione utente impostata - " + nome + " " + cognome + " (" + ruolo + ") " + domicilio);
@@ -156,6 +161,26 @@ public class SessioneUtente {
         SessioneUtente sessione = getIstanza();
         return sessione.domicilio;  // Correzione: uso sessione.domicilio invece di this.domicilio
     }
+
+    /**
+     * Memorizza le coordinate del domicilio dell'utente corrente, così che le ricerche per distanza
+     * non debbano ricavarle di nuovo.
+     *
+     * @param coordinate array {latitudine, longitudine}, oppure {@code null} se il domicilio non è stato trovato
+     */
+    public static void impostaCoordinateDomicilio(double[] coordinate) {
+        getIstanza().coordinateDomicilio = coordinate;
+    }
+
+    /**
+     * Restituisce le coordinate del domicilio dell'utente corrente.
+     *
+     * @return array {latitudine, longitudine}, oppure {@code null} se non sono note
+     */
+    public static double[] getCoordinateDomicilio() {
+        return getIstanza().coordinateDomicilio;
+    }
+
     /**
      * Verifica se l'utente corrente ha il ruolo di "cliente".
      *
@@ -193,6 +218,8 @@ public class SessioneUtente {
         sessione.cognome = null;
         sessione.username = null;
         sessione.ruolo = null;
+        sessione.domicilio = null;
+        sessione.coordinateDomicilio = null;
         sessione.isLoggato = false;
 
         System.out.println("DEBUG: Sessione utente pulita");
@@ -0,0 +1,533 @@
+package com.example.theknife;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Tabella dei ristoranti simili per contenuto, calcolata dalle caratteristiche del catalogo e non dalle
+ * scelte degli utenti: serve anche per i ristoranti che nessuno ha ancora salvato tra i preferiti.
+ * <p>
+ * Ogni ristorante è codificato in un vettore compatto di caratteristiche, conservato per colonne: le cucine
+ * della {@link TassonomiaCucine} e i servizi come insiemi di bit in parole {@code long}, livello di prezzo,
+ * livello del premio e stella verde riuniti in un solo codice {@code byte}, la posizione come versore sulla
+ * sfera in {@code float}. La somiglianza tra due ristoranti è una somma pesata, tra 0 e 1, dell'indice di
+ * Jaccard su cucine e servizi (calcolato con il conteggio dei bit), della vicinanza di prezzo e premio,
+ * dell'uguaglianza della stella verde e della vicinanza geografica. Il contributo di prezzo, premio e
+ * stella verde si legge da una tabella indicizzata dai codici delle due righe.
+ * </p>
+ * <p>
+ * I {@value #NUMERO_VICINI} ristoranti più simili a ciascuno vengono calcolati una volta sola confrontando
+ * tutte le coppie a blocchi di {@value #BLOCCO} righe: ogni blocco di righe viene confrontato con un blocco
+ * di colonne alla volta, così che le caratteristiche delle colonne restino nella cache mentre vengono
+ * lette da tutte le righe del blocco, e i blocchi di righe sono elaborati in parallelo, ciascuno con le
+ * proprie classifiche. Prima del confronto le righe sono ordinate lungo una curva di Morton, così che ogni
+ * blocco raccolga ristoranti vicini; per ogni blocco di colonne si conserva un riassunto (unione delle
+ * cucine e dei servizi, codici presenti, ingombro delle posizioni) da cui si ricava un limite superiore
+ * alla somiglianza, e una riga salta i blocchi il cui limite non supera l'ultimo della sua classifica. Il
+ * risultato resta esatto, ma su un catalogo reale si confronta solo una piccola parte delle coppie. La
+ * tabella finale ha {@code numero x }{@value #NUMERO_VICINI} righe del catalogo, da cui i simili di un
+ * ristorante si leggono in tempo costante.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public final class SomiglianzaContenuti {
+
+    /** Numero di ristoranti simili conservati per ogni ristorante. */
+    public static final int NUMERO_VICINI = 10;
+
+    /** Righe e colonne di un blocco del confronto a coppie. */
+    private static final int BLOCCO = 256;
+
+    /** Pesi delle componenti della somiglianza, di somma 1. */
+    private static final float PESO_CUCINA = 0.35f;
+    private static final float PESO_POSIZIONE = 0.25f;
+    private static final float PESO_PREZZO = 0.15f;
+    private static final float PESO_PREMIO = 0.10f;
+    private static final float PESO_SERVIZI = 0.10f;
+    private static final float PESO_STELLA_VERDE = 0.05f;
+
+    /** Distanza, in km, oltre la quale la posizione non contribuisce alla somiglianza. */
+    private static final double DISTANZA_MASSIMA_KM = 100;
+
+    /** Inverso del quadrato della corda, sulla sfera unitaria, che corrisponde alla distanza massima. */
+    private static final float INVERSO_CORDA_MASSIMA_2 = (float) Math.pow(Geografia.RAGGIO_TERRA_KM / DISTANZA_MASSIMA_KM, 2);
+
+    /** Tolleranza sul limite superiore, per gli arrotondamenti dei calcoli in {@code float}. */
+    private static final float MARGINE = 1e-5f;
+
+    /** Livelli di prezzo e di premio più alti. */
+    private static final int LIVELLO_MASSIMO = 4;
+
+    /** Numero di codici distinti di prezzo, premio e stella verde. */
+    private static final int CODICI = (LIVELLO_MASSIMO + 1) * (LIVELLO_MASSIMO + 1) * 2;
+
+    /** Contributo di prezzo, premio e stella verde per ogni coppia di codici. */
+    private static final float[] COMPATIBILITA = new float[CODICI * CODICI];
+
+    static {
+        for (int a = 0; a < CODICI; a++) {
+            for (int b = 0; b < CODICI; b++) {
+                float s = PESO_PREZZO * (1 - Math.abs(prezzo(a) - prezzo(b)) / (float) LIVELLO_MASSIMO)
+                        + PESO_PREMIO * (1 - Math.abs(premio(a) - premio(b)) / (float) LIVELLO_MASSIMO);
+                if (a % 2 == b % 2) {
+                    s += PESO_STELLA_VERDE;
+                }
+                COMPATIBILITA[a * CODICI + b] = s;
+            }
+        }
+    }
+
+    /**
+     * Vettori di caratteristiche dei ristoranti, per colonne.
+     */
+    static final class Caratteristiche {
+        private final int numero;
+        private final int parole;
+        private final long[] cucine;
+        private final long[] servizi;
+        private final byte[] codici;
+        private final float[] inversi;
+        private final float[] x;
+        private final float[] y;
+        private final float[] z;
+
+        private Caratteristiche(int numero, int parole) {
+            this.numero = numero;
+            this.parole = parole;
+            cucine = new long[numero * parole];
+            servizi = new long[numero];
+            codici = new byte[numero];
+            // Inversi delle possibili dimensioni dell'unione, per l'indice di Jaccard senza divisioni
+            inversi = new float[Math.max(parole, 1) * 64 + 1];
+            for (int u = 1; u < inversi.length; u++) {
+                inversi[u] = 1f / u;
+            }
+            x = new float[numero];
+            y = new float[numero];
+            z = new float[numero];
+        }
+
+        /** Restituisce le stesse caratteristiche con le righe nell'ordine indicato. */
+        private Caratteristiche permuta(int[] ordine) {
+            Caratteristiche permutate = new Caratteristiche(numero, parole);
+            for (int i = 0; i < numero; i++) {
+                int origine = ordine[i];
+                System.arraycopy(cucine, origine * parole, permutate.cucine, i * parole, parole);
+                permutate.servizi[i] = servizi[origine];
+                permutate.codici[i] = codici[origine];
+                permutate.x[i] = x[origine];
+                permutate.y[i] = y[origine];
+                permutate.z[i] = z[origine];
+            }
+            return permutate;
+        }
+    }
+
+    /**
+     * Riassunto di un blocco di colonne, da cui si ricava un limite superiore alla somiglianza di una
+     * riga con qualsiasi colonna del blocco.
+     */
+    private static final class RiassuntoBlocco {
+        private final long[] cucine;
+        private long servizi;
+        private final float[] compatibilita = new float[CODICI];
+        private float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        private float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+
+        private RiassuntoBlocco(Caratteristiche c, int da, int a) {
+            cucine = new long[c.parole];
+            long codiciPresenti = 0;
+            for (int j = da; j < a; j++) {
+                for (int p = 0; p < c.parole; p++) {
+                    cucine[p] |= c.cucine[j * c.parole + p];
+                }
+                servizi |= c.servizi[j];
+                codiciPresenti |= 1L << c.codici[j];
+                minX = Math.min(minX, c.x[j]);
+                minY = Math.min(minY, c.y[j]);
+                minZ = Math.min(minZ, c.z[j]);
+                maxX = Math.max(maxX, c.x[j]);
+                maxY = Math.max(maxY, c.y[j]);
+                maxZ = Math.max(maxZ, c.z[j]);
+            }
+            // Per ogni codice di una riga, il miglior contributo ottenibile da un codice del blocco
+            for (int codice = 0; codice < CODICI; codice++) {
+                for (long resto = codiciPresenti; resto != 0; resto &= resto - 1) {
+                    compatibilita[codice] = Math.max(compatibilita[codice],
+                            COMPATIBILITA[codice * CODICI + Long.numberOfTrailingZeros(resto)]);
+                }
+            }
+        }
+
+        /**
+         * Calcola un limite superiore alla somiglianza della riga {@code i} con le colonne del blocco.
+         * Per l'indice di Jaccard vale {@code |A∩B| / |A∪B| <= |A∩U| / |A|}, con {@code U} l'unione degli
+         * insiemi del blocco; per la posizione conta la distanza minima dal parallelepipedo che racchiude
+         * i versori del blocco.
+         */
+        private float limite(Caratteristiche c, int i) {
+            int proprie = 0, comuni = 0;
+            for (int p = 0; p < c.parole; p++) {
+                long cucina = c.cucine[i * c.parole + p];
+                proprie += Long.bitCount(cucina);
+                comuni += Long.bitCount(cucina & cucine[p]);
+            }
+            float limite = compatibilita[c.codici[i]] + MARGINE;
+            if (proprie > 0) {
+                limite += PESO_CUCINA * comuni / (float) proprie;
+            }
+            long servizio = c.servizi[i];
+            if (servizio != 0) {
+                limite += PESO_SERVIZI * Long.bitCount(servizio & servizi) / (float) Long.bitCount(servizio);
+            }
+            float dx = Math.max(0f, Math.max(minX - c.x[i], c.x[i] - maxX));
+            float dy = Math.max(0f, Math.max(minY - c.y[i], c.y[i] - maxY));
+            float dz = Math.max(0f, Math.max(minZ - c.z[i], c.z[i] - maxZ));
+            return limite + PESO_POSIZIONE * Math.max(0f, 1 - (dx * dx + dy * dy + dz * dz) * INVERSO_CORDA_MASSIMA_2);
+        }
+    }
+
+    private final int numero;
+    private final int[] vicini;
+    private final float[] punteggi;
+
+    private SomiglianzaContenuti(int numero, int[] vicini, float[] punteggi) {
+        this.numero = numero;
+        this.vicini = vicini;
+        this.punteggi = punteggi;
+    }
+
+    /**
+     * Codifica le righe del catalogo come vettori di caratteristiche. Cucine e servizi vengono letti dalle
+     * colonne già calcolate al caricamento ({@link Ristorante#getIdCucine()} e
+     * {@link Ristorante#getBitServizi()}), senza rileggere i campi di dettaglio dal file.
+     *
+     * @param ristoranti   righe del catalogo
+     * @param numeroCucine numero di cucine della tassonomia del catalogo
+     * @return caratteristiche, una riga per ristorante
+     */
+    static Caratteristiche codifica(List<Ristorante> ristoranti, int numeroCucine) {
+        int parole = Math.max(1, (numeroCucine + 63) / 64);
+        Caratteristiche c = new Caratteristiche(ristoranti.size(), parole);
+        // Gli stessi premi si ripetono in molte righe: si analizzano una volta
+        Map<String, Integer> premiPerTesto = new HashMap<>();
+        for (int i = 0; i < c.numero; i++) {
+            Ristorante ristorante = ristoranti.get(i);
+            for (int id : ristorante.getIdCucine()) {
+                c.cucine[i * parole + (id >>> 6)] |= 1L << id;
+            }
+            c.servizi[i] = ristorante.getBitServizi();
+            String premio = ristorante.getPremio();
+            int livelloPremio = premio == null ? 0 : premiPerTesto.computeIfAbsent(premio, SomiglianzaContenuti::livelloPremio);
+            int stellaVerde = "1".equals(ristorante.getStellaVerde()) ? 1 : 0;
+            c.codici[i] = (byte) (((livelloPrezzo(ristorante.getPrezzo()) * (LIVELLO_MASSIMO + 1)
+                    + livelloPremio) << 1) | stellaVerde);
+            double lat = Math.toRadians(ristorante.getLatitudine());
+            double lon = Math.toRadians(ristorante.getLongitudine());
+            c.x[i] = (float) (Math.cos(lat) * Math.cos(lon));
+            c.y[i] = (float) (Math.cos(lat) * Math.sin(lon));
+            c.z[i] = (float) Math.sin(lat);
+        }
+        return c;
+    }
+
+    /**
+     * Calcola la tabella dei simili confrontando tutte le coppie di ristoranti.
+     *
+     * @param c caratteristiche dei ristoranti
+     * @return tabella dei simili
+     */
+    static SomiglianzaContenuti calcola(Caratteristiche originali) {
+        int n = originali.numero;
+        int[] ordine = ordineSpaziale(originali);
+        Caratteristiche c = originali.permuta(ordine);
+        int[] vicini = new int[n * NUMERO_VICINI];
+        float[] punteggi = new float[n * NUMERO_VICINI];
+        Arrays.fill(vicini, -1);
+        int blocchi = (n + BLOCCO - 1) / BLOCCO;
+        RiassuntoBlocco[] riassunti = IntStream.range(0, blocchi).parallel()
+                .mapToObj(b -> new RiassuntoBlocco(c, b * BLOCCO, Math.min(n, (b + 1) * BLOCCO)))
+                .toArray(RiassuntoBlocco[]::new);
+        IntStream.range(0, blocchi).parallel().forEach(b -> calcolaBlocco(c, ordine, riassunti, b, vicini, punteggi));
+        return new SomiglianzaContenuti(n, vicini, punteggi);
+    }
+
+    /**
+     * Restituisce le righe ordinate lungo la curva di Morton di latitudine e longitudine, così che ogni
+     * blocco raccolga ristoranti vicini tra loro.
+     */
+    private static int[] ordineSpaziale(Caratteristiche c) {
+        long[] chiavi = new long[c.numero];
+        for (int i = 0; i < c.numero; i++) {
+            double lat = Math.asin(Math.max(-1f, Math.min(1f, c.z[i])));
+            double lon = Math.atan2(c.y[i], c.x[i]);
+            long cellaLat = (long) ((lat / Math.PI + 0.5) * 0xFFFF);
+            long cellaLon = (long) ((lon / (2 * Math.PI) + 0.5) * 0xFFFF);
+            chiavi[i] = (intercala(cellaLat) << 1 | intercala(cellaLon)) << 32 | i;
+        }
+        Arrays.sort(chiavi);
+        int[] ordine = new int[c.numero];
+        for (int i = 0; i < ordine.length; i++) {
+            ordine[i] = (int) chiavi[i];
+        }
+        return ordine;
+    }
+
+    /** Distribuisce i 16 bit meno significativi sulle posizioni pari. */
+    private static long intercala(long v) {
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0FL;
+        v = (v | (v << 2)) & 0x33333333L;
+        return (v | (v << 1)) & 0x55555555L;
+    }
+
+    /**
+     * Calcola le classifiche delle righe del blocco {@code blocco}, nell'ordine spaziale, e le scrive nella
+     * tabella alle posizioni delle righe originali. Ogni classifica è un min-heap di
+     * {@value #NUMERO_VICINI} elementi con il peggiore in cima, identificati dalla riga originale. I
+     * blocchi di colonne sono visitati a partire da quelli più vicini nell'ordine spaziale, così che le
+     * classifiche si riempiano presto di buoni candidati: una riga salta un blocco di colonne se il limite
+     * superiore della sua somiglianza con il blocco non supera l'ultimo della classifica.
+     *
+     * @return numero di coppie confrontate
+     */
+    private static long calcolaBlocco(Caratteristiche c, int[] ordine, RiassuntoBlocco[] riassunti, int blocco,
+                                      int[] vicini, float[] punteggi) {
+        int k = NUMERO_VICINI;
+        int da = blocco * BLOCCO;
+        int a = Math.min(c.numero, da + BLOCCO);
+        int[] dimensioni = new int[a - da];
+        float[] riga = new float[BLOCCO];
+        long confronti = 0;
+        for (int passo = 0; passo < 2 * riassunti.length; passo++) {
+            // Blocchi di colonne nell'ordine blocco, blocco + 1, blocco - 1, blocco + 2, ...
+            int colonne = blocco + ((passo & 1) == 0 ? passo >> 1 : -((passo + 1) >> 1));
+            if (colonne < 0 || colonne >= riassunti.length) continue;
+            int colonna = colonne * BLOCCO;
+            int fineColonne = Math.min(c.numero, colonna + BLOCCO);
+            for (int i = da; i < a; i++) {
+                int base = ordine[i] * k;
+                int r = i - da;
+                if (dimensioni[r] == k && riassunti[colonne].limite(c, i) < punteggi[base]) continue;
+                confrontaRiga(c, i, colonna, fineColonne, riga);
+                confronti += fineColonne - colonna;
+                for (int j = colonna; j < fineColonne; j++) {
+                    if (j == i) continue;
+                    float s = riga[j - colonna];
+                    int vicino = ordine[j];
+                    if (dimensioni[r] < k) {
+                        risali(vicini, punteggi, base, dimensioni[r]++, vicino, s);
+                    } else if (precede(s, vicino, punteggi[base], vicini[base])) {
+                        scendi(vicini, punteggi, base, k, vicino, s);
+                    }
+                }
+            }
+        }
+        // Ordina ogni classifica dal più simile, estraendo ripetutamente la cima del heap
+        for (int i = da; i < a; i++) {
+            int base = ordine[i] * k;
+            for (int dimensione = dimensioni[i - da]; dimensione > 1; dimensione--) {
+                int vicino = vicini[base];
+                float punteggio = punteggi[base];
+                int ultimo = base + dimensione - 1;
+                scendi(vicini, punteggi, base, dimensione - 1, vicini[ultimo], punteggi[ultimo]);
+                vicini[ultimo] = vicino;
+                punteggi[ultimo] = punteggio;
+            }
+        }
+        return confronti;
+    }
+
+    /**
+     * Indica se l'elemento {@code (s1, j1)} precede {@code (s2, j2)} in classifica: a parità di punteggio
+     * viene prima la riga con indice minore.
+     */
+    private static boolean precede(float s1, int j1, float s2, int j2) {
+        return s1 > s2 || (s1 == s2 && j1 < j2);
+    }
+
+    /** Inserisce un elemento in fondo al heap e lo fa risalire finché precede il padre. */
+    private static void risali(int[] vicini, float[] punteggi, int base, int posizione, int j, float s) {
+        while (posizione > 0) {
+            int padre = (posizione - 1) >>> 1;
+            if (!precede(punteggi[base + padre], vicini[base + padre], s, j)) break;
+            vicini[base + posizione] = vicini[base + padre];
+            punteggi[base + posizione] = punteggi[base + padre];
+            posizione = padre;
+        }
+        vicini[base + posizione] = j;
+        punteggi[base + posizione] = s;
+    }
+
+    /** Sostituisce la cima del heap con un elemento e lo fa scendere finché un figlio lo segue. */
+    private static void scendi(int[] vicini, float[] punteggi, int base, int dimensione, int j, float s) {
+        int posizione = 0;
+        while (true) {
+            int figlio = 2 * posizione + 1;
+            if (figlio >= dimensione) break;
+            if (figlio + 1 < dimensione
+                    && precede(punteggi[base + figlio], vicini[base + figlio], punteggi[base + figlio + 1], vicini[base + figlio + 1])) {
+                figlio++;
+            }
+            if (!precede(s, j, punteggi[base + figlio], vicini[base + figlio])) break;
+            vicini[base + posizione] = vicini[base + figlio];
+            punteggi[base + posizione] = punteggi[base + figlio];
+            posizione = figlio;
+        }
+        vicini[base + posizione] = j;
+        punteggi[base + posizione] = s;
+    }
+
+    /**
+     * Calcola in {@code punteggi} la somiglianza di una riga con le colonne da {@code da} ad {@code a}
+     * (escluso). Le caratteristiche della riga restano in variabili locali per tutto il blocco; il calcolo
+     * è lo stesso di {@link #somiglianza(Caratteristiche, int, int)}.
+     */
+    private static void confrontaRiga(Caratteristiche c, int i, int da, int a, float[] punteggi) {
+        int parole = c.parole;
+        long[] cucine = c.cucine;
+        long[] servizi = c.servizi;
+        byte[] codici = c.codici;
+        float[] inversi = c.inversi;
+        float[] x = c.x, y = c.y, z = c.z;
+        // Cucine in un ciclo a parte: con una sola parola, il caso comune, il ciclo non ha salti
+        if (parole == 1) {
+            long cucina = cucine[i];
+            for (int j = da; j < a; j++) {
+                long b = cucine[j];
+                punteggi[j - da] = PESO_CUCINA * Long.bitCount(cucina & b) * inversi[Long.bitCount(cucina | b)];
+            }
+        } else {
+            for (int j = da; j < a; j++) {
+                int comuni = 0, unione = 0;
+                for (int p = 0; p < parole; p++) {
+                    long ci = cucine[i * parole + p];
+                    long b = cucine[j * parole + p];
+                    comuni += Long.bitCount(ci & b);
+                    unione += Long.bitCount(ci | b);
+                }
+                punteggi[j - da] = PESO_CUCINA * comuni * inversi[unione];
+            }
+        }
+        long servizio = servizi[i];
+        int compatibilita = codici[i] * CODICI;
+        float xi = x[i], yi = y[i], zi = z[i];
+        for (int j = da; j < a; j++) {
+            long sj = servizi[j];
+            float dx = xi - x[j], dy = yi - y[j], dz = zi - z[j];
+            punteggi[j - da] += PESO_SERVIZI * Long.bitCount(servizio & sj) * inversi[Long.bitCount(servizio | sj)]
+                    + COMPATIBILITA[compatibilita + codici[j]]
+                    + PESO_POSIZIONE * Math.max(0f, 1 - (dx * dx + dy * dy + dz * dz) * INVERSO_CORDA_MASSIMA_2);
+        }
+    }
+
+    /**
+     * Calcola la somiglianza tra due righe, tra 0 e 1.
+     */
+    static float somiglianza(Caratteristiche c, int i, int j) {
+        int comuni = 0, unione = 0;
+        for (int p = 0; p < c.parole; p++) {
+            long a = c.cucine[i * c.parole + p];
+            long b = c.cucine[j * c.parole + p];
+            comuni += Long.bitCount(a & b);
+            unione += Long.bitCount(a | b);
+        }
+        long si = c.servizi[i], sj = c.servizi[j];
+        // Vicinanza dal quadrato della corda tra i versori: niente radici né divisioni, e vale 0 oltre la
+        // distanza massima
+        float dx = c.x[i] - c.x[j], dy = c.y[i] - c.y[j], dz = c.z[i] - c.z[j];
+        return PESO_CUCINA * comuni * c.inversi[unione]
+                + (PESO_SERVIZI * Long.bitCount(si & sj) * c.inversi[Long.bitCount(si | sj)]
+                + COMPATIBILITA[c.codici[i] * CODICI + c.codici[j]]
+                + PESO_POSIZIONE * Math.max(0f, 1 - (dx * dx + dy * dy + dz * dz) * INVERSO_CORDA_MASSIMA_2));
+    }
+
+    /**
+     * Restituisce le righe del catalogo più simili a una riga, dalla più simile.
+     *
+     * @param riga   riga del catalogo
+     * @param numero numero massimo di righe, al più {@value #NUMERO_VICINI}
+     * @return righe simili; vuoto se la riga non faceva parte del catalogo al momento del calcolo
+     */
+    public int[] simili(int riga, int numero) {
+        if (riga < 0 || riga >= this.numero) return new int[0];
+        int base = riga * NUMERO_VICINI;
+        int trovati = 0;
+        while (trovati < Math.min(numero, NUMERO_VICINI) && vicini[base + trovati] >= 0) trovati++;
+        return Arrays.copyOfRange(vicini, base, base + trovati);
+    }
+
+    /**
+     * Restituisce la somiglianza con il {@code posizione}-esimo ristorante più simile a una riga.
+     *
+     * @param riga      riga del catalogo
+     * @param posizione posizione nella classifica, da 0
+     * @return somiglianza tra 0 e 1
+     */
+    public float getPunteggio(int riga, int posizione) {
+        return punteggi[riga * NUMERO_VICINI + posizione];
+    }
+
+    /**
+     * Restituisce il numero di righe per cui è stata calcolata la tabella.
+     *
+     * @return numero di ristoranti
+     */
+    public int getNumero() {
+        return numero;
+    }
+
+    /**
+     * Converte un elenco di servizi separati da virgola in un insieme di bit, assegnando un bit a ogni
+     * servizio nuovo. Oltre i 64 servizi distinti più servizi condividono un bit.
+     */
+    static long bitServizi(String servizi, Map<String, Integer> idServizi) {
+        long bit = 0;
+        for (String servizio : servizi.split(",")) {
+            String nome = AnalizzatoreTesto.normalizza(servizio).trim();
+            if (nome.isEmpty()) continue;
+            bit |= 1L << idServizi.computeIfAbsent(nome, k -> idServizi.size());
+        }
+        return bit;
+    }
+
+    private static int prezzo(int codice) {
+        return (codice >> 1) / (LIVELLO_MASSIMO + 1);
+    }
+
+    private static int premio(int codice) {
+        return (codice >> 1) % (LIVELLO_MASSIMO + 1);
+    }
+
+    private static int livelloPrezzo(String prezzo) {
+        return prezzo == null ? 0 : Math.min(LIVELLO_MASSIMO, prezzo.trim().length());
+    }
+
+    /**
+     * Converte il premio in un livello: 0 senza premio o solo segnalato, 1 Bib Gourmand, poi una, due e
+     * tre stelle.
+     *
+     * @param premio premio del ristorante
+     * @return livello tra 0 e 4
+     */
+    static int livelloPremio(String premio) {
+        if (premio == null) return 0;
+        String testo = AnalizzatoreTesto.normalizza(premio);
+        if (testo.contains("stell") || testo.contains("star")) {
+            for (int livello = 3; livello >= 1; livello--) {
+                if (testo.contains(String.valueOf(livello))) return livello + 1;
+            }
+        }
+        return testo.contains("bib") ? 1 : 0;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.theknife;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistiche di cardinalità del catalogo, usate da {@link PianoEsecuzione} per stimare quanti
+ * ristoranti supereranno ciascun filtro e decidere così l'ordine di valutazione.
+ * <p>
+ * Per ogni campo filtrabile viene conservato il numero di ristoranti per valore: località (in forma
+ * normalizzata, ordinate per poter sommare i conteggi di un prefisso), cucina, premio, fascia di prezzo
+ * e stella verde. Le statistiche vengono aggiornate insieme agli altri indici a ogni inserimento.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class StatisticheCatalogo {
+    private final TreeMap<String, Integer> perLocalita = new TreeMap<>();
+    private final Map<Integer, Integer> perCucina = new HashMap<>();
+    private final Map<String, Integer> perPremio = new HashMap<>();
+    private final int[] perPrezzo = new int[5];
+    private int conStellaVerde;
+    private int totale;
+
+    /**
+     * Aggiorna le statistiche con un nuovo ristorante. Le cucine devono essere già state
+     * convertite negli identificativi della tassonomia.
+     *
+     * @param ristorante ristorante aggiunto al catalogo
+     */
+    public void aggiungi(Ristorante ristorante) {
+        totale++;
+        perLocalita.merge(AnalizzatoreTesto.normalizza(ristorante.getLocalita()), 1, Integer::sum);
+        for (int id : ristorante.getIdCucine()) {
+            perCucina.merge(id, 1, Integer::sum);
+        }
+        perPremio.merge(AnalizzatoreTesto.normalizza(ristorante.getPremio()), 1, Integer::sum);
+        perPrezzo[livelloPrezzo(ristorante)]++;
+        if ("1".equals(ristorante.getStellaVerde())) {
+            conStellaVerde++;
+        }
+    }
+
+    /**
+     * Toglie dalle statistiche un ristorante aggiunto in precedenza con {@link #aggiungi(Ristorante)},
+     * ad es. quando viene sostituito da una versione modificata.
+     *
+     * @param ristorante ristorante rimosso dal catalogo, con gli identificativi delle cucine già assegnati
+     */
+    public void rimuovi(Ristorante ristorante) {
+        totale--;
+        decrementa(perLocalita, AnalizzatoreTesto.normalizza(ristorante.getLocalita()));
+        for (int id : ristorante.getIdCucine()) {
+            decrementa(perCucina, id);
+        }
+        decrementa(perPremio, AnalizzatoreTesto.normalizza(ristorante.getPremio()));
+        perPrezzo[livelloPrezzo(ristorante)]--;
+        if ("1".equals(ristorante.getStellaVerde())) {
+            conStellaVerde--;
+        }
+    }
+
+    /**
+     * Azzera le statistiche.
+     */
+    public void svuota() {
+        perLocalita.clear();
+        perCucina.clear();
+        perPremio.clear();
+        Arrays.fill(perPrezzo, 0);
+        conStellaVerde = 0;
+        totale = 0;
+    }
+
+    /**
+     * Restituisce il numero di ristoranti del catalogo.
+     *
+     * @return numero di ristoranti
+     */
+    public int getTotale() {
+        return totale;
+    }
+
+    /**
+     * Conta i ristoranti la cui località inizia con il prefisso indicato.
+     *
+     * @param prefisso prefisso della località
+     * @return numero di ristoranti
+     */
+    public int contaLocalita(String prefisso) {
+        String chiave = AnalizzatoreTesto.normalizza(prefisso);
+        int conteggio = 0;
+        for (int n : perLocalita.subMap(chiave, chiave + Character.MAX_VALUE).values()) {
+            conteggio += n;
+        }
+        return conteggio;
+    }
+
+    /**
+     * Conta i ristoranti che offrono una cucina.
+     *
+     * @param idCucina identificativo della cucina nella tassonomia
+     * @return numero di ristoranti, 0 se la cucina è sconosciuta
+     */
+    public int contaCucina(int idCucina) {
+        return perCucina.getOrDefault(idCucina, 0);
+    }
+
+    /**
+     * Conta i ristoranti con il premio indicato.
+     *
+     * @param premio premio, ad es. "2 Stelle"
+     * @return numero di ristoranti
+     */
+    public int contaPremio(String premio) {
+        return perPremio.getOrDefault(AnalizzatoreTesto.normalizza(premio), 0);
+    }
+
+    /**
+     * Conta i ristoranti con una fascia di prezzo compresa tra i limiti indicati.
+     *
+     * @param minimo numero minimo di simboli €
+     * @param massimo numero massimo di simboli €
+     * @return numero di ristoranti
+     */
+    public int contaPrezzo(int minimo, int massimo) {
+        int conteggio = 0;
+        for (int livello = Math.max(0, minimo); livello <= Math.min(4, massimo); livello++) {
+            conteggio += perPrezzo[livello];
+        }
+        return conteggio;
+    }
+
+    /**
+     * Conta i ristoranti con o senza stella verde.
+     *
+     * @param stellaVerde {@code true} per contare quelli con la stella verde
+     * @return numero di ristoranti
+     */
+    public int contaStellaVerde(boolean stellaVerde) {
+        return stellaVerde ? conStellaVerde : totale - conStellaVerde;
+    }
+
+    private static <K> void decrementa(Map<K, Integer> conteggi, K chiave) {
+        conteggi.computeIfPresent(chiave, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    private static int livelloPrezzo(Ristorante ristorante) {
+        return ristorante.getPrezzo() == null ? 0 : Math.min(4, ristorante.getPrezzo().length());
+    }
+}
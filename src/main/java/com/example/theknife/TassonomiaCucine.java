@@ -0,0 +1,127 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tassonomia dei tipi di cucina con identificativi interi assegnati al caricamento.
+ * <p>
+ * Nel CSV la cucina di un ristorante è una stringa con più valori separati da virgola
+ * (ad es. "Creativa, Mediterranea"). Questa classe suddivide la stringa, riconduce ogni valore
+ * alla sua forma canonica tramite una tabella di sinonimi (ad es. "Cucina Regionale" → "Regionale")
+ * e assegna a ogni cucina canonica un identificativo intero stabile finché la tassonomia
+ * non viene svuotata. I confronti avvengono sulla forma normalizzata, così che maiuscole e accenti
+ * non producano cucine distinte.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class TassonomiaCucine {
+
+    /** Sinonimi già normalizzati, associati al nome canonico della cucina. */
+    private static final Map<String, String> SINONIMI = Map.of(
+            "cucina regionale", "Regionale",
+            "cucina tradizionale", "Tradizionale",
+            "cucina stagionale", "Di Stagione",
+            "stagionale", "Di Stagione",
+            "di mare", "Frutti di mare",
+            "pesce", "Frutti di mare",
+            "grigliate", "Carni e Grigliate",
+            "carne", "Carni e Grigliate",
+            "moderna creativa", "Creativa"
+    );
+
+    private final Map<String, Integer> identificativi = new HashMap<>();
+    private final List<String> nomi = new ArrayList<>();
+
+    /**
+     * Suddivide una stringa di cucine e restituisce gli identificativi delle cucine canoniche,
+     * registrando quelle non ancora presenti nella tassonomia.
+     *
+     * @param cucine stringa con una o più cucine separate da virgola
+     * @return identificativi distinti in ordine crescente, array vuoto se la stringa è vuota
+     */
+    public int[] registra(String cucine) {
+        if (cucine == null || cucine.isBlank()) return new int[0];
+        String[] valori = cucine.split(",");
+        int[] ids = new int[valori.length];
+        int numero = 0;
+        for (String valore : valori) {
+            String canonico = canonico(valore);
+            if (canonico.isEmpty()) continue;
+            ids[numero++] = identificativi.computeIfAbsent(AnalizzatoreTesto.normalizza(canonico), k -> {
+                nomi.add(canonico);
+                return nomi.size() - 1;
+            });
+        }
+        return Arrays.stream(ids, 0, numero).sorted().distinct().toArray();
+    }
+
+    /**
+     * Restituisce l'identificativo di una cucina senza registrarla.
+     *
+     * @param cucina nome della cucina o di un suo sinonimo
+     * @return identificativo della cucina, oppure {@code -1} se non è presente nella tassonomia
+     */
+    public int cercaId(String cucina) {
+        String canonico = canonico(cucina == null ? "" : cucina);
+        Integer id = identificativi.get(AnalizzatoreTesto.normalizza(canonico));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Restituisce il nome canonico associato a un identificativo.
+     *
+     * @param id identificativo della cucina
+     * @return nome canonico
+     */
+    public String getNome(int id) {
+        return nomi.get(id);
+    }
+
+    /**
+     * Restituisce i nomi canonici di tutte le cucine registrate, nell'ordine degli identificativi.
+     *
+     * @return lista non modificabile delle cucine
+     */
+    public List<String> getCucine() {
+        return Collections.unmodifiableList(nomi);
+    }
+
+    /**
+     * Restituisce il numero di cucine registrate.
+     *
+     * @return numero di cucine
+     */
+    public int getNumeroCucine() {
+        return nomi.size();
+    }
+
+    /**
+     * Svuota la tassonomia.
+     */
+    public void svuota() {
+        identificativi.clear();
+        nomi.clear();
+    }
+
+    /**
+     * Riconduce un singolo valore di cucina alla sua forma canonica.
+     *
+     * @param valore valore così come compare nel CSV
+     * @return nome canonico, stringa vuota se il valore è vuoto
+     */
+    private static String canonico(String valore) {
+        String pulito = valore.trim().replaceAll("\\s+", " ");
+        return SINONIMI.getOrDefault(AnalizzatoreTesto.normalizza(pulito), pulito);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.theknife;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie dei prefissi pesato per frequenza, usato per l'autocompletamento dei campi di ricerca.
+ * <p>
+ * Le chiavi vengono inserite in forma normalizzata (vedi {@link AnalizzatoreTesto#normalizza(String)}),
+ * ma ogni voce conserva anche il testo originale da mostrare all'utente. Ogni nodo mantiene la lista
+ * già ordinata dei migliori completamenti del proprio sotto-albero, così che una richiesta costi
+ * solo la discesa lungo il prefisso: nessuna visita del sotto-albero avviene durante la digitazione.
+ * </p>
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+public class TriePrefissi {
+
+    /** Numero di completamenti conservati in ogni nodo. */
+    public static final int MAX_SUGGERIMENTI = 10;
+
+    private static final class Voce {
+        private final String testo;
+        private int frequenza;
+
+        private Voce(String testo) {
+            this.testo = testo;
+        }
+    }
+
+    private static final class Nodo {
+        private final Map<Character, Nodo> figli = new HashMap<>(4);
+        private final List<Voce> migliori = new ArrayList<>(2);
+        private Voce voce;
+    }
+
+    private Nodo radice = new Nodo();
+
+    /**
+     * Registra un'occorrenza di un valore, incrementandone la frequenza.
+     *
+     * @param testo valore da inserire, così come va mostrato all'utente
+     */
+    public void inserisci(String testo) {
+        if (testo == null || testo.isBlank()) return;
+        String chiave = AnalizzatoreTesto.normalizza(testo.trim());
+
+        List<Nodo> percorso = new ArrayList<>(chiave.length() + 1);
+        Nodo nodo = radice;
+        percorso.add(nodo);
+        for (int i = 0; i < chiave.length(); i++) {
+            nodo = nodo.figli.computeIfAbsent(chiave.charAt(i), c -> new Nodo());
+            percorso.add(nodo);
+        }
+        if (nodo.voce == null) {
+            nodo.voce = new Voce(testo.trim());
+        }
+        nodo.voce.frequenza++;
+
+        for (Nodo antenato : percorso) {
+            aggiornaMigliori(antenato, nodo.voce);
+        }
+    }
+
+    /**
+     * Rimuove un'occorrenza di un valore, decrementandone la frequenza. Le liste dei migliori
+     * completamenti lungo il percorso vengono ricalcolate dal basso a partire da quelle dei figli.
+     *
+     * @param testo valore da rimuovere, come passato a {@link #inserisci(String)}
+     */
+    public void rimuovi(String testo) {
+        if (testo == null || testo.isBlank()) return;
+        String chiave = AnalizzatoreTesto.normalizza(testo.trim());
+
+        List<Nodo> percorso = new ArrayList<>(chiave.length() + 1);
+        Nodo nodo = radice;
+        percorso.add(nodo);
+        for (int i = 0; i < chiave.length(); i++) {
+            nodo = nodo.figli.get(chiave.charAt(i));
+            if (nodo == null) return;
+            percorso.add(nodo);
+        }
+        if (nodo.voce == null || nodo.voce.frequenza == 0) return;
+        nodo.voce.frequenza--;
+
+        for (int i = percorso.size() - 1; i >= 0; i--) {
+            ricalcolaMigliori(percorso.get(i));
+        }
+    }
+
+    /**
+     * Restituisce i completamenti più frequenti per un prefisso.
+     *
+     * @param prefisso testo digitato dall'utente
+     * @param limite   numero massimo di suggerimenti (al più {@link #MAX_SUGGERIMENTI})
+     * @return suggerimenti ordinati per frequenza decrescente
+     */
+    public List<String> suggerisci(String prefisso, int limite) {
+        String chiave = AnalizzatoreTesto.normalizza(prefisso == null ? "" : prefisso.trim());
+        Nodo nodo = radice;
+        for (int i = 0; i < chiave.length() && nodo != null; i++) {
+            nodo = nodo.figli.get(chiave.charAt(i));
+        }
+        List<String> suggerimenti = new ArrayList<>();
+        if (nodo == null) return suggerimenti;
+        for (int i = 0; i < nodo.migliori.size() && i < limite; i++) {
+            suggerimenti.add(nodo.migliori.get(i).testo);
+        }
+        return suggerimenti;
+    }
+
+    /**
+     * Svuota il trie.
+     */
+    public void svuota() {
+        radice = new Nodo();
+    }
+
+    /**
+     * Ricostruisce la lista dei migliori completamenti di un nodo dalla sua voce e dalle liste dei figli,
+     * che contengono già i migliori completamenti dei rispettivi sotto-alberi.
+     *
+     * @param nodo nodo da ricalcolare
+     */
+    private void ricalcolaMigliori(Nodo nodo) {
+        List<Voce> candidate = new ArrayList<>();
+        if (nodo.voce != null && nodo.voce.frequenza > 0) {
+            candidate.add(nodo.voce);
+        }
+        for (Nodo figlio : nodo.figli.values()) {
+            candidate.addAll(figlio.migliori);
+        }
+        candidate.sort((a, b) -> Integer.compare(b.frequenza, a.frequenza));
+        nodo.migliori.clear();
+        nodo.migliori.addAll(candidate.subList(0, Math.min(MAX_SUGGERIMENTI, candidate.size())));
+    }
+
+    /**
+     * Aggiorna la lista ordinata dei migliori completamenti di un nodo dopo che
+     * la frequenza di una voce del suo sotto-albero è aumentata.
+     *
+     * @param nodo nodo da aggiornare
+     * @param voce voce la cui frequenza è cambiata
+     */
+    private void aggiornaMigliori(Nodo nodo, Voce voce) {
+        List<Voce> migliori = nodo.migliori;
+        int posizione = migliori.indexOf(voce);
+        if (posizione < 0) {
+            if (migliori.size() == MAX_SUGGERIMENTI
+                    && migliori.get(MAX_SUGGERIMENTI - 1).frequenza >= voce.frequenza) {
+                return;
+            }
+            migliori.add(voce);
+            posizione = migliori.size() - 1;
+        }
+        // La frequenza può solo crescere: basta far risalire la voce finché supera le precedenti
+        while (posizione > 0 && migliori.get(posizione - 1).frequenza < voce.frequenza) {
+            migliori.set(posizione, migliori.get(posizione - 1));
+            posizione--;
+        }
+        migliori.set(posizione, voce);
+        if (migliori.size() > MAX_SUGGERIMENTI) {
+            migliori.remove(migliori.size() - 1);
+        }
+    }
+}
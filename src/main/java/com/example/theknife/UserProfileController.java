@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.ResourceBundle;
 import java.util.Set;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -76,6 +77,14 @@ public class UserProfileController implements Initializable {
      * Lista per visualizzare i nomi dei ristoranti preferiti.
      */
     @FXML private ListView<String> preferitiList;
+    /**
+     * Pulsante per ordinare i preferiti secondo un itinerario di visita.
+     */
+    @FXML private Button itinerarioButton;
+    /**
+     * Etichetta con la lunghezza dell'itinerario dei preferiti.
+     */
+    @FXML private Label itinerarioLabel;
     /**
      * Pulsante per eseguire il logout dall'applicazione.
      */
@@ -207,6 +216,49 @@ public class UserProfileController implements Initializable {
         preferitiList.setItems(FXCollections.observableArrayList(
                 gestionePreferiti.getPreferiti(SessioneUtente.getUsernameUtente())
         ));
+        itinerarioLabel.setText("");
+    }
+
+    /**
+     * Ordina i preferiti dell'utente secondo un itinerario breve che li visita tutti, partendo dal
+     * domicilio se le sue coordinate sono note. Il calcolo avviene in un thread separato, per non
+     * bloccare l'interfaccia, e la lista viene aggiornata al termine; un eventuale errore viene mostrato
+     * all'utente e il pulsante torna comunque attivo.
+     */
+    @FXML
+    private void onItinerarioClick() {
+        List<Ristorante> tappe = gestioneRistorante.getRistorantiByNomi(
+                gestionePreferiti.getPreferiti(SessioneUtente.getUsernameUtente()));
+        if (tappe.size() < 2) {
+            itinerarioLabel.setText("Servono almeno due preferiti");
+            return;
+        }
+        double[] partenza = SessioneUtente.getCoordinateDomicilio();
+        itinerarioButton.setDisable(true);
+        itinerarioLabel.setText("Calcolo dell'itinerario...");
+
+        Thread calcolo = new Thread(() -> {
+            try {
+                PianificatoreItinerario.Itinerario itinerario = PianificatoreItinerario.pianifica(tappe, partenza);
+                Platform.runLater(() -> {
+                    preferitiList.setItems(FXCollections.observableArrayList(
+                            itinerario.tappe().stream().map(Ristorante::getNome).toList()));
+                    itinerarioLabel.setText(String.format("%d tappe, %.1f km%s", itinerario.tappe().size(),
+                            itinerario.lunghezzaKm(), partenza != null ? " dal domicilio" : ""));
+                });
+            } catch (RuntimeException e) {
+                System.err.println("Errore nel calcolo dell'itinerario: " + e.getMessage());
+                Platform.runLater(() -> {
+                    itinerarioLabel.setText("Itinerario non disponibile");
+                    showError("Errore", "Impossibile calcolare l'itinerario: " + e.getMessage());
+                });
+            } finally {
+                // Il pulsante torna attivo in ogni caso, anche se il calcolo è fallito
+                Platform.runLater(() -> itinerarioButton.setDisable(false));
+            }
+        }, "itinerario-preferiti");
+        calcolo.setDaemon(true);
+        calcolo.start();
     }
 
     /**
@@ -5,6 +5,8 @@ module com.example.theknife {
     requires com.opencsv;
     requires java.desktop;
     requires transitive javafx.graphics;
+    // Facoltativo: se il modulo non viene aggiunto all'avvio, ColonneCoordinate usa la scansione scalare
+    requires static jdk.incubator.vector;
 
 
     opens com.example.theknife to javafx.fxml;
@@ -0,0 +1,130 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link AlberoBK}: le ricerche vengono confrontate con una scansione completa del dizionario.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class AlberoBKTest {
+
+    private static final String ALFABETO = "abcdeilmnorstu";
+
+    @Test
+    void distanzaDiLevenshtein() {
+        assertEquals(0, AlberoBK.distanza("osteria", "osteria"));
+        assertEquals(3, AlberoBK.distanza("kitten", "sitting"));
+        assertEquals(7, AlberoBK.distanza("", "osteria"));
+        assertEquals(1, AlberoBK.distanza("trattoria", "tratoria"));
+        assertEquals(2, AlberoBK.distanza("pizza", "piza!"));
+    }
+
+    @Test
+    void cercaTrovaGliStessiTerminiDellaScansioneCompleta() {
+        Random casuale = new Random(42);
+        AlberoBK albero = new AlberoBK();
+        Map<String, Set<String>> dizionario = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String termine = parolaCasuale(casuale);
+            String chiave = "R" + casuale.nextInt(300);
+            albero.inserisci(termine, chiave);
+            dizionario.computeIfAbsent(termine, k -> new HashSet<>()).add(chiave);
+        }
+        assertEquals(dizionario.size(), albero.getNumeroTermini());
+
+        for (int q = 0; q < 200; q++) {
+            String parola = parolaCasuale(casuale);
+            for (int distanzaMassima = 0; distanzaMassima <= 2; distanzaMassima++) {
+                assertEquals(scansione(dizionario, parola, distanzaMassima), risultati(albero.cerca(parola, distanzaMassima)),
+                        "'" + parola + "' entro " + distanzaMassima);
+            }
+        }
+    }
+
+    @Test
+    void rimuoviEscludeIlTermineMaMantieneIPercorsiVersoIFigli() {
+        Random casuale = new Random(7);
+        AlberoBK albero = new AlberoBK();
+        Map<String, Set<String>> dizionario = new HashMap<>();
+        List<String[]> inseriti = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            String termine = parolaCasuale(casuale);
+            String chiave = "R" + casuale.nextInt(100);
+            albero.inserisci(termine, chiave);
+            dizionario.computeIfAbsent(termine, k -> new HashSet<>()).add(chiave);
+            inseriti.add(new String[]{termine, chiave});
+        }
+        // Toglie metà delle associazioni, tra cui quelle di molti nodi interni dell'albero
+        for (int i = 0; i < inseriti.size(); i += 2) {
+            String[] voce = inseriti.get(i);
+            albero.rimuovi(voce[0], voce[1]);
+            Set<String> chiavi = dizionario.get(voce[0]);
+            if (chiavi != null) {
+                chiavi.remove(voce[1]);
+                if (chiavi.isEmpty()) dizionario.remove(voce[0]);
+            }
+        }
+        assertEquals(dizionario.size(), albero.getNumeroTermini());
+        for (int q = 0; q < 200; q++) {
+            String parola = parolaCasuale(casuale);
+            assertEquals(scansione(dizionario, parola, 2), risultati(albero.cerca(parola, 2)), "'" + parola + "'");
+        }
+
+        // Un termine rimosso e poi reinserito torna a essere contato e trovato
+        String[] voce = inseriti.get(0);
+        albero.inserisci(voce[0], voce[1]);
+        dizionario.computeIfAbsent(voce[0], k -> new HashSet<>()).add(voce[1]);
+        assertEquals(dizionario.size(), albero.getNumeroTermini());
+        assertTrue(risultati(albero.cerca(voce[0], 0)).containsKey(voce[0]));
+    }
+
+    private static String parolaCasuale(Random casuale) {
+        int lunghezza = 3 + casuale.nextInt(6);
+        StringBuilder parola = new StringBuilder(lunghezza);
+        for (int i = 0; i < lunghezza; i++) {
+            parola.append(ALFABETO.charAt(casuale.nextInt(ALFABETO.length())));
+        }
+        return parola.toString();
+    }
+
+    private static Map<String, String> scansione(Map<String, Set<String>> dizionario, String parola, int distanzaMassima) {
+        Map<String, String> attesi = new TreeMap<>();
+        for (Map.Entry<String, Set<String>> voce : dizionario.entrySet()) {
+            int distanza = AlberoBK.distanza(parola, voce.getKey());
+            if (distanza <= distanzaMassima) {
+                attesi.put(voce.getKey(), distanza + " " + new TreeSet<>(voce.getValue()));
+            }
+        }
+        return attesi;
+    }
+
+    private static Map<String, String> risultati(List<AlberoBK.Corrispondenza> corrispondenze) {
+        Map<String, String> trovati = new TreeMap<>();
+        for (AlberoBK.Corrispondenza corrispondenza : corrispondenze) {
+            String precedente = trovati.put(corrispondenza.termine(), corrispondenza.distanza() + " "
+                    + new TreeSet<>(corrispondenza.chiavi()));
+            assertNull(precedente, "termine restituito due volte: " + corrispondenza.termine());
+        }
+        return trovati;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test di {@link LettorePosizionale} e {@link ArchivioDescrizioni}: le porzioni registrate con la loro
+ * posizione in byte vengono rilette uguali al testo scritto, anche con caratteri di più byte, campi tra
+ * virgolette e righe aggiunte in coda al file dopo la registrazione.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class ArchivioDescrizioniTest {
+
+    private static final List<String> DESCRIZIONI = List.of(
+            "Cucina creativa in riva al lago",
+            "Piatti della tradizione, pasta fresca e \"tiramisù\"",
+            "Menù degustazione a 120 €\nsu due righe",
+            "");
+
+    @Test
+    void lettorePosizionaleRileggeLePorzioniRegistrate() throws IOException {
+        Path file = Files.createTempFile("lettore", ".csv");
+        try {
+            LettorePosizionale lettore = new LettorePosizionale(file);
+            List<String> righe = new ArrayList<>();
+            List<Integer> id = new ArrayList<>();
+            long posizione = 0;
+            for (int i = 0; i < 200; i++) {
+                String riga = "Ristorante " + i + ",Località è " + i + ",€".repeat(1 + i % 4) + "\n";
+                byte[] byteRiga = riga.getBytes(StandardCharsets.UTF_8);
+                Files.write(file, byteRiga, StandardOpenOption.APPEND);
+                righe.add(riga);
+                id.add(lettore.registra(posizione, byteRiga.length));
+                posizione += byteRiga.length;
+            }
+            assertEquals(200, lettore.getNumero());
+            for (int i = righe.size() - 1; i >= 0; i -= 7) {
+                assertEquals(righe.get(i), lettore.leggi(id.get(i)));
+            }
+            lettore.chiudi();
+            // Dopo la chiusura il file viene riaperto alla prima lettura
+            assertEquals(righe.get(0), lettore.leggi(id.get(0)));
+            lettore.chiudi();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void archivioRileggeLeDescrizioniSenzaVirgolette() throws IOException {
+        Path file = Files.createTempFile("descrizioni", ".csv");
+        try {
+            ArchivioDescrizioni archivio = new ArchivioDescrizioni(file);
+            List<Integer> id = new ArrayList<>();
+            for (String descrizione : DESCRIZIONI) {
+                id.add(aggiungiRiga(file, archivio, descrizione));
+            }
+            for (int ripetizione = 0; ripetizione < 2; ripetizione++) {
+                for (int i = 0; i < DESCRIZIONI.size(); i++) {
+                    assertEquals(DESCRIZIONI.get(i), archivio.leggi(id.get(i)));
+                }
+            }
+            // Le descrizioni aggiunte in coda dopo una lettura sono leggibili come le altre
+            int nuova = aggiungiRiga(file, archivio, "Aggiunta dopo, con l'accento à");
+            assertEquals("Aggiunta dopo, con l'accento à", archivio.leggi(nuova));
+            assertEquals(DESCRIZIONI.size() + 1, archivio.getNumeroDescrizioni());
+            archivio.chiudi();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Aggiunge al file una riga con la descrizione come ultimo campo tra virgolette e ne registra
+     * la posizione, virgolette comprese.
+     */
+    private static int aggiungiRiga(Path file, ArchivioDescrizioni archivio, String descrizione) throws IOException {
+        byte[] inizio = "Nome,Località,".getBytes(StandardCharsets.UTF_8);
+        byte[] campo = ("\"" + descrizione.replace("\"", "\"\"") + "\"").getBytes(StandardCharsets.UTF_8);
+        long posizione = Files.size(file) + inizio.length;
+        Files.write(file, inizio, StandardOpenOption.APPEND);
+        Files.write(file, campo, StandardOpenOption.APPEND);
+        Files.write(file, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        return archivio.registra(posizione, campo.length);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test di {@link CacheRisultati}: invalidazione al cambio di versione, rimozione LRU e contatori.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class CacheRisultatiTest {
+
+    @Test
+    void valoriDiUnaVersionePrecedenteNonVengonoRestituiti() {
+        CacheRisultati<String, String> cache = new CacheRisultati<>(4);
+        cache.put("milano", "v1", 1);
+        assertEquals("v1", cache.get("milano", 1));
+        assertNull(cache.get("milano", 2));
+        // La voce scaduta viene rimossa, anche tornando alla versione da cui era stata calcolata
+        assertEquals(0, cache.getDimensione());
+        assertNull(cache.get("milano", 1));
+
+        cache.put("milano", "v2", 2);
+        assertEquals("v2", cache.get("milano", 2));
+    }
+
+    @Test
+    void rimuoveLaVoceUsataMenoDiRecente() {
+        CacheRisultati<String, Integer> cache = new CacheRisultati<>(3);
+        cache.put("a", 1, 0);
+        cache.put("b", 2, 0);
+        cache.put("c", 3, 0);
+        // "a" diventa la più recente, "b" la meno recente
+        assertEquals(1, cache.get("a", 0));
+        cache.put("d", 4, 0);
+
+        assertEquals(3, cache.getDimensione());
+        assertNull(cache.get("b", 0));
+        assertEquals(1, cache.get("a", 0));
+        assertEquals(3, cache.get("c", 0));
+        assertEquals(4, cache.get("d", 0));
+    }
+
+    @Test
+    void contaSuccessiEFallimenti() {
+        CacheRisultati<String, String> cache = new CacheRisultati<>(2);
+        assertEquals(0.0, cache.getTassoSuccesso(), 0);
+        cache.get("como", 0);
+        cache.put("como", "risultati", 0);
+        cache.get("como", 0);
+        cache.get("como", 0);
+        cache.get("como", 1);
+
+        assertEquals(2, cache.getSuccessi());
+        assertEquals(2, cache.getFallimenti());
+        assertEquals(0.5, cache.getTassoSuccesso(), 1e-12);
+
+        cache.svuota();
+        assertEquals(0, cache.getSuccessi());
+        assertEquals(0, cache.getFallimenti());
+        assertEquals(0, cache.getDimensione());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test di {@link CatalogoColonnare}: i campi riletti dalla memoria nativa coincidono con quelli dei
+ * ristoranti archiviati, anche dopo la crescita delle colonne, e le scansioni coincidono con un filtro
+ * sui ristoranti.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class CatalogoColonnareTest {
+
+    private static final String[] PREZZI = {"€", "€€", "€€€", "€€€€", null};
+    private static final String[] PREMI = {"Selected Restaurants", "Bib Gourmand", "1 Stella", "2 Stelle", "3 Stelle"};
+
+    @Test
+    void campiComeIRistorantiArchiviati() {
+        Random casuale = new Random(71);
+        CatalogoColonnare catalogo = new CatalogoColonnare();
+        List<Ristorante> ristoranti = ristorantiCasuali(casuale, 3000);
+        for (int i = 0; i < ristoranti.size(); i++) {
+            assertEquals(i, catalogo.aggiungi(ristoranti.get(i)));
+        }
+        assertEquals(ristoranti.size(), catalogo.getNumero());
+
+        for (int riga = 0; riga < ristoranti.size(); riga++) {
+            Ristorante ristorante = ristoranti.get(riga);
+            assertEquals(ristorante.getNome(), catalogo.getTesto(riga, CatalogoColonnare.NOME));
+            assertEquals(ristorante.getLocalita(), catalogo.getTesto(riga, CatalogoColonnare.LOCALITA));
+            assertEquals(ristorante.getCucina(), catalogo.getTesto(riga, CatalogoColonnare.CUCINA));
+            assertEquals(ristorante.getDescrizione(), catalogo.getTesto(riga, CatalogoColonnare.DESCRIZIONE));
+            assertEquals(ristorante.getPrezzo(), catalogo.getCodificato(riga, CatalogoColonnare.PREZZO));
+            assertEquals(ristorante.getPremio(), catalogo.getCodificato(riga, CatalogoColonnare.PREMIO));
+            assertEquals(ristorante.getLatitudine(), catalogo.getLatitudine(riga), 0);
+            assertEquals(ristorante.getLongitudine(), catalogo.getLongitudine(riga), 0);
+        }
+        // Un campo assente resta distinto da un campo vuoto
+        assertNull(catalogo.getTesto(0, CatalogoColonnare.SITO_WEB));
+        assertEquals("", catalogo.getTesto(0, CatalogoColonnare.TELEFONO));
+    }
+
+    @Test
+    void scansioniComeIlFiltroSuiRistoranti() {
+        Random casuale = new Random(73);
+        CatalogoColonnare catalogo = new CatalogoColonnare();
+        List<Ristorante> ristoranti = ristorantiCasuali(casuale, 2000);
+        ristoranti.forEach(catalogo::aggiungi);
+
+        for (int q = 0; q < 50; q++) {
+            double latitudine = 44 + casuale.nextDouble() * 3;
+            double longitudine = 8 + casuale.nextDouble() * 4;
+            double raggioKm = 1 + casuale.nextDouble() * 150;
+            assertArrayEquals(filtra(ristoranti, r -> Geografia.distanzaKm(latitudine, longitudine, r) <= raggioKm),
+                    catalogo.righeEntroRaggio(latitudine, longitudine, raggioKm));
+        }
+        for (int massimo = 1; massimo <= 4; massimo++) {
+            int limite = massimo;
+            Predicate<String> condizione = prezzo -> prezzo != null && prezzo.length() <= limite;
+            assertArrayEquals(filtra(ristoranti, r -> condizione.test(r.getPrezzo())),
+                    catalogo.righeConCodice(CatalogoColonnare.PREZZO, condizione));
+        }
+        assertArrayEquals(filtra(ristoranti, r -> r.getPremio().startsWith("1")),
+                catalogo.righeConCodice(CatalogoColonnare.PREMIO, premio -> premio.startsWith("1")));
+    }
+
+    private static int[] filtra(List<Ristorante> ristoranti, Predicate<Ristorante> condizione) {
+        return IntStream.range(0, ristoranti.size()).filter(riga -> condizione.test(ristoranti.get(riga))).toArray();
+    }
+
+    /**
+     * Ristoranti con testi di lunghezza variabile e caratteri di più byte, così che sia le colonne sia il
+     * segmento dei testi debbano crescere.
+     */
+    private static List<Ristorante> ristorantiCasuali(Random casuale, int numero) {
+        List<Ristorante> ristoranti = new ArrayList<>();
+        for (int i = 0; i < numero; i++) {
+            String descrizione = "Cucina di lago e di montagna, menù à la carte. ".repeat(1 + casuale.nextInt(8));
+            ristoranti.add(new Ristorante("Ristorante " + i, "via Roma " + i, "Località " + casuale.nextInt(50),
+                    PREZZI[casuale.nextInt(PREZZI.length)], "Cucina " + casuale.nextInt(20),
+                    8 + casuale.nextDouble() * 4, 44 + casuale.nextDouble() * 3,
+                    "", "https://guide.michelin.com/" + i, null, PREMI[casuale.nextInt(PREMI.length)],
+                    casuale.nextBoolean() ? "1" : "0", "Parcheggio", descrizione));
+        }
+        return ristoranti;
+    }
+}
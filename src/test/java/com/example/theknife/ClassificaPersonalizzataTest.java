@@ -0,0 +1,111 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Test di {@link ClassificaPersonalizzata#ordina(int[], double[], String, int)}: la classifica dei primi
+ * {@code k} con l'heap coincide con un ordinamento stabile di tutti i risultati, seguito dagli esclusi
+ * nell'ordine della ricerca.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class ClassificaPersonalizzataTest {
+
+    private static final String[] PREMI = {"Selected Restaurants", "Bib Gourmand", "1 Stella", "2 Stelle", "3 Stelle"};
+
+    @Test
+    void primiKPerDistanzaConPariMeritoStabili() {
+        Random casuale = new Random(59);
+        List<Ristorante> righe = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            righe.add(ristorante("R" + i, "1 Stella"));
+        }
+        ClassificaPersonalizzata classifica = classifica(righe);
+        for (int prova = 0; prova < 50; prova++) {
+            int[] trovate = sottoinsieme(casuale, righe.size());
+            double[] distanze = new double[trovate.length];
+            for (int i = 0; i < distanze.length; i++) {
+                // Poche distanze distinte, così che i pari merito siano frequenti
+                distanze[i] = casuale.nextInt(15) * 0.5;
+            }
+            Comparator<Integer> ordine = Comparator.comparingDouble(i -> distanze[i]);
+            for (int k : new int[]{0, 1, 10, trovate.length, trovate.length + 5}) {
+                assertArrayEquals(attese(trovate, ordine, k), classifica.ordina(trovate, distanze, null, k));
+            }
+        }
+    }
+
+    @Test
+    void primiKPerPremioSenzaPosizione() {
+        Random casuale = new Random(61);
+        List<Ristorante> righe = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            righe.add(ristorante("R" + i, i % 7 == 0 ? null : PREMI[casuale.nextInt(PREMI.length)]));
+        }
+        ClassificaPersonalizzata classifica = classifica(righe);
+        for (int prova = 0; prova < 50; prova++) {
+            int[] trovate = sottoinsieme(casuale, righe.size());
+            Comparator<Integer> ordine = Comparator.comparingInt(i -> -livello(righe.get(trovate[i])));
+            for (int k : new int[]{0, 1, 10, trovate.length, trovate.length + 5}) {
+                int[] copia = trovate.clone();
+                assertArrayEquals(attese(trovate, ordine, k), classifica.ordina(trovate, null, null, k));
+                assertArrayEquals(copia, trovate);
+            }
+        }
+    }
+
+    /** Ordina stabilmente le posizioni dei risultati e tiene le prime {@code k}, poi gli esclusi in ordine. */
+    private static int[] attese(int[] trovate, Comparator<Integer> ordine, int k) {
+        Integer[] posizioni = new Integer[trovate.length];
+        Arrays.setAll(posizioni, i -> i);
+        Arrays.sort(posizioni, ordine);
+        int primi = Math.min(k, trovate.length);
+        boolean[] inClassifica = new boolean[trovate.length];
+        int[] attese = new int[trovate.length];
+        for (int p = 0; p < primi; p++) {
+            attese[p] = trovate[posizioni[p]];
+            inClassifica[posizioni[p]] = true;
+        }
+        int prossima = primi;
+        for (int i = 0; i < trovate.length; i++) {
+            if (!inClassifica[i]) attese[prossima++] = trovate[i];
+        }
+        return attese;
+    }
+
+    private static int[] sottoinsieme(Random casuale, int n) {
+        List<Integer> righe = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (casuale.nextInt(3) > 0) righe.add(i);
+        }
+        Collections.shuffle(righe, casuale);
+        return righe.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int livello(Ristorante ristorante) {
+        return ristorante.getPremio() == null ? 0 : SomiglianzaContenuti.livelloPremio(ristorante.getPremio());
+    }
+
+    private static ClassificaPersonalizzata classifica(List<Ristorante> righe) {
+        return new ClassificaPersonalizzata(righe, 0, Map::of, username -> List.of(), username -> List.of());
+    }
+
+    private static Ristorante ristorante(String nome, String premio) {
+        return new Ristorante(nome, "", "", "€€", "", 9, 45, "", "", "", premio, "0", "", "");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test della ricerca per raggio di {@link ColonneCoordinate}: la scansione vettoriale e quella scalare
+ * vengono confrontate con il calcolo della distanza di tutte le righe.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class ColonneCoordinateTest {
+
+    private static final int RIGHE = 5000;
+
+    @Test
+    void righeEntroRaggioComeLaScansioneCompleta() {
+        Random casuale = new Random(29);
+        ColonneCoordinate coordinate = coordinateCasuali(casuale);
+        for (int q = 0; q < 200; q++) {
+            double[] centro = puntoCasuale(casuale);
+            double raggioKm = Math.pow(10, casuale.nextDouble() * 4);
+            int[] attese = IntStream.range(0, RIGHE)
+                    .filter(riga -> distanza(coordinate, riga, centro) <= raggioKm)
+                    .toArray();
+            assertArrayEquals(attese, coordinate.righeEntroRaggio(centro[0], centro[1], raggioKm), "raggio " + raggioKm);
+            assertArrayEquals(attese, coordinate.righeEntroRaggioScalare(centro[0], centro[1], raggioKm), "raggio " + raggioKm);
+
+            double[] distanze = coordinate.distanzeKm(attese, centro[0], centro[1]);
+            for (int i = 0; i < attese.length; i++) {
+                assertEquals(distanza(coordinate, attese[i], centro), distanze[i], 1e-6);
+            }
+        }
+        // Un raggio più grande della Terra comprende tutte le righe
+        assertEquals(RIGHE, coordinate.righeEntroRaggio(0, 0, 30000).length);
+        assertEquals(RIGHE, coordinate.righeEntroRaggioScalare(0, 0, 30000).length);
+    }
+
+    @Test
+    void righeEntroRaggioAiDueLatiDellAntimeridiano() {
+        ColonneCoordinate coordinate = new ColonneCoordinate();
+        coordinate.imposta(0, -17.5, 179.95);
+        coordinate.imposta(1, -17.5, -179.95);
+        coordinate.imposta(2, -17.5, 178);
+        assertArrayEquals(new int[]{0, 1}, coordinate.righeEntroRaggio(-17.5, 180, 10));
+        assertArrayEquals(new int[]{0, 1}, coordinate.righeEntroRaggioScalare(-17.5, -180, 10));
+    }
+
+    @Test
+    void copiaIndipendenteDalleModifiche() {
+        ColonneCoordinate coordinate = new ColonneCoordinate();
+        coordinate.imposta(0, 45.81, 9.08);
+        ColonneCoordinate copia = coordinate.copia();
+        coordinate.imposta(0, 41.90, 12.50);
+        coordinate.imposta(1, 45.81, 9.08);
+
+        assertEquals(45.81, copia.getLatitudine(0), 1e-12);
+        assertArrayEquals(new int[]{0}, copia.righeEntroRaggio(45.81, 9.08, 1));
+        assertArrayEquals(new int[]{1}, coordinate.righeEntroRaggio(45.81, 9.08, 1));
+    }
+
+    private static double distanza(ColonneCoordinate coordinate, int riga, double[] punto) {
+        return Geografia.distanzaKm(punto[0], punto[1], coordinate.getLatitudine(riga), coordinate.getLongitudine(riga));
+    }
+
+    /**
+     * Righe in parte concentrate attorno ad alcune città, in parte sparse su tutto il globo e in parte
+     * vicine all'antimeridiano.
+     */
+    private static ColonneCoordinate coordinateCasuali(Random casuale) {
+        double[][] citta = {{45.81, 9.08}, {45.46, 9.19}, {41.90, 12.50}, {48.85, 2.35}, {35.68, 139.69}};
+        ColonneCoordinate coordinate = new ColonneCoordinate();
+        for (int riga = 0; riga < RIGHE; riga++) {
+            double[] punto;
+            if (riga % 10 < 6) {
+                double[] centro = citta[casuale.nextInt(citta.length)];
+                punto = new double[]{centro[0] + casuale.nextGaussian() * 0.3, centro[1] + casuale.nextGaussian() * 0.3};
+            } else if (riga % 10 < 9) {
+                punto = puntoCasuale(casuale);
+            } else {
+                punto = new double[]{-17 + casuale.nextGaussian(),
+                        casuale.nextBoolean() ? 179.5 + casuale.nextDouble() * 0.5 : -180 + casuale.nextDouble() * 0.5};
+            }
+            coordinate.imposta(riga, punto[0], punto[1]);
+        }
+        return coordinate;
+    }
+
+    private static double[] puntoCasuale(Random casuale) {
+        return new double[]{Math.toDegrees(Math.asin(2 * casuale.nextDouble() - 1)), -180 + casuale.nextDouble() * 360};
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test di {@link ElencoVirtuale}: le righe vengono caricate una pagina alla volta, solo quando servono,
+ * e il riordinamento cambia l'ordine degli elementi senza perdere quello originale.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class ElencoVirtualeTest {
+
+    private static final int RIGHE = 2000;
+
+    private final List<Ristorante> catalogo = new ArrayList<>();
+    private final List<Integer> caricate = new ArrayList<>();
+
+    @Test
+    void caricaSoloLaPaginaRichiesta() {
+        ElencoVirtuale elenco = elenco(IntStream.range(0, RIGHE).map(i -> RIGHE - 1 - i).toArray());
+        assertEquals(RIGHE, elenco.size());
+        assertEquals(0, caricate.size());
+
+        int indice = 3 * ElencoVirtuale.DIMENSIONE_PAGINA + 5;
+        assertSame(catalogo.get(RIGHE - 1 - indice), elenco.get(indice));
+        assertEquals(ElencoVirtuale.DIMENSIONE_PAGINA, caricate.size());
+
+        // Un altro elemento della stessa pagina non richiede caricamenti
+        elenco.get(3 * ElencoVirtuale.DIMENSIONE_PAGINA);
+        assertEquals(ElencoVirtuale.DIMENSIONE_PAGINA, caricate.size());
+
+        // L'ultima pagina è più corta delle altre
+        assertSame(catalogo.get(0), elenco.get(RIGHE - 1));
+        assertEquals(ElencoVirtuale.DIMENSIONE_PAGINA + RIGHE % ElencoVirtuale.DIMENSIONE_PAGINA, caricate.size());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> elenco.get(RIGHE));
+        assertThrows(IndexOutOfBoundsException.class, () -> elenco.get(-1));
+    }
+
+    @Test
+    void conservaSoloLeUltimePagineUsate() {
+        ElencoVirtuale elenco = elenco(IntStream.range(0, RIGHE).toArray());
+        for (int pagina = 0; pagina <= ElencoVirtuale.MAX_PAGINE; pagina++) {
+            elenco.get(pagina * ElencoVirtuale.DIMENSIONE_PAGINA);
+        }
+        int dopoLaVisita = caricate.size();
+
+        // La pagina più recente è ancora in memoria, la prima è stata scartata
+        elenco.get(ElencoVirtuale.MAX_PAGINE * ElencoVirtuale.DIMENSIONE_PAGINA);
+        assertEquals(dopoLaVisita, caricate.size());
+        elenco.get(0);
+        assertEquals(dopoLaVisita + ElencoVirtuale.DIMENSIONE_PAGINA, caricate.size());
+    }
+
+    @Test
+    void riordinaMantieneLeRigheOriginali() {
+        int[] originali = IntStream.range(0, RIGHE).toArray();
+        ElencoVirtuale elenco = elenco(originali);
+        elenco.get(0);
+
+        int[] inverse = IntStream.range(0, RIGHE).map(i -> RIGHE - 1 - i).toArray();
+        elenco.riordina(inverse);
+        assertSame(catalogo.get(RIGHE - 1), elenco.get(0));
+        assertSame(catalogo.get(0), elenco.get(RIGHE - 1));
+        assertArrayEquals(inverse, elenco.getRighe());
+        assertSame(originali, elenco.getRigheOriginali());
+    }
+
+    private ElencoVirtuale elenco(int[] righe) {
+        for (int riga = 0; riga < RIGHE; riga++) {
+            catalogo.add(new Ristorante("R" + riga, "", "Como", "€€", "Moderna", 9.08, 45.81,
+                    "", "", "", "", "0", "", ""));
+        }
+        return new ElencoVirtuale(righe, riga -> {
+            caricate.add(riga);
+            return catalogo.get(riga);
+        });
+    }
+}
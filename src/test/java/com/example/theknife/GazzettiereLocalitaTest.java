@@ -0,0 +1,76 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test di {@link GazzettiereLocalita}: centroidi aggiornati a ogni inserimento e rimozione, e risoluzione
+ * dei nomi scritti con errori di battitura.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class GazzettiereLocalitaTest {
+
+    @Test
+    void centroideDeiRistorantiDellaLocalita() {
+        GazzettiereLocalita gazzettiere = new GazzettiereLocalita();
+        gazzettiere.aggiungi("Como, Italia", 45.80, 9.08);
+        gazzettiere.aggiungi("COMO", 45.82, 9.10);
+        gazzettiere.aggiungi("Cantù, Italia", 45.74, 9.13);
+
+        GazzettiereLocalita.Localita como = gazzettiere.cerca("como");
+        assertEquals(2, como.numeroRistoranti());
+        assertEquals(45.81, como.latitudine(), 1e-9);
+        assertEquals(9.09, como.longitudine(), 1e-9);
+        // Accenti e maiuscole non contano
+        assertEquals("cantu", gazzettiere.cerca("CANTU").nome());
+        assertEquals(2, gazzettiere.getNumeroLocalita());
+
+        gazzettiere.rimuovi("Como", 45.80, 9.08);
+        assertEquals(45.82, gazzettiere.cerca("Como").latitudine(), 1e-9);
+        gazzettiere.rimuovi("Como", 45.82, 9.10);
+        assertNull(gazzettiere.cerca("Como"));
+        assertNull(gazzettiere.risolvi("Como"));
+        assertEquals(1, gazzettiere.getNumeroLocalita());
+
+        gazzettiere.svuota();
+        assertNull(gazzettiere.cerca("Cantù"));
+    }
+
+    @Test
+    void risolveINomiConErroriDiBattitura() {
+        GazzettiereLocalita gazzettiere = new GazzettiereLocalita();
+        aggiungi(gazzettiere, "Milano", 3);
+        aggiungi(gazzettiere, "Milani", 1);
+        aggiungi(gazzettiere, "Bergamo", 1);
+        aggiungi(gazzettiere, "Pergamo", 5);
+        aggiungi(gazzettiere, "Como", 1);
+        aggiungi(gazzettiere, "Ome", 1);
+
+        // Corrispondenza esatta anche se c'è un nome vicino con più ristoranti
+        assertEquals("milani", gazzettiere.risolvi("Milani").nome());
+        // A parità di errori vince la località con più ristoranti
+        assertEquals("milano", gazzettiere.risolvi("Milanu").nome());
+        // Il nome più simile vince sul numero di ristoranti
+        assertEquals("bergamo", gazzettiere.risolvi("Bergano, Italia").nome());
+        // La soglia di errori dipende dalla lunghezza del nome
+        assertEquals("como", gazzettiere.risolvi("Coma").nome());
+        assertNull(gazzettiere.risolvi("Omo"));
+        assertNull(gazzettiere.risolvi("Torino"));
+        assertNull(gazzettiere.risolvi(""));
+        assertNull(gazzettiere.cerca("Milanu"));
+    }
+
+    private static void aggiungi(GazzettiereLocalita gazzettiere, String localita, int ristoranti) {
+        for (int i = 0; i < ristoranti; i++) {
+            gazzettiere.aggiungi(localita + ", Italia", 45 + i * 0.01, 9);
+        }
+    }
+}
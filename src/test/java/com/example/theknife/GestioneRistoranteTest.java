@@ -0,0 +1,166 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test della ricerca della schermata principale, della sua cache, dell'ordinamento per collazione e dei
+ * filtri per raggio e delle distanze dei preferiti di {@link GestioneRistorante} sul catalogo di prova.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class GestioneRistoranteTest {
+
+    private static final double[] COMO = {45.81, 9.08};
+
+    private GestioneRistorante catalogo;
+
+    @BeforeEach
+    void carica() {
+        catalogo = GestioneRistorante.getInstance();
+        catalogo.assicuraDatiCaricati();
+        assertFalse(catalogo.getTuttiRistoranti().isEmpty(), "catalogo di prova vuoto");
+    }
+
+    @Test
+    void ricercaPerNomeInOrdineDiNome() {
+        GestioneRistorante.RigheRicerca trovate = catalogo.cercaRighe("Villa", "", "", "", 0);
+        assertFalse(trovate.perPertinenza());
+        assertTrue(trovate.righe().length > 0);
+    }
+
+    @Test
+    void ricercaApprossimataInOrdineDiPertinenza() {
+        GestioneRistorante.RigheRicerca trovate = catalogo.cercaRighe("Villa Crepsi", "", "", "", 0);
+        assertTrue(trovate.perPertinenza());
+        assertEquals("Villa Crespi", catalogo.getRiga(trovate.righe()[0]).getNome());
+    }
+
+    @Test
+    void ricercaNellaDescrizioneInOrdineDiPertinenza() {
+        String parola = Arrays.stream(catalogo.getRiga(0).getDescrizione().split("\\P{L}+"))
+                .filter(p -> p.length() >= 6)
+                .findFirst()
+                .orElseThrow();
+        GestioneRistorante.RigheRicerca trovate = catalogo.cercaRighe("", "", "", parola, 0);
+        assertTrue(trovate.perPertinenza());
+        assertTrue(trovate.righe().length > 0);
+    }
+
+    @Test
+    void ricercaRipetutaServitaDallaCache() {
+        GestioneRistorante.RigheRicerca prima = catalogo.cercaRighe("villa", "", "", "", 0);
+        long successi = catalogo.getCacheRicerche().getSuccessi();
+        // I criteri vengono normalizzati: maiuscole e spazi non cambiano la chiave
+        GestioneRistorante.RigheRicerca seconda = catalogo.cercaRighe(" Villa ", "", "", "", 0);
+        assertEquals(successi + 1, catalogo.getCacheRicerche().getSuccessi());
+        assertSame(prima, seconda);
+    }
+
+    @Test
+    void ordinaRigheComeIlCollatoreItaliano() {
+        Collator collatore = Collator.getInstance(Locale.ITALIAN);
+        int[] tutte = IntStream.range(0, catalogo.getTuttiRistoranti().size()).toArray();
+        for (String colonna : new String[]{"nome", "localita"}) {
+            Function<Integer, String> testo = riga -> colonna.equals("nome")
+                    ? catalogo.getRiga(riga).getNome() : catalogo.getRiga(riga).getLocalita();
+            Comparator<Integer> ordine = Comparator.comparing(testo, collatore);
+            int[] attese = Arrays.stream(tutte).boxed().sorted(ordine).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(attese, catalogo.ordinaRighe(tutte, colonna, true), colonna);
+            // Anche in ordine decrescente i pari merito restano nell'ordine di partenza
+            int[] decrescenti = Arrays.stream(tutte).boxed().sorted(ordine.reversed()).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(decrescenti, catalogo.ordinaRighe(tutte, colonna, false), colonna);
+        }
+        assertArrayEquals(catalogo.ordinaRighe(tutte, "nome", true), catalogo.getIndiceOrdinatoPerNome());
+        assertThrows(IllegalArgumentException.class, () -> catalogo.ordinaRighe(tutte, "prezzo", true));
+    }
+
+    @Test
+    void ordinaRistorantiConAccentiEMaiuscole() {
+        List<String> nomi = List.of("Zafferano", "Èlite", "osteria", "Élite", "Osteria", "Àncora", "ancora", "Elite");
+        List<Ristorante> ristoranti = new ArrayList<>();
+        for (String nome : nomi) {
+            ristoranti.add(new Ristorante(nome, "", "Como", "€€", "Moderna", 9.08, 45.81, "", "", "", "", "0", "", ""));
+        }
+        // Le lettere accentate seguono quelle semplici solo a parità del resto del nome
+        List<String> attesi = List.of("ancora", "Àncora", "Elite", "Élite", "Èlite", "osteria", "Osteria", "Zafferano");
+        assertEquals(attesi, catalogo.ordinaRistoranti(ristoranti, "nome", true).stream().map(Ristorante::getNome).toList());
+
+        // Per i ristoranti del catalogo vengono usate le chiavi calcolate al caricamento
+        List<String> ordinati = catalogo.ordinaRistoranti(catalogo.getTuttiRistoranti(), "nome", true).stream()
+                .map(Ristorante::getNome)
+                .toList();
+        List<String> attesiCatalogo = new ArrayList<>(ordinati);
+        attesiCatalogo.sort(Collator.getInstance(Locale.ITALIAN));
+        assertEquals(attesiCatalogo, ordinati);
+    }
+
+    @Test
+    void righeEntroRaggioPerDistanzaConLeDistanzeCalcolate() {
+        GestioneRistorante.RigheVersionate entro = catalogo.righeEntroRaggioPerDistanza(COMO[0], COMO[1], 100);
+        assertTrue(entro.righe().length > 0);
+        assertEquals(entro.righe().length, entro.distanzeKm().length);
+        int attese = 0;
+        for (int riga = 0; riga < catalogo.getTuttiRistoranti().size(); riga++) {
+            if (Geografia.distanzaKm(COMO[0], COMO[1], catalogo.getRiga(riga)) <= 100) attese++;
+        }
+        assertEquals(attese, entro.righe().length);
+        for (int i = 0; i < entro.righe().length; i++) {
+            assertEquals(Geografia.distanzaKm(COMO[0], COMO[1], catalogo.getRiga(entro.righe()[i])), entro.distanzeKm()[i], 1e-6);
+            assertTrue(i == 0 || entro.distanzeKm()[i - 1] <= entro.distanzeKm()[i] + 1e-6);
+        }
+    }
+
+    @Test
+    void righeEntroRaggioMantengonoLOrdineDellaRicerca() {
+        int[] ricerca = catalogo.cercaRighe("", "", "", "", 3).righe();
+        GestioneRistorante.RigheVersionate entro = catalogo.righeEntroRaggio(ricerca, COMO[0], COMO[1], 150);
+        int[] attese = Arrays.stream(ricerca)
+                .filter(riga -> Geografia.distanzaKm(COMO[0], COMO[1], catalogo.getRiga(riga)) <= 150)
+                .toArray();
+        assertArrayEquals(attese, entro.righe());
+        for (int i = 0; i < attese.length; i++) {
+            assertEquals(Geografia.distanzaKm(COMO[0], COMO[1], catalogo.getRiga(attese[i])), entro.distanzeKm()[i], 1e-6);
+        }
+    }
+
+    @Test
+    void distanzeDeiPreferitiComeLaDistanzaGeografica() {
+        List<Ristorante> preferiti = new ArrayList<>(catalogo.getTuttiRistoranti().subList(0, 50));
+        double[] distanze = catalogo.distanzeKm(preferiti, COMO[0], COMO[1]);
+        for (int i = 0; i < preferiti.size(); i++) {
+            assertEquals(Geografia.distanzaKm(COMO[0], COMO[1], preferiti.get(i)), distanze[i], 1e-6);
+        }
+
+        // Un preferito che non fa parte del catalogo viene misurato a parte, senza spostare gli altri
+        preferiti.add(7, new Ristorante("Ritirato", "", "Cernobbio", "€€", "Lombarda", 9.07, 45.84,
+                "", "", "", "", "0", "", ""));
+        distanze = catalogo.distanzeKm(preferiti, COMO[0], COMO[1]);
+        assertEquals(preferiti.size(), distanze.length);
+        for (int i = 0; i < preferiti.size(); i++) {
+            assertEquals(Geografia.distanzaKm(COMO[0], COMO[1], preferiti.get(i)), distanze[i], 1e-6);
+        }
+        assertEquals(0, catalogo.distanzeKm(List.of(), COMO[0], COMO[1]).length);
+    }
+}
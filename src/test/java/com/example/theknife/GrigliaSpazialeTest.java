@@ -0,0 +1,147 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test della ricerca dei più vicini e della ricerca per regione di {@link GrigliaSpaziale}, confrontate
+ * con il calcolo della distanza e con il test di appartenenza di tutte le righe.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class GrigliaSpazialeTest {
+
+    private static final int RIGHE = 5000;
+
+    @Test
+    void piuViciniComeLaScansioneCompleta() {
+        Random casuale = new Random(17);
+        ColonneCoordinate coordinate = coordinateCasuali(casuale);
+        GrigliaSpaziale griglia = new GrigliaSpaziale(coordinate);
+        for (int riga = 0; riga < RIGHE; riga++) {
+            griglia.inserisci(riga);
+        }
+        IntPredicate filtro = riga -> riga % 3 != 0;
+        for (int q = 0; q < 200; q++) {
+            double[] punto = puntoCasuale(casuale);
+            int k = 1 + casuale.nextInt(50);
+            verificaPiuVicini(griglia, coordinate, punto, k, riga -> true);
+            verificaPiuVicini(griglia, coordinate, punto, k, filtro);
+        }
+        // Punti ai due lati dell'antimeridiano
+        verificaPiuVicini(griglia, coordinate, new double[]{-17.5, 179.9}, 20, riga -> true);
+        verificaPiuVicini(griglia, coordinate, new double[]{-17.5, -179.9}, 20, riga -> true);
+        assertEquals(0, griglia.cercaPiuVicini(45, 9, 0, riga -> true).righe().length);
+    }
+
+    @Test
+    void piuViciniDopoSpostamentiDiRighe() {
+        Random casuale = new Random(23);
+        ColonneCoordinate coordinate = coordinateCasuali(casuale);
+        GrigliaSpaziale griglia = new GrigliaSpaziale(coordinate);
+        for (int riga = 0; riga < RIGHE; riga++) {
+            griglia.inserisci(riga);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int riga = casuale.nextInt(RIGHE);
+            double[] nuovo = puntoCasuale(casuale);
+            griglia.rimuovi(riga);
+            coordinate.imposta(riga, nuovo[0], nuovo[1]);
+            griglia.inserisci(riga);
+        }
+        for (int q = 0; q < 100; q++) {
+            verificaPiuVicini(griglia, coordinate, puntoCasuale(casuale), 1 + casuale.nextInt(30), riga -> true);
+        }
+    }
+
+    @Test
+    void righeNellaRegioneComeIlTestDiAppartenenza() {
+        Random casuale = new Random(31);
+        ColonneCoordinate coordinate = coordinateCasuali(casuale);
+        GrigliaSpaziale griglia = new GrigliaSpaziale(coordinate);
+        for (int riga = 0; riga < RIGHE; riga++) {
+            griglia.inserisci(riga);
+        }
+        for (int q = 0; q < 50; q++) {
+            double[] centro = puntoCasuale(casuale);
+            PoligonoGeografico regione = PoligonoGeograficoTest.stellaCasuale(casuale,
+                    Math.max(-80, Math.min(80, centro[0])), Math.max(-170, Math.min(170, centro[1])),
+                    0.5 + casuale.nextDouble() * 5, 5 + casuale.nextInt(60));
+            int[] attese = IntStream.range(0, RIGHE)
+                    .filter(riga -> regione.contiene(coordinate.getLatitudine(riga), coordinate.getLongitudine(riga)))
+                    .toArray();
+            int[] trovate = griglia.righeNellaRegione(regione).righe().clone();
+            Arrays.sort(trovate);
+            assertArrayEquals(attese, trovate, "regione " + regione);
+        }
+    }
+
+    /**
+     * Confronta le distanze dei più vicini trovati dalla griglia con quelle dei primi k della scansione
+     * completa; a parità di distanza le righe possono differire, per cui si confrontano le distanze.
+     */
+    private static void verificaPiuVicini(GrigliaSpaziale griglia, ColonneCoordinate coordinate, double[] punto,
+                                          int k, IntPredicate filtro) {
+        double[] attese = IntStream.range(0, RIGHE)
+                .filter(filtro)
+                .mapToObj(riga -> distanza(coordinate, riga, punto))
+                .sorted(Comparator.naturalOrder())
+                .limit(k)
+                .mapToDouble(Double::doubleValue)
+                .toArray();
+        GrigliaSpaziale.Vicini vicini = griglia.cercaPiuVicini(punto[0], punto[1], k, filtro);
+        String caso = k + " più vicini a " + Arrays.toString(punto);
+        assertEquals(attese.length, vicini.righe().length, caso);
+        for (int i = 0; i < attese.length; i++) {
+            int riga = vicini.righe()[i];
+            assertTrue(filtro.test(riga), caso);
+            assertEquals(attese[i], vicini.distanzeKm()[i], 1e-9, caso);
+            assertEquals(distanza(coordinate, riga, punto), vicini.distanzeKm()[i], 1e-9, caso);
+        }
+    }
+
+    private static double distanza(ColonneCoordinate coordinate, int riga, double[] punto) {
+        return Geografia.distanzaKm(punto[0], punto[1], coordinate.getLatitudine(riga), coordinate.getLongitudine(riga));
+    }
+
+    /**
+     * Righe in parte concentrate attorno ad alcune città, in parte sparse su tutto il globo e in parte
+     * vicine all'antimeridiano.
+     */
+    private static ColonneCoordinate coordinateCasuali(Random casuale) {
+        double[][] citta = {{45.81, 9.08}, {45.46, 9.19}, {41.90, 12.50}, {48.85, 2.35}, {35.68, 139.69}};
+        ColonneCoordinate coordinate = new ColonneCoordinate();
+        for (int riga = 0; riga < RIGHE; riga++) {
+            double[] punto;
+            if (riga % 10 < 6) {
+                double[] centro = citta[casuale.nextInt(citta.length)];
+                punto = new double[]{centro[0] + casuale.nextGaussian() * 0.3, centro[1] + casuale.nextGaussian() * 0.3};
+            } else if (riga % 10 < 9) {
+                punto = puntoCasuale(casuale);
+            } else {
+                punto = new double[]{-17 + casuale.nextGaussian(),
+                        casuale.nextBoolean() ? 179.5 + casuale.nextDouble() * 0.5 : -180 + casuale.nextDouble() * 0.5};
+            }
+            coordinate.imposta(riga, punto[0], punto[1]);
+        }
+        return coordinate;
+    }
+
+    private static double[] puntoCasuale(Random casuale) {
+        return new double[]{Math.toDegrees(Math.asin(2 * casuale.nextDouble() - 1)), -180 + casuale.nextDouble() * 360};
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test di {@link IndiceRecensioni}: dopo ogni inserimento, modifica o rimozione le ricerche coincidono
+ * con il confronto delle radici di tutte le recensioni ancora presenti.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class IndiceRecensioniTest {
+
+    private static final String[] PAROLE = {"servizio", "lento", "veloce", "pesce", "fresco", "dolci",
+            "cortese", "rumoroso", "vista", "lago", "prezzo", "alto", "ottimo", "vino", "carta"};
+    private static final String[] RISTORANTI = {"Villa Crespi", "Il Sereno", "Da Vittorio", "Piazza Duomo"};
+
+    @Test
+    void ricercheComeIlConfrontoDiTutteLeRecensioni() {
+        Random casuale = new Random(67);
+        IndiceRecensioni indice = new IndiceRecensioni();
+        List<Recensione> presenti = new ArrayList<>();
+        for (int passo = 0; passo < 3000; passo++) {
+            int operazione = casuale.nextInt(10);
+            if (operazione < 5 || presenti.isEmpty()) {
+                Recensione recensione = new Recensione(1 + casuale.nextInt(5), frase(casuale),
+                        RISTORANTI[casuale.nextInt(RISTORANTI.length)], "utente" + passo);
+                indice.aggiungi(recensione);
+                presenti.add(recensione);
+            } else if (operazione < 8) {
+                Recensione recensione = presenti.get(casuale.nextInt(presenti.size()));
+                if (casuale.nextBoolean()) {
+                    recensione.setTesto(frase(casuale));
+                } else {
+                    recensione.setRisposta(frase(casuale));
+                }
+                indice.aggiorna(recensione);
+            } else {
+                indice.rimuovi(presenti.remove(casuale.nextInt(presenti.size())));
+            }
+
+            if (passo % 50 == 0) {
+                String query = PAROLE[casuale.nextInt(PAROLE.length)]
+                        + (casuale.nextBoolean() ? " " + PAROLE[casuale.nextInt(PAROLE.length)] : "");
+                List<String> ambito = casuale.nextBoolean() ? null : List.of(RISTORANTI[casuale.nextInt(RISTORANTI.length)]);
+                assertEquals(attese(presenti, query, ambito), insieme(indice.cerca(query, ambito)), query);
+            }
+        }
+    }
+
+    @Test
+    void svuotaRimuoveTutteLeRecensioni() {
+        IndiceRecensioni indice = new IndiceRecensioni();
+        indice.aggiungi(new Recensione(5, "pesce fresco", "Villa Crespi", "mario"));
+        indice.svuota();
+        assertEquals(0, indice.cerca("pesce", null).size());
+    }
+
+    private static Set<Recensione> attese(List<Recensione> presenti, String query, List<String> ambito) {
+        List<String> radici = AnalizzatoreTesto.analizza(query);
+        Set<Recensione> attese = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Recensione recensione : presenti) {
+            if (ambito != null && !ambito.contains(recensione.getRistoranteId())) continue;
+            Set<String> contenute = new HashSet<>(AnalizzatoreTesto.analizza(recensione.getTesto()));
+            contenute.addAll(AnalizzatoreTesto.analizza(recensione.getRisposta()));
+            if (contenute.containsAll(radici)) {
+                attese.add(recensione);
+            }
+        }
+        return attese;
+    }
+
+    private static Set<Recensione> insieme(List<Recensione> recensioni) {
+        Set<Recensione> insieme = Collections.newSetFromMap(new IdentityHashMap<>());
+        insieme.addAll(recensioni);
+        assertEquals(recensioni.size(), insieme.size(), "recensione restituita più volte");
+        return insieme;
+    }
+
+    private static String frase(Random casuale) {
+        StringBuilder frase = new StringBuilder();
+        for (int i = 0, parole = 1 + casuale.nextInt(5); i < parole; i++) {
+            frase.append(PAROLE[casuale.nextInt(PAROLE.length)]).append(' ');
+        }
+        return frase.toString().trim();
+    }
+}
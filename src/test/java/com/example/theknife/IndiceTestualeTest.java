@@ -0,0 +1,181 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link IndiceTestuale}: i punteggi BM25 vengono confrontati con quelli calcolati direttamente
+ * dalla formula su tutti i documenti.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class IndiceTestualeTest {
+
+    private static final String[] PAROLE = {
+            "pesce", "fresco", "cucina", "tradizionale", "vino", "terrazza", "pasta", "fatta", "casa", "lago",
+            "montagna", "formaggi", "dolci", "chef", "creativa", "moderna", "carne", "brace", "verdure", "orto",
+            "menu", "degustazione", "cantina", "panorama", "risotto", "tartufo", "mare", "crudo", "stagione", "famiglia"
+    };
+
+    @Test
+    void cercaOrdinaPerPunteggioBm25() {
+        Random casuale = new Random(3);
+        Map<String, String> documenti = documentiCasuali(casuale, 400);
+        IndiceTestuale indice = IndiceTestuale.costruisci(new ArrayList<>(documenti.keySet()), new ArrayList<>(documenti.values()));
+        assertEquals(documenti.size(), indice.getNumeroDocumenti());
+        for (int q = 0; q < 100; q++) {
+            verificaQuery(indice, documenti, queryCasuale(casuale));
+        }
+    }
+
+    @Test
+    void rimuoviEAggiungiEquivalgonoAUnIndiceRicostruito() {
+        Random casuale = new Random(11);
+        Map<String, String> documenti = documentiCasuali(casuale, 300);
+        IndiceTestuale indice = IndiceTestuale.costruisci(new ArrayList<>(documenti.keySet()), new ArrayList<>(documenti.values()));
+
+        for (int i = 0; i < 100; i++) {
+            String chiave = "D" + casuale.nextInt(300);
+            if (casuale.nextBoolean()) {
+                assertEquals(documenti.remove(chiave) != null, indice.rimuovi(chiave));
+            } else {
+                // Modifica: la versione precedente va tolta prima di indicizzare la nuova
+                indice.rimuovi(chiave);
+                String testo = testoCasuale(casuale);
+                indice.aggiungi(chiave, testo);
+                documenti.remove(chiave);
+                documenti.put(chiave, testo);
+            }
+        }
+        assertFalse(indice.rimuovi("inesistente"));
+        assertEquals(documenti.size(), indice.getNumeroDocumenti());
+        for (int q = 0; q < 100; q++) {
+            verificaQuery(indice, documenti, queryCasuale(casuale));
+        }
+    }
+
+    @Test
+    void salvaECaricaConservanoIRisultati() throws IOException {
+        Random casuale = new Random(5);
+        Map<String, String> documenti = documentiCasuali(casuale, 200);
+        IndiceTestuale indice = IndiceTestuale.costruisci(new ArrayList<>(documenti.keySet()), new ArrayList<>(documenti.values()));
+        indice.rimuovi("D7");
+        documenti.remove("D7");
+
+        Path file = Files.createTempFile("indice", ".bin");
+        try {
+            indice.salva(file, 1234L);
+            assertNull(IndiceTestuale.carica(file, 999L), "firma diversa");
+            IndiceTestuale caricato = IndiceTestuale.carica(file, 1234L);
+            assertNotNull(caricato);
+            assertEquals(indice.getNumeroDocumenti(), caricato.getNumeroDocumenti());
+            for (int q = 0; q < 50; q++) {
+                verificaQuery(caricato, documenti, queryCasuale(casuale));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Confronta i risultati dell'indice con i punteggi BM25 calcolati su tutti i documenti.
+     */
+    private static void verificaQuery(IndiceTestuale indice, Map<String, String> documenti, String query) {
+        Map<String, Double> attesi = punteggiBm25(documenti, query);
+        List<IndiceTestuale.Risultato> trovati = indice.cerca(query, Integer.MAX_VALUE);
+        assertEquals(attesi.size(), trovati.size(), "documenti trovati per '" + query + "'");
+        for (int i = 0; i < trovati.size(); i++) {
+            IndiceTestuale.Risultato risultato = trovati.get(i);
+            Double atteso = attesi.get(risultato.chiave());
+            assertNotNull(atteso, "documento inatteso " + risultato.chiave());
+            assertEquals(atteso, risultato.punteggio(), 1e-9, "punteggio di " + risultato.chiave());
+            if (i > 0) {
+                assertTrue(trovati.get(i - 1).punteggio() >= risultato.punteggio(), "ordine per '" + query + "'");
+            }
+        }
+
+        List<IndiceTestuale.Risultato> primi = indice.cerca(query, 5);
+        assertEquals(Math.min(5, trovati.size()), primi.size());
+        for (int i = 0; i < primi.size(); i++) {
+            assertEquals(trovati.get(i).punteggio(), primi.get(i).punteggio(), 1e-12);
+        }
+    }
+
+    private static Map<String, Double> punteggiBm25(Map<String, String> documenti, String query) {
+        double k1 = 1.2;
+        double b = 0.75;
+        Map<String, Map<String, Integer>> frequenze = new HashMap<>();
+        Map<String, Integer> documentiPerRadice = new HashMap<>();
+        long lunghezzaTotale = 0;
+        for (Map.Entry<String, String> documento : documenti.entrySet()) {
+            Map<String, Integer> tf = new HashMap<>();
+            for (String radice : AnalizzatoreTesto.analizza(documento.getValue())) {
+                tf.merge(radice, 1, Integer::sum);
+                lunghezzaTotale++;
+            }
+            tf.keySet().forEach(radice -> documentiPerRadice.merge(radice, 1, Integer::sum));
+            frequenze.put(documento.getKey(), tf);
+        }
+        int n = documenti.size();
+        double lunghezzaMedia = (double) lunghezzaTotale / n;
+
+        Map<String, Double> punteggi = new HashMap<>();
+        for (String radice : new LinkedHashSet<>(AnalizzatoreTesto.analizza(query))) {
+            int df = documentiPerRadice.getOrDefault(radice, 0);
+            if (df == 0) continue;
+            double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            for (Map.Entry<String, Map<String, Integer>> documento : frequenze.entrySet()) {
+                Integer tf = documento.getValue().get(radice);
+                if (tf == null) continue;
+                int lunghezza = documento.getValue().values().stream().mapToInt(Integer::intValue).sum();
+                double normalizzazione = k1 * (1 - b + b * lunghezza / lunghezzaMedia);
+                punteggi.merge(documento.getKey(), idf * tf * (k1 + 1) / (tf + normalizzazione), Double::sum);
+            }
+        }
+        return punteggi;
+    }
+
+    private static Map<String, String> documentiCasuali(Random casuale, int numero) {
+        Map<String, String> documenti = new LinkedHashMap<>();
+        for (int i = 0; i < numero; i++) {
+            documenti.put("D" + i, testoCasuale(casuale));
+        }
+        return documenti;
+    }
+
+    private static String testoCasuale(Random casuale) {
+        StringBuilder testo = new StringBuilder();
+        int parole = 3 + casuale.nextInt(40);
+        for (int i = 0; i < parole; i++) {
+            // Distribuzione non uniforme, così che le parole abbiano frequenze documentali diverse
+            int indice = (int) (PAROLE.length * Math.pow(casuale.nextDouble(), 2));
+            testo.append(PAROLE[indice]).append(i % 7 == 6 ? ". " : " ");
+        }
+        return testo.toString();
+    }
+
+    private static String queryCasuale(Random casuale) {
+        return PAROLE[casuale.nextInt(PAROLE.length)] + " " + PAROLE[casuale.nextInt(PAROLE.length)];
+    }
+}
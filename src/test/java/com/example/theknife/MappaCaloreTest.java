@@ -0,0 +1,114 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test di {@link MappaCalore}: gli aggregati aggiornati a ogni variazione delle recensioni coincidono
+ * con quelli di una mappa ricostruita da zero, sia con finestre piccole sia con finestre ampie.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class MappaCaloreTest {
+
+    @Test
+    void variazioniComeLaRicostruzione() {
+        Random casuale = new Random(44);
+        List<Ristorante> ristoranti = ristorantiCasuali(casuale, 1500);
+        Map<String, GestioneRecensioni.AggregatoRecensioni> recensioni = new HashMap<>();
+        MappaCalore mappa = new MappaCalore(ristoranti, () -> new HashMap<>(recensioni));
+        confronta(mappa, new MappaCalore(ristoranti, () -> recensioni), casuale);
+
+        for (int passo = 0; passo < 3000; passo++) {
+            String nome = ristoranti.get(casuale.nextInt(ristoranti.size())).getNome();
+            GestioneRecensioni.AggregatoRecensioni attuale =
+                    recensioni.getOrDefault(nome, new GestioneRecensioni.AggregatoRecensioni(0, 0));
+            int deltaRecensioni, deltaStelle;
+            if (attuale.numero() > 0 && casuale.nextInt(4) == 0) {
+                // Eliminazione di una recensione con la stella media del ristorante
+                deltaRecensioni = -1;
+                deltaStelle = -attuale.sommaStelle() / attuale.numero();
+            } else if (attuale.numero() > 0 && casuale.nextInt(3) == 0) {
+                // Modifica delle stelle di una recensione
+                deltaRecensioni = 0;
+                deltaStelle = casuale.nextInt(3) - 1;
+            } else {
+                deltaRecensioni = 1;
+                deltaStelle = 1 + casuale.nextInt(5);
+            }
+            recensioni.put(nome, new GestioneRecensioni.AggregatoRecensioni(
+                    attuale.numero() + deltaRecensioni, attuale.sommaStelle() + deltaStelle));
+            mappa.variazione("utente", nome, deltaRecensioni, deltaStelle);
+            if (passo % 500 == 0) {
+                confronta(mappa, new MappaCalore(ristoranti, () -> recensioni), casuale);
+            }
+        }
+        confronta(mappa, new MappaCalore(ristoranti, () -> recensioni), casuale);
+    }
+
+    @Test
+    void ricaricamentoRileggeLaSorgente() {
+        List<Ristorante> ristoranti = ristorantiCasuali(new Random(45), 10);
+        String nome = ristoranti.get(0).getNome();
+        Map<String, GestioneRecensioni.AggregatoRecensioni> recensioni = new HashMap<>();
+        recensioni.put(nome, new GestioneRecensioni.AggregatoRecensioni(2, 9));
+        int[] letture = {0};
+        MappaCalore mappa = new MappaCalore(ristoranti, () -> {
+            letture[0]++;
+            return recensioni;
+        });
+
+        // Le variazioni precedenti alla prima lettura sono già comprese nella sorgente
+        mappa.variazione("utente", nome, 1, 5);
+        assertEquals(2, mappa.celle(0, 0, 0, 1, 1).get(0).recensioni());
+        assertEquals(4.5, mappa.celle(0, 0, 0, 1, 1).get(0).mediaStelle(), 1e-12);
+        assertEquals(1, letture[0]);
+
+        recensioni.put(nome, new GestioneRecensioni.AggregatoRecensioni(3, 12));
+        mappa.ricaricate();
+        MappaCalore.Cella mondo = mappa.celle(0, 0, 0, 1, 1).get(0);
+        assertEquals(3, mondo.recensioni());
+        assertEquals(12, mondo.sommaStelle());
+        assertEquals(ristoranti.size(), mondo.ristoranti());
+        assertEquals(2, letture[0]);
+    }
+
+    /**
+     * Confronta le celle delle due mappe a ogni livello, sull'intera proiezione e su finestre casuali
+     * abbastanza piccole da essere cercate cella per cella.
+     */
+    private static void confronta(MappaCalore mappa, MappaCalore ricostruita, Random casuale) {
+        for (int livello = 0; livello <= MappaCalore.LIVELLO_MASSIMO; livello++) {
+            assertEquals(new HashSet<>(ricostruita.celle(livello, 0, 0, 1, 1)),
+                    new HashSet<>(mappa.celle(livello, 0, 0, 1, 1)), "livello " + livello);
+            double lato = 1.0 / (1L << livello);
+            double x = 0.525 + casuale.nextDouble() * 0.0014, y = 0.3565 + casuale.nextDouble() * 0.0017;
+            assertEquals(new HashSet<>(ricostruita.celle(livello, x, y, x + 3 * lato, y + 3 * lato)),
+                    new HashSet<>(mappa.celle(livello, x, y, x + 3 * lato, y + 3 * lato)), "livello " + livello);
+        }
+    }
+
+    /** Ristoranti sparsi intorno al lago di Como, così che le celle fini contengano più ristoranti. */
+    private static List<Ristorante> ristorantiCasuali(Random casuale, int numero) {
+        List<Ristorante> ristoranti = new ArrayList<>();
+        for (int i = 0; i < numero; i++) {
+            ristoranti.add(new Ristorante("Ristorante " + i, "", "Como", "€€", "Lombarda",
+                    9.0 + casuale.nextDouble() * 0.5, 45.6 + casuale.nextDouble() * 0.5,
+                    "", "", "", "", "0", "", ""));
+        }
+        return ristoranti;
+    }
+}
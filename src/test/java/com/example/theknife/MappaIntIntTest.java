@@ -0,0 +1,71 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test di {@link MappaIntInt}: dopo ogni sequenza di inserimenti e rimozioni la mappa coincide con una
+ * {@link HashMap} aggiornata con le stesse operazioni.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class MappaIntIntTest {
+
+    @Test
+    void aggiungiComeUnaHashMap() {
+        Random casuale = new Random(43);
+        MappaIntInt mappa = new MappaIntInt();
+        Map<Integer, Integer> attesa = new HashMap<>();
+        for (int passo = 0; passo < 200_000; passo++) {
+            // Poche chiavi e variazioni piccole: molte voci tornano a zero e vengono rimosse
+            int chiave = casuale.nextInt(300) - 150;
+            int variazione = casuale.nextInt(4) - 2;
+            if (variazione >= 0) variazione++;
+            mappa.aggiungi(chiave, variazione);
+            attesa.merge(chiave, variazione, (a, b) -> a + b == 0 ? null : a + b);
+            if (passo % 1000 == 0) {
+                confronta(attesa, mappa);
+            }
+        }
+        confronta(attesa, mappa);
+    }
+
+    @Test
+    void rimozioneNellaCatenaDiCollisioni() {
+        Random casuale = new Random(47);
+        for (int prova = 0; prova < 200; prova++) {
+            MappaIntInt mappa = new MappaIntInt();
+            Map<Integer, Integer> attesa = new HashMap<>();
+            // Restando sotto la soglia di ridimensionamento le chiavi si contendono 8 posizioni
+            int[] chiavi = casuale.ints(4, 0, 1000).toArray();
+            for (int chiave : chiavi) {
+                mappa.aggiungi(chiave, 1);
+                attesa.merge(chiave, 1, Integer::sum);
+            }
+            int rimossa = chiavi[casuale.nextInt(chiavi.length)];
+            mappa.aggiungi(rimossa, -attesa.get(rimossa));
+            attesa.remove(rimossa);
+            confronta(attesa, mappa);
+        }
+    }
+
+    private static void confronta(Map<Integer, Integer> attesa, MappaIntInt mappa) {
+        assertEquals(attesa.size(), mappa.dimensione());
+        for (Map.Entry<Integer, Integer> voce : attesa.entrySet()) {
+            assertEquals((int) voce.getValue(), mappa.get(voce.getKey()), "chiave " + voce.getKey());
+        }
+        Map<Integer, Integer> visitate = new HashMap<>();
+        mappa.perOgni(visitate::put);
+        assertEquals(attesa, visitate);
+    }
+}
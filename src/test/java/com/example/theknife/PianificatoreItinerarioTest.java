@@ -0,0 +1,103 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link PianificatoreItinerario}: il percorso restituito visita ogni tappa una volta, ha la
+ * lunghezza dichiarata e, se il miglioramento è completo, nessuna mossa 2-opt lo accorcia.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class PianificatoreItinerarioTest {
+
+    private static final double TOLLERANZA_KM = 1e-6;
+
+    @Test
+    void percorsoSenzaMosse2OptMigliorative() {
+        Random casuale = new Random(43);
+        for (int prova = 0; prova < 30; prova++) {
+            List<Ristorante> tappe = tappeCasuali(casuale, 2 + casuale.nextInt(prova < 20 ? 20 : 150));
+            double[] partenza = prova % 2 == 0 ? null : new double[]{45 + casuale.nextDouble(), 9 + casuale.nextDouble()};
+            PianificatoreItinerario.Itinerario itinerario = PianificatoreItinerario.pianifica(tappe, partenza, 60_000);
+
+            assertTrue(itinerario.completo());
+            assertEquals(tappe.size(), itinerario.tappe().size());
+            Map<Ristorante, Boolean> visitate = new IdentityHashMap<>();
+            itinerario.tappe().forEach(r -> visitate.put(r, true));
+            assertEquals(tappe.size(), visitate.size());
+            tappe.forEach(r -> assertTrue(visitate.containsKey(r)));
+
+            double lunghezza = lunghezza(itinerario.tappe(), partenza);
+            assertEquals(lunghezza, itinerario.lunghezzaKm(), TOLLERANZA_KM);
+            assertTrue(itinerario.lunghezzaKm() <= itinerario.lunghezzaInizialeKm() + TOLLERANZA_KM);
+
+            List<Ristorante> percorso = itinerario.tappe();
+            for (int i = 0; i < percorso.size(); i++) {
+                for (int j = i + 1; j < percorso.size(); j++) {
+                    List<Ristorante> invertito = new ArrayList<>(percorso);
+                    Collections.reverse(invertito.subList(i, j + 1));
+                    double variazione = lunghezza(invertito, partenza) - lunghezza;
+                    assertTrue(variazione > -TOLLERANZA_KM, "mossa " + i + "," + j + " accorcia di " + -variazione);
+                }
+            }
+        }
+    }
+
+    @Test
+    void tappeAllineateVisitateInOrdine() {
+        List<Ristorante> tappe = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            tappe.add(ristorante("T" + i, 44 + i * 0.1, 9));
+        }
+        Collections.shuffle(tappe, new Random(47));
+        PianificatoreItinerario.Itinerario itinerario = PianificatoreItinerario.pianifica(tappe, new double[]{43.9, 9}, 60_000);
+        for (int i = 0; i < 12; i++) {
+            assertEquals("T" + i, itinerario.tappe().get(i).getNome());
+        }
+        assertEquals(Geografia.distanzaKm(43.9, 9, 45.1, 9), itinerario.lunghezzaKm(), TOLLERANZA_KM);
+    }
+
+    @Test
+    void nessunaTappa() {
+        PianificatoreItinerario.Itinerario itinerario = PianificatoreItinerario.pianifica(List.of(), new double[]{45, 9});
+        assertTrue(itinerario.tappe().isEmpty());
+        assertEquals(0, itinerario.lunghezzaKm(), 0);
+        assertTrue(itinerario.completo());
+    }
+
+    private static double lunghezza(List<Ristorante> percorso, double[] partenza) {
+        double totale = partenza == null ? 0 : Geografia.distanzaKm(partenza[0], partenza[1], percorso.get(0));
+        for (int p = 1; p < percorso.size(); p++) {
+            Ristorante precedente = percorso.get(p - 1);
+            totale += Geografia.distanzaKm(precedente.getLatitudine(), precedente.getLongitudine(), percorso.get(p));
+        }
+        return totale;
+    }
+
+    private static List<Ristorante> tappeCasuali(Random casuale, int numero) {
+        List<Ristorante> tappe = new ArrayList<>();
+        for (int i = 0; i < numero; i++) {
+            tappe.add(ristorante("T" + i, 45 + casuale.nextDouble(), 9 + casuale.nextDouble()));
+        }
+        return tappe;
+    }
+
+    private static Ristorante ristorante(String nome, double latitudine, double longitudine) {
+        return new Ristorante(nome, "", "", "", "", longitudine, latitudine, "", "", "", "", "0", "", "");
+    }
+}
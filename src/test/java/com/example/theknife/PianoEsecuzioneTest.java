@@ -0,0 +1,168 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link PianoEsecuzione}: qualunque sorgente e ordine dei filtri scelga il piano, i risultati
+ * coincidono con i filtri della query applicati a tutto il catalogo.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class PianoEsecuzioneTest {
+
+    private static final double TOLLERANZA_KM = 1e-9;
+
+    private GestioneRistorante catalogo;
+    private List<Ristorante> tutti;
+
+    @BeforeEach
+    void carica() {
+        catalogo = GestioneRistorante.getInstance();
+        catalogo.assicuraDatiCaricati();
+        tutti = catalogo.getTuttiRistoranti();
+        assertTrue(!tutti.isEmpty(), "catalogo di prova vuoto");
+    }
+
+    @Test
+    void filtriComeLaScansioneCompletaOrdinatiPerNome() {
+        for (String cucina : catalogo.getCucine()) {
+            int id = catalogo.getIdCucina(cucina);
+            confrontaPerNome("cucina:\"" + cucina + "\"", r -> r.haCucina(id));
+            confrontaPerNome("cucina:\"" + cucina + "\" prezzo:<=3", r -> r.haCucina(id) && livelloPrezzo(r) <= 3);
+        }
+        for (int livello = 1; livello <= 4; livello++) {
+            int minimo = livello;
+            confrontaPerNome("prezzo:>=" + livello, r -> livelloPrezzo(r) >= minimo);
+            confrontaPerNome("prezzo:" + "€".repeat(livello), r -> livelloPrezzo(r) == minimo);
+        }
+        for (Ristorante ristorante : tutti.subList(0, Math.min(10, tutti.size()))) {
+            String premio = ristorante.getPremio().trim();
+            confrontaPerNome("premio:\"" + premio + "\"",
+                    r -> r.getPremio() != null && r.getPremio().trim().equalsIgnoreCase(premio));
+            confrontaPerNome("premio:\"" + premio + "\" stellaverde:si",
+                    r -> r.getPremio() != null && r.getPremio().trim().equalsIgnoreCase(premio) && "1".equals(r.getStellaVerde()));
+        }
+        confrontaPerNome("", r -> true);
+    }
+
+    @Test
+    void areaComeIlTestDiAppartenenza() {
+        Random casuale = new Random(67);
+        for (int prova = 0; prova < 30; prova++) {
+            Ristorante centro = tutti.get(casuale.nextInt(tutti.size()));
+            double lato = 0.1 + casuale.nextDouble() * 3;
+            double sud = centro.getLatitudine() - lato * casuale.nextDouble();
+            double ovest = centro.getLongitudine() - lato * casuale.nextDouble();
+            double nord = sud + lato;
+            double est = ovest + lato;
+            confrontaPerNome("area:" + sud + "," + ovest + "," + nord + "," + est,
+                    r -> r.getLatitudine() >= sud && r.getLatitudine() <= nord
+                            && r.getLongitudine() >= ovest && r.getLongitudine() <= est);
+        }
+    }
+
+    @Test
+    void vicinoEntroRaggioOrdinatiPerDistanza() {
+        Random casuale = new Random(71);
+        for (int prova = 0; prova < 30; prova++) {
+            Ristorante centro = tutti.get(casuale.nextInt(tutti.size()));
+            double latitudine = centro.getLatitudine() + casuale.nextGaussian() * 0.2;
+            double longitudine = centro.getLongitudine() + casuale.nextGaussian() * 0.2;
+            double raggio = 1 + casuale.nextDouble() * 150;
+            String query = "vicino:" + latitudine + "," + longitudine + " raggio:" + raggio + "km";
+            List<Ristorante> attesi = perDistanza(latitudine, longitudine,
+                    r -> Geografia.distanzaKm(latitudine, longitudine, r) <= raggio);
+            PianoEsecuzione.Pagina pagina = esegui(query);
+            assertEquals(attesi.size(), pagina.totale(), query);
+            assertEquals(insieme(attesi), insieme(pagina.ristoranti()), query);
+            confrontaDistanze(attesi, pagina, latitudine, longitudine, query);
+        }
+    }
+
+    @Test
+    void vicinoPrimiKComeLaScansioneCompleta() {
+        Random casuale = new Random(73);
+        for (int prova = 0; prova < 30; prova++) {
+            Ristorante centro = tutti.get(casuale.nextInt(tutti.size()));
+            double latitudine = centro.getLatitudine() + casuale.nextGaussian();
+            double longitudine = centro.getLongitudine() + casuale.nextGaussian();
+            int k = 1 + casuale.nextInt(tutti.size() + 5);
+            String prezzo = prova % 2 == 0 ? "" : " prezzo:>=3";
+            String query = "vicino:" + latitudine + "," + longitudine + " primi:" + k + prezzo;
+            List<Ristorante> attesi = perDistanza(latitudine, longitudine,
+                    r -> prezzo.isEmpty() || livelloPrezzo(r) >= 3);
+            attesi = attesi.subList(0, Math.min(k, attesi.size()));
+            PianoEsecuzione.Pagina pagina = esegui(query);
+            assertEquals(attesi.size(), pagina.totale(), query);
+            confrontaDistanze(attesi, pagina, latitudine, longitudine, query);
+        }
+    }
+
+    @Test
+    void primiSenzaVicinoNonAmmesso() {
+        QueryRistoranti query = QueryRistoranti.analizza("primi:5");
+        assertThrows(IllegalArgumentException.class, () -> PianoEsecuzione.compila(query, catalogo));
+    }
+
+    private void confrontaPerNome(String query, Predicate<Ristorante> condizione) {
+        List<Ristorante> attesi = tutti.stream().filter(condizione).toList();
+        PianoEsecuzione.Pagina pagina = esegui(query);
+        assertEquals(attesi.size(), pagina.totale(), query);
+        assertEquals(insieme(attesi), insieme(pagina.ristoranti()), query);
+
+        List<String> nomi = new ArrayList<>(attesi.stream().map(Ristorante::getNome).toList());
+        nomi.sort(catalogo.getComparatoreCollazione());
+        assertEquals(nomi, pagina.ristoranti().stream().map(Ristorante::getNome).toList(), query);
+    }
+
+    private void confrontaDistanze(List<Ristorante> attesi, PianoEsecuzione.Pagina pagina,
+                                   double latitudine, double longitudine, String query) {
+        List<Ristorante> trovati = pagina.ristoranti();
+        assertEquals(attesi.size(), trovati.size(), query);
+        for (int i = 0; i < attesi.size(); i++) {
+            // A parità di distanza l'ordine può differire: si confrontano le distanze posizione per posizione
+            double attesa = Geografia.distanzaKm(latitudine, longitudine, attesi.get(i));
+            assertEquals(attesa, Geografia.distanzaKm(latitudine, longitudine, trovati.get(i)), TOLLERANZA_KM, query);
+            assertEquals(attesa, pagina.distanzeKm().get(trovati.get(i)), TOLLERANZA_KM, query);
+        }
+    }
+
+    private List<Ristorante> perDistanza(double latitudine, double longitudine, Predicate<Ristorante> condizione) {
+        List<Ristorante> attesi = new ArrayList<>(tutti.stream().filter(condizione).toList());
+        attesi.sort(Comparator.comparingDouble(r -> Geografia.distanzaKm(latitudine, longitudine, r)));
+        return attesi;
+    }
+
+    private PianoEsecuzione.Pagina esegui(String query) {
+        return PianoEsecuzione.compila(QueryRistoranti.analizza(query), catalogo).esegui(Integer.MAX_VALUE);
+    }
+
+    private static Set<Ristorante> insieme(List<Ristorante> ristoranti) {
+        Set<Ristorante> insieme = Collections.newSetFromMap(new IdentityHashMap<>());
+        insieme.addAll(ristoranti);
+        return insieme;
+    }
+
+    private static int livelloPrezzo(Ristorante ristorante) {
+        return ristorante.getPrezzo() == null ? 0 : ristorante.getPrezzo().length();
+    }
+}
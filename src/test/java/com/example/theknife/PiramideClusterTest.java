@@ -0,0 +1,139 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link PiramideCluster}: a ogni livello i cluster coincidono con il raggruppamento per cella
+ * calcolato direttamente sulle coordinate, e la ricerca in un rettangolo restituisce le sole celle che
+ * lo intersecano.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class PiramideClusterTest {
+
+    private static final int RIGHE = 3000;
+
+    /** Somme delle coordinate proiettate dei ristoranti di una cella. */
+    private static final class Gruppo {
+        private double sommaX;
+        private double sommaY;
+        private int numero;
+    }
+
+    @Test
+    void clusterComeIlRaggruppamentoPerCella() {
+        ColonneCoordinate coordinate = coordinateCasuali(new Random(43));
+        PiramideCluster piramide = PiramideCluster.costruisci(coordinate, RIGHE);
+
+        for (int livello = 0; livello <= PiramideCluster.LIVELLO_MASSIMO; livello++) {
+            Map<Long, Gruppo> attesi = raggruppa(coordinate, livello);
+            List<PiramideCluster.Cluster> cluster = piramide.cluster(livello, 0, 0, 1, 1);
+            assertEquals(attesi.size(), cluster.size(), "livello " + livello);
+            assertEquals(attesi.size(), piramide.getNumeroCluster(livello));
+
+            int i = 0;
+            for (Map.Entry<Long, Gruppo> voce : attesi.entrySet()) {
+                PiramideCluster.Cluster c = cluster.get(i++);
+                Gruppo gruppo = voce.getValue();
+                assertEquals(gruppo.numero, c.numero());
+                assertEquals(gruppo.sommaX / gruppo.numero, c.x(), 1e-9);
+                assertEquals(gruppo.sommaY / gruppo.numero, c.y(), 1e-9);
+                // La riga rappresentativa appartiene alla cella del cluster
+                assertEquals((long) voce.getKey(), cella(coordinate, c.riga(), livello));
+            }
+        }
+        // Le righe senza coordinate non compaiono a nessun livello
+        assertEquals(RIGHE - RIGHE / 10, piramide.cluster(0, 0, 0, 1, 1).get(0).numero());
+    }
+
+    @Test
+    void clusterNelRettangolo() {
+        Random casuale = new Random(47);
+        ColonneCoordinate coordinate = coordinateCasuali(casuale);
+        PiramideCluster piramide = PiramideCluster.costruisci(coordinate, RIGHE);
+
+        for (int q = 0; q < 200; q++) {
+            int livello = casuale.nextInt(PiramideCluster.LIVELLO_MASSIMO + 1);
+            double xMin = casuale.nextDouble(), xMax = Math.min(1, xMin + casuale.nextDouble() * 0.2);
+            double yMin = casuale.nextDouble(), yMax = Math.min(1, yMin + casuale.nextDouble() * 0.2);
+            long lato = 1L << livello;
+
+            List<PiramideCluster.Cluster> attesi = new ArrayList<>();
+            for (PiramideCluster.Cluster c : piramide.cluster(livello, 0, 0, 1, 1)) {
+                long cella = cella(coordinate, c.riga(), livello);
+                long colonna = cella >>> PiramideCluster.LIVELLO_MASSIMO;
+                long fascia = cella & ((1L << PiramideCluster.LIVELLO_MASSIMO) - 1);
+                if (colonna >= (long) Math.floor(xMin * lato) && colonna <= (long) Math.floor(xMax * lato)
+                        && fascia >= (long) Math.floor(yMin * lato) && fascia <= (long) Math.floor(yMax * lato)) {
+                    attesi.add(c);
+                }
+            }
+            assertEquals(attesi, piramide.cluster(livello, xMin, yMin, xMax, yMax), "livello " + livello);
+        }
+    }
+
+    @Test
+    void proiezioneNelQuadratoUnitario() {
+        assertEquals(0.5, PiramideCluster.mercatoreX(0), 1e-12);
+        assertEquals(0.5, PiramideCluster.mercatoreY(0), 1e-12);
+        assertTrue(PiramideCluster.mercatoreX(180) < 1);
+        assertTrue(PiramideCluster.mercatoreY(-90) < 1);
+        assertEquals(0, PiramideCluster.mercatoreY(90), 1e-12);
+        // L'ordinata cresce verso sud
+        assertTrue(PiramideCluster.mercatoreY(45.81) < PiramideCluster.mercatoreY(40.85));
+    }
+
+    private static Map<Long, Gruppo> raggruppa(ColonneCoordinate coordinate, int livello) {
+        Map<Long, Gruppo> gruppi = new TreeMap<>();
+        for (int riga = 0; riga < RIGHE; riga++) {
+            if (Double.isNaN(coordinate.getLatitudine(riga))) continue;
+            Gruppo gruppo = gruppi.computeIfAbsent(cella(coordinate, riga, livello), c -> new Gruppo());
+            gruppo.sommaX += PiramideCluster.mercatoreX(coordinate.getLongitudine(riga));
+            gruppo.sommaY += PiramideCluster.mercatoreY(coordinate.getLatitudine(riga));
+            gruppo.numero++;
+        }
+        return gruppi;
+    }
+
+    /** Cella di una riga al livello indicato, come colonna seguita da fascia. */
+    private static long cella(ColonneCoordinate coordinate, int riga, int livello) {
+        long lato = 1L << livello;
+        long colonna = (long) (PiramideCluster.mercatoreX(coordinate.getLongitudine(riga)) * lato);
+        long fascia = (long) (PiramideCluster.mercatoreY(coordinate.getLatitudine(riga)) * lato);
+        return (colonna << PiramideCluster.LIVELLO_MASSIMO) | fascia;
+    }
+
+    /**
+     * Coordinate concentrate in alcune città, così che i livelli fini abbiano celle con più ristoranti;
+     * una riga su dieci è senza coordinate, come i ristoranti ritirati dal catalogo.
+     */
+    private static ColonneCoordinate coordinateCasuali(Random casuale) {
+        double[][] citta = {{45.81, 9.08}, {45.46, 9.19}, {40.85, 14.27}, {-33.87, 151.21}, {64.15, -21.94}};
+        ColonneCoordinate coordinate = new ColonneCoordinate();
+        for (int riga = 0; riga < RIGHE; riga++) {
+            if (riga % 10 == 0) {
+                coordinate.imposta(riga, Double.NaN, Double.NaN);
+            } else if (riga % 3 == 0) {
+                coordinate.imposta(riga, casuale.nextDouble() * 170 - 85, casuale.nextDouble() * 360 - 180);
+            } else {
+                double[] centro = citta[casuale.nextInt(citta.length)];
+                coordinate.imposta(riga, centro[0] + casuale.nextGaussian() * 0.02, centro[1] + casuale.nextGaussian() * 0.02);
+            }
+        }
+        return coordinate;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link PoligonoGeografico}: il test di appartenenza con l'indice delle fasce viene confrontato
+ * con la regola pari-dispari applicata a tutti i lati.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class PoligonoGeograficoTest {
+
+    @Test
+    void contieneComeLaRegolaPariDispariSuTuttiILati() {
+        Random casuale = new Random(37);
+        for (int p = 0; p < 40; p++) {
+            int vertici = 3 + casuale.nextInt(p < 20 ? 30 : 3000);
+            List<double[][]> anelli = new ArrayList<>();
+            anelli.add(stella(casuale, 45, 9, 2, vertici));
+            if (p % 2 == 1) {
+                // Un secondo anello interno fa da buco, uno esterno da isola
+                anelli.add(stella(casuale, 45, 9, 0.5, 3 + casuale.nextInt(40)));
+                anelli.add(stella(casuale, 49, 13, 0.7, 3 + casuale.nextInt(40)));
+            }
+            PoligonoGeografico regione = new PoligonoGeografico(anelli);
+            for (int q = 0; q < 5000; q++) {
+                double latitudine = 42 + casuale.nextDouble() * 9;
+                double longitudine = 6 + casuale.nextDouble() * 9;
+                assertEquals(pariDispari(anelli, latitudine, longitudine), regione.contiene(latitudine, longitudine),
+                        "punto " + latitudine + "," + longitudine + " in " + regione);
+            }
+        }
+    }
+
+    @Test
+    void contieneRettangoloSoloSeTuttiIPuntiSonoInterni() {
+        Random casuale = new Random(41);
+        for (int p = 0; p < 20; p++) {
+            PoligonoGeografico regione = stellaCasuale(casuale, 45, 9, 2, 5 + casuale.nextInt(200));
+            for (int r = 0; r < 500; r++) {
+                double latitudine = 43 + casuale.nextDouble() * 4;
+                double longitudine = 7 + casuale.nextDouble() * 4;
+                double lato = 0.05 + casuale.nextDouble() * 0.5;
+                if (!regione.contieneRettangolo(latitudine, longitudine, latitudine + lato, longitudine + lato)) continue;
+                for (int i = 0; i <= 10; i++) {
+                    for (int j = 0; j <= 10; j++) {
+                        assertTrue(regione.contiene(latitudine + lato * i / 10, longitudine + lato * j / 10));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void analizzaLeggeVerticiEAnelli() {
+        PoligonoGeografico regione = PoligonoGeografico.analizza("45.9,9.0;45.9,9.3;45.7,9.3;45.7,9.0 | 46,10;46,10.1;46.1,10");
+        assertEquals(7, regione.getNumeroLati());
+        assertTrue(regione.contiene(45.8, 9.1));
+        assertTrue(regione.contiene(46.02, 10.02));
+        assertFalse(regione.contiene(45.8, 9.5));
+        assertEquals(List.of(45.7, 9.0, 46.1, 10.1), List.of(regione.getIngombro()[0], regione.getIngombro()[1],
+                regione.getIngombro()[2], regione.getIngombro()[3]));
+
+        assertThrows(IllegalArgumentException.class, () -> PoligonoGeografico.analizza("45,9;46,9"));
+        assertThrows(IllegalArgumentException.class, () -> PoligonoGeografico.analizza("45,9;46;46,10"));
+        assertThrows(IllegalArgumentException.class, () -> PoligonoGeografico.analizza("45,9;46,x;46,10"));
+        assertThrows(IllegalArgumentException.class, () -> PoligonoGeografico.rettangolo(46, 9, 45, 10));
+    }
+
+    /**
+     * Crea una regione a stella attorno a un centro, con i vertici a distanza casuale dal centro in ordine
+     * di angolo: il bordo non si interseca ma è concavo in molti punti.
+     */
+    static PoligonoGeografico stellaCasuale(Random casuale, double latitudine, double longitudine,
+                                            double raggioGradi, int vertici) {
+        return new PoligonoGeografico(List.<double[][]>of(stella(casuale, latitudine, longitudine, raggioGradi, vertici)));
+    }
+
+    private static double[][] stella(Random casuale, double latitudine, double longitudine, double raggioGradi, int vertici) {
+        double[][] anello = new double[vertici][];
+        for (int i = 0; i < vertici; i++) {
+            double angolo = 2 * Math.PI * (i + casuale.nextDouble() * 0.9) / vertici;
+            double raggio = raggioGradi * (0.2 + 0.8 * casuale.nextDouble());
+            anello[i] = new double[]{latitudine + raggio * Math.sin(angolo), longitudine + raggio * Math.cos(angolo)};
+        }
+        return anello;
+    }
+
+    private static boolean pariDispari(List<double[][]> anelli, double latitudine, double longitudine) {
+        boolean interno = false;
+        for (double[][] anello : anelli) {
+            for (int i = 0; i < anello.length; i++) {
+                double[] a = anello[i];
+                double[] b = anello[(i + 1) % anello.length];
+                if ((a[0] > latitudine) != (b[0] > latitudine)
+                        && longitudine < (b[1] - a[1]) * (latitudine - a[0]) / (b[0] - a[0]) + a[1]) {
+                    interno = !interno;
+                }
+            }
+        }
+        return interno;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link RaccomandazioniPreferiti}: dopo la costruzione e dopo ogni modifica incrementale dei
+ * preferiti, i simili di ogni ristorante coincidono con il coseno calcolato da zero sugli insiemi di utenti.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class RaccomandazioniPreferitiTest {
+
+    private static final int RISTORANTI = 40;
+    private static final int UTENTI = 60;
+
+    private RaccomandazioniPreferiti raccomandazioni;
+    private Map<String, Set<String>> preferiti;
+    private Random casuale;
+
+    @BeforeEach
+    void prepara() {
+        casuale = new Random(53);
+        preferiti = new HashMap<>();
+        for (int u = 0; u < UTENTI; u++) {
+            Set<String> insieme = new HashSet<>();
+            int numero = casuale.nextInt(8);
+            for (int i = 0; i < numero; i++) {
+                insieme.add("R" + casuale.nextInt(RISTORANTI));
+            }
+            preferiti.put("u" + u, insieme);
+        }
+        raccomandazioni = RaccomandazioniPreferiti.getInstance();
+        raccomandazioni.ricostruisci(copia(preferiti));
+    }
+
+    @Test
+    void similiComeIlCosenoCalcolatoDaZero() {
+        confronta();
+        assertTrue(raccomandazioni.getSimili("sconosciuto", 5).isEmpty());
+    }
+
+    @Test
+    void modificheIncrementaliComeLaRicostruzione() {
+        for (int passo = 0; passo < 2000; passo++) {
+            String username = "u" + casuale.nextInt(UTENTI + 5);
+            String ristoranteId = "R" + casuale.nextInt(RISTORANTI + 5);
+            Set<String> insieme = preferiti.computeIfAbsent(username, k -> new HashSet<>());
+            // Come GestionePreferiti, notifica solo le modifiche effettive
+            boolean aggiunto = !insieme.contains(ristoranteId);
+            if (aggiunto) insieme.add(ristoranteId); else insieme.remove(ristoranteId);
+            raccomandazioni.preferitoModificato(username, ristoranteId, aggiunto);
+            // Interroga solo alcuni ristoranti, così che le voci da ricalcolare si accumulino tra un confronto e l'altro
+            if (passo % 50 == 49) {
+                confronta();
+            } else {
+                String interrogato = "R" + casuale.nextInt(RISTORANTI);
+                assertEquals(attesi(interrogato), raccomandazioni.getSimili(interrogato, RaccomandazioniPreferiti.NUMERO_SIMILI));
+            }
+        }
+    }
+
+    private void confronta() {
+        for (int a = 0; a < RISTORANTI + 5; a++) {
+            String ristoranteId = "R" + a;
+            List<RaccomandazioniPreferiti.Raccomandazione> attesi = attesi(ristoranteId);
+            assertEquals(attesi, raccomandazioni.getSimili(ristoranteId, RaccomandazioniPreferiti.NUMERO_SIMILI),
+                    "simili di " + ristoranteId);
+            assertEquals(attesi.subList(0, Math.min(3, attesi.size())), raccomandazioni.getSimili(ristoranteId, 3));
+        }
+    }
+
+    private List<RaccomandazioniPreferiti.Raccomandazione> attesi(String ristoranteId) {
+        Map<String, Integer> utenti = new HashMap<>();
+        Map<String, Integer> comuni = new HashMap<>();
+        for (Set<String> insieme : preferiti.values()) {
+            insieme.forEach(r -> utenti.merge(r, 1, Integer::sum));
+            if (insieme.contains(ristoranteId)) {
+                insieme.stream().filter(r -> !r.equals(ristoranteId)).forEach(r -> comuni.merge(r, 1, Integer::sum));
+            }
+        }
+        List<RaccomandazioniPreferiti.Raccomandazione> tutti = new ArrayList<>();
+        comuni.forEach((r, c) -> tutti.add(new RaccomandazioniPreferiti.Raccomandazione(r, c,
+                c / Math.sqrt((double) utenti.get(ristoranteId) * utenti.get(r)))));
+        tutti.sort(Comparator.comparingDouble(RaccomandazioniPreferiti.Raccomandazione::somiglianza).reversed()
+                .thenComparing(Comparator.comparingInt(RaccomandazioniPreferiti.Raccomandazione::utentiInComune).reversed())
+                .thenComparing(RaccomandazioniPreferiti.Raccomandazione::ristoranteId));
+        return tutti.subList(0, Math.min(RaccomandazioniPreferiti.NUMERO_SIMILI, tutti.size()));
+    }
+
+    private static Map<String, Set<String>> copia(Map<String, Set<String>> preferiti) {
+        Map<String, Set<String>> copia = new HashMap<>();
+        preferiti.forEach((u, r) -> copia.put(u, new HashSet<>(r)));
+        return copia;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test dei campi di dettaglio differiti di {@link Ristorante}: i campi letti al primo accesso coincidono
+ * con quelli dell'analisi completa della riga del CSV.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class RistoranteTest {
+
+    @Test
+    void campiDifferitiComeLAnalisiCompleta() throws IOException {
+        String record = "Villa Crespi,\"via Fava 18, Orta San Giulio\",\"Orta San Giulio, Italia\",€€€€,"
+                + "\"Creativa, Mediterranea\",8.4159486,45.7964778,+390322911902,https://guide.michelin.com/villa-crespi,"
+                + "http://www.villacrespi.it,3 Stelle,0,\"Aria condizionata,Parcheggio\","
+                + "\"Un castello \"\"moresco\"\" sul lago,\nsu due righe\"";
+        Path file = Files.createTempFile("catalogo", ".csv");
+        try {
+            Ristorante ristorante = differito(file, record);
+            List<String> valori = GestioneRistorante.parseCsvLine(record);
+            assertEquals(GestioneRistorante.NUMERO_CAMPI, valori.size());
+            assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_TELEFONO), ristorante.getNumeroTelefono());
+            assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_URL), ristorante.getUrl());
+            assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_SITO_WEB), ristorante.getSitoWeb());
+            assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_SERVIZI), ristorante.getServizi());
+            assertEquals("Un castello \"moresco\" sul lago,\nsu due righe", ristorante.getDescrizione());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rigaIncompletaLasciaVuotiICampiMancanti() throws IOException {
+        Path file = Files.createTempFile("catalogo", ".csv");
+        try {
+            Ristorante ristorante = differito(file, "Trattoria,via Roma 1,Como,€,Lombarda,9.08,45.81,+39031000000,https://t.it");
+            assertEquals("+39031000000", ristorante.getNumeroTelefono());
+            assertEquals("https://t.it", ristorante.getUrl());
+            assertEquals("", ristorante.getSitoWeb());
+            assertEquals("", ristorante.getServizi());
+            assertEquals("", ristorante.getDescrizione());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void catalogoDiProvaComeLAnalisiCompleta() throws IOException {
+        GestioneRistorante catalogo = GestioneRistorante.getInstance();
+        catalogo.assicuraDatiCaricati();
+        int confrontati = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get("data/michelin_my_maps.csv"), StandardCharsets.UTF_8)) {
+            for (String record = GestioneRistorante.leggiRecordCsv(reader); record != null;
+                 record = GestioneRistorante.leggiRecordCsv(reader)) {
+                List<String> valori = GestioneRistorante.parseCsvLine(record);
+                if (valori.size() < GestioneRistorante.NUMERO_CAMPI) continue;
+                Ristorante ristorante = catalogo.getRistorante(valori.get(0));
+                // Con nomi ripetuti nel file resta l'ultima riga: si confrontano solo le righe caricate
+                if (ristorante == null || !valori.get(1).equals(ristorante.getIndirizzo())) continue;
+                assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_TELEFONO), ristorante.getNumeroTelefono());
+                assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_URL), ristorante.getUrl());
+                assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_SITO_WEB), ristorante.getSitoWeb());
+                assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_SERVIZI), ristorante.getServizi());
+                assertEquals(valori.get(GestioneRistorante.INDICE_CAMPO_DESCRIZIONE), ristorante.getDescrizione());
+                confrontati++;
+            }
+        }
+        assertTrue(confrontati > 0, "nessun ristorante confrontato");
+    }
+
+    /**
+     * Scrive il record in un file e restituisce un ristorante con i soli campi dell'elenco, i cui campi
+     * di dettaglio vengono letti dal file al primo accesso.
+     */
+    private static Ristorante differito(Path file, String record) throws IOException {
+        byte[] contenuto = record.getBytes(StandardCharsets.UTF_8);
+        Files.write(file, contenuto);
+        LettorePosizionale lettore = new LettorePosizionale(file);
+        Ristorante ristorante = new Ristorante("R", "", "", "", "", 0, 0, null, null, null, "", "0", null, null);
+        ristorante.setCampiDettaglioDifferiti(lettore, lettore.registra(0, contenuto.length));
+        return ristorante;
+    }
+}
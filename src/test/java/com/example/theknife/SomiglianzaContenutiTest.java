@@ -0,0 +1,107 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test di {@link SomiglianzaContenuti}: la tabella dei simili calcolata a blocchi, con la potatura dei
+ * blocchi lontani, coincide con l'ordinamento di tutte le righe per somiglianza.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class SomiglianzaContenutiTest {
+
+    private static final String[] CUCINE = {"Moderna", "Creativa", "Pesce", "Regionale", "Giapponese",
+            "Pizza", "Vegetariana", "Classica", "Fusion", "Mediterranea"};
+    private static final String[] SERVIZI = {"Aria condizionata", "Terrazza", "Parcheggio", "Wifi",
+            "Accesso disabili", "Giardino"};
+    private static final String[] PREMI = {"Selected Restaurants", "Bib Gourmand", "1 Stella", "2 Stelle", "3 Stelle"};
+
+    @Test
+    void similiComeLOrdinamentoCompleto() {
+        confrontaConLOrdinamentoCompleto(ristorantiCasuali(new Random(49), 1200, false));
+    }
+
+    @Test
+    void similiConRistorantiRaccoltiInCitta() {
+        // Molti ristoranti quasi coincidenti: i blocchi vicini vanno confrontati tutti
+        confrontaConLOrdinamentoCompleto(ristorantiCasuali(new Random(50), 1200, true));
+    }
+
+    @Test
+    void catalogoPiuPiccoloDeiVicini() {
+        List<Ristorante> ristoranti = ristorantiCasuali(new Random(51), 4, false);
+        SomiglianzaContenuti tabella = tabella(ristoranti);
+        assertEquals(4, tabella.getNumero());
+        assertEquals(3, tabella.simili(0, SomiglianzaContenuti.NUMERO_VICINI).length);
+        assertEquals(2, tabella.simili(0, 2).length);
+        assertEquals(0, tabella.simili(4, 3).length);
+        assertEquals(0, tabella.simili(-1, 3).length);
+    }
+
+    private static void confrontaConLOrdinamentoCompleto(List<Ristorante> ristoranti) {
+        SomiglianzaContenuti.Caratteristiche caratteristiche = caratteristiche(ristoranti);
+        SomiglianzaContenuti tabella = SomiglianzaContenuti.calcola(caratteristiche);
+        int n = ristoranti.size();
+        for (int i = 0; i < n; i++) {
+            int riga = i;
+            int[] attesi = IntStream.range(0, n).filter(j -> j != riga).boxed()
+                    .sorted((a, b) -> {
+                        int confronto = Float.compare(SomiglianzaContenuti.somiglianza(caratteristiche, riga, b),
+                                SomiglianzaContenuti.somiglianza(caratteristiche, riga, a));
+                        return confronto != 0 ? confronto : Integer.compare(a, b);
+                    })
+                    .limit(SomiglianzaContenuti.NUMERO_VICINI)
+                    .mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(attesi, tabella.simili(riga, SomiglianzaContenuti.NUMERO_VICINI), "riga " + riga);
+            for (int k = 0; k < attesi.length; k++) {
+                assertEquals(SomiglianzaContenuti.somiglianza(caratteristiche, riga, attesi[k]),
+                        tabella.getPunteggio(riga, k), 1e-6);
+            }
+        }
+    }
+
+    private static SomiglianzaContenuti tabella(List<Ristorante> ristoranti) {
+        return SomiglianzaContenuti.calcola(caratteristiche(ristoranti));
+    }
+
+    /** Codifica i ristoranti come al caricamento del catalogo, con cucine e servizi già analizzati. */
+    private static SomiglianzaContenuti.Caratteristiche caratteristiche(List<Ristorante> ristoranti) {
+        TassonomiaCucine tassonomia = new TassonomiaCucine();
+        Map<String, Integer> idServizi = new HashMap<>();
+        for (Ristorante ristorante : ristoranti) {
+            ristorante.setIdCucine(tassonomia.registra(ristorante.getCucina()));
+            ristorante.setBitServizi(SomiglianzaContenuti.bitServizi(ristorante.getServizi(), idServizi));
+        }
+        return SomiglianzaContenuti.codifica(ristoranti, tassonomia.getNumeroCucine());
+    }
+
+    private static List<Ristorante> ristorantiCasuali(Random casuale, int numero, boolean inCitta) {
+        List<Ristorante> ristoranti = new ArrayList<>();
+        for (int i = 0; i < numero; i++) {
+            String cucina = CUCINE[inCitta ? i % 7 : casuale.nextInt(CUCINE.length)]
+                    + (casuale.nextBoolean() ? ", " + CUCINE[casuale.nextInt(CUCINE.length)] : "");
+            String servizi = SERVIZI[casuale.nextInt(SERVIZI.length)] + "," + SERVIZI[casuale.nextInt(SERVIZI.length)];
+            double longitudine = inCitta ? 7 + (i % 40) * 0.25 + casuale.nextGaussian() * 0.02 : 7 + casuale.nextDouble() * 10;
+            double latitudine = inCitta ? 37 + (i % 40) * 0.2 + casuale.nextGaussian() * 0.02 : 37 + casuale.nextDouble() * 9;
+            ristoranti.add(new Ristorante("Ristorante " + i, "", "Località", "€€€€".substring(casuale.nextInt(3)),
+                    cucina, longitudine, latitudine, "", "", "", PREMI[casuale.nextInt(PREMI.length)],
+                    casuale.nextInt(5) == 0 ? "1" : "0", servizi, ""));
+        }
+        return ristoranti;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test di {@link StatisticheCatalogo}: dopo inserimenti e sostituzioni i conteggi usati dal piano di
+ * esecuzione coincidono con quelli calcolati scorrendo i ristoranti presenti.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class StatisticheCatalogoTest {
+
+    private static final String[] LOCALITA = {"Como", "Cernobbio", "Cantù", "Milano", "Monza", "Mantova", "Lecco"};
+    private static final String[] CUCINE = {"Creativa", "Moderna", "Pesce", "Regionale", "Giapponese"};
+    private static final String[] PREMI = {"Selected Restaurants", "Bib Gourmand", "1 Stella", "2 Stelle", "3 Stelle"};
+
+    @Test
+    void conteggiComeLaScansioneDeiRistorantiPresenti() {
+        Random casuale = new Random(79);
+        TassonomiaCucine tassonomia = new TassonomiaCucine();
+        StatisticheCatalogo statistiche = new StatisticheCatalogo();
+        List<Ristorante> presenti = new ArrayList<>();
+        for (int passo = 0; passo < 3000; passo++) {
+            Ristorante nuovo = ristorante(casuale, tassonomia);
+            if (!presenti.isEmpty() && casuale.nextInt(3) == 0) {
+                // Sostituzione di un ristorante esistente, come in indicizzaRistorante
+                Ristorante precedente = presenti.set(casuale.nextInt(presenti.size()), nuovo);
+                statistiche.rimuovi(precedente);
+            } else {
+                presenti.add(nuovo);
+            }
+            statistiche.aggiungi(nuovo);
+            if (passo % 100 == 99) {
+                confronta(statistiche, presenti, tassonomia);
+            }
+        }
+    }
+
+    private static void confronta(StatisticheCatalogo statistiche, List<Ristorante> presenti, TassonomiaCucine tassonomia) {
+        assertEquals(presenti.size(), statistiche.getTotale());
+        for (String prefisso : new String[]{"", "c", "Co", "CANT", "m", "Man", "Lecco", "x"}) {
+            String normalizzato = AnalizzatoreTesto.normalizza(prefisso);
+            assertEquals(presenti.stream().filter(r -> AnalizzatoreTesto.normalizza(r.getLocalita()).startsWith(normalizzato)).count(),
+                    statistiche.contaLocalita(prefisso), prefisso);
+        }
+        for (int id = 0; id < tassonomia.getNumeroCucine(); id++) {
+            int cucina = id;
+            assertEquals(presenti.stream().filter(r -> r.haCucina(cucina)).count(), statistiche.contaCucina(id));
+        }
+        for (String premio : PREMI) {
+            assertEquals(presenti.stream().filter(r -> r.getPremio().equals(premio)).count(),
+                    statistiche.contaPremio(premio.toUpperCase()), premio);
+        }
+        for (int minimo = 1; minimo <= 4; minimo++) {
+            for (int massimo = minimo; massimo <= 4; massimo++) {
+                int da = minimo, a = massimo;
+                assertEquals(presenti.stream().filter(r -> r.getPrezzo().length() >= da && r.getPrezzo().length() <= a).count(),
+                        statistiche.contaPrezzo(minimo, massimo));
+            }
+        }
+        long conStella = presenti.stream().filter(r -> "1".equals(r.getStellaVerde())).count();
+        assertEquals(conStella, statistiche.contaStellaVerde(true));
+        assertEquals(presenti.size() - conStella, statistiche.contaStellaVerde(false));
+    }
+
+    private static Ristorante ristorante(Random casuale, TassonomiaCucine tassonomia) {
+        String cucina = CUCINE[casuale.nextInt(CUCINE.length)]
+                + (casuale.nextBoolean() ? ", " + CUCINE[casuale.nextInt(CUCINE.length)] : "");
+        Ristorante ristorante = new Ristorante("R" + casuale.nextInt(), "", LOCALITA[casuale.nextInt(LOCALITA.length)],
+                "€".repeat(1 + casuale.nextInt(4)), cucina, 9, 45, "", "", "", PREMI[casuale.nextInt(PREMI.length)],
+                casuale.nextInt(4) == 0 ? "1" : "0", "", "");
+        ristorante.setIdCucine(tassonomia.registra(cucina));
+        return ristorante;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link TassonomiaCucine} e dell'indice per cucina del catalogo: il filtro per cucina è esatto
+ * sui valori canonici e non trova una cucina contenuta nel nome di un'altra.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class TassonomiaCucineTest {
+
+    @Test
+    void unaCucinaNonCorrispondeAllInternoDiUnAltra() {
+        TassonomiaCucine tassonomia = new TassonomiaCucine();
+        Ristorante contemporaneo = ristorante("Creativa, Contemporanea Moderna", tassonomia);
+        Ristorante moderno = ristorante("Moderna", tassonomia);
+
+        int moderna = tassonomia.cercaId("Moderna");
+        assertTrue(moderna >= 0);
+        assertFalse(contemporaneo.haCucina(moderna));
+        assertTrue(moderno.haCucina(moderna));
+        assertTrue(contemporaneo.haCucina(tassonomia.cercaId("Contemporanea Moderna")));
+        assertEquals(3, tassonomia.getNumeroCucine());
+    }
+
+    @Test
+    void iSinonimiHannoLoStessoIdentificativo() {
+        TassonomiaCucine tassonomia = new TassonomiaCucine();
+        int[] pesce = tassonomia.registra("Pesce");
+        assertArrayEquals(pesce, tassonomia.registra("Di mare"));
+        assertArrayEquals(pesce, tassonomia.registra("frutti  di MARE"));
+        assertEquals("Frutti di mare", tassonomia.getNome(pesce[0]));
+
+        int regionale = tassonomia.registra("Cucina Regionale")[0];
+        assertEquals(regionale, tassonomia.cercaId("regionale"));
+        assertEquals("Regionale", tassonomia.getNome(regionale));
+        assertEquals(tassonomia.registra("Creativa")[0], tassonomia.cercaId("Moderna Creativa"));
+        assertEquals(tassonomia.registra("Cucina di Stagione")[0], tassonomia.registra("cucina di stagione")[0]);
+        assertEquals(tassonomia.cercaId("Stagionale"), tassonomia.cercaId("Di Stagione"));
+    }
+
+    @Test
+    void registraRestituisceIdentificativiDistintiOrdinati() {
+        TassonomiaCucine tassonomia = new TassonomiaCucine();
+        tassonomia.registra("Giapponese, Creativa");
+        int[] ids = tassonomia.registra("Creativa, Pesce, Giapponese, Di mare, ");
+        assertEquals(3, ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1] < ids[i]);
+        }
+        assertEquals(0, tassonomia.registra("  ").length);
+        assertEquals(0, tassonomia.registra(null).length);
+
+        // cercaId non registra le cucine sconosciute
+        int numero = tassonomia.getNumeroCucine();
+        assertEquals(-1, tassonomia.cercaId("Peruviana"));
+        assertEquals(numero, tassonomia.getNumeroCucine());
+        assertEquals(List.of("Giapponese", "Creativa", "Frutti di mare"), tassonomia.getCucine());
+    }
+
+    @Test
+    void ilCatalogoFiltraPerCucinaCanonica() {
+        GestioneRistorante catalogo = GestioneRistorante.getInstance();
+        catalogo.assicuraDatiCaricati();
+        TassonomiaCucine riferimento = new TassonomiaCucine();
+        for (String cucina : catalogo.getCucine()) {
+            int id = riferimento.registra(cucina)[0];
+            List<String> attesi = new ArrayList<>();
+            for (Ristorante ristorante : catalogo.getTuttiRistoranti()) {
+                for (int altro : riferimento.registra(ristorante.getCucina())) {
+                    if (altro == id) attesi.add(ristorante.getNome());
+                }
+            }
+            List<String> trovati = catalogo.getRistorantiPerCucina(cucina).stream().map(Ristorante::getNome).toList();
+            assertEquals(attesi.stream().sorted().toList(), trovati.stream().sorted().toList(), cucina);
+            assertFalse(trovati.isEmpty(), cucina);
+        }
+    }
+
+    private static Ristorante ristorante(String cucina, TassonomiaCucine tassonomia) {
+        Ristorante ristorante = new Ristorante(cucina, "", "", "€€", cucina, 9, 45, "", "", "", "", "0", "", "");
+        ristorante.setIdCucine(tassonomia.registra(cucina));
+        return ristorante;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.theknife;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test di {@link TriePrefissi}: i suggerimenti vengono confrontati con i valori più frequenti tra tutti
+ * quelli che iniziano con il prefisso.
+ *
+ * @author Samuele Secchi, 761031, Sede CO
+ * @author Flavio Marin, 759910, Sede CO
+ * @author Matilde Lecchi, 759875, Sede CO
+ * @author Davide Caccia, 760742, Sede CO
+ * @version 1.0
+ * @since 2025-05-20
+ */
+class TriePrefissiTest {
+
+    private static final String[] LOCALITA = {
+            "Como", "Cernobbio", "Cantù", "Bellagio", "Bergamo", "Brescia", "Brusaporto", "Milano", "Monza",
+            "Mantova", "Menaggio", "Varese", "Venezia", "Verona", "Vercelli", "Lecco", "Lodi", "Lugano",
+            "Città di Castello", "Cervia", "Cesena", "Cremona", "Crema", "Courmayeur", "Cortina d'Ampezzo"
+    };
+
+    @Test
+    void suggerisciIValoriPiuFrequentiDelPrefisso() {
+        Random casuale = new Random(1);
+        TriePrefissi trie = new TriePrefissi();
+        Map<String, Integer> frequenze = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String localita = LOCALITA[(int) (LOCALITA.length * Math.pow(casuale.nextDouble(), 3))];
+            trie.inserisci(localita);
+            frequenze.merge(localita, 1, Integer::sum);
+        }
+        verificaTuttiIPrefissi(trie, frequenze);
+    }
+
+    @Test
+    void rimuoviAggiornaISuggerimentiDegliAntenati() {
+        Random casuale = new Random(2);
+        TriePrefissi trie = new TriePrefissi();
+        Map<String, Integer> frequenze = new HashMap<>();
+        List<String> inseriti = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String localita = LOCALITA[casuale.nextInt(LOCALITA.length)];
+            trie.inserisci(localita);
+            frequenze.merge(localita, 1, Integer::sum);
+            inseriti.add(localita);
+        }
+        for (int i = 0; i < 4000; i++) {
+            if (i % 3 == 2) {
+                // Dopo le rimozioni le frequenze tornano a crescere sulle liste ricalcolate
+                String localita = LOCALITA[casuale.nextInt(LOCALITA.length)];
+                trie.inserisci(localita);
+                frequenze.merge(localita, 1, Integer::sum);
+            } else {
+                String localita = inseriti.get(casuale.nextInt(inseriti.size()));
+                trie.rimuovi(localita);
+                frequenze.computeIfPresent(localita, (k, f) -> f == 1 ? null : f - 1);
+            }
+            if (i % 100 == 0) {
+                verificaTuttiIPrefissi(trie, frequenze);
+            }
+        }
+        // Rimuovere un valore assente non cambia nulla
+        trie.rimuovi("Palermo");
+        verificaTuttiIPrefissi(trie, frequenze);
+    }
+
+    @Test
+    void ilPrefissoIgnoraMaiuscoleEAccenti() {
+        TriePrefissi trie = new TriePrefissi();
+        trie.inserisci("Cantù");
+        trie.inserisci("Cantù");
+        trie.inserisci("Canzo");
+        assertEquals(List.of("Cantù", "Canzo"), trie.suggerisci("CAN", 10));
+        assertEquals(List.of("Cantù"), trie.suggerisci("cantu", 10));
+        assertEquals(List.of(), trie.suggerisci("Roma", 10));
+    }
+
+    /**
+     * Verifica per ogni prefisso dei valori che i suggerimenti abbiano le stesse frequenze dei migliori
+     * valori calcolati per scansione. A parità di frequenza l'ordine non è specificato, per cui si confrontano
+     * le frequenze e si controlla che ogni suggerimento inizi con il prefisso.
+     */
+    private static void verificaTuttiIPrefissi(TriePrefissi trie, Map<String, Integer> frequenze) {
+        for (String localita : LOCALITA) {
+            String chiave = AnalizzatoreTesto.normalizza(localita);
+            for (int lunghezza = 0; lunghezza <= chiave.length(); lunghezza++) {
+                String prefisso = chiave.substring(0, lunghezza);
+                List<Integer> attese = frequenze.entrySet().stream()
+                        .filter(voce -> AnalizzatoreTesto.normalizza(voce.getKey()).startsWith(prefisso))
+                        .map(Map.Entry::getValue)
+                        .sorted((a, b) -> Integer.compare(b, a))
+                        .limit(TriePrefissi.MAX_SUGGERIMENTI)
+                        .toList();
+                List<String> suggerimenti = trie.suggerisci(prefisso, TriePrefissi.MAX_SUGGERIMENTI);
+                for (String suggerimento : suggerimenti) {
+                    assertTrue(AnalizzatoreTesto.normalizza(suggerimento).startsWith(prefisso), suggerimento + " per '" + prefisso + "'");
+                }
+                assertEquals(attese, suggerimenti.stream().map(frequenze::get).toList(), "frequenze per '" + prefisso + "'");
+            }
+        }
+    }
+}